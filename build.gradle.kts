@@ -57,6 +57,7 @@ dependencies {
 
 tasks.withType<Test> {
     useJUnitPlatform()
+    systemProperty("benchmarks", System.getProperty("benchmarks", "false"))
     finalizedBy(tasks.jacocoTestReport)
 }
 
@@ -11,6 +11,7 @@ import com.example.payments.domain.payments.Money;
 import com.example.payments.domain.shared.CorrelationId;
 import com.example.payments.domain.shared.IdempotencyKey;
 import jakarta.validation.Valid;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -33,24 +34,24 @@ public class PaymentsController {
 
     @PostMapping("/purchase")
     @PreAuthorize("hasAuthority('PAYMENTS_PURCHASE_CREATE')")
-    public ResponseEntity<PaymentResponse> purchase(@Valid @RequestBody PurchaseRequest request) {
-        var order = paymentCommandService.purchase(request.customerId(),
+    public CompletableFuture<ResponseEntity<PaymentResponse>> purchase(@Valid @RequestBody PurchaseRequest request) {
+        return paymentCommandService.purchaseAsync(request.customerId(),
                 new Money(request.amount(), request.currency()), request.paymentNonce(),
                 new IdempotencyKey(request.idempotencyKey()), new CorrelationId(request.correlationId()),
-                request.requestId());
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(toResponse(order));
+                request.requestId())
+                .thenApply(order -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(toResponse(order)));
     }
 
     @PostMapping("/authorize")
     @PreAuthorize("hasAuthority('PAYMENTS_AUTHORIZE_CREATE')")
-    public ResponseEntity<PaymentResponse> authorize(@Valid @RequestBody AuthorizeRequest request) {
-        var order = paymentCommandService.authorize(request.customerId(),
+    public CompletableFuture<ResponseEntity<PaymentResponse>> authorize(@Valid @RequestBody AuthorizeRequest request) {
+        return paymentCommandService.authorizeAsync(request.customerId(),
                 new Money(request.amount(), request.currency()), request.paymentNonce(),
                 new IdempotencyKey(request.idempotencyKey()), new CorrelationId(request.correlationId()),
-                request.requestId());
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(toResponse(order));
+                request.requestId())
+                .thenApply(order -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(toResponse(order)));
     }
 
     @PostMapping("/capture")
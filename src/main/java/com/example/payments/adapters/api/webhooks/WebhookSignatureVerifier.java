@@ -0,0 +1,84 @@
+package com.example.payments.adapters.api.webhooks;
+
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Verifies {@code X-ANET-Signature} headers ({@code sha512=<hex>}) against the raw request bytes.
+ *
+ * <p>Each thread keeps a {@link Mac} already initialised with the signature key and an output buffer, so verifying
+ * a webhook allocates only the decoded header digest. Digests are compared in constant time.</p>
+ */
+@Component
+public class WebhookSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA512";
+    private static final String PREFIX = "sha512=";
+
+    private final AuthorizeNetProperties properties;
+    private final ThreadLocal<Hmac> hmacs = ThreadLocal.withInitial(this::newHmac);
+
+    public WebhookSignatureVerifier(AuthorizeNetProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the header is missing, malformed or does not match {@code body}
+     */
+    public void verify(String signatureHeader, byte[] body) {
+        if (!StringUtils.hasText(signatureHeader)) {
+            throw new IllegalArgumentException("Missing signature header");
+        }
+        if (!signatureHeader.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("Unsupported signature format");
+        }
+        byte[] provided = HexFormat.of().parseHex(signatureHeader, PREFIX.length(), signatureHeader.length());
+        Hmac hmac = hmacs.get();
+        byte[] expected = hmac.compute(body);
+        if (!MessageDigest.isEqual(expected, provided)) {
+            throw new IllegalArgumentException("Invalid webhook signature");
+        }
+    }
+
+    private Hmac newHmac() {
+        try {
+            byte[] keyBytes = HexFormat.of().parseHex(properties.getWebhookSignatureKey());
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(keyBytes, ALGORITHM));
+            return new Hmac(mac);
+        } catch (GeneralSecurityException | IllegalArgumentException ex) {
+            throw new IllegalStateException("Failed to initialise webhook signature key", ex);
+        }
+    }
+
+    private static final class Hmac {
+
+        private final Mac mac;
+        private final byte[] digest;
+
+        private Hmac(Mac mac) {
+            this.mac = mac;
+            this.digest = new byte[mac.getMacLength()];
+        }
+
+        /**
+         * Returns the thread's digest buffer; valid until the next call on the same thread.
+         */
+        private byte[] compute(byte[] body) {
+            try {
+                mac.update(body);
+                mac.doFinal(digest, 0);
+                return digest;
+            } catch (GeneralSecurityException ex) {
+                mac.reset();
+                throw new IllegalStateException("Failed to compute webhook signature", ex);
+            }
+        }
+    }
+}
@@ -1,20 +1,66 @@
 package com.example.payments.adapters.messaging;
 
-import com.example.payments.domain.webhook.WebhookEvent;
 import com.example.payments.infra.messaging.RabbitMqConfig;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
 public class WebhookEventPublisher {
 
+    private static final Logger log = LoggerFactory.getLogger(WebhookEventPublisher.class);
+
     private final RabbitTemplate rabbitTemplate;
 
     public WebhookEventPublisher(RabbitTemplate rabbitTemplate) {
         this.rabbitTemplate = rabbitTemplate;
     }
 
-    public void publish(WebhookEvent event) {
-        rabbitTemplate.convertAndSend(RabbitMqConfig.WEBHOOK_EXCHANGE, RabbitMqConfig.ROUTING_KEY, event.getId());
+    /**
+     * Publishes every id, then waits up to {@code timeout} in total for the broker's confirms. Returns the ids the
+     * broker acknowledged and routed to a queue; the caller should retry the rest.
+     */
+    public Set<UUID> publishConfirmed(Collection<UUID> eventIds, Duration timeout) {
+        Map<UUID, CorrelationData> inFlight = new LinkedHashMap<>();
+        for (UUID eventId : eventIds) {
+            CorrelationData correlation = new CorrelationData(eventId.toString());
+            rabbitTemplate.convertAndSend(RabbitMqConfig.WEBHOOK_EXCHANGE, RabbitMqConfig.ROUTING_KEY,
+                    eventId.toString(), correlation);
+            inFlight.put(eventId, correlation);
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Set<UUID> confirmed = new HashSet<>();
+        for (Map.Entry<UUID, CorrelationData> entry : inFlight.entrySet()) {
+            CorrelationData correlation = entry.getValue();
+            try {
+                CorrelationData.Confirm confirm = correlation.getFuture()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (confirm.isAck() && correlation.getReturned() == null) {
+                    confirmed.add(entry.getKey());
+                } else {
+                    log.warn("Broker did not accept webhook event id={} reason={} returned={}", entry.getKey(),
+                            confirm.getReason(), correlation.getReturned() != null);
+                }
+            } catch (TimeoutException | ExecutionException ex) {
+                log.warn("No broker confirm for webhook event id={} error={}", entry.getKey(), ex.getMessage());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return confirmed;
     }
 }
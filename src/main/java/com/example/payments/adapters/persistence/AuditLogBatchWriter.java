@@ -0,0 +1,39 @@
+package com.example.payments.adapters.persistence;
+
+import com.example.payments.domain.shared.AuditLog;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Inserts audit rows with a single JDBC batch. Runs on the caller's transactional connection, so the rows commit
+ * or roll back with the business change they describe. Unlike {@code AuditLogRepository.save}, an assigned id does
+ * not trigger a select-before-insert merge.
+ */
+@Repository
+public class AuditLogBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO audit_logs "
+            + "(id, actor, operation, resource_type, resource_id, metadata, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<AuditLog> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setObject(1, entry.getId());
+            ps.setString(2, entry.getActor());
+            ps.setString(3, entry.getOperation());
+            ps.setString(4, entry.getResourceType());
+            ps.setObject(5, entry.getResourceId());
+            ps.setString(6, entry.getMetadata());
+            ps.setObject(7, entry.getCreatedAt());
+        });
+    }
+}
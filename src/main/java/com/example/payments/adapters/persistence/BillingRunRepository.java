@@ -0,0 +1,14 @@
+package com.example.payments.adapters.persistence;
+
+import com.example.payments.domain.billing.BillingRun;
+import com.example.payments.domain.billing.BillingRun.Status;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BillingRunRepository extends JpaRepository<BillingRun, UUID> {
+
+    Optional<BillingRun> findFirstByShardAndStatusOrderByStartedAtAsc(int shard, Status status);
+}
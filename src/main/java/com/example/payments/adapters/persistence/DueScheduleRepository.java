@@ -0,0 +1,95 @@
+package com.example.payments.adapters.persistence;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The scan that drives billing runs: pending schedules due by a threshold whose subscription is active or delinquent,
+ * itself due and in the run's shard, in {@code (scheduled_at, id)} order. Runs read it a chunk at a time from their
+ * checkpoint, so memory use does not grow with the number of due schedules and no read stays open while billing.
+ */
+@Repository
+public class DueScheduleRepository {
+
+    private static final String DUE_SQL = "SELECT sch.id, sch.subscription_id, sch.scheduled_at "
+            + "FROM subscription_schedules sch JOIN subscriptions s ON s.id = sch.subscription_id "
+            + "WHERE sch.status = 'PENDING' AND sch.scheduled_at <= ? "
+            + "AND s.status IN ('ACTIVE', 'DELINQUENT') AND s.next_billing_at <= ? AND MOD(s.billing_bucket, ?) = ? ";
+
+    private static final String ORDER = "ORDER BY sch.scheduled_at, sch.id";
+
+    private static final String UPCOMING_SQL = "SELECT sch.id, sch.subscription_id, sch.scheduled_at "
+            + "FROM subscription_schedules sch JOIN subscriptions s ON s.id = sch.subscription_id "
+            + "WHERE sch.status = 'PENDING' AND sch.scheduled_at <= ? AND s.status IN ('ACTIVE', 'DELINQUENT') "
+            + "AND MOD(s.billing_bucket, ?) IN (%s) ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DueScheduleRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Loads up to {@code limit} due schedules of shard {@code shard} out of {@code shardCount} after the position
+     * {@code (afterScheduledAt, afterId)}; a {@code null} position starts from the beginning. Each call is one short
+     * keyset query, so no cursor or snapshot outlives it.
+     */
+    public List<DueSchedule> findDue(int shard, int shardCount, OffsetDateTime threshold,
+            OffsetDateTime afterScheduledAt, UUID afterId, int limit) {
+        boolean resume = afterScheduledAt != null && afterId != null;
+        String sql = DUE_SQL + (resume ? "AND (sch.scheduled_at, sch.id) > (?, ?) " : "") + ORDER + " LIMIT ?";
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            int index = 1;
+            statement.setObject(index++, threshold);
+            statement.setObject(index++, threshold);
+            statement.setInt(index++, shardCount);
+            statement.setInt(index++, shard);
+            if (resume) {
+                statement.setObject(index++, afterScheduledAt);
+                statement.setObject(index++, afterId);
+            }
+            statement.setInt(index, limit);
+            return statement;
+        }, (resultSet, rowNum) -> new DueSchedule(resultSet.getObject(1, UUID.class),
+                resultSet.getObject(2, UUID.class), resultSet.getObject(3, OffsetDateTime.class)));
+    }
+
+    /**
+     * Loads up to {@code limit} pending schedules of the given shards due after the position
+     * {@code (afterScheduledAt, afterId)} and by {@code until}, in {@code (scheduled_at, id)} order; a {@code null}
+     * {@code afterId} takes every schedule due after {@code afterScheduledAt}. Unlike {@link #findDue} it does not
+     * check the subscription's next billing time, which is only known to be due once the schedule is.
+     */
+    public List<DueSchedule> findUpcoming(Collection<Integer> shards, int shardCount, OffsetDateTime afterScheduledAt,
+            UUID afterId, OffsetDateTime until, int limit) {
+        String sql = UPCOMING_SQL.formatted(String.join(", ", Collections.nCopies(shards.size(), "?")))
+                + (afterId != null ? "AND (sch.scheduled_at, sch.id) > (?, ?) " : "AND sch.scheduled_at > ? ")
+                + ORDER + " LIMIT ?";
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            int index = 1;
+            statement.setObject(index++, until);
+            statement.setInt(index++, shardCount);
+            for (Integer shard : shards) {
+                statement.setInt(index++, shard);
+            }
+            statement.setObject(index++, afterScheduledAt);
+            if (afterId != null) {
+                statement.setObject(index++, afterId);
+            }
+            statement.setInt(index, limit);
+            return statement;
+        }, (resultSet, rowNum) -> new DueSchedule(resultSet.getObject(1, UUID.class),
+                resultSet.getObject(2, UUID.class), resultSet.getObject(3, OffsetDateTime.class)));
+    }
+
+    public record DueSchedule(UUID scheduleId, UUID subscriptionId, OffsetDateTime scheduledAt) {
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.payments.adapters.persistence;
 
 import com.example.payments.domain.payments.PaymentOrder;
+import com.example.payments.domain.payments.PaymentOrderStatus;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -14,4 +18,28 @@ public interface PaymentOrderRepository extends JpaRepository<PaymentOrder, UUID
     Optional<PaymentOrder> findByRequestId(String requestId);
 
     List<PaymentOrder> findByCreatedAtBetween(OffsetDateTime start, OffsetDateTime end);
+
+    /**
+     * Request ids of the orders created after the position {@code (afterCreatedAt, afterId)}, in that order, so a
+     * scan reads each page from the last row of the previous one over the {@code (created_at, id)} index.
+     */
+    @Query("select o.requestId as requestId, o.createdAt as createdAt, o.id as id from PaymentOrder o "
+            + "where o.createdAt >= :afterCreatedAt and (o.createdAt > :afterCreatedAt or o.id > :afterId) "
+            + "order by o.createdAt, o.id")
+    List<RequestIdKey> findRequestIdsCreatedAfter(@Param("afterCreatedAt") OffsetDateTime afterCreatedAt,
+            @Param("afterId") UUID afterId, Pageable pageable);
+
+    List<PaymentOrder> findByStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(PaymentOrderStatus status,
+            OffsetDateTime threshold, Pageable pageable);
+
+    List<PaymentOrder> findByStatusAndIdBetween(PaymentOrderStatus status, UUID from, UUID to);
+
+    interface RequestIdKey {
+
+        String getRequestId();
+
+        OffsetDateTime getCreatedAt();
+
+        UUID getId();
+    }
 }
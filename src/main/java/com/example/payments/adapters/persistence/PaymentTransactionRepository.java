@@ -14,4 +14,7 @@ public interface PaymentTransactionRepository extends JpaRepository<PaymentTrans
     List<PaymentTransaction> findByOrderId(UUID orderId);
 
     Optional<PaymentTransaction> findFirstByOrderIdAndTypeOrderByProcessedAtDesc(UUID orderId, PaymentTransactionType type);
+
+    Optional<PaymentTransaction> findFirstByAuthorizeNetTransactionIdOrderByProcessedAtDesc(
+            String authorizeNetTransactionId);
 }
@@ -0,0 +1,45 @@
+package com.example.payments.adapters.persistence;
+
+import java.time.OffsetDateTime;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Named leases in {@code scheduler_leases}. Acquiring and renewing are the same upsert: it succeeds when the lease
+ * is free, expired, or already held by the caller, so a single statement decides leadership without a prior read.
+ */
+@Repository
+public class SchedulerLeaseRepository {
+
+    private static final String ACQUIRE_SQL = "INSERT INTO scheduler_leases (name, owner, expires_at) VALUES (?, ?, ?) "
+            + "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at "
+            + "WHERE scheduler_leases.owner = EXCLUDED.owner OR scheduler_leases.expires_at <= ?";
+
+    private static final String RELEASE_SQL = "UPDATE scheduler_leases SET expires_at = ? WHERE name = ? AND owner = ?";
+
+    private static final String COUNT_LIVE_SQL = "SELECT COUNT(*) FROM scheduler_leases WHERE name LIKE ? "
+            + "AND expires_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchedulerLeaseRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean tryAcquire(String name, String owner, OffsetDateTime now, OffsetDateTime expiresAt) {
+        return jdbcTemplate.update(ACQUIRE_SQL, name, owner, expiresAt, now) == 1;
+    }
+
+    public void release(String name, String owner, OffsetDateTime now) {
+        jdbcTemplate.update(RELEASE_SQL, now, name, owner);
+    }
+
+    /**
+     * Number of unexpired leases whose name starts with {@code prefix}. The prefix must not contain {@code %} or
+     * {@code _}.
+     */
+    public int countLive(String prefix, OffsetDateTime now) {
+        Integer count = jdbcTemplate.queryForObject(COUNT_LIVE_SQL, Integer.class, prefix + "%", now);
+        return count == null ? 0 : count;
+    }
+}
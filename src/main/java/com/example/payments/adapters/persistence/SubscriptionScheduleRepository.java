@@ -2,11 +2,15 @@ package com.example.payments.adapters.persistence;
 
 import com.example.payments.domain.billing.SubscriptionSchedule;
 import com.example.payments.domain.billing.SubscriptionSchedule.ScheduleStatus;
+import jakarta.persistence.LockModeType;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -20,4 +24,12 @@ public interface SubscriptionScheduleRepository extends JpaRepository<Subscripti
             ScheduleStatus status);
 
     List<SubscriptionSchedule> findBySubscriptionIdOrderByScheduledAtAsc(UUID subscriptionId);
+
+    /**
+     * Loads a schedule with its subscription and locks both rows, so two billers that reach the same schedule
+     * (e.g. around a shard changing hands) charge it once: the second sees it no longer pending.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select sch from SubscriptionSchedule sch join fetch sch.subscription where sch.id = :id")
+    Optional<SubscriptionSchedule> findWithSubscriptionById(@Param("id") UUID id);
 }
@@ -0,0 +1,53 @@
+package com.example.payments.adapters.persistence;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Aggregate reads behind the webhook backlog gauges. Both statements are a single pass over an index: the status
+ * summary is bounded by {@code received_at}, so it stays on the partitions in the active window.
+ */
+@Repository
+public class WebhookBacklogRepository {
+
+    private static final String STATUS_SQL = "SELECT processed_status, COUNT(*), MIN(received_at), "
+            + "MIN(processed_at) FROM webhook_events WHERE received_at >= ? GROUP BY processed_status";
+
+    private static final String OUTBOX_SQL = "SELECT COUNT(*), MIN(created_at) FROM webhook_outbox";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WebhookBacklogRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * One row per status present among events received since {@code receivedFrom}.
+     */
+    public List<StatusSummary> summarizeByStatus(OffsetDateTime receivedFrom) {
+        return jdbcTemplate.query(STATUS_SQL, (resultSet, rowNum) -> new StatusSummary(resultSet.getString(1),
+                resultSet.getLong(2), resultSet.getObject(3, OffsetDateTime.class),
+                resultSet.getObject(4, OffsetDateTime.class)), receivedFrom);
+    }
+
+    public OutboxSummary summarizeOutbox() {
+        return jdbcTemplate.queryForObject(OUTBOX_SQL, (resultSet, rowNum) -> new OutboxSummary(resultSet.getLong(1),
+                resultSet.getObject(2, OffsetDateTime.class)));
+    }
+
+    /**
+     * @param oldestReceivedAt  earliest {@code received_at} among the events in this status
+     * @param oldestProcessedAt earliest {@code processed_at}; for {@code PROCESSING} events that is the oldest claim
+     */
+    public record StatusSummary(String status, long count, OffsetDateTime oldestReceivedAt,
+            OffsetDateTime oldestProcessedAt) {
+    }
+
+    /**
+     * @param oldestCreatedAt {@code null} when the outbox is empty
+     */
+    public record OutboxSummary(long count, OffsetDateTime oldestCreatedAt) {
+    }
+}
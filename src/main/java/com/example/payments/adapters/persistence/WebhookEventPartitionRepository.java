@@ -0,0 +1,104 @@
+package com.example.payments.adapters.persistence;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Maintenance of the daily {@code webhook_events} partitions. Partition names are derived from their day, never taken
+ * from input, so they are safe to splice into DDL.
+ */
+@Repository
+public class WebhookEventPartitionRepository {
+
+    private static final String PREFIX = "webhook_events_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PREFIX + "(\\d{8})");
+
+    private static final String ATTACHED_SQL = "SELECT c.relname FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'webhook_events'::regclass";
+
+    private static final String FAIL_UNFINISHED_SQL = "UPDATE webhook_events SET processed_status = 'FAILED', "
+            + "processed_at = ?, failure_reason = ?, version = version + 1 "
+            + "WHERE processed_status IN ('PENDING', 'PROCESSING') AND received_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WebhookEventPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void create(LocalDate day) {
+        jdbcTemplate.queryForObject("SELECT create_webhook_events_partition(?)", String.class, day);
+    }
+
+    /**
+     * Days of the daily partitions currently attached, oldest first. The default partition is not included.
+     */
+    public List<LocalDate> attachedDays() {
+        return jdbcTemplate.queryForList(ATTACHED_SQL, String.class).stream()
+                .map(PARTITION_NAME::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> LocalDate.parse(matcher.group(1), DateTimeFormatter.BASIC_ISO_DATE))
+                .sorted()
+                .toList();
+    }
+
+    public int failUnfinishedReceivedBefore(OffsetDateTime cutoff, String reason, OffsetDateTime now) {
+        return jdbcTemplate.update(FAIL_UNFINISHED_SQL, now, reason, cutoff);
+    }
+
+    public boolean hasUnfinished(LocalDate day) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + name(day)
+                + " WHERE processed_status IN ('PENDING', 'PROCESSING'))", Boolean.class));
+    }
+
+    /**
+     * Streams every row of the day's partition to {@code sink} as column name to value, with timestamps as
+     * {@link java.time.Instant}s. Rows are fetched {@code fetchSize} at a time, which the driver only honours inside a
+     * transaction.
+     */
+    public void forEachRow(LocalDate day, int fetchSize, Consumer<Map<String, Object>> sink) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + name(day));
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, resultSet -> {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                Object value = resultSet.getObject(column);
+                row.put(metaData.getColumnLabel(column), value instanceof Timestamp timestamp
+                        ? timestamp.toInstant() : value);
+            }
+            sink.accept(row);
+        });
+    }
+
+    /**
+     * Detaches and drops the day's partition, and forgets the dedupe keys of the events it held.
+     */
+    public void detachAndDrop(LocalDate day) {
+        String name = name(day);
+        jdbcTemplate.execute("ALTER TABLE webhook_events DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+        jdbcTemplate.update("DELETE FROM webhook_event_keys WHERE received_at < ?",
+                day.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC));
+    }
+
+    public static String name(LocalDate day) {
+        return PREFIX + Objects.requireNonNull(day, "day").format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
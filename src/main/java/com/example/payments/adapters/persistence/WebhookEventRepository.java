@@ -3,10 +3,14 @@ package com.example.payments.adapters.persistence;
 import com.example.payments.domain.webhook.WebhookEvent;
 import com.example.payments.domain.webhook.WebhookEvent.ProcessedStatus;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -14,9 +18,91 @@ public interface WebhookEventRepository extends JpaRepository<WebhookEvent, UUID
 
     Optional<WebhookEvent> findByEventId(String eventId);
 
-    Optional<WebhookEvent> findFirstByProcessedStatusOrderByReceivedAtAsc(ProcessedStatus status);
+    /**
+     * Inserts a new event unless one with the same {@code event_id} or {@code dedupe_hash} already exists. Returns
+     * {@code 0} for a duplicate, so redeliveries cost one statement and no prior lookup. Uniqueness is enforced by
+     * {@code webhook_event_keys}, since the partitioned {@code webhook_events} can only be unique per partition.
+     */
+    @Modifying
+    @Query(value = "WITH key AS (INSERT INTO webhook_event_keys (event_id, dedupe_hash, webhook_event_id, received_at) "
+            + "VALUES (:#{#event.eventId}, :#{#event.dedupeHash}, :#{#event.id}, :#{#event.receivedAt}) "
+            + "ON CONFLICT DO NOTHING RETURNING webhook_event_id) "
+            + "INSERT INTO webhook_events (id, event_id, event_type, payload, signature, received_at, "
+            + "processed_status, dedupe_hash, attempts, created_at, updated_at, version) SELECT key.webhook_event_id, "
+            + ":#{#event.eventId}, :#{#event.eventType}, "
+            + ":#{T(com.example.payments.domain.shared.CompressedTextConverter).encode(#event.payload)}, "
+            + ":#{#event.signature}, :#{#event.receivedAt}, :#{#event.processedStatus.name()}, "
+            + ":#{#event.dedupeHash}, 0, "
+            + ":#{#event.receivedAt}, :#{#event.receivedAt}, 0 FROM key", nativeQuery = true)
+    int insertIfAbsent(@Param("event") WebhookEvent event);
 
-    long countByProcessedStatusAndReceivedAtBefore(ProcessedStatus status, OffsetDateTime threshold);
+    /**
+     * Claims up to {@code limit} of the oldest pending events and marks them {@code PROCESSING} in one statement.
+     * {@code SKIP LOCKED} lets concurrent callers on other nodes claim disjoint batches instead of waiting on each
+     * other's row locks. Requeued events are skipped until their backoff has elapsed. Only events received since
+     * {@code activeFrom} are considered, which keeps the statement on the current partitions. Must run inside a
+     * transaction.
+     */
+    @Query(value = "UPDATE webhook_events SET processed_status = 'PROCESSING', processed_at = :now, "
+            + "version = version + 1 WHERE received_at >= :activeFrom AND (id, received_at) IN (SELECT id, received_at "
+            + "FROM webhook_events WHERE processed_status = 'PENDING' AND received_at >= :activeFrom "
+            + "AND (next_attempt_at IS NULL OR next_attempt_at <= :now) "
+            + "ORDER BY received_at LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<WebhookEvent> claimPendingBatch(@Param("now") OffsetDateTime now,
+            @Param("activeFrom") OffsetDateTime activeFrom, @Param("limit") int limit);
 
-    List<WebhookEvent> findByProcessedStatusAndProcessedAtBefore(ProcessedStatus status, OffsetDateTime threshold);
+    /**
+     * Claims the given events for a queue consumer: pending ones that are not backing off, and processing ones whose
+     * claim predates {@code staleBefore}. Events that are completed, failed, backing off or freshly claimed elsewhere
+     * are left out of the result, as are events received before {@code activeFrom}.
+     */
+    @Query(value = "UPDATE webhook_events SET processed_status = 'PROCESSING', processed_at = :now, "
+            + "version = version + 1 WHERE id IN (:ids) AND received_at >= :activeFrom "
+            + "AND ((processed_status = 'PENDING' AND (next_attempt_at IS NULL OR next_attempt_at <= :now)) "
+            + "OR (processed_status = 'PROCESSING' AND processed_at < :staleBefore)) RETURNING *", nativeQuery = true)
+    List<WebhookEvent> claimByIds(@Param("ids") Collection<UUID> ids, @Param("now") OffsetDateTime now,
+            @Param("staleBefore") OffsetDateTime staleBefore, @Param("activeFrom") OffsetDateTime activeFrom);
+
+    /**
+     * Sets the status of the given events. {@code receivedFrom} must not be later than the earliest of their
+     * {@code receivedAt}s; it lets the update skip partitions none of them can be in.
+     */
+    @Modifying
+    @Query("update WebhookEvent e set e.processedStatus = :status, e.processedAt = :processedAt, "
+            + "e.failureReason = null, e.version = e.version + 1 where e.id in :ids and e.receivedAt >= :receivedFrom")
+    int updateStatus(@Param("ids") Collection<UUID> ids, @Param("receivedFrom") OffsetDateTime receivedFrom,
+            @Param("status") ProcessedStatus status, @Param("processedAt") OffsetDateTime processedAt);
+
+    /**
+     * Records the outcome of one event. Addressing it by {@code receivedAt} as well as id confines the update to the
+     * event's own partition.
+     */
+    @Modifying
+    @Query("update WebhookEvent e set e.processedStatus = :status, e.processedAt = :processedAt, "
+            + "e.failureReason = :reason, e.version = e.version + 1 where e.id = :id and e.receivedAt = :receivedAt")
+    int updateOutcome(@Param("id") UUID id, @Param("receivedAt") OffsetDateTime receivedAt,
+            @Param("status") ProcessedStatus status, @Param("reason") String reason,
+            @Param("processedAt") OffsetDateTime processedAt);
+
+    /**
+     * Returns the next page of up to {@code limit} events, in id order after {@code after}, whose claim predates
+     * {@code staleBefore}. Each one's attempt count goes up by one: below {@code maxAttempts} it is put back to
+     * {@code PENDING} with {@code next_attempt_at} pushed out by {@code initialBackoffMillis * 2^attempts} (capped at
+     * {@code maxBackoffMillis}); at {@code maxAttempts} it becomes {@code FAILED}. Rows locked by a concurrent claim
+     * are skipped, and so are events received before {@code activeFrom}. Must run inside a transaction.
+     */
+    @Query(value = "UPDATE webhook_events SET attempts = attempts + 1, version = version + 1, "
+            + "processed_status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END, "
+            + "processed_at = CASE WHEN attempts + 1 >= :maxAttempts THEN :now END, "
+            + "failure_reason = CASE WHEN attempts + 1 >= :maxAttempts THEN :exhaustedReason ELSE failure_reason END, "
+            + "next_attempt_at = CASE WHEN attempts + 1 >= :maxAttempts THEN NULL ELSE :now + INTERVAL '1 millisecond' "
+            + "* LEAST(:initialBackoffMillis * POWER(2, attempts), :maxBackoffMillis) END "
+            + "WHERE received_at >= :activeFrom AND (id, received_at) IN (SELECT id, received_at FROM webhook_events "
+            + "WHERE processed_status = 'PROCESSING' AND received_at >= :activeFrom AND processed_at < :staleBefore "
+            + "AND id > :after ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<WebhookEvent> requeueStalePage(@Param("after") UUID after, @Param("staleBefore") OffsetDateTime staleBefore,
+            @Param("activeFrom") OffsetDateTime activeFrom, @Param("now") OffsetDateTime now, @Param("limit") int limit,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("initialBackoffMillis") long initialBackoffMillis, @Param("maxBackoffMillis") long maxBackoffMillis,
+            @Param("exhaustedReason") String exhaustedReason);
 }
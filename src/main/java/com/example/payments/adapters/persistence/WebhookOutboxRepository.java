@@ -0,0 +1,31 @@
+package com.example.payments.adapters.persistence;
+
+import com.example.payments.domain.webhook.WebhookOutboxMessage;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WebhookOutboxRepository extends JpaRepository<WebhookOutboxMessage, UUID> {
+
+    /**
+     * Leases up to {@code limit} of the oldest available messages until {@code leaseUntil}. {@code SKIP LOCKED}
+     * keeps concurrent relays on disjoint rows; a message whose relay dies becomes available again when the lease
+     * runs out. Must run inside a transaction.
+     */
+    @Query(value = "UPDATE webhook_outbox SET available_at = :leaseUntil, attempts = attempts + 1 "
+            + "WHERE id IN (SELECT id FROM webhook_outbox WHERE available_at <= :now "
+            + "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<WebhookOutboxMessage> claimBatch(@Param("now") OffsetDateTime now,
+            @Param("leaseUntil") OffsetDateTime leaseUntil, @Param("limit") int limit);
+
+    @Modifying
+    @Query("delete from WebhookOutboxMessage m where m.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<UUID> ids);
+}
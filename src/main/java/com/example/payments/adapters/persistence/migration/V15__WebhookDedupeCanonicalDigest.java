@@ -0,0 +1,97 @@
+package com.example.payments.adapters.persistence.migration;
+
+import com.example.payments.application.services.WebhookDeduplicator;
+import com.example.payments.domain.shared.CompressedTextConverter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-digests the webhook events recorded before V6 with {@link WebhookDeduplicator#digest}. V6 backfilled them with
+ * the SHA-256 of the raw payload text, which a redelivery differing only in key order or whitespace does not match.
+ *
+ * <p>Rows whose stored digest already matches are left alone. Once re-digested, legacy events whose payloads were the
+ * same content keep only the dedupe key of the first one received, so the unique index on
+ * {@code webhook_event_keys.dedupe_hash} can be rebuilt; the events themselves are kept. Runs as a Spring bean so the
+ * digest is computed by the same deduplicator as incoming webhooks.</p>
+ */
+@Component
+public class V15__WebhookDedupeCanonicalDigest extends BaseJavaMigration {
+
+    private static final String SELECT_SQL = "SELECT id, received_at, payload, dedupe_hash FROM webhook_events";
+    private static final String UPDATE_EVENT_SQL = "UPDATE webhook_events SET dedupe_hash = ? "
+            + "WHERE id = ? AND received_at = ?";
+    private static final String UPDATE_KEY_SQL = "UPDATE webhook_event_keys SET dedupe_hash = ? "
+            + "WHERE webhook_event_id = ?";
+    private static final String DELETE_DUPLICATE_KEYS_SQL = "DELETE FROM webhook_event_keys k "
+            + "USING webhook_event_keys first WHERE k.dedupe_hash = first.dedupe_hash "
+            + "AND (k.received_at, k.event_id) > (first.received_at, first.event_id)";
+    private static final int FETCH_SIZE = 1_000;
+
+    private final WebhookDeduplicator deduplicator;
+
+    public V15__WebhookDedupeCanonicalDigest(WebhookDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        List<Redigested> changed = findChanged(connection);
+        if (changed.isEmpty()) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP INDEX IF EXISTS ux_webhook_event_keys_dedupe_hash");
+        }
+        try (PreparedStatement events = connection.prepareStatement(UPDATE_EVENT_SQL);
+                PreparedStatement keys = connection.prepareStatement(UPDATE_KEY_SQL)) {
+            for (Redigested row : changed) {
+                events.setString(1, row.dedupeHash());
+                events.setObject(2, row.id());
+                events.setObject(3, row.receivedAt());
+                events.addBatch();
+                keys.setString(1, row.dedupeHash());
+                keys.setObject(2, row.id());
+                keys.addBatch();
+            }
+            events.executeBatch();
+            keys.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(DELETE_DUPLICATE_KEYS_SQL);
+            statement.execute("CREATE UNIQUE INDEX ux_webhook_event_keys_dedupe_hash "
+                    + "ON webhook_event_keys (dedupe_hash)");
+        }
+    }
+
+    private List<Redigested> findChanged(Connection connection) throws Exception {
+        List<Redigested> changed = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement(SELECT_SQL)) {
+            select.setFetchSize(FETCH_SIZE);
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    String payload = CompressedTextConverter.decode(rows.getBytes("payload"));
+                    String dedupeHash = deduplicator.digest(payload.getBytes(StandardCharsets.UTF_8));
+                    if (!dedupeHash.equals(rows.getString("dedupe_hash"))) {
+                        changed.add(new Redigested(rows.getObject("id", UUID.class),
+                                rows.getObject("received_at", OffsetDateTime.class), dedupeHash));
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private record Redigested(UUID id, OffsetDateTime receivedAt, String dedupeHash) {
+    }
+}
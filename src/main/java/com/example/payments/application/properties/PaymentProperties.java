@@ -0,0 +1,227 @@
+package com.example.payments.application.properties;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "payments")
+public class PaymentProperties {
+
+    /**
+     * How gateway calls relate to database transactions. {@code STAGED} persists a pending order, calls
+     * Authorize.Net with no connection held and finalizes in a second transaction; {@code INLINE} keeps the
+     * legacy single transaction around the whole operation so both can be compared under load.
+     */
+    private GatewayCallMode gatewayCallMode = GatewayCallMode.STAGED;
+
+    private final Recovery recovery = new Recovery();
+
+    private final Idempotency idempotency = new Idempotency();
+
+    private final RequestIdFilter requestIdFilter = new RequestIdFilter();
+
+    private final Audit audit = new Audit();
+
+    public GatewayCallMode getGatewayCallMode() {
+        return gatewayCallMode;
+    }
+
+    public void setGatewayCallMode(GatewayCallMode gatewayCallMode) {
+        this.gatewayCallMode = gatewayCallMode;
+    }
+
+    public Recovery getRecovery() {
+        return recovery;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public RequestIdFilter getRequestIdFilter() {
+        return requestIdFilter;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public enum GatewayCallMode {
+        INLINE,
+        STAGED
+    }
+
+    public static class Recovery {
+
+        private Duration pendingTimeout = Duration.ofMinutes(10);
+        private long fixedDelayMillis = 60000;
+        private int batchSize = 100;
+
+        public Duration getPendingTimeout() {
+            return pendingTimeout;
+        }
+
+        public void setPendingTimeout(Duration pendingTimeout) {
+            this.pendingTimeout = pendingTimeout;
+        }
+
+        public long getFixedDelayMillis() {
+            return fixedDelayMillis;
+        }
+
+        public void setFixedDelayMillis(long fixedDelayMillis) {
+            this.fixedDelayMillis = fixedDelayMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * Response replay for mutating API calls. Responses live in a bounded in-process LRU and, when
+     * {@code redisEnabled}, in Redis so every node can replay them; {@code inFlightWait} bounds how long a
+     * concurrent duplicate waits for the original request to finish.
+     */
+    public static class Idempotency {
+
+        private boolean enabled = true;
+        private int localMaxEntries = 10_000;
+        private Duration ttl = Duration.ofHours(24);
+        private Duration inFlightWait = Duration.ofSeconds(30);
+        private boolean redisEnabled = true;
+        private String redisKeyPrefix = "payments:idempotency:";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getLocalMaxEntries() {
+            return localMaxEntries;
+        }
+
+        public void setLocalMaxEntries(int localMaxEntries) {
+            this.localMaxEntries = localMaxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getInFlightWait() {
+            return inFlightWait;
+        }
+
+        public void setInFlightWait(Duration inFlightWait) {
+            this.inFlightWait = inFlightWait;
+        }
+
+        public boolean isRedisEnabled() {
+            return redisEnabled;
+        }
+
+        public void setRedisEnabled(boolean redisEnabled) {
+            this.redisEnabled = redisEnabled;
+        }
+
+        public String getRedisKeyPrefix() {
+            return redisKeyPrefix;
+        }
+
+        public void setRedisKeyPrefix(String redisKeyPrefix) {
+            this.redisKeyPrefix = redisKeyPrefix;
+        }
+    }
+
+    /**
+     * Rotating Bloom filter that lets new requestIds skip the duplicate lookup. {@code generations} windows of
+     * {@code window} each are kept, so ids are remembered for {@code generations * window}; each generation is
+     * sized for {@code expectedInsertionsPerWindow} at {@code falsePositiveRate}.
+     */
+    public static class RequestIdFilter {
+
+        private boolean enabled = true;
+        private long expectedInsertionsPerWindow = 1_000_000;
+        private double falsePositiveRate = 0.01;
+        private Duration window = Duration.ofHours(6);
+        private int generations = 4;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getExpectedInsertionsPerWindow() {
+            return expectedInsertionsPerWindow;
+        }
+
+        public void setExpectedInsertionsPerWindow(long expectedInsertionsPerWindow) {
+            this.expectedInsertionsPerWindow = expectedInsertionsPerWindow;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getGenerations() {
+            return generations;
+        }
+
+        public void setGenerations(int generations) {
+            this.generations = generations;
+        }
+    }
+
+    /**
+     * Transaction-scoped audit staging. Entries are written in JDBC batches of up to {@code batchSize} when the
+     * owning transaction commits; once {@code maxStaged} entries are waiting across all transactions, new entries
+     * force an early flush of their own transaction's buffer.
+     */
+    public static class Audit {
+
+        private int batchSize = 100;
+        private int maxStaged = 10_000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxStaged() {
+            return maxStaged;
+        }
+
+        public void setMaxStaged(int maxStaged) {
+            this.maxStaged = maxStaged;
+        }
+    }
+}
@@ -1,20 +1,44 @@
 package com.example.payments.application.properties;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "subscription")
 public class SubscriptionProperties {
 
     private final Retry retry = new Retry();
+    private final Billing billing = new Billing();
+    private final Wheel wheel = new Wheel();
+    private final Shaping shaping = new Shaping();
 
     public Retry getRetry() {
         return retry;
     }
 
+    public Billing getBilling() {
+        return billing;
+    }
+
+    public Wheel getWheel() {
+        return wheel;
+    }
+
+    public Shaping getShaping() {
+        return shaping;
+    }
+
+    /**
+     * Dunning retries. A retry falls due {@code spread} after its nominal 1, 3 or 7 days at most: each subscription
+     * keeps its own slot among {@code spreadSlots} equal slots of the spread, and lands at a random point in it.
+     */
     public static class Retry {
 
         private String scheduleCron = "0 */5 * * * *";
         private int autoCancelDays = 30;
+        private Duration spread = Duration.ofHours(4);
+        private int spreadSlots = 48;
 
         public String getScheduleCron() {
             return scheduleCron;
@@ -31,5 +55,218 @@ public class SubscriptionProperties {
         public void setAutoCancelDays(int autoCancelDays) {
             this.autoCancelDays = autoCancelDays;
         }
+
+        public Duration getSpread() {
+            return spread;
+        }
+
+        public void setSpread(Duration spread) {
+            this.spread = spread;
+        }
+
+        public int getSpreadSlots() {
+            return spreadSlots;
+        }
+
+        public void setSpreadSlots(int spreadSlots) {
+            this.spreadSlots = spreadSlots;
+        }
+    }
+
+    /**
+     * Billing runs. Subscriptions are split into {@code shards} shards, each billed by whichever node holds its lease
+     * (valid for {@code lease}). Every {@code heartbeatMillis} a node renews its leases and claims or gives up shards
+     * to hold its fair share among the live nodes; it bills up to {@code workerThreads} of its shards at once. Due
+     * schedules are read {@code chunkSize} at a time and billed each in its own transaction, with the run's
+     * checkpoint saved after every chunk.
+     */
+    public static class Billing {
+
+        private int shards = 16;
+        private int workerThreads = 4;
+        private long heartbeatMillis = 10_000;
+        private int chunkSize = 100;
+        private Duration lease = Duration.ofMinutes(2);
+
+        public int getShards() {
+            return shards;
+        }
+
+        public void setShards(int shards) {
+            this.shards = shards;
+        }
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public long getHeartbeatMillis() {
+            return heartbeatMillis;
+        }
+
+        public void setHeartbeatMillis(long heartbeatMillis) {
+            this.heartbeatMillis = heartbeatMillis;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+    }
+
+    /**
+     * Near-term billing. Each node keeps the pending schedules of its shards due within {@code horizon} in a timing
+     * wheel of {@code wheelSize} buckets of {@code tickMillis}, loads further schedules every {@code refillMillis}
+     * (which must be well below {@code horizon}) and bills them when due on up to {@code workerThreads} threads. At
+     * most {@code maxEntries} schedules are held; the rest, and anything the wheel misses, are left to billing runs.
+     */
+    public static class Wheel {
+
+        private boolean enabled = true;
+        private long tickMillis = 1_000;
+        private int wheelSize = 64;
+        private Duration horizon = Duration.ofMinutes(10);
+        private long refillMillis = 30_000;
+        private int maxEntries = 50_000;
+        private int workerThreads = 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTickMillis() {
+            return tickMillis;
+        }
+
+        public void setTickMillis(long tickMillis) {
+            this.tickMillis = tickMillis;
+        }
+
+        public int getWheelSize() {
+            return wheelSize;
+        }
+
+        public void setWheelSize(int wheelSize) {
+            this.wheelSize = wheelSize;
+        }
+
+        public Duration getHorizon() {
+            return horizon;
+        }
+
+        public void setHorizon(Duration horizon) {
+            this.horizon = horizon;
+        }
+
+        public long getRefillMillis() {
+            return refillMillis;
+        }
+
+        public void setRefillMillis(long refillMillis) {
+            this.refillMillis = refillMillis;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+    }
+
+    /**
+     * Charge rate shaping. Each gateway account has a token bucket refilled at its rate in {@code rates}, or
+     * {@code defaultRate}, in charges per second across the cluster; a node takes the part of it matching its share
+     * of the billing shards and allows bursts of {@code burst} charges. Subscription charges go through
+     * {@code account}. A charge that would wait longer than {@code maxWait} for a token is left for a later pass.
+     */
+    public static class Shaping {
+
+        private boolean enabled = true;
+        private String account = "authorize-net";
+        private double defaultRate = 20;
+        private Map<String, Double> rates = new HashMap<>();
+        private int burst = 10;
+        private Duration maxWait = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getAccount() {
+            return account;
+        }
+
+        public void setAccount(String account) {
+            this.account = account;
+        }
+
+        public double getDefaultRate() {
+            return defaultRate;
+        }
+
+        public void setDefaultRate(double defaultRate) {
+            this.defaultRate = defaultRate;
+        }
+
+        public Map<String, Double> getRates() {
+            return rates;
+        }
+
+        public void setRates(Map<String, Double> rates) {
+            this.rates = rates;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public double rateFor(String account) {
+            return rates.getOrDefault(account, defaultRate);
+        }
     }
 }
@@ -0,0 +1,398 @@
+package com.example.payments.application.properties;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "webhooks")
+public class WebhookProperties {
+
+    private final Processing processing = new Processing();
+    private final Consumer consumer = new Consumer();
+    private final Outbox outbox = new Outbox();
+    private final Dedupe dedupe = new Dedupe();
+    private final Dispatch dispatch = new Dispatch();
+    private final Requeue requeue = new Requeue();
+    private final Partitions partitions = new Partitions();
+    private final Backlog backlog = new Backlog();
+
+    public Processing getProcessing() {
+        return processing;
+    }
+
+    public Consumer getConsumer() {
+        return consumer;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Dedupe getDedupe() {
+        return dedupe;
+    }
+
+    public Dispatch getDispatch() {
+        return dispatch;
+    }
+
+    public Requeue getRequeue() {
+        return requeue;
+    }
+
+    public Partitions getPartitions() {
+        return partitions;
+    }
+
+    public Backlog getBacklog() {
+        return backlog;
+    }
+
+    /**
+     * Database-polling path. Each tick claims up to {@code batchSize} pending events, never letting more than
+     * {@code maxInFlight} claimed events wait for their handlers on this node.
+     */
+    public static class Processing {
+
+        private long fixedDelayMillis = 1000;
+        private int batchSize = 50;
+        private int maxInFlight = 64;
+
+        public long getFixedDelayMillis() {
+            return fixedDelayMillis;
+        }
+
+        public void setFixedDelayMillis(long fixedDelayMillis) {
+            this.fixedDelayMillis = fixedDelayMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    /**
+     * Queue path. {@code concurrency} consumers (scaled up to {@code maxConcurrency} under load) each hold up to
+     * {@code prefetch} unacknowledged deliveries and hand the listener batches of up to {@code batchSize}, waiting at
+     * most {@code receiveTimeout} to fill one. A {@code PROCESSING} event whose claim is older than
+     * {@code reclaimAfter} is considered abandoned and may be claimed again by a redelivery.
+     */
+    public static class Consumer {
+
+        private int concurrency = 4;
+        private int maxConcurrency = 8;
+        private int prefetch = 250;
+        private int batchSize = 50;
+        private Duration receiveTimeout = Duration.ofMillis(200);
+        private Duration reclaimAfter = Duration.ofMinutes(5);
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(int prefetch) {
+            this.prefetch = prefetch;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getReceiveTimeout() {
+            return receiveTimeout;
+        }
+
+        public void setReceiveTimeout(Duration receiveTimeout) {
+            this.receiveTimeout = receiveTimeout;
+        }
+
+        public Duration getReclaimAfter() {
+            return reclaimAfter;
+        }
+
+        public void setReclaimAfter(Duration reclaimAfter) {
+            this.reclaimAfter = reclaimAfter;
+        }
+    }
+
+    /**
+     * Outbox relay. Each tick leases batches of up to {@code batchSize} messages for {@code lease}, publishes them,
+     * and waits at most {@code confirmTimeout} for the broker to confirm the batch.
+     */
+    public static class Outbox {
+
+        private long fixedDelayMillis = 500;
+        private int batchSize = 100;
+        private Duration lease = Duration.ofSeconds(30);
+        private Duration confirmTimeout = Duration.ofSeconds(5);
+
+        public long getFixedDelayMillis() {
+            return fixedDelayMillis;
+        }
+
+        public void setFixedDelayMillis(long fixedDelayMillis) {
+            this.fixedDelayMillis = fixedDelayMillis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public Duration getConfirmTimeout() {
+            return confirmTimeout;
+        }
+
+        public void setConfirmTimeout(Duration confirmTimeout) {
+            this.confirmTimeout = confirmTimeout;
+        }
+    }
+
+    /**
+     * In-memory cache of recently recorded payload digests. Entries live for between one and two
+     * {@code recentWindow}s; a generation that reaches {@code maxRecentEntries} is rotated early.
+     */
+    public static class Dedupe {
+
+        private Duration recentWindow = Duration.ofMinutes(10);
+        private int maxRecentEntries = 50_000;
+
+        public Duration getRecentWindow() {
+            return recentWindow;
+        }
+
+        public void setRecentWindow(Duration recentWindow) {
+            this.recentWindow = recentWindow;
+        }
+
+        public int getMaxRecentEntries() {
+            return maxRecentEntries;
+        }
+
+        public void setMaxRecentEntries(int maxRecentEntries) {
+            this.maxRecentEntries = maxRecentEntries;
+        }
+    }
+
+    /**
+     * Handler dispatch. Events are spread over {@code stripes} serial executors by entity key, so events for one
+     * entity run in arrival order while different entities run in parallel.
+     */
+    public static class Dispatch {
+
+        private int stripes = 16;
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+    }
+
+    /**
+     * Stale-claim sweeper. Every {@code fixedDelayMillis} the node holding the lease (valid for {@code lease}) pages
+     * through {@code PROCESSING} events claimed more than {@code staleAfter} ago, {@code pageSize} at a time. Each is
+     * put back to {@code PENDING} after {@code initialBackoff}, doubling per attempt up to {@code maxBackoff}, and is
+     * failed once it has been requeued {@code maxAttempts} times.
+     */
+    public static class Requeue {
+
+        private long fixedDelayMillis = 10_000;
+        private Duration lease = Duration.ofSeconds(60);
+        private Duration staleAfter = Duration.ofMinutes(5);
+        private int pageSize = 200;
+        private int maxAttempts = 5;
+        private Duration initialBackoff = Duration.ofSeconds(30);
+        private Duration maxBackoff = Duration.ofMinutes(30);
+
+        public long getFixedDelayMillis() {
+            return fixedDelayMillis;
+        }
+
+        public void setFixedDelayMillis(long fixedDelayMillis) {
+            this.fixedDelayMillis = fixedDelayMillis;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public Duration getStaleAfter() {
+            return staleAfter;
+        }
+
+        public void setStaleAfter(Duration staleAfter) {
+            this.staleAfter = staleAfter;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    /**
+     * Daily partitions of {@code webhook_events}. Polling and claiming only look at events received within
+     * {@code activeWindow}. The maintenance job (on {@code cron}, by the node holding the lease for {@code lease})
+     * keeps {@code premakeDays} future partitions ready, fails events that outlived the active window, and archives
+     * partitions older than {@code retention} to gzipped JSON lines in {@code archiveDirectory} before dropping them.
+     */
+    public static class Partitions {
+
+        private String cron = "0 5 * * * *";
+        private Duration lease = Duration.ofMinutes(30);
+        private int premakeDays = 7;
+        private Duration activeWindow = Duration.ofDays(7);
+        private Duration retention = Duration.ofDays(30);
+        private String archiveDirectory = "var/archive/webhook-events";
+        private int exportFetchSize = 1000;
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public int getPremakeDays() {
+            return premakeDays;
+        }
+
+        public void setPremakeDays(int premakeDays) {
+            this.premakeDays = premakeDays;
+        }
+
+        public Duration getActiveWindow() {
+            return activeWindow;
+        }
+
+        public void setActiveWindow(Duration activeWindow) {
+            this.activeWindow = activeWindow;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public String getArchiveDirectory() {
+            return archiveDirectory;
+        }
+
+        public void setArchiveDirectory(String archiveDirectory) {
+            this.archiveDirectory = archiveDirectory;
+        }
+
+        public int getExportFetchSize() {
+            return exportFetchSize;
+        }
+
+        public void setExportFetchSize(int exportFetchSize) {
+            this.exportFetchSize = exportFetchSize;
+        }
+    }
+
+    /**
+     * Backlog gauges. Every {@code fixedDelayMillis} each node re-reads the per-status counts over the active window,
+     * the outbox depth and the broker queue depths; scrapes in between are served from the cached values.
+     */
+    public static class Backlog {
+
+        private long fixedDelayMillis = 15_000;
+
+        public long getFixedDelayMillis() {
+            return fixedDelayMillis;
+        }
+
+        public void setFixedDelayMillis(long fixedDelayMillis) {
+            this.fixedDelayMillis = fixedDelayMillis;
+        }
+    }
+}
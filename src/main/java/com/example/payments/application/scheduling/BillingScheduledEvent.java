@@ -0,0 +1,12 @@
+package com.example.payments.application.scheduling;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Published when a pending billing schedule is saved, so that a near-term one can be picked up without waiting for the
+ * next load from the database.
+ */
+public record BillingScheduledEvent(UUID scheduleId, UUID subscriptionId, OffsetDateTime scheduledAt,
+        int billingBucket) {
+}
@@ -0,0 +1,153 @@
+package com.example.payments.application.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding items until their deadline, in epoch milliseconds.
+ *
+ * <p>Level 0 has {@code wheelSize} buckets of {@code tickMillis} each; every level above has buckets as wide as the
+ * whole level below, and levels are added as far-off deadlines need them. Adding an item and firing it are constant
+ * time whatever the number of items held; an item on an upper level is moved down one level each time the wheel
+ * reaches its bucket. Items fire in bucket order, never before their deadline and at most one tick after it; items
+ * added with a deadline already passed fire on the next {@link #advance}.</p>
+ *
+ * <p>Not thread-safe; callers synchronize.</p>
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    private final ArrayDeque<T> overdue = new ArrayDeque<>();
+    private long currentTime;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMillis must be positive and wheelSize at least 2");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTime = Math.floorDiv(startMillis, tickMillis) * tickMillis;
+        levels.add(new Level<>(tickMillis, wheelSize));
+    }
+
+    public void add(long deadlineMillis, T item) {
+        place(new Entry<>(deadlineMillis, item));
+        size++;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis}, handing every item whose deadline has passed to {@code fire} in
+     * deadline order, bucket by bucket.
+     */
+    public void advance(long nowMillis, Consumer<T> fire) {
+        while (!overdue.isEmpty()) {
+            size--;
+            fire.accept(overdue.poll());
+        }
+        if (size == 0) {
+            currentTime = Math.max(currentTime, Math.floorDiv(nowMillis, tickMillis) * tickMillis);
+            return;
+        }
+        while (currentTime + tickMillis <= nowMillis) {
+            ArrayDeque<Entry<T>> bucket = levels.get(0).take(currentTime);
+            while (bucket != null && !bucket.isEmpty()) {
+                size--;
+                fire.accept(bucket.poll().item());
+            }
+            currentTime += tickMillis;
+            cascade();
+            if (size == 0) {
+                currentTime = Math.floorDiv(nowMillis, tickMillis) * tickMillis;
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        levels.subList(1, levels.size()).clear();
+        levels.set(0, new Level<>(tickMillis, wheelSize));
+        overdue.clear();
+        size = 0;
+    }
+
+    /**
+     * Once the wheel reaches the start of an upper-level bucket, its items are due within that bucket's span and move
+     * down. Higher levels go first, since they may refill the lower bucket starting at the same time.
+     */
+    private void cascade() {
+        for (int k = levels.size() - 1; k > 0; k--) {
+            Level<T> level = levels.get(k);
+            if (currentTime % level.tickMillis != 0) {
+                continue;
+            }
+            ArrayDeque<Entry<T>> bucket = level.take(currentTime);
+            while (bucket != null && !bucket.isEmpty()) {
+                place(bucket.poll());
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        if (entry.deadlineMillis() < currentTime) {
+            overdue.add(entry.item());
+            return;
+        }
+        for (int k = 0; ; k++) {
+            if (k == levels.size()) {
+                Level<T> top = levels.get(k - 1);
+                levels.add(new Level<>(Math.multiplyExact(top.tickMillis, wheelSize), wheelSize));
+            }
+            Level<T> level = levels.get(k);
+            long levelStart = Math.floorDiv(currentTime, level.tickMillis) * level.tickMillis;
+            if (entry.deadlineMillis() < levelStart + level.spanMillis) {
+                level.put(entry);
+                return;
+            }
+        }
+    }
+
+    private record Entry<T>(long deadlineMillis, T item) {
+    }
+
+    private static final class Level<T> {
+
+        private final long tickMillis;
+        private final long spanMillis;
+        private final ArrayDeque<Entry<T>>[] buckets;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMillis, int wheelSize) {
+            this.tickMillis = tickMillis;
+            this.spanMillis = Math.multiplyExact(tickMillis, wheelSize);
+            this.buckets = new ArrayDeque[wheelSize];
+        }
+
+        private void put(Entry<T> entry) {
+            int index = index(entry.deadlineMillis());
+            if (buckets[index] == null) {
+                buckets[index] = new ArrayDeque<>();
+            }
+            buckets[index].add(entry);
+        }
+
+        private ArrayDeque<Entry<T>> take(long time) {
+            int index = index(time);
+            ArrayDeque<Entry<T>> bucket = buckets[index];
+            buckets[index] = null;
+            return bucket;
+        }
+
+        private int index(long time) {
+            return (int) Math.floorMod(Math.floorDiv(time, tickMillis), (long) buckets.length);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.payments.application.scheduling;
+
+import com.example.payments.adapters.persistence.DueScheduleRepository;
+import com.example.payments.adapters.persistence.DueScheduleRepository.DueSchedule;
+import com.example.payments.application.properties.SubscriptionProperties;
+import com.example.payments.application.services.BillingRateShaper;
+import com.example.payments.application.services.BillingShardCoordinator;
+import com.example.payments.application.services.SubscriptionService;
+import com.example.payments.domain.billing.BillingOutcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bills the pending schedules of this node's shards when they fall due, instead of on the next billing run.
+ *
+ * <p>Schedules due within the horizon are held in a {@link HierarchicalTimingWheel} ticked by a thread of its own.
+ * Every refill loads only the slice between the previous horizon and the new one, and schedules saved in between are
+ * added from their {@link BillingScheduledEvent} once committed. When this node's shards change, the wheel is emptied
+ * and reloaded for the new set. Due schedules are billed through {@link SubscriptionService#billSchedule}, which
+ * re-checks them under a row lock, so a schedule fired here and picked up by a billing run, or by a node that has just
+ * taken its shard over, is charged once. The billing run cron stays in place as the reconciliation pass for anything
+ * the wheel misses: overdue schedules, a full wheel, a node restart.</p>
+ */
+@Component
+public class NearTermBillingScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(NearTermBillingScheduler.class);
+
+    private final SubscriptionService subscriptionService;
+    private final DueScheduleRepository dueScheduleRepository;
+    private final BillingShardCoordinator coordinator;
+    private final BillingRateShaper rateShaper;
+    private final SubscriptionProperties.Wheel settings;
+    private final int shardCount;
+    private final Clock clock;
+    private final ExecutorService workers;
+    private final HierarchicalTimingWheel<DueSchedule> wheel;
+    private final Set<UUID> queued = new HashSet<>();
+    private ScheduledExecutorService ticker;
+
+    // Written by refill only; read by event listeners.
+    private volatile SortedSet<Integer> loadedShards = new TreeSet<>();
+    private volatile OffsetDateTime loadedUntil;
+    private UUID loadedUntilId;
+
+    private final Map<BillingOutcome, Counter> firedCounters = new EnumMap<>(BillingOutcome.class);
+    private final Timer lateness;
+    private final Counter overflow;
+
+    public NearTermBillingScheduler(SubscriptionService subscriptionService,
+            DueScheduleRepository dueScheduleRepository, BillingShardCoordinator coordinator,
+            BillingRateShaper rateShaper, SubscriptionProperties properties, Clock clock,
+            MeterRegistry meterRegistry) {
+        this(subscriptionService, dueScheduleRepository, coordinator, rateShaper, properties, clock, meterRegistry,
+                newWorkers(properties.getWheel().getWorkerThreads()));
+    }
+
+    NearTermBillingScheduler(SubscriptionService subscriptionService, DueScheduleRepository dueScheduleRepository,
+            BillingShardCoordinator coordinator, BillingRateShaper rateShaper, SubscriptionProperties properties,
+            Clock clock, MeterRegistry meterRegistry, ExecutorService workers) {
+        this.subscriptionService = subscriptionService;
+        this.dueScheduleRepository = dueScheduleRepository;
+        this.coordinator = coordinator;
+        this.rateShaper = rateShaper;
+        this.settings = properties.getWheel();
+        this.shardCount = properties.getBilling().getShards();
+        this.clock = clock;
+        this.workers = workers;
+        this.wheel = new HierarchicalTimingWheel<>(settings.getTickMillis(), settings.getWheelSize(), clock.millis());
+        for (BillingOutcome outcome : BillingOutcome.values()) {
+            firedCounters.put(outcome, Counter.builder("subscriptions.billing.wheel.fired.count")
+                    .tag("outcome", outcome.name())
+                    .description("Schedules billed by the timing wheel when due, by outcome")
+                    .register(meterRegistry));
+        }
+        Gauge.builder("subscriptions.billing.wheel.size", this, NearTermBillingScheduler::size)
+                .description("Schedules waiting in the timing wheel")
+                .register(meterRegistry);
+        this.lateness = Timer.builder("subscriptions.billing.wheel.lateness")
+                .description("Delay between a schedule's due time and the start of its billing by the timing wheel")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.overflow = Counter.builder("subscriptions.billing.wheel.overflow.count")
+                .description("Refills cut short because the timing wheel was full")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "subscription-billing-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, settings.getTickMillis(), settings.getTickMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Loads the schedules that have come within the horizon since the previous refill.
+     */
+    @Scheduled(fixedDelayString = "${subscription.wheel.refill-millis:30000}")
+    public void refill() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        try {
+            OffsetDateTime now = OffsetDateTime.now(clock);
+            SortedSet<Integer> shards = coordinator.heldShards();
+            boolean reshard = !shards.equals(loadedShards);
+            if (reshard) {
+                synchronized (this) {
+                    wheel.clear();
+                    queued.clear();
+                }
+            }
+            if (reshard || loadedUntil == null || loadedUntil.isBefore(now)) {
+                // Schedules due before now are left to the billing runs.
+                loadedShards = shards;
+                loadedUntil = now;
+                loadedUntilId = null;
+            }
+            if (shards.isEmpty()) {
+                return;
+            }
+            load(shards, now.plus(settings.getHorizon()));
+        } catch (RuntimeException ex) {
+            log.error("Billing wheel refill failed error={}", ex.getMessage(), ex);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onScheduled(BillingScheduledEvent event) {
+        OffsetDateTime horizon = loadedUntil;
+        if (!settings.isEnabled() || horizon == null || event.scheduledAt().isAfter(horizon)
+                || !loadedShards.contains(event.billingBucket() % shardCount)) {
+            // Outside the loaded window: the next refill or billing run picks it up.
+            return;
+        }
+        offer(List.of(new DueSchedule(event.scheduleId(), event.subscriptionId(), event.scheduledAt())));
+    }
+
+    /**
+     * Hands every schedule that has fallen due to the billing workers.
+     */
+    void tick() {
+        List<DueSchedule> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(clock.millis(), due::add);
+            due.forEach(schedule -> queued.remove(schedule.scheduleId()));
+        }
+        for (DueSchedule schedule : due) {
+            try {
+                workers.execute(() -> bill(schedule));
+            } catch (RejectedExecutionException ex) {
+                log.warn("Billing wheel dropped schedule={} error={}", schedule.scheduleId(), ex.getMessage());
+            }
+        }
+    }
+
+    synchronized int size() {
+        return wheel.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void load(SortedSet<Integer> shards, OffsetDateTime until) {
+        int room = settings.getMaxEntries() - size();
+        if (room <= 0) {
+            overflow.increment();
+            return;
+        }
+        // Raise the horizon first, so a schedule committed while the slice is read is still added from its event.
+        OffsetDateTime from = loadedUntil;
+        UUID fromId = loadedUntilId;
+        loadedUntil = until;
+        List<DueSchedule> rows;
+        try {
+            rows = dueScheduleRepository.findUpcoming(shards, shardCount, from, fromId, until, room);
+        } catch (RuntimeException ex) {
+            // Nothing was loaded: the next refill reads the same slice again.
+            loadedUntil = from;
+            loadedUntilId = fromId;
+            throw ex;
+        }
+        offer(rows);
+        if (rows.size() == room) {
+            DueSchedule last = rows.get(rows.size() - 1);
+            loadedUntil = last.scheduledAt();
+            loadedUntilId = last.scheduleId();
+            overflow.increment();
+        } else {
+            loadedUntilId = null;
+        }
+    }
+
+    private synchronized void offer(List<DueSchedule> schedules) {
+        for (DueSchedule schedule : schedules) {
+            if (queued.add(schedule.scheduleId())) {
+                wheel.add(schedule.scheduledAt().toInstant().toEpochMilli(), schedule);
+            }
+        }
+    }
+
+    private void bill(DueSchedule schedule) {
+        if (!rateShaper.acquire()) {
+            // Paced out: the schedule stays pending for the next billing run.
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        lateness.record(Duration.between(schedule.scheduledAt(), now));
+        BillingOutcome outcome;
+        try {
+            outcome = subscriptionService.billSchedule(schedule.scheduleId(), now);
+        } catch (RuntimeException ex) {
+            outcome = BillingOutcome.ERRORED;
+            log.error("Billing subscription failed subscription={} schedule={} error={}", schedule.subscriptionId(),
+                    schedule.scheduleId(), ex.getMessage(), ex);
+        }
+        firedCounters.get(outcome).increment();
+    }
+
+    private static ExecutorService newWorkers(int threads) {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "subscription-billing-wheel-worker-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
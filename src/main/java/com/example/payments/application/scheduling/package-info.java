@@ -1,6 +1,5 @@
 package com.example.payments.application.scheduling;
 
 /**
- * Placeholder package for scheduling components and job definitions.
+ * Scheduling components: the in-memory timing wheel that bills near-term schedules when they fall due.
  */
-
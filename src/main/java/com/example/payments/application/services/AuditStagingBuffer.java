@@ -0,0 +1,114 @@
+package com.example.payments.application.services;
+
+import com.example.payments.adapters.persistence.AuditLogBatchWriter;
+import com.example.payments.application.properties.PaymentProperties;
+import com.example.payments.domain.shared.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Collects audit entries for the current transaction and writes them as one JDBC batch just before it commits.
+ *
+ * <p>Entries are inserted on the transaction's own connection, so an audit row exists exactly when the change it
+ * describes was committed; a rollback discards the staged entries. Memory is bounded: a transaction flushes early
+ * once it holds {@code batchSize} entries, and when more than {@code maxStaged} entries are waiting across all
+ * transactions each new entry flushes its transaction's buffer immediately. Without an active transaction the entry
+ * is written straight away.</p>
+ */
+@Component
+public class AuditStagingBuffer {
+
+    private final AuditLogBatchWriter writer;
+    private final PaymentProperties.Audit settings;
+    private final AtomicInteger staged = new AtomicInteger();
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter backpressure;
+
+    public AuditStagingBuffer(AuditLogBatchWriter writer, PaymentProperties properties,
+            MeterRegistry meterRegistry) {
+        this.writer = writer;
+        this.settings = properties.getAudit();
+        Gauge.builder("audit.staging.depth", staged, AtomicInteger::get)
+                .description("Audit entries staged in open transactions and not yet written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.flush.latency")
+                .description("Time to write one batch of audit entries")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("audit.flush.batch.size")
+                .description("Audit entries written per batch")
+                .register(meterRegistry);
+        this.backpressure = Counter.builder("audit.backpressure.count")
+                .description("Audit entries that forced an early flush because the staging limit was reached")
+                .register(meterRegistry);
+    }
+
+    public void stage(AuditLog entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            write(List.of(entry));
+            return;
+        }
+        TransactionBuffer buffer = (TransactionBuffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            buffer = new TransactionBuffer();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(buffer);
+        }
+        buffer.entries.add(entry);
+        int total = staged.incrementAndGet();
+        if (buffer.entries.size() >= settings.getBatchSize()) {
+            buffer.flush();
+        } else if (total > settings.getMaxStaged()) {
+            backpressure.increment();
+            buffer.flush();
+        }
+    }
+
+    int stagedCount() {
+        return staged.get();
+    }
+
+    private void write(List<AuditLog> entries) {
+        flushTimer.record(() -> writer.insertAll(entries));
+        batchSizes.record(entries.size());
+    }
+
+    private final class TransactionBuffer implements TransactionSynchronization {
+
+        private final List<AuditLog> entries = new ArrayList<>();
+
+        private void flush() {
+            if (entries.isEmpty()) {
+                return;
+            }
+            List<AuditLog> batch = List.copyOf(entries);
+            write(batch);
+            entries.clear();
+            staged.addAndGet(-batch.size());
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flush();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AuditStagingBuffer.this);
+            staged.addAndGet(-entries.size());
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.payments.application.services;
+
+import com.example.payments.application.properties.SubscriptionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Paces subscription charges to a sustainable rate per gateway account, so a burst of due schedules (first-of-month
+ * billing, a batch of retries) reaches the gateway as a steady flow instead of a spike.
+ *
+ * <p>Billers call {@link #acquire()} before each schedule and wait their turn on the account's {@link TokenBucket}.
+ * The configured rate is cluster-wide; each node takes the part matching its share of the billing shards. Nothing
+ * is held open while a biller waits: billing runs wait after their chunk read has finished, and both they and the
+ * timing wheel wait before {@link SubscriptionService#billSchedule} opens the schedule's transaction.</p>
+ */
+@Component
+public class BillingRateShaper {
+
+    private final SubscriptionProperties.Shaping settings;
+    private final BillingShardCoordinator coordinator;
+    private final int shardCount;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+    public BillingRateShaper(SubscriptionProperties properties, BillingShardCoordinator coordinator,
+            MeterRegistry meterRegistry) {
+        this(properties, coordinator, meterRegistry, System::nanoTime);
+    }
+
+    BillingRateShaper(SubscriptionProperties properties, BillingShardCoordinator coordinator,
+            MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.settings = properties.getShaping();
+        this.coordinator = coordinator;
+        this.shardCount = properties.getBilling().getShards();
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Waits for a charge slot on the subscription billing account. Returns {@code false}, without waiting, when the
+     * wait would exceed {@code maxWait}, or when interrupted; the caller should then leave the schedule pending.
+     */
+    public boolean acquire() {
+        return acquire(settings.getAccount());
+    }
+
+    public boolean acquire(String accountName) {
+        if (!settings.isEnabled() || settings.rateFor(accountName) <= 0) {
+            return true;
+        }
+        Account account = accounts.computeIfAbsent(accountName, this::newAccount);
+        long wait = account.bucket.reserve(nodeRate(accountName), nanoTime.getAsLong(),
+                settings.getMaxWait().toNanos());
+        if (wait < 0) {
+            account.rejected.increment();
+            return false;
+        }
+        account.waits.record(wait, TimeUnit.NANOSECONDS);
+        if (wait == 0) {
+            return true;
+        }
+        account.throttled.increment();
+        account.waiting.incrementAndGet();
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            account.waiting.decrementAndGet();
+        }
+    }
+
+    double nodeRate(String accountName) {
+        double share = (double) Math.max(1, coordinator.heldShardCount()) / Math.max(1, shardCount);
+        return settings.rateFor(accountName) * Math.min(1, share);
+    }
+
+    private Account newAccount(String name) {
+        TokenBucket bucket = new TokenBucket(nodeRate(name), settings.getBurst(), nanoTime.getAsLong());
+        AtomicInteger waiting = new AtomicInteger();
+        Gauge.builder("subscriptions.billing.shaper.rate", bucket, TokenBucket::getRatePerSecond)
+                .description("Charges per second this node allows on the gateway account")
+                .tag("account", name)
+                .register(meterRegistry);
+        Gauge.builder("subscriptions.billing.shaper.waiting", waiting, AtomicInteger::get)
+                .description("Billers waiting for a charge slot on the gateway account")
+                .tag("account", name)
+                .register(meterRegistry);
+        TimeGauge.builder("subscriptions.billing.shaper.backlog", bucket, TimeUnit.NANOSECONDS,
+                        b -> b.backlogNanos(nanoTime.getAsLong()))
+                .description("How long a charge requested now would wait for its slot")
+                .tag("account", name)
+                .register(meterRegistry);
+        Timer waits = Timer.builder("subscriptions.billing.shaper.wait")
+                .description("Time billers waited for a charge slot")
+                .tag("account", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter throttled = Counter.builder("subscriptions.billing.shaper.throttled.count")
+                .description("Charges delayed to keep the gateway account at its rate")
+                .tag("account", name)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("subscriptions.billing.shaper.rejected.count")
+                .description("Charges left pending because their slot was more than max-wait away")
+                .tag("account", name)
+                .register(meterRegistry);
+        return new Account(bucket, waiting, waits, throttled, rejected);
+    }
+
+    private record Account(TokenBucket bucket, AtomicInteger waiting, Timer waits, Counter throttled,
+            Counter rejected) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.payments.application.services;
+
+import com.example.payments.adapters.persistence.BillingRunRepository;
+import com.example.payments.adapters.persistence.DueScheduleRepository;
+import com.example.payments.adapters.persistence.DueScheduleRepository.DueSchedule;
+import com.example.payments.application.properties.SubscriptionProperties;
+import com.example.payments.domain.billing.BillingOutcome;
+import com.example.payments.domain.billing.BillingRun;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs billing over one shard's schedules due at a threshold in bounded chunks.
+ *
+ * <p>Each chunk of due schedules is read with one keyset query ({@link DueScheduleRepository#findDue}) starting after
+ * the run's checkpoint, and the read is over before the first of them is billed, so no connection or snapshot is
+ * held across gateway calls and at most one chunk is in memory. Each schedule is billed in its own transaction through
+ * {@link SubscriptionService#billSchedule}, so a slow gateway call holds one connection for one subscription, and a
+ * failure only loses that subscription's bookkeeping. After every chunk the run's checkpoint and tallies are saved in
+ * a short transaction of their own. Charges are paced by the {@link BillingRateShaper}. A run that stops early,
+ * because the node lost its lease, went down or could not get a charge slot in time, stays {@code RUNNING} and the
+ * next call reads on from its checkpoint with its original threshold.</p>
+ */
+@Service
+public class BillingRunService {
+
+    private static final Logger log = LoggerFactory.getLogger(BillingRunService.class);
+
+    private final BillingRunRepository runRepository;
+    private final DueScheduleRepository dueScheduleRepository;
+    private final SubscriptionService subscriptionService;
+    private final BillingRateShaper rateShaper;
+    private final SubscriptionProperties.Billing settings;
+    private final Clock clock;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<BillingOutcome, Counter> outcomeCounters = new EnumMap<>(BillingOutcome.class);
+    private final Timer runTimer;
+
+    public BillingRunService(BillingRunRepository runRepository, DueScheduleRepository dueScheduleRepository,
+            SubscriptionService subscriptionService, BillingRateShaper rateShaper, SubscriptionProperties properties,
+            Clock clock, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.runRepository = runRepository;
+        this.dueScheduleRepository = dueScheduleRepository;
+        this.subscriptionService = subscriptionService;
+        this.rateShaper = rateShaper;
+        this.settings = properties.getBilling();
+        this.clock = clock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (BillingOutcome outcome : BillingOutcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("subscriptions.billing.outcome.count")
+                    .tag("outcome", outcome.name())
+                    .description("Due subscriptions billed by billing runs, by outcome")
+                    .register(meterRegistry));
+        }
+        this.runTimer = Timer.builder("subscriptions.billing.run.duration")
+                .description("Time from the start of a billing run to its completion")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resumes the shard's unfinished run if there is one, otherwise starts a run at {@code threshold}, and bills chunk
+     * by chunk while {@code keepGoing} holds; it is checked before every chunk. Returns the run as last saved.
+     */
+    public BillingRun run(int shard, OffsetDateTime threshold, BooleanSupplier keepGoing) {
+        BillingRun run = inTransaction(() -> runRepository
+                .findFirstByShardAndStatusOrderByStartedAtAsc(shard, BillingRun.Status.RUNNING)
+                .orElseGet(() -> runRepository.save(BillingRun.start(shard, threshold, OffsetDateTime.now(clock)))));
+        if (run.getCheckpointScheduleId() != null) {
+            log.info("Resuming billing run {} shard={} threshold={} after={} processed={}", run.getId(), shard,
+                    run.getThreshold(), run.getCheckpointScheduleId(), run.getProcessed());
+        }
+        Pass pass = new Pass(run);
+        boolean exhausted = false;
+        while (!exhausted && keepGoing.getAsBoolean()) {
+            List<DueSchedule> chunk = dueScheduleRepository.findDue(shard, settings.getShards(),
+                    pass.run.getThreshold(), pass.run.getCheckpointScheduledAt(), pass.run.getCheckpointScheduleId(),
+                    settings.getChunkSize());
+            int billed = 0;
+            for (DueSchedule due : chunk) {
+                if (!rateShaper.acquire()) {
+                    break;
+                }
+                pass.bill(due);
+                billed++;
+            }
+            pass.checkpoint();
+            if (billed < chunk.size()) {
+                break;
+            }
+            exhausted = chunk.size() < settings.getChunkSize();
+        }
+        if (!exhausted) {
+            log.info("Billing run {} paused shard={} threshold={} after={} processed={}", pass.run.getId(), shard,
+                    pass.run.getThreshold(), pass.run.getCheckpointScheduleId(), pass.run.getProcessed());
+            return pass.run;
+        }
+        BillingRun finished = inTransaction(() -> {
+            pass.run.complete(OffsetDateTime.now(clock));
+            return runRepository.save(pass.run);
+        });
+        runTimer.record(finished.getDuration());
+        log.info("Billing run {} completed shard={} threshold={} charged={} declined={} skipped={} errored={} "
+                + "duration={}", finished.getId(), shard, finished.getThreshold(), finished.getCharged(),
+                finished.getDeclined(), finished.getSkipped(), finished.getErrored(), finished.getDuration());
+        return finished;
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    /**
+     * Outcomes billed since the last checkpoint of one call to {@link #run}.
+     */
+    private final class Pass {
+
+        private BillingRun run;
+        private final Map<BillingOutcome, Integer> outcomes = new EnumMap<>(BillingOutcome.class);
+        private DueSchedule last;
+        private int billedInChunk;
+
+        private Pass(BillingRun run) {
+            this.run = run;
+        }
+
+        private void bill(DueSchedule due) {
+            BillingOutcome outcome;
+            try {
+                outcome = subscriptionService.billSchedule(due.scheduleId(), run.getThreshold());
+            } catch (RuntimeException ex) {
+                outcome = BillingOutcome.ERRORED;
+                log.error("Billing subscription failed subscription={} schedule={} error={}", due.subscriptionId(),
+                        due.scheduleId(), ex.getMessage(), ex);
+            }
+            outcomes.merge(outcome, 1, Integer::sum);
+            outcomeCounters.get(outcome).increment();
+            last = due;
+            billedInChunk++;
+        }
+
+        private void checkpoint() {
+            if (billedInChunk == 0) {
+                return;
+            }
+            BillingRun current = run;
+            run = inTransaction(() -> {
+                current.checkpoint(last.scheduledAt(), last.scheduleId(), outcomes, OffsetDateTime.now(clock));
+                return runRepository.save(current);
+            });
+            outcomes.clear();
+            billedInChunk = 0;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.payments.application.services;
+
+import com.example.payments.application.properties.SubscriptionProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which billing shards this node bills, using {@code scheduler_leases}.
+ *
+ * <p>Each node keeps a membership lease ({@value #NODE_LEASE_PREFIX}&lt;id&gt;) alive, and the number of live
+ * membership leases gives its fair share of shards, {@code ceil(shards / nodes)}. On every {@link #heartbeat} it renews
+ * its membership and shard leases, gives up surplus shards that are not being billed right now, and claims free or
+ * expired shards up to its share. A node that dies stops renewing; its shards expire and are claimed by the others on
+ * their next heartbeat, and its unfinished runs resume from their checkpoints.</p>
+ */
+@Component
+public class BillingShardCoordinator {
+
+    static final String SHARD_LEASE_PREFIX = "subscription-billing-shard-";
+    static final String NODE_LEASE_PREFIX = "subscription-billing-node-";
+
+    private static final Logger log = LoggerFactory.getLogger(BillingShardCoordinator.class);
+
+    private final SchedulerLeaseService leases;
+    private final SubscriptionProperties.Billing settings;
+    private final String nodeLease = NODE_LEASE_PREFIX + UUID.randomUUID();
+    private final ConcurrentSkipListSet<Integer> held = new ConcurrentSkipListSet<>();
+
+    public BillingShardCoordinator(SchedulerLeaseService leases, SubscriptionProperties properties,
+            MeterRegistry meterRegistry) {
+        this.leases = leases;
+        this.settings = properties.getBilling();
+        Gauge.builder("subscriptions.billing.shards.held", held, Set::size)
+                .description("Billing shards whose lease this node holds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Renews this node's leases and rebalances towards its fair share. Shards in {@code busy} are being billed and are
+     * kept even when surplus; they are given up on a later heartbeat once their run has stopped.
+     */
+    public void heartbeat(Set<Integer> busy) {
+        leases.tryAcquire(nodeLease, settings.getLease());
+        held.removeIf(shard -> {
+            boolean lost = !leases.tryAcquire(shardLease(shard), settings.getLease());
+            if (lost) {
+                log.warn("Lost billing shard {} to another node", shard);
+            }
+            return lost;
+        });
+        int shards = settings.getShards();
+        int nodes = Math.max(1, leases.countLive(NODE_LEASE_PREFIX));
+        int share = (shards + nodes - 1) / nodes;
+        for (Integer shard : held.descendingSet()) {
+            if (held.size() <= share) {
+                break;
+            }
+            if (!busy.contains(shard)) {
+                leases.release(shardLease(shard));
+                held.remove(shard);
+                log.info("Gave up billing shard {} share={} nodes={}", shard, share, nodes);
+            }
+        }
+        int start = Math.floorMod(nodeLease.hashCode(), shards);
+        for (int i = 0; i < shards && held.size() < share; i++) {
+            int shard = (start + i) % shards;
+            if (!held.contains(shard) && leases.tryAcquire(shardLease(shard), settings.getLease())) {
+                held.add(shard);
+                log.info("Claimed billing shard {} share={} nodes={}", shard, share, nodes);
+            }
+        }
+    }
+
+    /**
+     * Shards this node currently holds, in ascending order.
+     */
+    public SortedSet<Integer> heldShards() {
+        return new ConcurrentSkipListSet<>(held);
+    }
+
+    public int heldShardCount() {
+        return held.size();
+    }
+
+    /**
+     * Renews the lease of a held shard. Returns {@code false}, and forgets the shard, once it is no longer held; a run
+     * must not start another chunk after that.
+     */
+    public boolean renew(int shard) {
+        if (!held.contains(shard)) {
+            return false;
+        }
+        if (leases.tryAcquire(shardLease(shard), settings.getLease())) {
+            return true;
+        }
+        held.remove(shard);
+        log.warn("Lost billing shard {} to another node", shard);
+        return false;
+    }
+
+    /**
+     * Gives up every lease, so the other nodes take the shards over without waiting for them to expire.
+     */
+    public void releaseAll() {
+        for (Integer shard : held) {
+            leases.release(shardLease(shard));
+        }
+        held.clear();
+        leases.release(nodeLease);
+    }
+
+    static String shardLease(int shard) {
+        return SHARD_LEASE_PREFIX + shard;
+    }
+}
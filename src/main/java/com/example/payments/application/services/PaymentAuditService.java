@@ -1,9 +1,9 @@
 package com.example.payments.application.services;
 
-import com.example.payments.adapters.persistence.AuditLogRepository;
 import com.example.payments.domain.payments.PaymentOrder;
 import com.example.payments.domain.payments.PaymentTransaction;
 import com.example.payments.domain.shared.AuditLog;
+import com.example.payments.infra.gateway.AuthorizeNetReferenceIdSanitizer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.HashMap;
@@ -14,11 +14,11 @@ import org.springframework.stereotype.Service;
 @Service
 public class PaymentAuditService {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditStagingBuffer auditStagingBuffer;
     private final ObjectMapper objectMapper;
 
-    public PaymentAuditService(AuditLogRepository auditLogRepository, ObjectMapper objectMapper) {
-        this.auditLogRepository = auditLogRepository;
+    public PaymentAuditService(AuditStagingBuffer auditStagingBuffer, ObjectMapper objectMapper) {
+        this.auditStagingBuffer = auditStagingBuffer;
         this.objectMapper = objectMapper;
     }
 
@@ -42,12 +42,22 @@ public class PaymentAuditService {
         record(actorId.toString(), "REFUND", "payment_order", order.getId(), auditMap(order, transaction));
     }
 
+    public void recordPendingExpired(PaymentOrder order, String reason) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("orderId", order.getId());
+        map.put("status", order.getStatus());
+        map.put("requestId", order.getRequestId());
+        map.put("gatewayReference", AuthorizeNetReferenceIdSanitizer.resolve(order.getId().toString()));
+        map.put("reason", reason);
+        record("system", "PENDING_EXPIRED", "payment_order", order.getId(), map);
+    }
+
     private void record(String actor, String operation, String resourceType, UUID resourceId,
             Map<String, Object> metadata) {
         try {
             AuditLog log = AuditLog.record(actor, operation, resourceType, resourceId,
                     objectMapper.writeValueAsString(metadata), java.time.OffsetDateTime.now());
-            auditLogRepository.save(log);
+            auditStagingBuffer.stage(log);
         } catch (JsonProcessingException e) {
             throw new IllegalStateException("Failed to serialize audit metadata", e);
         }
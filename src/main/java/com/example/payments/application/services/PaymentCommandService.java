@@ -3,6 +3,8 @@ package com.example.payments.application.services;
 import com.example.payments.adapters.persistence.PaymentOrderRepository;
 import com.example.payments.adapters.persistence.PaymentTransactionRepository;
 import com.example.payments.adapters.persistence.RefundRepository;
+import com.example.payments.application.properties.PaymentProperties;
+import com.example.payments.application.properties.PaymentProperties.GatewayCallMode;
 import com.example.payments.domain.payments.GatewayTransactionResult;
 import com.example.payments.domain.payments.Money;
 import com.example.payments.domain.payments.PaymentException;
@@ -10,70 +12,368 @@ import com.example.payments.domain.payments.PaymentOrder;
 import com.example.payments.domain.payments.PaymentOrderStatus;
 import com.example.payments.domain.payments.PaymentTransaction;
 import com.example.payments.domain.payments.PaymentTransactionType;
+import com.example.payments.domain.payments.ReconciledTransaction;
 import com.example.payments.domain.payments.Refund;
 import com.example.payments.domain.payments.RefundException;
 import com.example.payments.domain.shared.CorrelationId;
 import com.example.payments.domain.shared.IdempotencyKey;
+import com.example.payments.infra.gateway.AuthorizeNetAsyncClient;
 import com.example.payments.infra.gateway.AuthorizeNetClient;
+import com.example.payments.infra.gateway.protection.ProtectedAuthorizeNetClient;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
 import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Executes payment commands against Authorize.Net.
+ *
+ * <p>Every command runs in three stages: load or create the order, call the gateway, then record the outcome.
+ * In {@link GatewayCallMode#STAGED} mode the first and last stages are separate short transactions, so no
+ * pooled connection or row lock is held during the gateway round trip. New orders are persisted as
+ * {@link PaymentOrderStatus#PENDING} first, and {@code PaymentRecoverySweeper} resolves orders a crash or an
+ * interrupted gateway call leaves behind. {@link GatewayCallMode#INLINE} wraps all three stages in one
+ * transaction as before.</p>
+ */
 @Service
 public class PaymentCommandService {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentCommandService.class);
 
+    /**
+     * Gateway errors after which the card has certainly not been charged.
+     */
+    private static final Set<String> NOT_CHARGED_ERRORS = Set.of("GATEWAY_DECLINED", "GATEWAY_BULKHEAD_FULL",
+            ProtectedAuthorizeNetClient.UNAVAILABLE);
+
     private final PaymentOrderRepository paymentOrderRepository;
     private final PaymentTransactionRepository paymentTransactionRepository;
     private final RefundRepository refundRepository;
     private final AuthorizeNetClient authorizeNetClient;
+    private final AuthorizeNetAsyncClient authorizeNetAsyncClient;
     private final PaymentAuditService paymentAuditService;
+    private final RequestIdPreFilter requestIdPreFilter;
+    private final GatewayCallMode gatewayCallMode;
+    private final TransactionTemplate transactionTemplate;
 
     private final Counter purchaseCounter;
     private final Counter authorizeCounter;
     private final Counter captureCounter;
     private final Counter cancelCounter;
     private final Counter refundCounter;
+    private final Map<PaymentOrderStatus, Counter> recoveredCounters = new EnumMap<>(PaymentOrderStatus.class);
     private final ObservationRegistry observationRegistry;
 
     public PaymentCommandService(PaymentOrderRepository paymentOrderRepository,
             PaymentTransactionRepository paymentTransactionRepository, RefundRepository refundRepository,
-            AuthorizeNetClient authorizeNetClient, PaymentAuditService paymentAuditService, MeterRegistry meterRegistry,
+            AuthorizeNetClient authorizeNetClient, AuthorizeNetAsyncClient authorizeNetAsyncClient,
+            PaymentAuditService paymentAuditService, RequestIdPreFilter requestIdPreFilter,
+            PaymentProperties properties, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
             ObservationRegistry observationRegistry) {
         this.paymentOrderRepository = paymentOrderRepository;
         this.paymentTransactionRepository = paymentTransactionRepository;
         this.refundRepository = refundRepository;
         this.authorizeNetClient = authorizeNetClient;
+        this.authorizeNetAsyncClient = authorizeNetAsyncClient;
         this.paymentAuditService = paymentAuditService;
+        this.requestIdPreFilter = requestIdPreFilter;
+        this.gatewayCallMode = properties.getGatewayCallMode();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.purchaseCounter = Counter.builder("payments.purchase.count").register(meterRegistry);
         this.authorizeCounter = Counter.builder("payments.authorize.count").register(meterRegistry);
         this.captureCounter = Counter.builder("payments.capture.count").register(meterRegistry);
         this.cancelCounter = Counter.builder("payments.cancel.count").register(meterRegistry);
         this.refundCounter = Counter.builder("payments.refund.count").register(meterRegistry);
+        for (PaymentOrderStatus outcome : List.of(PaymentOrderStatus.AUTHORIZED, PaymentOrderStatus.CAPTURED,
+                PaymentOrderStatus.FAILED, PaymentOrderStatus.UNKNOWN)) {
+            recoveredCounters.put(outcome, Counter.builder("payments.recovery.resolved.count")
+                    .tag("outcome", outcome.name())
+                    .description("Stale pending orders resolved by the recovery sweeper, by resulting status")
+                    .register(meterRegistry));
+        }
         this.observationRegistry = observationRegistry;
     }
 
-    @Transactional
     public PaymentOrder purchase(UUID customerId, Money money, String paymentNonce,
             IdempotencyKey idempotencyKey, CorrelationId correlationId, String requestId) {
+        return withinCommandBoundary(() -> {
+            PaymentOrder order = inTransaction(() -> openPendingOrder(customerId, money, idempotencyKey,
+                    correlationId, requestId));
+
+            GatewayTransactionResult result = callGateway("purchase", order,
+                    () -> authorizeNetClient.purchase(money, paymentNonce, order.getId().toString()));
+
+            return inTransaction(() -> completePurchase(order, money, result));
+        });
+    }
+
+    /**
+     * Non-blocking purchase: the gateway call runs on {@link AuthorizeNetAsyncClient} and the order is finalized
+     * when it completes, so the calling request thread is released while Authorize.Net responds. In
+     * {@link GatewayCallMode#INLINE} mode this falls back to the blocking {@link #purchase} flow.
+     */
+    public CompletableFuture<PaymentOrder> purchaseAsync(UUID customerId, Money money, String paymentNonce,
+            IdempotencyKey idempotencyKey, CorrelationId correlationId, String requestId) {
+        if (gatewayCallMode == GatewayCallMode.INLINE) {
+            return CompletableFuture.completedFuture(purchase(customerId, money, paymentNonce, idempotencyKey,
+                    correlationId, requestId));
+        }
+        PaymentOrder order = inTransaction(() -> openPendingOrder(customerId, money, idempotencyKey, correlationId,
+                requestId));
+        return callGatewayAsync("purchase", order,
+                () -> authorizeNetAsyncClient.purchase(money, paymentNonce, order.getId().toString()))
+                .thenApply(result -> inTransaction(() -> completePurchase(order, money, result)));
+    }
+
+    public PaymentOrder authorize(UUID customerId, Money money, String paymentNonce,
+            IdempotencyKey idempotencyKey, CorrelationId correlationId, String requestId) {
+        return withinCommandBoundary(() -> {
+            PaymentOrder order = inTransaction(() -> openPendingOrder(customerId, money, idempotencyKey,
+                    correlationId, requestId));
+
+            GatewayTransactionResult result = callGateway("authorize", order,
+                    () -> authorizeNetClient.authorize(money, paymentNonce, order.getId().toString()));
+
+            return inTransaction(() -> completeAuthorization(order, money, result));
+        });
+    }
+
+    /**
+     * Non-blocking authorization; see {@link #purchaseAsync}.
+     */
+    public CompletableFuture<PaymentOrder> authorizeAsync(UUID customerId, Money money, String paymentNonce,
+            IdempotencyKey idempotencyKey, CorrelationId correlationId, String requestId) {
+        if (gatewayCallMode == GatewayCallMode.INLINE) {
+            return CompletableFuture.completedFuture(authorize(customerId, money, paymentNonce, idempotencyKey,
+                    correlationId, requestId));
+        }
+        PaymentOrder order = inTransaction(() -> openPendingOrder(customerId, money, idempotencyKey, correlationId,
+                requestId));
+        return callGatewayAsync("authorize", order,
+                () -> authorizeNetAsyncClient.authorize(money, paymentNonce, order.getId().toString()))
+                .thenApply(result -> inTransaction(() -> completeAuthorization(order, money, result)));
+    }
+
+    public PaymentOrder capture(UUID orderId, Money amount, UUID actorId) {
+        return withinCommandBoundary(() -> {
+            PaymentOrder order = inTransaction(() -> {
+                PaymentOrder loaded = loadOrder(orderId);
+                if (loaded.getStatus() != PaymentOrderStatus.AUTHORIZED
+                        && loaded.getStatus() != PaymentOrderStatus.CREATED) {
+                    throw new PaymentException("INVALID_STATE",
+                            "Order cannot be captured from state " + loaded.getStatus());
+                }
+                return loaded;
+            });
+
+            PaymentTransaction authorization = order.getTransactions().stream()
+                    .filter(tx -> tx.getType() == PaymentTransactionType.AUTHORIZATION)
+                    .findFirst()
+                    .orElseThrow(() -> new PaymentException("AUTH_MISSING", "Authorization transaction missing"));
+
+            GatewayTransactionResult result = callGateway("capture", null,
+                    () -> authorizeNetClient.capture(amount, authorization.getAuthorizeNetTransactionId()));
+
+            return inTransaction(() -> {
+                PaymentTransaction captureTx = PaymentTransaction.record(order, PaymentTransactionType.CAPTURE,
+                        amount, result.transactionId(), "CAPTURED", result.processedAt(), result.responseCode(),
+                        result.responseMessage());
+                order.addTransaction(captureTx);
+                order.markCaptured();
+
+                paymentTransactionRepository.save(captureTx);
+                paymentOrderRepository.save(order);
+
+                paymentAuditService.recordCapture(order, captureTx, actorId);
+                captureCounter.increment();
+                return order;
+            });
+        });
+    }
+
+    public PaymentOrder cancel(UUID orderId, UUID actorId) {
+        return withinCommandBoundary(() -> {
+            PaymentOrder order = inTransaction(() -> {
+                PaymentOrder loaded = loadOrder(orderId);
+                if (loaded.getStatus() != PaymentOrderStatus.AUTHORIZED
+                        && loaded.getStatus() != PaymentOrderStatus.CREATED
+                        && loaded.getStatus() != PaymentOrderStatus.CAPTURED) {
+                    throw new PaymentException("INVALID_STATE",
+                            "Order cannot be cancelled from state " + loaded.getStatus());
+                }
+                return loaded;
+            });
+
+            PaymentTransaction authorization = order.getTransactions().stream()
+//                    .filter(tx -> tx.getType() == PaymentTransactionType.AUTHORIZATION)
+                    .findFirst()
+                    .orElseThrow(() -> new PaymentException("AUTH_MISSING", "Authorization transaction missing"));
+
+            GatewayTransactionResult result = callGateway("cancel", null,
+                    () -> authorizeNetClient.voidTransaction(authorization.getAuthorizeNetTransactionId()));
+
+            return inTransaction(() -> {
+                PaymentTransaction voidTx = PaymentTransaction.record(order, PaymentTransactionType.VOID,
+                        order.getMoney(), result.transactionId(), "VOIDED", result.processedAt(),
+                        result.responseCode(), result.responseMessage());
+                order.addTransaction(voidTx);
+                order.markCancelled();
+
+                paymentTransactionRepository.save(voidTx);
+                paymentOrderRepository.save(order);
+
+                paymentAuditService.recordCancel(order, voidTx, actorId);
+                cancelCounter.increment();
+                return order;
+            });
+        });
+    }
+
+    public Refund refund(UUID orderId, Money amount, String lastFour, UUID actorId) {
+        return withinCommandBoundary(() -> {
+            PaymentOrder order = inTransaction(() -> {
+                PaymentOrder loaded = loadOrder(orderId);
+                if (loaded.getStatus() != PaymentOrderStatus.CAPTURED
+                        && loaded.getStatus() != PaymentOrderStatus.SETTLED
+                        && loaded.getStatus() != PaymentOrderStatus.REFUNDED) {
+                    throw new PaymentException("INVALID_STATE",
+                            "Order cannot be refunded from state " + loaded.getStatus());
+                }
+                return loaded;
+            });
+
+            PaymentTransaction captureTx = order.getTransactions().stream()
+                    .filter(tx -> tx.getType() == PaymentTransactionType.CAPTURE
+                            || tx.getType() == PaymentTransactionType.PURCHASE)
+                    .findFirst()
+                    .orElseThrow(() -> new PaymentException("CAPTURE_MISSING", "Capture transaction missing"));
+
+            if (amount.amount().compareTo(order.getMoney().amount()) > 0) {
+                throw new RefundException("INVALID_AMOUNT", "Refund amount exceeds original amount");
+            }
+
+            GatewayTransactionResult result = callGateway("refund", null,
+                    () -> authorizeNetClient.refund(amount, captureTx.getAuthorizeNetTransactionId(), lastFour));
+
+            return inTransaction(() -> {
+                Refund refund = Refund.record(captureTx, amount, "REFUNDED", result.transactionId(),
+                        result.processedAt());
+                refundRepository.save(refund);
+
+                PaymentTransaction refundTx = PaymentTransaction.record(order, PaymentTransactionType.REFUND, amount,
+                        result.transactionId(), "REFUNDED", result.processedAt(), result.responseCode(),
+                        result.responseMessage());
+                order.addTransaction(refundTx);
+                order.markRefunded();
+
+                paymentTransactionRepository.save(refundTx);
+                paymentOrderRepository.save(order);
+
+                paymentAuditService.recordRefund(order, refundTx, actorId);
+                refundCounter.increment();
+                return refund;
+            });
+        });
+    }
+
+    /**
+     * Resolves an order that stayed {@link PaymentOrderStatus#PENDING} past the recovery timeout, meaning the
+     * process died between the gateway call and finalization. The gateway is asked for the transaction the call
+     * left, outside any transaction, and the order is completed or failed to match it. When the gateway cannot tell,
+     * the order moves to {@link PaymentOrderStatus#UNKNOWN} rather than a terminal status, and is audited with its
+     * Authorize.Net reference for manual reconciliation; a later webhook for the transaction still completes it.
+     *
+     * @return {@code true} if the order was still pending and has been resolved
+     */
+    public boolean reconcilePendingOrder(UUID orderId, OffsetDateTime threshold) {
+        if (inTransaction(() -> findStalePending(orderId, threshold)).isEmpty()) {
+            return false;
+        }
+        ReconciledTransaction transaction = lookUpTransaction(orderId);
+        return inTransaction(() -> findStalePending(orderId, threshold)
+                .map(order -> resolvePending(order, transaction))
+                .orElse(false));
+    }
+
+    private Optional<PaymentOrder> findStalePending(UUID orderId, OffsetDateTime threshold) {
+        return paymentOrderRepository.findById(orderId)
+                .filter(order -> order.getStatus() == PaymentOrderStatus.PENDING)
+                .filter(order -> order.getUpdatedAt().isBefore(threshold));
+    }
+
+    private ReconciledTransaction lookUpTransaction(UUID orderId) {
+        try {
+            return authorizeNetClient.findTransaction(orderId.toString()).orElse(null);
+        } catch (RuntimeException ex) {
+            log.warn("Gateway lookup for pending payment order failed orderId={} error={}", orderId,
+                    ex.getMessage());
+            return null;
+        }
+    }
+
+    private boolean resolvePending(PaymentOrder order, ReconciledTransaction transaction) {
+        PaymentOrderStatus outcome = transaction != null ? transaction.orderStatus() : PaymentOrderStatus.UNKNOWN;
+        switch (outcome) {
+            case AUTHORIZED -> completeAuthorization(order, order.getMoney(), reconciledResult(transaction));
+            case CAPTURED -> completePurchase(order, order.getMoney(), reconciledResult(transaction));
+            case FAILED -> {
+                order.markFailed();
+                paymentOrderRepository.save(order);
+                paymentAuditService.recordPendingExpired(order, "GATEWAY_" + transaction.gatewayStatus());
+            }
+            default -> {
+                order.markUnknown();
+                paymentOrderRepository.save(order);
+                paymentAuditService.recordPendingExpired(order, "GATEWAY_OUTCOME_UNKNOWN");
+            }
+        }
+        recoveredCounters.get(outcome).increment();
+        log.warn("Pending payment order resolved orderId={} requestId={} createdAt={} status={} transaction={}",
+                order.getId(), order.getRequestId(), order.getCreatedAt(), order.getStatus(),
+                transaction != null ? transaction.transactionId() : null);
+        return true;
+    }
+
+    private static GatewayTransactionResult reconciledResult(ReconciledTransaction transaction) {
+        return GatewayTransactionResult.success(transaction.transactionId(), "1",
+                "Reconciled from gateway status " + transaction.gatewayStatus(), transaction.submittedAt());
+    }
+
+    private PaymentOrder openPendingOrder(UUID customerId, Money money, IdempotencyKey idempotencyKey,
+            CorrelationId correlationId, String requestId) {
         ensureNoDuplicateRequest(requestId);
 
         PaymentOrder order = PaymentOrder.create(customerId, money, correlationId, requestId,
                 idempotencyKey.value(), OffsetDateTime.now());
-        paymentOrderRepository.save(order);
+        order.markPending();
+        try {
+            paymentOrderRepository.save(order);
+            // Flush so a concurrent duplicate that slipped past the lookup hits the unique index here.
+            paymentOrderRepository.flush();
+        } catch (DataIntegrityViolationException ex) {
+            throw new PaymentException("DUPLICATE_REQUEST", "Duplicate request detected");
+        }
+        requestIdPreFilter.add(requestId);
+        return order;
+    }
 
-        GatewayTransactionResult result = Observation.createNotStarted("payments.purchase", observationRegistry)
-                .lowCardinalityKeyValue("payments.request", "purchase")
-                .observe(() -> authorizeNetClient.purchase(money, paymentNonce, order.getId().toString()));
+    private PaymentOrder completePurchase(PaymentOrder order, Money money, GatewayTransactionResult result) {
         PaymentTransaction transaction = PaymentTransaction.record(order, PaymentTransactionType.PURCHASE,
                 money, result.transactionId(), "SETTLED", result.processedAt(), result.responseCode(),
                 result.responseMessage());
@@ -88,21 +388,10 @@ public class PaymentCommandService {
         return order;
     }
 
-    @Transactional
-    public PaymentOrder authorize(UUID customerId, Money money, String paymentNonce,
-            IdempotencyKey idempotencyKey, CorrelationId correlationId, String requestId) {
-        ensureNoDuplicateRequest(requestId);
-
-        PaymentOrder order = PaymentOrder.create(customerId, money, correlationId, requestId,
-                idempotencyKey.value(), OffsetDateTime.now());
-        paymentOrderRepository.save(order);
-
-        GatewayTransactionResult result = Observation.createNotStarted("payments.authorize", observationRegistry)
-                .lowCardinalityKeyValue("payments.request", "authorize")
-                .observe(() -> authorizeNetClient.authorize(money, paymentNonce, order.getId().toString()));
+    private PaymentOrder completeAuthorization(PaymentOrder order, Money money, GatewayTransactionResult result) {
         PaymentTransaction transaction = PaymentTransaction.record(order,
-                PaymentTransactionType.AUTHORIZATION, money, result.transactionId(), "AUTHORIZED", result.processedAt(),
-                result.responseCode(), result.responseMessage());
+                PaymentTransactionType.AUTHORIZATION, money, result.transactionId(), "AUTHORIZED",
+                result.processedAt(), result.responseCode(), result.responseMessage());
         order.addTransaction(transaction);
         order.markAuthorized();
 
@@ -114,113 +403,93 @@ public class PaymentCommandService {
         return order;
     }
 
-    @Transactional
-    public PaymentOrder capture(UUID orderId, Money amount, UUID actorId) {
-        PaymentOrder order = paymentOrderRepository.findById(orderId)
-                .orElseThrow(() -> new PaymentException("ORDER_NOT_FOUND", "Payment order not found"));
-
-        if (order.getStatus() != PaymentOrderStatus.AUTHORIZED && order.getStatus() != PaymentOrderStatus.CREATED) {
-            throw new PaymentException("INVALID_STATE", "Order cannot be captured from state " + order.getStatus());
+    private GatewayTransactionResult callGateway(String operation, PaymentOrder pendingOrder,
+            Supplier<GatewayTransactionResult> call) {
+        try {
+            return Observation.createNotStarted("payments." + operation, observationRegistry)
+                    .lowCardinalityKeyValue("payments.request", operation)
+                    .lowCardinalityKeyValue("payments.gateway.mode", gatewayCallMode.name().toLowerCase())
+                    .observe(call);
+        } catch (RuntimeException ex) {
+            failPendingOrder(pendingOrder, ex);
+            throw ex;
         }
-
-        PaymentTransaction authorization = order.getTransactions().stream()
-                .filter(tx -> tx.getType() == PaymentTransactionType.AUTHORIZATION)
-                .findFirst()
-                .orElseThrow(() -> new PaymentException("AUTH_MISSING", "Authorization transaction missing"));
-
-        GatewayTransactionResult result = Observation.createNotStarted("payments.capture", observationRegistry)
-                .lowCardinalityKeyValue("payments.request", "capture")
-                .observe(() -> authorizeNetClient.capture(amount, authorization.getAuthorizeNetTransactionId()));
-        PaymentTransaction captureTx = PaymentTransaction.record(order, PaymentTransactionType.CAPTURE,
-                amount, result.transactionId(), "CAPTURED", result.processedAt(), result.responseCode(),
-                result.responseMessage());
-        order.addTransaction(captureTx);
-        order.markCaptured();
-
-        paymentTransactionRepository.save(captureTx);
-        paymentOrderRepository.save(order);
-
-        paymentAuditService.recordCapture(order, captureTx, actorId);
-        captureCounter.increment();
-        return order;
     }
 
-    @Transactional
-    public PaymentOrder cancel(UUID orderId, UUID actorId) {
-        PaymentOrder order = paymentOrderRepository.findById(orderId)
-                .orElseThrow(() -> new PaymentException("ORDER_NOT_FOUND", "Payment order not found"));
-
-        if (order.getStatus() != PaymentOrderStatus.AUTHORIZED && order.getStatus() != PaymentOrderStatus.CREATED && order.getStatus() != PaymentOrderStatus.CAPTURED) {
-            throw new PaymentException("INVALID_STATE", "Order cannot be cancelled from state " + order.getStatus());
+    private CompletableFuture<GatewayTransactionResult> callGatewayAsync(String operation, PaymentOrder pendingOrder,
+            Supplier<CompletableFuture<GatewayTransactionResult>> call) {
+        Observation observation = Observation.createNotStarted("payments." + operation, observationRegistry)
+                .lowCardinalityKeyValue("payments.request", operation)
+                .lowCardinalityKeyValue("payments.gateway.mode", "async")
+                .start();
+        CompletableFuture<GatewayTransactionResult> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException ex) {
+            future = CompletableFuture.failedFuture(ex);
         }
-
-        PaymentTransaction authorization = order.getTransactions().stream()
-//                .filter(tx -> tx.getType() == PaymentTransactionType.AUTHORIZATION)
-                .findFirst()
-                .orElseThrow(() -> new PaymentException("AUTH_MISSING", "Authorization transaction missing"));
-
-        GatewayTransactionResult result = Observation.createNotStarted("payments.cancel", observationRegistry)
-                .lowCardinalityKeyValue("payments.request", "cancel")
-                .observe(() -> authorizeNetClient.voidTransaction(authorization.getAuthorizeNetTransactionId()));
-        PaymentTransaction voidTx = PaymentTransaction.record(order, PaymentTransactionType.VOID,
-                order.getMoney(), result.transactionId(), "VOIDED", result.processedAt(), result.responseCode(),
-                result.responseMessage());
-        order.addTransaction(voidTx);
-        order.markCancelled();
-
-        paymentTransactionRepository.save(voidTx);
-        paymentOrderRepository.save(order);
-
-        paymentAuditService.recordCancel(order, voidTx, actorId);
-        cancelCounter.increment();
-        return order;
+        return future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                observation.error(ex);
+                failPendingOrder(pendingOrder, ex);
+            }
+            observation.stop();
+        });
     }
 
-    @Transactional
-    public Refund refund(UUID orderId, Money amount, String lastFour, UUID actorId) {
-        PaymentOrder order = paymentOrderRepository.findById(orderId)
-                .orElseThrow(() -> new PaymentException("ORDER_NOT_FOUND", "Payment order not found"));
-
-        if (order.getStatus() != PaymentOrderStatus.CAPTURED && order.getStatus() != PaymentOrderStatus.SETTLED
-                && order.getStatus() != PaymentOrderStatus.REFUNDED) {
-            throw new PaymentException("INVALID_STATE", "Order cannot be refunded from state " + order.getStatus());
+    /**
+     * Fails a committed pending order, but only when the gateway has definitely not charged for it: the call was
+     * declined, or refused before it was sent. After a timeout or a broken connection Authorize.Net may have taken
+     * the charge, so the order stays {@link PaymentOrderStatus#PENDING} for {@link #reconcilePendingOrder}.
+     */
+    private void failPendingOrder(PaymentOrder pendingOrder, Throwable failure) {
+        if (pendingOrder == null || gatewayCallMode != GatewayCallMode.STAGED) {
+            // In inline mode the surrounding rollback discards the order; staged orders are already committed.
+            return;
         }
-
-        PaymentTransaction captureTx = order.getTransactions().stream()
-                .filter(tx -> tx.getType() == PaymentTransactionType.CAPTURE
-                        || tx.getType() == PaymentTransactionType.PURCHASE)
-                .findFirst()
-                .orElseThrow(() -> new PaymentException("CAPTURE_MISSING", "Capture transaction missing"));
-
-        if (amount.amount().compareTo(order.getMoney().amount()) > 0) {
-            throw new RefundException("INVALID_AMOUNT", "Refund amount exceeds original amount");
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (!(cause instanceof PaymentException paymentException)
+                || !NOT_CHARGED_ERRORS.contains(paymentException.getErrorCode())) {
+            log.warn("Gateway outcome unknown; leaving payment order pending for reconciliation orderId={} error={}",
+                    pendingOrder.getId(), cause.getMessage());
+            return;
         }
+        inTransaction(() -> {
+            pendingOrder.markFailed();
+            paymentOrderRepository.save(pendingOrder);
+            return pendingOrder;
+        });
+    }
 
-        GatewayTransactionResult result = Observation.createNotStarted("payments.refund", observationRegistry)
-                .lowCardinalityKeyValue("payments.request", "refund")
-                .observe(() -> authorizeNetClient.refund(amount, captureTx.getAuthorizeNetTransactionId(), lastFour));
-        Refund refund = Refund.record(captureTx, amount, "REFUNDED", result.transactionId(),
-                result.processedAt());
-        refundRepository.save(refund);
-
-        PaymentTransaction refundTx = PaymentTransaction.record(order, PaymentTransactionType.REFUND, amount,
-                result.transactionId(), "REFUNDED", result.processedAt(), result.responseCode(),
-                result.responseMessage());
-        order.addTransaction(refundTx);
-        order.markRefunded();
+    private <T> T withinCommandBoundary(Supplier<T> command) {
+        if (gatewayCallMode == GatewayCallMode.INLINE) {
+            return transactionTemplate.execute(status -> command.get());
+        }
+        return command.get();
+    }
 
-        paymentTransactionRepository.save(refundTx);
-        paymentOrderRepository.save(order);
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
 
-        paymentAuditService.recordRefund(order, refundTx, actorId);
-        refundCounter.increment();
-        return refund;
+    private PaymentOrder loadOrder(UUID orderId) {
+        PaymentOrder order = paymentOrderRepository.findById(orderId)
+                .orElseThrow(() -> new PaymentException("ORDER_NOT_FOUND", "Payment order not found"));
+        // Initialise the lazy collection while the session is open; the gateway stage runs detached.
+        order.getTransactions().size();
+        return order;
     }
 
     private void ensureNoDuplicateRequest(String requestId) {
+        if (requestIdPreFilter.isDefinitelyNew(requestId)) {
+            return;
+        }
         Optional<PaymentOrder> existing = paymentOrderRepository.findByRequestId(requestId);
         if (existing.isPresent()) {
             throw new PaymentException("DUPLICATE_REQUEST", "Duplicate request detected");
         }
+        requestIdPreFilter.recordFalsePositive();
     }
 }
@@ -0,0 +1,253 @@
+package com.example.payments.application.services;
+
+import com.example.payments.adapters.persistence.PaymentOrderRepository;
+import com.example.payments.adapters.persistence.PaymentOrderRepository.RequestIdKey;
+import com.example.payments.application.properties.PaymentProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory pre-check for payment {@code requestId} duplicates.
+ *
+ * <p>Almost every requestId is new, so the duplicate lookup normally finds nothing. This filter keeps a ring of
+ * Bloom filters, one per {@code window}, and answers "definitely new" without touching the database when none of
+ * them contains the id. A "maybe present" answer falls through to the repository lookup. The filter is per node;
+ * the unique index on {@code payment_orders.request_id} remains the authoritative guard across nodes.</p>
+ *
+ * <p>Until the warm-up from recent orders has finished every check is reported as "maybe present", so a restart
+ * never lets a duplicate skip the lookup.</p>
+ */
+@Component
+public class RequestIdPreFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestIdPreFilter.class);
+    private static final int WARM_UP_PAGE_SIZE = 5_000;
+
+    private final PaymentOrderRepository paymentOrderRepository;
+    private final PaymentProperties.RequestIdFilter settings;
+    private final Clock clock;
+    private final int numBits;
+    private final int numHashes;
+    private final Generation[] generations;
+
+    private volatile int current;
+    private volatile boolean ready;
+
+    private final Counter definitelyNew;
+    private final Counter maybePresent;
+    private final Counter falsePositives;
+
+    public RequestIdPreFilter(PaymentOrderRepository paymentOrderRepository, PaymentProperties properties,
+            MeterRegistry meterRegistry, Clock clock) {
+        this.paymentOrderRepository = paymentOrderRepository;
+        this.settings = properties.getRequestIdFilter();
+        this.clock = clock;
+        long expected = Math.max(1, settings.getExpectedInsertionsPerWindow());
+        double fpp = settings.getFalsePositiveRate();
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("payments.request-id-filter.false-positive-rate must be in (0, 1)");
+        }
+        long bits = (long) Math.ceil(-expected * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64, bits));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expected * Math.log(2)));
+        int count = settings.isEnabled() ? Math.max(1, settings.getGenerations()) : 0;
+        this.generations = new Generation[count];
+        Instant now = clock.instant();
+        for (int i = 0; i < count; i++) {
+            generations[i] = new Generation(numBits, now);
+        }
+
+        this.definitelyNew = checkCounter(meterRegistry, "definitely_new");
+        this.maybePresent = checkCounter(meterRegistry, "maybe_present");
+        this.falsePositives = Counter.builder("payments.request_id.filter.false_positive.count")
+                .description("Maybe-present answers the database lookup showed to be new")
+                .register(meterRegistry);
+        Gauge.builder("payments.request_id.filter.memory.bytes", this, RequestIdPreFilter::memoryBytes)
+                .description("Heap held by the requestId Bloom filter generations")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("payments.request_id.filter.fpp", this, RequestIdPreFilter::estimatedFalsePositiveRate)
+                .description("Estimated false-positive probability across live generations")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns {@code true} only when the id has certainly not been seen in the retained windows, so the caller may
+     * skip the database lookup.
+     */
+    public boolean isDefinitelyNew(String requestId) {
+        if (!ready || generations.length == 0) {
+            return false;
+        }
+        rotateIfDue();
+        long hash = hash(requestId);
+        for (Generation generation : generations) {
+            if (generation.mightContain(hash, numHashes, numBits)) {
+                maybePresent.increment();
+                return false;
+            }
+        }
+        definitelyNew.increment();
+        return true;
+    }
+
+    public void add(String requestId) {
+        if (generations.length == 0) {
+            return;
+        }
+        rotateIfDue();
+        generations[current].put(hash(requestId), numHashes, numBits);
+    }
+
+    /** Called when a "maybe present" answer turned out to be new; answers given before warm-up do not count. */
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.increment();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (generations.length == 0) {
+            return;
+        }
+        OffsetDateTime since = OffsetDateTime.now(clock)
+                .minus(settings.getWindow().multipliedBy(generations.length));
+        long loaded = 0;
+        try {
+            OffsetDateTime afterCreatedAt = since;
+            UUID afterId = new UUID(0, 0);
+            List<RequestIdKey> page;
+            do {
+                page = paymentOrderRepository.findRequestIdsCreatedAfter(afterCreatedAt, afterId,
+                        PageRequest.ofSize(WARM_UP_PAGE_SIZE));
+                for (RequestIdKey key : page) {
+                    add(key.getRequestId());
+                    afterCreatedAt = key.getCreatedAt();
+                    afterId = key.getId();
+                }
+                loaded += page.size();
+            } while (page.size() == WARM_UP_PAGE_SIZE);
+        } catch (RuntimeException ex) {
+            log.warn("RequestId pre-filter warm-up failed, duplicate checks stay on the database: {}",
+                    ex.getMessage());
+            return;
+        }
+        ready = true;
+        log.info("RequestId pre-filter warmed up with {} ids since {}", loaded, since);
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    private void rotateIfDue() {
+        Instant now = clock.instant();
+        Duration window = settings.getWindow();
+        if (generations[current].startedAt.plus(window).isAfter(now)) {
+            return;
+        }
+        synchronized (generations) {
+            if (generations[current].startedAt.plus(window).isAfter(now)) {
+                return;
+            }
+            int next = (current + 1) % generations.length;
+            generations[next] = new Generation(numBits, now);
+            current = next;
+        }
+    }
+
+    private double memoryBytes() {
+        return (double) generations.length * ((numBits + 63) / 64) * Long.BYTES;
+    }
+
+    private double estimatedFalsePositiveRate() {
+        double allNegative = 1.0;
+        for (Generation generation : generations) {
+            double fillRatio = 1 - Math.exp(-(double) numHashes * generation.insertions.get() / numBits);
+            allNegative *= 1 - Math.pow(fillRatio, numHashes);
+        }
+        return 1 - allNegative;
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payments.request_id.filter.check.count")
+                .description("RequestId pre-filter answers")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer. */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Generation {
+
+        private final AtomicLongArray words;
+        private final AtomicLong insertions = new AtomicLong();
+        private final Instant startedAt;
+
+        private Generation(int numBits, Instant startedAt) {
+            this.words = new AtomicLongArray((numBits + 63) / 64);
+            this.startedAt = startedAt;
+        }
+
+        // Kirsch-Mitzenmacher double hashing: bit_i = h1 + i * h2.
+        private void put(long hash, int numHashes, int numBits) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+                long mask = 1L << bit;
+                int index = bit >>> 6;
+                long word;
+                do {
+                    word = words.get(index);
+                    if ((word & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(index, word, word | mask));
+            }
+            insertions.incrementAndGet();
+        }
+
+        private boolean mightContain(long hash, int numHashes, int numBits) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.payments.application.services;
+
+import com.example.payments.adapters.persistence.SchedulerLeaseRepository;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+
+/**
+ * Database-backed leases that keep a scheduled job on one node. The holder renews the lease on every run; if it
+ * stops renewing, another node takes the job over once the lease has expired.
+ */
+@Service
+public class SchedulerLeaseService {
+
+    private final SchedulerLeaseRepository repository;
+    private final Clock clock;
+    private final String owner;
+
+    public SchedulerLeaseService(SchedulerLeaseRepository repository, Clock clock) {
+        this.repository = repository;
+        this.clock = clock;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Acquires or renews the named lease for {@code ttl}. Returns {@code false} while another node holds it.
+     */
+    public boolean tryAcquire(String name, Duration ttl) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        return repository.tryAcquire(name, owner, now, now.plus(ttl));
+    }
+
+    /**
+     * Gives the lease up early so another node does not have to wait for it to expire.
+     */
+    public void release(String name) {
+        repository.release(name, owner, OffsetDateTime.now(clock));
+    }
+
+    /**
+     * Number of leases currently held, by any node, whose name starts with {@code prefix}.
+     */
+    public int countLive(String prefix) {
+        return repository.countLive(prefix, OffsetDateTime.now(clock));
+    }
+
+    public String owner() {
+        return owner;
+    }
+}
@@ -1,47 +1,103 @@
 package com.example.payments.application.services;
 
-import com.example.payments.adapters.persistence.SubscriptionRepository;
 import com.example.payments.application.properties.SubscriptionProperties;
-import com.example.payments.domain.billing.Subscription;
-import com.example.payments.domain.billing.SubscriptionStatus;
-import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import java.time.Clock;
 import java.time.OffsetDateTime;
-import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Triggers billing runs for the shards this node holds (see {@link BillingShardCoordinator}). Runs execute on a
+ * dedicated pool, so a long run neither delays other scheduled jobs nor the lease heartbeat; a shard whose previous
+ * run is still going is not started again. The shard lease is renewed before every chunk, so a node that loses a shard
+ * stops after its current chunk and the new holder resumes the run from its checkpoint. Near-term schedules are
+ * normally billed when due by {@link com.example.payments.application.scheduling.NearTermBillingScheduler}; these runs
+ * are the reconciliation pass that catches whatever it missed.
+ */
 @Component
 public class SubscriptionScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(SubscriptionScheduler.class);
 
-    private final SubscriptionRepository subscriptionRepository;
-    private final SubscriptionService subscriptionService;
+    private final BillingRunService billingRunService;
+    private final BillingShardCoordinator coordinator;
     private final Clock clock;
-    private final SubscriptionProperties properties;
-    private final MeterRegistry meterRegistry;
+    private final ExecutorService workers;
+    private final Set<Integer> running = ConcurrentHashMap.newKeySet();
 
-    public SubscriptionScheduler(SubscriptionRepository subscriptionRepository,
-            SubscriptionService subscriptionService, Clock clock, SubscriptionProperties properties, MeterRegistry meterRegistry) {
-        this.subscriptionRepository = subscriptionRepository;
-        this.subscriptionService = subscriptionService;
+    public SubscriptionScheduler(BillingRunService billingRunService, BillingShardCoordinator coordinator, Clock clock,
+            SubscriptionProperties properties) {
+        this.billingRunService = billingRunService;
+        this.coordinator = coordinator;
         this.clock = clock;
-        this.properties = properties;
-        this.meterRegistry = meterRegistry;
+        this.workers = newWorkers(properties.getBilling().getWorkerThreads());
+    }
+
+    @Scheduled(fixedDelayString = "${subscription.billing.heartbeat-millis:10000}")
+    public void heartbeat() {
+        try {
+            coordinator.heartbeat(Set.copyOf(running));
+        } catch (RuntimeException ex) {
+            log.error("Billing shard heartbeat failed error={}", ex.getMessage(), ex);
+        }
     }
 
     @Scheduled(cron = "${subscription.retry.schedule-cron:0 */5 * * * *}")
     public void processDueSubscriptions() {
         OffsetDateTime threshold = OffsetDateTime.now(clock);
-        List<Subscription> dueSubscriptions = subscriptionRepository.findByStatusInAndNextBillingAtLessThanEqual(
-                List.of(SubscriptionStatus.ACTIVE, SubscriptionStatus.DELINQUENT), threshold);
-        if (!dueSubscriptions.isEmpty()) {
-            log.debug("Processing {} due subscriptions threshold={}", dueSubscriptions.size(), threshold);
-            subscriptionService.processDueSubscriptions(threshold);
-            meterRegistry.counter("subscriptions.scheduler.due", "count", String.valueOf(dueSubscriptions.size())).increment();
+        for (Integer shard : coordinator.heldShards()) {
+            if (!running.add(shard)) {
+                continue;
+            }
+            try {
+                workers.execute(() -> runShard(shard, threshold));
+            } catch (RejectedExecutionException ex) {
+                running.remove(shard);
+                log.warn("Billing shard {} not started error={}", shard, ex.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            // Interrupted runs stay RUNNING and resume from their last checkpoint on whichever node claims the shard.
+            workers.shutdownNow();
         }
+        try {
+            coordinator.releaseAll();
+        } catch (RuntimeException ex) {
+            log.debug("Could not release billing leases error={}", ex.getMessage());
+        }
+    }
+
+    private void runShard(int shard, OffsetDateTime threshold) {
+        try {
+            billingRunService.run(shard, threshold, () -> coordinator.renew(shard));
+        } catch (RuntimeException ex) {
+            log.error("Billing run failed shard={} error={}", shard, ex.getMessage(), ex);
+        } finally {
+            running.remove(shard);
+        }
+    }
+
+    private static ExecutorService newWorkers(int threads) {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "subscription-billing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 }
@@ -4,6 +4,8 @@ import com.example.payments.adapters.persistence.DunningHistoryRepository;
 import com.example.payments.adapters.persistence.SubscriptionRepository;
 import com.example.payments.adapters.persistence.SubscriptionScheduleRepository;
 import com.example.payments.application.properties.SubscriptionProperties;
+import com.example.payments.application.scheduling.BillingScheduledEvent;
+import com.example.payments.domain.billing.BillingOutcome;
 import com.example.payments.domain.billing.DunningHistory;
 import com.example.payments.domain.billing.Subscription;
 import com.example.payments.domain.billing.SubscriptionBillingCycle;
@@ -18,13 +20,17 @@ import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.math.BigDecimal;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -42,6 +48,7 @@ public class SubscriptionService {
     private final Clock clock;
     private final IdempotencyService idempotencyService;
     private final SubscriptionProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
     private final Counter subscriptionCreateCounter;
     private final Counter subscriptionChargeSuccessCounter;
     private final Counter subscriptionChargeFailureCounter;
@@ -49,7 +56,8 @@ public class SubscriptionService {
     public SubscriptionService(SubscriptionRepository subscriptionRepository,
             SubscriptionScheduleRepository subscriptionScheduleRepository,
             DunningHistoryRepository dunningHistoryRepository, AuthorizeNetClient authorizeNetClient, Clock clock,
-            IdempotencyService idempotencyService, SubscriptionProperties properties, MeterRegistry meterRegistry) {
+            IdempotencyService idempotencyService, SubscriptionProperties properties, MeterRegistry meterRegistry,
+            ApplicationEventPublisher eventPublisher) {
         this.subscriptionRepository = subscriptionRepository;
         this.subscriptionScheduleRepository = subscriptionScheduleRepository;
         this.dunningHistoryRepository = dunningHistoryRepository;
@@ -57,6 +65,7 @@ public class SubscriptionService {
         this.clock = clock;
         this.idempotencyService = idempotencyService;
         this.properties = properties;
+        this.eventPublisher = eventPublisher;
         this.subscriptionCreateCounter = Counter.builder("subscriptions.create.count").register(meterRegistry);
         this.subscriptionChargeSuccessCounter = Counter.builder("subscriptions.charge.success.count").register(meterRegistry);
         this.subscriptionChargeFailureCounter = Counter.builder("subscriptions.charge.failure.count").register(meterRegistry);
@@ -79,8 +88,7 @@ public class SubscriptionService {
         Subscription subscription = Subscription.create(customerId, planCode, cycle, intervalDays, amount,
                 currency, paymentMethodToken, clientReference, trialEnd, firstBilling, maxRetryAttempts, now);
         Subscription saved = subscriptionRepository.save(subscription);
-        SubscriptionSchedule schedule = SubscriptionSchedule.pending(saved, 0, firstBilling, now);
-        subscriptionScheduleRepository.save(schedule);
+        savePending(SubscriptionSchedule.pending(saved, 0, firstBilling, now));
         idempotencyService.persist(idempotencyKey,
                 correlationId.value() + "-subscription-create", saved.getId().toString(), 201);
         log.info("Subscription created subscription={} correlationId={}", saved.getId(),
@@ -93,21 +101,20 @@ public class SubscriptionService {
     public void pauseSubscription(UUID subscriptionId) {
         Subscription subscription = loadSubscription(subscriptionId);
         subscription.pause(OffsetDateTime.now(clock));
-        subscriptionRepository.save(subscription);
     }
 
     @Transactional
     public Subscription resumeSubscription(UUID subscriptionId, OffsetDateTime nextBillingAt) {
         Subscription subscription = loadSubscription(subscriptionId);
         subscription.resume(nextBillingAt, OffsetDateTime.now(clock));
-        return subscriptionRepository.save(subscription);
+        return subscription;
     }
 
     @Transactional
     public Subscription cancelSubscription(UUID subscriptionId) {
         Subscription subscription = loadSubscription(subscriptionId);
         subscription.cancel(OffsetDateTime.now(clock));
-        return subscriptionRepository.save(subscription);
+        return subscription;
     }
 
     @Transactional
@@ -131,7 +138,7 @@ public class SubscriptionService {
         intervalDays.ifPresent(days -> subscription.setIntervalDays(days, now));
         nextBillingAt.ifPresent(subscription::setNextBillingAt);
 
-        return subscriptionRepository.save(subscription);
+        return subscription;
     }
 
     @Transactional(readOnly = true)
@@ -156,68 +163,102 @@ public class SubscriptionService {
         return dunningHistoryRepository.findBySubscriptionIdOrderByCreatedAtDesc(subscription.getId());
     }
 
-    @Transactional
-    public void processDueSubscriptions(OffsetDateTime threshold) {
-        List<Subscription> due = subscriptionRepository.findByStatusInAndNextBillingAtLessThanEqual(
-                List.of(SubscriptionStatus.ACTIVE, SubscriptionStatus.DELINQUENT), threshold);
-        for (Subscription subscription : due) {
-            var pendingSchedules = subscriptionScheduleRepository.findBySubscriptionIdAndStatus(subscription.getId(),
-                    ScheduleStatus.PENDING);
-            pendingSchedules.forEach(schedule -> processSchedule(subscription, schedule));
+    /**
+     * Charges one due schedule in a transaction of its own, separate from any transaction of the caller: billing runs
+     * call it while their read cursor stays open. The schedule and its subscription are loaded together and
+     * re-checked, since they may have been billed, paused or cancelled after the run read them.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public BillingOutcome billSchedule(UUID scheduleId, OffsetDateTime threshold) {
+        SubscriptionSchedule schedule = subscriptionScheduleRepository.findWithSubscriptionById(scheduleId)
+                .orElse(null);
+        if (schedule == null || schedule.getStatus() != ScheduleStatus.PENDING
+                || schedule.getScheduledAt().isAfter(threshold) || !isDue(schedule.getSubscription(), threshold)) {
+            return BillingOutcome.SKIPPED;
         }
+        return processSchedule(schedule.getSubscription(), schedule) ? BillingOutcome.CHARGED : BillingOutcome.DECLINED;
+    }
+
+    private static boolean isDue(Subscription subscription, OffsetDateTime threshold) {
+        return (subscription.getStatus() == SubscriptionStatus.ACTIVE
+                || subscription.getStatus() == SubscriptionStatus.DELINQUENT)
+                && !subscription.getNextBillingAt().isAfter(threshold);
     }
 
-    private void processSchedule(Subscription subscription, SubscriptionSchedule schedule) {
+    /**
+     * Returns whether the charge went through.
+     */
+    private boolean processSchedule(Subscription subscription, SubscriptionSchedule schedule) {
         OffsetDateTime now = OffsetDateTime.now(clock);
         try {
             authorizeNetClient.purchase(
                     new com.example.payments.domain.payments.Money(subscription.getAmount(), subscription.getCurrency()),
                     subscription.getPaymentMethodToken(), subscription.getClientReference());
             subscription.recordSuccessfulCharge(now);
-            subscriptionRepository.save(subscription);
             schedule.markSuccess(now);
-            subscriptionScheduleRepository.save(schedule);
+            savePending(SubscriptionSchedule.pending(subscription, schedule.getAttemptNumber() + 1,
+                    subscription.getNextBillingAt(), now));
             log.info("Subscription charge success subscription={} nextBilling={}", subscription.getId(),
                     subscription.getNextBillingAt());
             subscriptionChargeSuccessCounter.increment();
+            return true;
         } catch (Exception ex) {
             OffsetDateTime nextAttempt = calculateRetryTime(subscription, now);
             subscription.recordFailedCharge(nextAttempt, now);
-            subscriptionRepository.save(subscription);
             schedule.markFailure(ex.getMessage(), now);
-            subscriptionScheduleRepository.save(schedule);
             dunningHistoryRepository.save(DunningHistory.record(subscription, now, "FAILED", "GATEWAY_ERROR",
                     ex.getMessage(), now));
             log.error("Subscription charge failed subscription={} error={}", subscription.getId(), ex.getMessage(), ex);
             subscriptionChargeFailureCounter.increment();
             if (subscription.hasExceededRetryAttempts()) {
                 subscription.cancel(now);
-                subscriptionRepository.save(subscription);
                 log.warn("Subscription auto-cancelled after max retries subscription={}", subscription.getId());
-                return;
+                return false;
             }
             int autoCancelDays = properties.getRetry().getAutoCancelDays();
             if (subscription.shouldAutoCancel(now, autoCancelDays)) {
                 subscription.cancel(now);
-                subscriptionRepository.save(subscription);
                 log.warn("Subscription auto-cancelled after delinquency window subscription={}",
                         subscription.getId());
             } else {
-                SubscriptionSchedule retrySchedule = SubscriptionSchedule.pending(subscription,
-                        schedule.getAttemptNumber() + 1, nextAttempt, now);
-                subscriptionScheduleRepository.save(retrySchedule);
+                savePending(SubscriptionSchedule.pending(subscription, schedule.getAttemptNumber() + 1,
+                        nextAttempt, now));
             }
+            return false;
         }
     }
 
+    private void savePending(SubscriptionSchedule schedule) {
+        subscriptionScheduleRepository.save(schedule);
+        Subscription subscription = schedule.getSubscription();
+        eventPublisher.publishEvent(new BillingScheduledEvent(schedule.getId(), subscription.getId(),
+                schedule.getScheduledAt(), subscription.getBillingBucket()));
+    }
+
     private OffsetDateTime calculateRetryTime(Subscription subscription, OffsetDateTime now) {
         int retry = subscription.getRetryCount();
-        return switch (retry) {
+        return spread(subscription, switch (retry) {
             case 0 -> now.plusDays(1);
             case 1 -> now.plusDays(3);
             case 2 -> now.plusDays(7);
             default -> subscription.calculateNextBillingAfter(now);
-        };
+        });
+    }
+
+    /**
+     * Pushes a retry into the subscription's slot of the retry spread, at a random point within the slot, so the
+     * declines of one billing run do not all come back at the same instant.
+     */
+    private OffsetDateTime spread(Subscription subscription, OffsetDateTime nominal) {
+        long spreadMillis = properties.getRetry().getSpread().toMillis();
+        if (spreadMillis <= 0) {
+            return nominal;
+        }
+        int slots = Math.max(1, properties.getRetry().getSpreadSlots());
+        long slotMillis = Math.max(1, spreadMillis / slots);
+        long slot = Math.floorMod(subscription.getId().hashCode(), slots);
+        long jitter = ThreadLocalRandom.current().nextLong(slotMillis);
+        return nominal.plus(Duration.ofMillis(slot * slotMillis + jitter));
     }
 
     private Subscription loadSubscription(UUID subscriptionId) {
@@ -0,0 +1,62 @@
+package com.example.payments.application.services;
+
+/**
+ * Token bucket that hands out reservations rather than refusals: a caller that finds the bucket empty takes a token
+ * on credit and is told how long to wait for it, so waiting callers are served in turn at exactly the refill rate.
+ * Holds up to {@code burst} tokens; times are {@link System#nanoTime()} readings.
+ */
+final class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double burst;
+    private double ratePerSecond;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, double burst, long nowNanos) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.refilledAt = nowNanos;
+    }
+
+    /**
+     * Reserves one token at {@code ratePerSecond}. Returns the nanoseconds to wait before using it, or {@code -1},
+     * reserving nothing, when that wait would exceed {@code maxWaitNanos}.
+     */
+    synchronized long reserve(double ratePerSecond, long nowNanos, long maxWaitNanos) {
+        refill(nowNanos);
+        this.ratePerSecond = ratePerSecond;
+        long wait = waitFor(tokens - 1);
+        if (wait > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return wait;
+    }
+
+    /**
+     * How long a reservation made now would wait: the tokens already promised to waiting callers, in time.
+     */
+    synchronized long backlogNanos(long nowNanos) {
+        refill(nowNanos);
+        return waitFor(tokens);
+    }
+
+    synchronized double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    private long waitFor(double balance) {
+        return balance >= 0 ? 0 : (long) Math.ceil(-balance / ratePerSecond * NANOS_PER_SECOND);
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed / NANOS_PER_SECOND * ratePerSecond);
+            refilledAt = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.payments.application.services;
+
+import com.example.payments.application.properties.WebhookProperties;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-based duplicate detection for webhook payloads.
+ *
+ * <p>{@link #digest(byte[])} hashes the canonical form of a JSON payload (object keys sorted, insignificant
+ * whitespace dropped) to a fixed 64-character SHA-256 hex string, so a redelivery that only differs in formatting or
+ * key order gets the same digest. Payloads that are not JSON are hashed as-is.</p>
+ *
+ * <p>Digests of recently recorded events are kept in two rotating generations, so a burst of redeliveries is
+ * answered without touching the database. The cache is per node and only ever says "seen"; the unique indexes on
+ * {@code webhook_events} remain the authority.</p>
+ */
+@Component
+public class WebhookDeduplicator {
+
+    private final ObjectMapper objectMapper;
+    private final WebhookProperties.Dedupe settings;
+    private final Clock clock;
+    private final Counter cacheHits;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    public WebhookDeduplicator(ObjectMapper objectMapper, WebhookProperties properties, MeterRegistry meterRegistry,
+            Clock clock) {
+        this.objectMapper = objectMapper;
+        this.settings = properties.getDedupe();
+        this.clock = clock;
+        Instant now = clock.instant();
+        this.current = new Generation(now);
+        this.previous = new Generation(now);
+        this.cacheHits = Counter.builder("webhooks.dedupe.cache.hit.count")
+                .description("Webhook redeliveries rejected by the recent-events cache without a database write")
+                .register(meterRegistry);
+        Gauge.builder("webhooks.dedupe.cache.size", this, WebhookDeduplicator::cachedCount)
+                .description("Payload digests held in the recent-events cache")
+                .register(meterRegistry);
+    }
+
+    public String digest(byte[] payload) {
+        MessageDigest sha256 = newSha256();
+        JsonNode tree = parse(payload);
+        if (tree == null) {
+            sha256.update(payload);
+        } else {
+            try (JsonGenerator generator = objectMapper.getFactory()
+                    .createGenerator(new DigestOutputStream(OutputStream.nullOutputStream(), sha256))) {
+                writeCanonical(tree, generator);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to canonicalise webhook payload", ex);
+            }
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    public boolean seenRecently(String digest) {
+        rotateIfDue();
+        boolean seen = current.digests.contains(digest) || previous.digests.contains(digest);
+        if (seen) {
+            cacheHits.increment();
+        }
+        return seen;
+    }
+
+    public void remember(String digest) {
+        rotateIfDue();
+        current.digests.add(digest);
+    }
+
+    int cachedCount() {
+        return current.digests.size() + previous.digests.size();
+    }
+
+    private void rotateIfDue() {
+        Generation generation = current;
+        Instant now = clock.instant();
+        boolean expired = !now.isBefore(generation.startedAt.plus(settings.getRecentWindow()));
+        if (!expired && generation.digests.size() < settings.getMaxRecentEntries()) {
+            return;
+        }
+        synchronized (this) {
+            if (current == generation) {
+                previous = generation;
+                current = new Generation(now);
+            }
+        }
+    }
+
+    private JsonNode parse(byte[] payload) {
+        try {
+            JsonNode tree = objectMapper.readTree(payload);
+            return tree == null || tree.isMissingNode() ? null : tree;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static void writeCanonical(JsonNode node, JsonGenerator generator) throws IOException {
+        if (node.isObject()) {
+            List<Map.Entry<String, JsonNode>> fields = new ArrayList<>(node.size());
+            for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+                fields.add(it.next());
+            }
+            fields.sort(Map.Entry.comparingByKey());
+            generator.writeStartObject();
+            for (Map.Entry<String, JsonNode> field : fields) {
+                generator.writeFieldName(field.getKey());
+                writeCanonical(field.getValue(), generator);
+            }
+            generator.writeEndObject();
+        } else if (node.isArray()) {
+            generator.writeStartArray();
+            for (JsonNode element : node) {
+                writeCanonical(element, generator);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeTree(node);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static final class Generation {
+
+        private final Instant startedAt;
+        private final Set<String> digests = ConcurrentHashMap.newKeySet();
+
+        private Generation(Instant startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.payments.application.services;
+
+import com.example.payments.adapters.persistence.WebhookOutboxRepository;
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.domain.webhook.WebhookEvent;
+import com.example.payments.domain.webhook.WebhookOutboxMessage;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Transactional outbox for webhook events. Recording an event only writes an outbox row next to it; the
+ * {@code WebhookOutboxRelay} publishes the rows and removes them once the broker has confirmed them.
+ */
+@Service
+public class WebhookOutboxService {
+
+    private final WebhookOutboxRepository repository;
+    private final WebhookProperties.Outbox settings;
+    private final Clock clock;
+
+    public WebhookOutboxService(WebhookOutboxRepository repository, WebhookProperties properties, Clock clock) {
+        this.repository = repository;
+        this.settings = properties.getOutbox();
+        this.clock = clock;
+    }
+
+    /**
+     * Queues the event for publication. Joins the caller's transaction so the outbox row commits or rolls back with
+     * the event itself.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(WebhookEvent event) {
+        repository.save(WebhookOutboxMessage.forEvent(event, OffsetDateTime.now(clock)));
+    }
+
+    /**
+     * Queues requeued events for publication once their backoff has elapsed. Joins the caller's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueRetries(Collection<WebhookEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        List<WebhookOutboxMessage> messages = new ArrayList<>(events.size());
+        for (WebhookEvent event : events) {
+            OffsetDateTime availableAt = event.getNextAttemptAt() != null ? event.getNextAttemptAt() : now;
+            messages.add(WebhookOutboxMessage.forEvent(event, availableAt, now));
+        }
+        repository.saveAll(messages);
+    }
+
+    /**
+     * Leases the next batch for this relay. Leased messages are invisible to other relays until the lease expires,
+     * which is also how unconfirmed messages get retried.
+     */
+    @Transactional
+    public List<WebhookOutboxMessage> claimBatch(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        return repository.claimBatch(now, now.plus(settings.getLease()), limit);
+    }
+
+    @Transactional
+    public void markPublished(Collection<UUID> messageIds) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        repository.deleteAllByIdIn(messageIds);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.payments.application.services;
+
+import com.example.payments.adapters.persistence.WebhookEventPartitionRepository;
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.domain.shared.CompressedTextConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Lifecycle of the daily {@code webhook_events} partitions: creating them ahead of time, failing events that were
+ * never finished within the active window, and archiving partitions past retention to
+ * {@code <archiveDirectory>/<partition>.jsonl.gz} before they are dropped.
+ */
+@Service
+public class WebhookPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookPartitionService.class);
+
+    private final WebhookEventPartitionRepository repository;
+    private final ObjectMapper objectMapper;
+    private final WebhookProperties.Partitions settings;
+    private final Clock clock;
+
+    public WebhookPartitionService(WebhookEventPartitionRepository repository, ObjectMapper objectMapper,
+            WebhookProperties properties, Clock clock) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.settings = properties.getPartitions();
+        this.clock = clock;
+    }
+
+    /**
+     * Makes sure partitions exist from today through {@code premakeDays} ahead.
+     */
+    public void createUpcomingPartitions() {
+        LocalDate today = LocalDate.now(clock.withZone(ZoneOffset.UTC));
+        for (int offset = 0; offset <= settings.getPremakeDays(); offset++) {
+            repository.create(today.plusDays(offset));
+        }
+    }
+
+    /**
+     * Fails events received before the active window that are still pending or processing. The hot-path queries no
+     * longer see them, so they would otherwise stay unfinished and keep their partition from being archived.
+     */
+    @Transactional
+    public int failInactiveEvents() {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        return repository.failUnfinishedReceivedBefore(now.minus(settings.getActiveWindow()),
+                "Not processed within " + settings.getActiveWindow(), now);
+    }
+
+    /**
+     * Attached partitions whose whole day lies more than {@code retention} in the past, oldest first.
+     */
+    public List<LocalDate> partitionsPastRetention() {
+        OffsetDateTime cutoff = OffsetDateTime.now(clock).minus(settings.getRetention());
+        return repository.attachedDays().stream()
+                .filter(day -> !day.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC).isAfter(cutoff))
+                .toList();
+    }
+
+    public boolean hasUnfinished(LocalDate day) {
+        return repository.hasUnfinished(day);
+    }
+
+    /**
+     * Writes every event of the day's partition to a gzipped JSON-lines file, one object per row with the payload
+     * decompressed. The file is written under a temporary name and moved into place once complete, so a present
+     * archive is always whole.
+     */
+    @Transactional(readOnly = true)
+    public Path archive(LocalDate day) throws IOException {
+        Path directory = Path.of(settings.getArchiveDirectory());
+        Files.createDirectories(directory);
+        String name = WebhookEventPartitionRepository.name(day);
+        Path target = directory.resolve(name + ".jsonl.gz");
+        Path partial = directory.resolve(name + ".jsonl.gz.part");
+        long[] rows = {0};
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024);
+                SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            repository.forEachRow(day, settings.getExportFetchSize(), row -> {
+                if (row.get("payload") instanceof byte[] stored) {
+                    row.put("payload", CompressedTextConverter.decode(stored));
+                }
+                try {
+                    writer.write(row);
+                    rows[0]++;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            Files.deleteIfExists(partial);
+            throw ex.getCause();
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(partial);
+            throw ex;
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Archived webhook partition {} rows={} file={}", name, rows[0], target);
+        return target;
+    }
+
+    @Transactional
+    public void drop(LocalDate day) {
+        repository.detachAndDrop(day);
+        log.info("Dropped webhook partition {}", WebhookEventPartitionRepository.name(day));
+    }
+}
@@ -1,21 +1,29 @@
 package com.example.payments.application.services;
 
-import com.example.payments.adapters.messaging.WebhookEventPublisher;
 import com.example.payments.adapters.persistence.WebhookEventRepository;
+import com.example.payments.application.properties.WebhookProperties;
 import com.example.payments.domain.webhook.WebhookEvent;
 import com.example.payments.domain.webhook.WebhookEvent.ProcessedStatus;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
+import java.nio.charset.StandardCharsets;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class WebhookService {
@@ -23,25 +31,35 @@ public class WebhookService {
     private static final Logger log = LoggerFactory.getLogger(WebhookService.class);
 
     private final WebhookEventRepository repository;
-    private final WebhookEventPublisher publisher;
+    private final WebhookOutboxService outbox;
+    private final WebhookDeduplicator deduplicator;
     private final Clock clock;
+    private final WebhookProperties.Consumer consumerSettings;
+    private final WebhookProperties.Requeue requeueSettings;
+    private final WebhookProperties.Partitions partitionSettings;
     private final Counter webhookReceivedCounter;
     private final Counter webhookDuplicateCounter;
     private final Counter webhookProcessedCounter;
     private final Counter webhookFailedCounter;
+    private final Timer completedLatency;
+    private final Timer failedLatency;
     private final ObservationRegistry observationRegistry;
 
-    public WebhookService(WebhookEventRepository repository, WebhookEventPublisher publisher, Clock clock,
-            MeterRegistry meterRegistry,
+    public WebhookService(WebhookEventRepository repository, WebhookOutboxService outbox,
+            WebhookDeduplicator deduplicator, Clock clock, WebhookProperties properties, MeterRegistry meterRegistry,
             ObservationRegistry observationRegistry) {
         this.repository = repository;
-        this.publisher = publisher;
+        this.outbox = outbox;
+        this.deduplicator = deduplicator;
         this.clock = clock;
+        this.consumerSettings = properties.getConsumer();
+        this.requeueSettings = properties.getRequeue();
+        this.partitionSettings = properties.getPartitions();
         this.webhookReceivedCounter = Counter.builder("webhooks.received.count")
                 .description("Authorize.Net webhook payloads received")
                 .register(meterRegistry);
         this.webhookDuplicateCounter = Counter.builder("webhooks.duplicate.count")
-                .description("Webhook events ignored due to duplicate eventId")
+                .description("Webhook deliveries ignored as redeliveries of an already recorded event")
                 .register(meterRegistry);
         this.webhookProcessedCounter = Counter.builder("webhooks.processed.count")
                 .description("Webhook events processed successfully")
@@ -49,40 +67,89 @@ public class WebhookService {
         this.webhookFailedCounter = Counter.builder("webhooks.failed.count")
                 .description("Webhook events that failed processing")
                 .register(meterRegistry);
+        this.completedLatency = outcomeLatency("completed", meterRegistry);
+        this.failedLatency = outcomeLatency("failed", meterRegistry);
         this.observationRegistry = observationRegistry;
     }
 
+    /**
+     * Records a webhook and queues it for publication. Returns empty when the payload is a redelivery of an event
+     * already recorded, either per the recent-events cache or per the insert-on-conflict.
+     */
     @Transactional
-    public WebhookEvent recordEvent(String eventId, String eventType, String payload, String signature) {
+    public Optional<WebhookEvent> recordEvent(String eventId, String eventType, byte[] payload, String signature) {
         webhookReceivedCounter.increment();
-        Optional<WebhookEvent> existing = repository.findByEventId(eventId);
-        if (existing.isPresent()) {
+        String dedupeHash = deduplicator.digest(payload);
+        if (deduplicator.seenRecently(dedupeHash)) {
             webhookDuplicateCounter.increment();
-            log.info("Webhook event already exists eventId={}", eventId);
-            return existing.get();
+            log.info("Webhook event already recorded eventId={} (recent cache)", eventId);
+            return Optional.empty();
         }
-        String dedupeHash = java.util.Base64.getEncoder().encodeToString(payload.getBytes());
         OffsetDateTime receivedAt = OffsetDateTime.now(clock);
         return Observation.createNotStarted("webhooks.persist", observationRegistry)
                 .lowCardinalityKeyValue("webhook.event.type", eventType)
                 .observe(() -> {
-                    WebhookEvent event = WebhookEvent.create(eventId, eventType, payload, signature, dedupeHash,
-                            receivedAt);
-                    WebhookEvent saved = repository.save(event);
-                    publisher.publish(saved);
-                    log.info("Webhook event recorded and enqueued eventId={}", eventId);
-                    return saved;
+                    WebhookEvent event = WebhookEvent.create(eventId, eventType,
+                            new String(payload, StandardCharsets.UTF_8), signature, dedupeHash, receivedAt);
+                    if (repository.insertIfAbsent(event) == 0) {
+                        webhookDuplicateCounter.increment();
+                        deduplicator.remember(dedupeHash);
+                        log.info("Webhook event already recorded eventId={}", eventId);
+                        return Optional.<WebhookEvent>empty();
+                    }
+                    outbox.enqueue(event);
+                    rememberAfterCommit(dedupeHash);
+                    log.info("Webhook event recorded and queued for publication eventId={}", eventId);
+                    return Optional.of(event);
                 });
     }
 
-    @Transactional(readOnly = true)
-    public Optional<WebhookEvent> fetchNextPending() {
-        return repository.findFirstByProcessedStatusOrderByReceivedAtAsc(ProcessedStatus.PENDING);
+    /**
+     * Claims a batch of pending events for this node; the returned events are already {@code PROCESSING}.
+     */
+    @Transactional
+    public List<WebhookEvent> claimPendingBatch(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        return repository.claimPendingBatch(now, activeFrom(now), limit);
     }
 
-    @Transactional(readOnly = true)
-    public long countPending(OffsetDateTime threshold) {
-        return repository.countByProcessedStatusAndReceivedAtBefore(ProcessedStatus.PENDING, threshold);
+    /**
+     * Claims the events behind a batch of queue deliveries. Events that are already finished, or currently claimed
+     * by another consumer, are not returned.
+     */
+    @Transactional
+    public List<WebhookEvent> claimForProcessing(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        return repository.claimByIds(ids, now, now.minus(consumerSettings.getReclaimAfter()), activeFrom(now));
+    }
+
+    /**
+     * Requeues or fails the next page of stale {@code PROCESSING} events after {@code after} (see
+     * {@link WebhookEventRepository#requeueStalePage}) and queues the requeued ones for publication once their
+     * backoff has elapsed. Returns every event the page touched, in no particular order.
+     */
+    @Transactional
+    public List<WebhookEvent> requeueStalePage(UUID after, int limit) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        List<WebhookEvent> page = repository.requeueStalePage(after, now.minus(requeueSettings.getStaleAfter()),
+                activeFrom(now), now, limit, requeueSettings.getMaxAttempts(),
+                requeueSettings.getInitialBackoff().toMillis(), requeueSettings.getMaxBackoff().toMillis(),
+                "Abandoned by its consumer " + requeueSettings.getMaxAttempts() + " times");
+        List<WebhookEvent> requeued = page.stream()
+                .filter(event -> event.getProcessedStatus() == ProcessedStatus.PENDING)
+                .toList();
+        outbox.enqueueRetries(requeued);
+        webhookFailedCounter.increment(page.size() - requeued.size());
+        page.stream()
+                .filter(event -> event.getProcessedStatus() == ProcessedStatus.FAILED)
+                .forEach(event -> recordLatency(failedLatency, event, now));
+        return page;
     }
 
     @Transactional(readOnly = true)
@@ -99,14 +166,77 @@ public class WebhookService {
     @Transactional
     public void markCompleted(WebhookEvent event) {
         event.markCompleted();
-        repository.save(event);
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        repository.updateOutcome(event.getId(), event.getReceivedAt(), ProcessedStatus.COMPLETED, null, now);
         webhookProcessedCounter.increment();
+        recordLatency(completedLatency, event, now);
+    }
+
+    /**
+     * Marks a batch of events completed with a single update.
+     */
+    @Transactional
+    public void markCompleted(Collection<WebhookEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = events.stream().map(WebhookEvent::getId).toList();
+        OffsetDateTime receivedFrom = events.stream().map(WebhookEvent::getReceivedAt)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        repository.updateStatus(ids, receivedFrom, ProcessedStatus.COMPLETED, now);
+        webhookProcessedCounter.increment(ids.size());
+        events.forEach(event -> recordLatency(completedLatency, event, now));
     }
 
     @Transactional
     public void markFailed(WebhookEvent event, String reason) {
         event.markFailed(reason);
-        repository.save(event);
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        repository.updateOutcome(event.getId(), event.getReceivedAt(), ProcessedStatus.FAILED, reason, now);
         webhookFailedCounter.increment();
+        recordLatency(failedLatency, event, now);
+    }
+
+    /**
+     * Oldest {@code received_at} the hot-path queries look at. Bounding them keeps each statement on the most recent
+     * partitions; older events still unfinished are failed by the partition maintenance job.
+     */
+    private OffsetDateTime activeFrom(OffsetDateTime now) {
+        return now.minus(partitionSettings.getActiveWindow());
+    }
+
+    /**
+     * End-to-end latency, from receiving a webhook to recording its outcome, including time spent in the outbox,
+     * the broker and any requeue backoff. Buckets reach up to the active window, the longest an event can stay
+     * unfinished.
+     */
+    private Timer outcomeLatency(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("webhooks.completion.latency")
+                .tag("outcome", outcome)
+                .description("Time from receiving a webhook event to finishing its processing")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(partitionSettings.getActiveWindow())
+                .register(meterRegistry);
+    }
+
+    private static void recordLatency(Timer timer, WebhookEvent event, OffsetDateTime finishedAt) {
+        if (event.getReceivedAt() != null) {
+            timer.record(Duration.between(event.getReceivedAt(), finishedAt));
+        }
+    }
+
+    private void rememberAfterCommit(String dedupeHash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deduplicator.remember(dedupeHash);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deduplicator.remember(dedupeHash);
+            }
+        });
     }
 }
@@ -0,0 +1,123 @@
+package com.example.payments.application.webhooks;
+
+import com.example.payments.adapters.persistence.PaymentOrderRepository;
+import com.example.payments.adapters.persistence.PaymentTransactionRepository;
+import com.example.payments.domain.payments.PaymentOrder;
+import com.example.payments.domain.payments.PaymentOrderStatus;
+import com.example.payments.domain.payments.PaymentTransaction;
+import com.example.payments.domain.payments.PaymentTransactionType;
+import com.example.payments.infra.gateway.AuthorizeNetReferenceIdSanitizer;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the order behind an Authorize.Net transaction to the status a webhook reports. Must be called inside a
+ * transaction; the order is updated by dirty checking.
+ *
+ * <p>Webhooks often confirm a transition the payment command already made, and can arrive after a later one, so
+ * an order already in the target status, or one whose current status does not allow the transition, is left as
+ * it is rather than failing the event.</p>
+ *
+ * <p>An order in {@link PaymentOrderStatus#UNKNOWN} has no transaction recorded yet, so it is found by the order
+ * reference the transaction carries as its invoice number instead; the transaction is recorded on it, and later
+ * events for the same transaction resolve as usual.</p>
+ */
+@Component
+class PaymentOrderTransitions {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentOrderTransitions.class);
+
+    private static final Pattern ORDER_REFERENCE = Pattern.compile("[0-9a-fA-F]{20}");
+
+    private final PaymentTransactionRepository transactionRepository;
+    private final PaymentOrderRepository orderRepository;
+
+    PaymentOrderTransitions(PaymentTransactionRepository transactionRepository,
+            PaymentOrderRepository orderRepository) {
+        this.transactionRepository = transactionRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    boolean apply(WebhookNotification notification, PaymentOrderStatus target) {
+        String gatewayTransactionId = notification.entityId();
+        if (gatewayTransactionId == null) {
+            log.warn("Webhook event id={} type={} carries no transaction id", notification.eventId(),
+                    notification.eventType());
+            return false;
+        }
+        Optional<PaymentOrder> found = transactionRepository
+                .findFirstByAuthorizeNetTransactionIdOrderByProcessedAtDesc(gatewayTransactionId)
+                .map(PaymentTransaction::getOrder);
+        if (found.isEmpty()) {
+            found = findUnknownOrder(notification.invoiceNumber());
+            if (found.isEmpty()) {
+                log.info("No payment order for gateway transaction={} eventType={}", gatewayTransactionId,
+                        notification.eventType());
+                return false;
+            }
+            recordTransaction(found.get(), gatewayTransactionId, target);
+        }
+        PaymentOrder order = found.get();
+        if (order.getStatus() == target) {
+            return false;
+        }
+        try {
+            switch (target) {
+                case AUTHORIZED -> order.markAuthorized();
+                case CAPTURED -> order.markCaptured();
+                case SETTLED -> order.markSettled();
+                case CANCELLED -> order.markCancelled();
+                case REFUNDED -> order.markRefunded();
+                case FAILED -> order.markFailed();
+                default -> throw new IllegalArgumentException("Unsupported webhook target status " + target);
+            }
+        } catch (IllegalStateException ex) {
+            log.info("Ignoring webhook transition orderId={} from={} to={} eventType={}", order.getId(),
+                    order.getStatus(), target, notification.eventType());
+            return false;
+        }
+        log.info("Payment order updated from webhook orderId={} status={} eventType={}", order.getId(), target,
+                notification.eventType());
+        return true;
+    }
+
+    /**
+     * Order references are the first 20 hex digits of the order id, so the candidates are the ids sharing that
+     * prefix.
+     */
+    private Optional<PaymentOrder> findUnknownOrder(String invoiceNumber) {
+        if (invoiceNumber == null || !ORDER_REFERENCE.matcher(invoiceNumber).matches()) {
+            return Optional.empty();
+        }
+        String prefix = invoiceNumber.substring(0, 8) + "-" + invoiceNumber.substring(8, 12) + "-"
+                + invoiceNumber.substring(12, 16) + "-" + invoiceNumber.substring(16, 20) + "-";
+        return orderRepository.findByStatusAndIdBetween(PaymentOrderStatus.UNKNOWN,
+                        UUID.fromString(prefix + "000000000000"), UUID.fromString(prefix + "ffffffffffff"))
+                .stream()
+                .filter(order -> invoiceNumber.equals(
+                        AuthorizeNetReferenceIdSanitizer.resolve(order.getId().toString())))
+                .findFirst();
+    }
+
+    private void recordTransaction(PaymentOrder order, String gatewayTransactionId, PaymentOrderStatus target) {
+        PaymentTransaction transaction;
+        if (target == PaymentOrderStatus.AUTHORIZED) {
+            transaction = PaymentTransaction.record(order, PaymentTransactionType.AUTHORIZATION, order.getMoney(),
+                    gatewayTransactionId, "AUTHORIZED", OffsetDateTime.now(), "1", "Recorded from webhook");
+        } else if (target == PaymentOrderStatus.CAPTURED) {
+            transaction = PaymentTransaction.record(order, PaymentTransactionType.PURCHASE, order.getMoney(),
+                    gatewayTransactionId, "SETTLED", OffsetDateTime.now(), "1", "Recorded from webhook");
+        } else {
+            return;
+        }
+        order.addTransaction(transaction);
+        transactionRepository.save(transaction);
+        log.warn("Recorded gateway transaction={} on unresolved payment order orderId={}", gatewayTransactionId,
+                order.getId());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.payments.application.webhooks;
+
+import com.example.payments.domain.payments.PaymentOrderStatus;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Applies Authorize.Net {@code net.authorize.payment.*} events to the order behind the transaction. Fraud holds and
+ * approvals do not change the order.
+ */
+@Component
+public class PaymentWebhookHandler implements WebhookHandler {
+
+    static final String EVENT_PREFIX = "net.authorize.payment.";
+
+    private static final Map<String, PaymentOrderStatus> TARGETS = Map.of(
+            EVENT_PREFIX + "authorization.created", PaymentOrderStatus.AUTHORIZED,
+            EVENT_PREFIX + "authcapture.created", PaymentOrderStatus.CAPTURED,
+            EVENT_PREFIX + "capture.created", PaymentOrderStatus.CAPTURED,
+            EVENT_PREFIX + "priorAuthCapture.created", PaymentOrderStatus.CAPTURED,
+            EVENT_PREFIX + "refund.created", PaymentOrderStatus.REFUNDED,
+            EVENT_PREFIX + "void.created", PaymentOrderStatus.CANCELLED,
+            EVENT_PREFIX + "fraud.declined", PaymentOrderStatus.FAILED);
+
+    private final PaymentOrderTransitions transitions;
+
+    public PaymentWebhookHandler(PaymentOrderTransitions transitions) {
+        this.transitions = transitions;
+    }
+
+    @Override
+    public String name() {
+        return "payment";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return eventType != null && eventType.startsWith(EVENT_PREFIX);
+    }
+
+    @Override
+    @Transactional
+    public void handle(WebhookNotification notification) {
+        PaymentOrderStatus target = TARGETS.get(notification.eventType());
+        if (target != null) {
+            transitions.apply(notification, target);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.payments.application.webhooks;
+
+import com.example.payments.domain.payments.PaymentOrderStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Marks captured orders settled from {@code net.authorize.settlement.*} events. The payload {@code id} is the
+ * transaction id, so these share an ordering key with the payment events for the same transaction.
+ */
+@Component
+public class SettlementWebhookHandler implements WebhookHandler {
+
+    static final String EVENT_PREFIX = "net.authorize.settlement.";
+
+    private final PaymentOrderTransitions transitions;
+
+    public SettlementWebhookHandler(PaymentOrderTransitions transitions) {
+        this.transitions = transitions;
+    }
+
+    @Override
+    public String name() {
+        return "settlement";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return eventType != null && eventType.startsWith(EVENT_PREFIX);
+    }
+
+    @Override
+    @Transactional
+    public void handle(WebhookNotification notification) {
+        transitions.apply(notification, PaymentOrderStatus.SETTLED);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.payments.application.webhooks;
+
+import com.example.payments.adapters.persistence.SubscriptionRepository;
+import com.example.payments.domain.billing.Subscription;
+import com.example.payments.domain.billing.SubscriptionStatus;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Applies Authorize.Net ARB {@code net.authorize.customer.subscription.*} events. Subscriptions are matched on their
+ * client reference; created, updated and expiring notices do not change local state.
+ */
+@Component
+public class SubscriptionWebhookHandler implements WebhookHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionWebhookHandler.class);
+
+    static final String EVENT_PREFIX = "net.authorize.customer.subscription.";
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final Clock clock;
+
+    public SubscriptionWebhookHandler(SubscriptionRepository subscriptionRepository, Clock clock) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.clock = clock;
+    }
+
+    @Override
+    public String name() {
+        return "subscription";
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return eventType != null && eventType.startsWith(EVENT_PREFIX);
+    }
+
+    @Override
+    @Transactional
+    public void handle(WebhookNotification notification) {
+        SubscriptionStatus target = switch (notification.eventType().substring(EVENT_PREFIX.length())) {
+            case "suspended" -> SubscriptionStatus.DELINQUENT;
+            case "cancelled", "terminated" -> SubscriptionStatus.CANCELLED;
+            case "expired" -> SubscriptionStatus.COMPLETED;
+            default -> null;
+        };
+        if (target == null || notification.entityId() == null) {
+            return;
+        }
+        Optional<Subscription> found = subscriptionRepository.findByClientReference(notification.entityId());
+        if (found.isEmpty()) {
+            log.info("No subscription for gateway reference={} eventType={}", notification.entityId(),
+                    notification.eventType());
+            return;
+        }
+        Subscription subscription = found.get();
+        if (subscription.getStatus() == target) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        switch (target) {
+            case DELINQUENT -> subscription.markDelinquent(now);
+            case CANCELLED -> subscription.cancel(now);
+            default -> subscription.markCompleted(now);
+        }
+        log.info("Subscription updated from webhook subscriptionId={} status={} eventType={}", subscription.getId(),
+                target, notification.eventType());
+    }
+}
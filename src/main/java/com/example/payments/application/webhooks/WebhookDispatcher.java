@@ -0,0 +1,165 @@
+package com.example.payments.application.webhooks;
+
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.domain.webhook.WebhookEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes recorded webhook events to the {@link WebhookHandler} for their {@code eventType}.
+ *
+ * <p>Handlers run on a fixed set of single-threaded stripes. An event goes to the stripe chosen by its handler's
+ * ordering key, so events for one entity are applied one at a time in the order they were dispatched, while
+ * different entities proceed in parallel. Ordering holds for events dispatched by this node; callers dispatch in
+ * claim order for that reason.</p>
+ */
+@Component
+public class WebhookDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookDispatcher.class);
+
+    private final List<WebhookHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService[] stripes;
+    private final Map<String, HandlerMetrics> metrics = new HashMap<>();
+    private final Counter unhandled;
+
+    public WebhookDispatcher(List<WebhookHandler> handlers, ObjectMapper objectMapper, WebhookProperties properties,
+            MeterRegistry meterRegistry) {
+        this(handlers, objectMapper, newStripes(properties.getDispatch().getStripes()), meterRegistry);
+    }
+
+    WebhookDispatcher(List<WebhookHandler> handlers, ObjectMapper objectMapper, ExecutorService[] stripes,
+            MeterRegistry meterRegistry) {
+        this.handlers = List.copyOf(handlers);
+        this.objectMapper = objectMapper;
+        this.stripes = stripes;
+        for (WebhookHandler handler : this.handlers) {
+            metrics.put(handler.name(), new HandlerMetrics(handler.name(), meterRegistry));
+        }
+        this.unhandled = Counter.builder("webhooks.dispatch.unhandled.count")
+                .description("Webhook events no handler supports; completed without action")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the event on its stripe. The returned future completes once the handler has run, exceptionally if it
+     * failed. Events no handler supports complete immediately.
+     */
+    public CompletableFuture<Void> dispatch(WebhookEvent event) {
+        WebhookHandler handler = handlerFor(event.getEventType());
+        if (handler == null) {
+            unhandled.increment();
+            log.debug("No webhook handler for event id={} type={}", event.getId(), event.getEventType());
+            return CompletableFuture.completedFuture(null);
+        }
+        WebhookNotification notification;
+        try {
+            notification = toNotification(event);
+        } catch (IOException ex) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unreadable webhook payload", ex));
+        }
+        HandlerMetrics handlerMetrics = metrics.get(handler.name());
+        ExecutorService stripe = stripes[Math.floorMod(handler.orderingKey(notification).hashCode(), stripes.length)];
+        handlerMetrics.backlog.incrementAndGet();
+        try {
+            return CompletableFuture.runAsync(() -> {
+                handlerMetrics.backlog.decrementAndGet();
+                handlerMetrics.run(handler, notification);
+            }, stripe);
+        } catch (RejectedExecutionException ex) {
+            handlerMetrics.backlog.decrementAndGet();
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+        for (ExecutorService stripe : stripes) {
+            if (!stripe.awaitTermination(30, TimeUnit.SECONDS)) {
+                // Events still queued stay PROCESSING and are picked up again by the stale-event requeue.
+                stripe.shutdownNow();
+            }
+        }
+    }
+
+    private WebhookHandler handlerFor(String eventType) {
+        for (WebhookHandler handler : handlers) {
+            if (handler.supports(eventType)) {
+                return handler;
+            }
+        }
+        return null;
+    }
+
+    private WebhookNotification toNotification(WebhookEvent event) throws IOException {
+        JsonNode root = objectMapper.readTree(event.getPayload());
+        return new WebhookNotification(event.getId(), event.getEventId(), event.getEventType(), root.path("payload"));
+    }
+
+    private static ExecutorService[] newStripes(int count) {
+        ExecutorService[] stripes = new ExecutorService[Math.max(1, count)];
+        for (int i = 0; i < stripes.length; i++) {
+            String name = "webhook-dispatch-" + (i + 1);
+            stripes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return stripes;
+    }
+
+    private static final class HandlerMetrics {
+
+        private final AtomicInteger backlog = new AtomicInteger();
+        private final Timer latency;
+        private final Counter failures;
+
+        private HandlerMetrics(String handler, MeterRegistry meterRegistry) {
+            Gauge.builder("webhooks.handler.backlog", backlog, AtomicInteger::get)
+                    .tag("handler", handler)
+                    .description("Webhook events queued for the handler and not yet started")
+                    .register(meterRegistry);
+            this.latency = Timer.builder("webhooks.handler.latency")
+                    .tag("handler", handler)
+                    .description("Time the handler spent applying one webhook event")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.failures = Counter.builder("webhooks.handler.failure.count")
+                    .tag("handler", handler)
+                    .description("Webhook events the handler failed to apply")
+                    .register(meterRegistry);
+        }
+
+        private void run(WebhookHandler handler, WebhookNotification notification) {
+            try {
+                latency.record(() -> handler.handle(notification));
+            } catch (RuntimeException ex) {
+                failures.increment();
+                throw ex;
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.payments.application.webhooks;
+
+/**
+ * Applies one family of webhook events to the domain. Implementations are picked up by {@link WebhookDispatcher}.
+ */
+public interface WebhookHandler {
+
+    /**
+     * Short, stable name used as the {@code handler} metric tag.
+     */
+    String name();
+
+    boolean supports(String eventType);
+
+    /**
+     * Key whose events must be applied in arrival order, typically the gateway id of the affected entity. Handlers
+     * that touch the same entity must return the same key for it.
+     */
+    default String orderingKey(WebhookNotification notification) {
+        String entityId = notification.entityId();
+        return entityId != null ? entityId : notification.eventId();
+    }
+
+    /**
+     * Applies the event. Must be idempotent: an event can be delivered more than once.
+     */
+    void handle(WebhookNotification notification);
+}
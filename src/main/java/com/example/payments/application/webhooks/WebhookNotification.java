@@ -0,0 +1,29 @@
+package com.example.payments.application.webhooks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.UUID;
+
+/**
+ * A recorded webhook event as handlers see it. {@code body} is the inner {@code payload} object of the
+ * notification; for Authorize.Net its {@code id} is the gateway id of the entity the event is about (a transaction
+ * id for payment events, a subscription id for ARB events).
+ */
+public record WebhookNotification(UUID webhookEventId, String eventId, String eventType, JsonNode body) {
+
+    /**
+     * Gateway id of the entity the event is about, or {@code null} when the payload does not carry one.
+     */
+    public String entityId() {
+        JsonNode id = body.path("id");
+        return id.isValueNode() ? id.asText() : null;
+    }
+
+    /**
+     * Invoice number of a payment event, which carries the order reference the transaction was submitted with, or
+     * {@code null}.
+     */
+    public String invoiceNumber() {
+        JsonNode invoiceNumber = body.path("invoiceNumber");
+        return invoiceNumber.isValueNode() ? invoiceNumber.asText() : null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.payments.application.workers;
+
+import com.example.payments.adapters.persistence.PaymentOrderRepository;
+import com.example.payments.application.properties.PaymentProperties;
+import com.example.payments.application.services.PaymentCommandService;
+import com.example.payments.domain.payments.PaymentOrder;
+import com.example.payments.domain.payments.PaymentOrderStatus;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves payment orders left {@code PENDING} when the process stopped between the gateway call and the
+ * finalizing transaction of a staged payment command. See {@link PaymentCommandService#reconcilePendingOrder}.
+ */
+@Component
+public class PaymentRecoverySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentRecoverySweeper.class);
+
+    private final PaymentOrderRepository repository;
+    private final PaymentCommandService paymentCommandService;
+    private final PaymentProperties properties;
+    private final Clock clock;
+
+    public PaymentRecoverySweeper(PaymentOrderRepository repository, PaymentCommandService paymentCommandService,
+            PaymentProperties properties, Clock clock) {
+        this.repository = repository;
+        this.paymentCommandService = paymentCommandService;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${payments.recovery.fixed-delay-millis:60000}")
+    public void reconcileStalePendingOrders() {
+        OffsetDateTime threshold = OffsetDateTime.now(clock).minus(properties.getRecovery().getPendingTimeout());
+        List<PaymentOrder> stale = repository.findByStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(
+                PaymentOrderStatus.PENDING, threshold, PageRequest.of(0, properties.getRecovery().getBatchSize()));
+        for (PaymentOrder order : stale) {
+            try {
+                paymentCommandService.reconcilePendingOrder(order.getId(), threshold);
+            } catch (Exception ex) {
+                log.error("Failed to reconcile pending payment order id={} error={}", order.getId(), ex.getMessage(),
+                        ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.payments.application.workers;
+
+import com.example.payments.adapters.persistence.WebhookBacklogRepository;
+import com.example.payments.adapters.persistence.WebhookBacklogRepository.OutboxSummary;
+import com.example.payments.adapters.persistence.WebhookBacklogRepository.StatusSummary;
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.domain.webhook.WebhookEvent.ProcessedStatus;
+import com.example.payments.infra.messaging.RabbitMqConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the webhook backlog as gauges: events per {@link ProcessedStatus} received within the active window, how
+ * long the oldest pending event has waited and the oldest claim has been held, the outbox depth and age, and the
+ * message and consumer counts of the broker queues. The values are sampled every
+ * {@code webhooks.backlog.fixed-delay-millis} and cached, so a scrape never reaches the database or the broker; ages
+ * are measured from the cached timestamps at scrape time. A failed database sample keeps the previous values, while a
+ * queue that cannot be inspected reports {@code NaN}.
+ */
+@Component
+public class WebhookBacklogMonitor {
+
+    static final List<String> QUEUES = List.of(RabbitMqConfig.WEBHOOK_QUEUE, RabbitMqConfig.WEBHOOK_DLQ);
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookBacklogMonitor.class);
+
+    private final WebhookBacklogRepository repository;
+    private final ObjectProvider<AmqpAdmin> amqpAdmin;
+    private final WebhookProperties.Partitions partitionSettings;
+    private final Clock clock;
+    private final Map<ProcessedStatus, StatusSample> statuses = new EnumMap<>(ProcessedStatus.class);
+    private final Map<String, QueueSample> queues = new LinkedHashMap<>();
+    private final Counter databaseFailures;
+    private final Counter brokerFailures;
+
+    private volatile long outboxDepth;
+    private volatile Instant oldestOutboxMessage;
+
+    public WebhookBacklogMonitor(WebhookBacklogRepository repository, ObjectProvider<AmqpAdmin> amqpAdmin,
+            WebhookProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.repository = repository;
+        this.amqpAdmin = amqpAdmin;
+        this.partitionSettings = properties.getPartitions();
+        this.clock = clock;
+        for (ProcessedStatus status : ProcessedStatus.values()) {
+            StatusSample sample = new StatusSample();
+            statuses.put(status, sample);
+            Gauge.builder("webhooks.backlog.events", sample, s -> s.count)
+                    .tag("status", status.name())
+                    .description("Webhook events received within the active window, by processing status")
+                    .register(meterRegistry);
+        }
+        TimeGauge.builder("webhooks.backlog.pending.age", this, TimeUnit.MILLISECONDS,
+                        monitor -> monitor.ageMillis(monitor.statuses.get(ProcessedStatus.PENDING).oldestReceivedAt))
+                .description("Time the oldest pending webhook event has been waiting since it was received")
+                .register(meterRegistry);
+        TimeGauge.builder("webhooks.backlog.processing.age", this, TimeUnit.MILLISECONDS,
+                        monitor -> monitor.ageMillis(monitor.statuses.get(ProcessedStatus.PROCESSING).oldestClaimedAt))
+                .description("Time the oldest claimed webhook event has been processing")
+                .register(meterRegistry);
+        Gauge.builder("webhooks.backlog.outbox.depth", this, monitor -> monitor.outboxDepth)
+                .description("Webhook events waiting in the outbox for publication")
+                .register(meterRegistry);
+        TimeGauge.builder("webhooks.backlog.outbox.age", this, TimeUnit.MILLISECONDS,
+                        monitor -> monitor.ageMillis(monitor.oldestOutboxMessage))
+                .description("Time the oldest outbox message has been waiting for publication")
+                .register(meterRegistry);
+        for (String queue : QUEUES) {
+            QueueSample sample = new QueueSample();
+            queues.put(queue, sample);
+            Gauge.builder("webhooks.backlog.queue.depth", sample, s -> s.messages)
+                    .tag("queue", queue)
+                    .description("Messages ready in the broker queue")
+                    .register(meterRegistry);
+            Gauge.builder("webhooks.backlog.queue.consumers", sample, s -> s.consumers)
+                    .tag("queue", queue)
+                    .description("Consumers attached to the broker queue")
+                    .register(meterRegistry);
+        }
+        this.databaseFailures = Counter.builder("webhooks.backlog.sample.failure.count")
+                .tag("source", "database")
+                .description("Backlog samples that could not be taken")
+                .register(meterRegistry);
+        this.brokerFailures = Counter.builder("webhooks.backlog.sample.failure.count")
+                .tag("source", "broker")
+                .description("Backlog samples that could not be taken")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${webhooks.backlog.fixed-delay-millis:15000}")
+    public void sample() {
+        sampleDatabase();
+        sampleQueues();
+    }
+
+    private void sampleDatabase() {
+        try {
+            OffsetDateTime activeFrom = OffsetDateTime.now(clock).minus(partitionSettings.getActiveWindow());
+            Map<String, StatusSummary> summaries = repository.summarizeByStatus(activeFrom).stream()
+                    .collect(Collectors.toMap(StatusSummary::status, Function.identity()));
+            OutboxSummary outbox = repository.summarizeOutbox();
+            statuses.forEach((status, sample) -> sample.update(summaries.get(status.name())));
+            outboxDepth = outbox.count();
+            oldestOutboxMessage = toInstant(outbox.oldestCreatedAt());
+        } catch (RuntimeException ex) {
+            databaseFailures.increment();
+            log.warn("Failed to sample the webhook backlog error={}", ex.getMessage());
+        }
+    }
+
+    private void sampleQueues() {
+        AmqpAdmin admin = amqpAdmin.getIfAvailable();
+        queues.forEach((queue, sample) -> {
+            if (admin == null) {
+                sample.unknown();
+                return;
+            }
+            try {
+                QueueInformation info = admin.getQueueInfo(queue);
+                if (info == null) {
+                    sample.unknown();
+                } else {
+                    sample.messages = info.getMessageCount();
+                    sample.consumers = info.getConsumerCount();
+                }
+            } catch (RuntimeException ex) {
+                sample.unknown();
+                brokerFailures.increment();
+                log.warn("Failed to sample webhook queue {} error={}", queue, ex.getMessage());
+            }
+        });
+    }
+
+    private double ageMillis(Instant oldest) {
+        return oldest == null ? 0 : Math.max(0, clock.millis() - oldest.toEpochMilli());
+    }
+
+    private static Instant toInstant(OffsetDateTime value) {
+        return value == null ? null : value.toInstant();
+    }
+
+    private static final class StatusSample {
+
+        private volatile long count;
+        private volatile Instant oldestReceivedAt;
+        private volatile Instant oldestClaimedAt;
+
+        private void update(StatusSummary summary) {
+            count = summary == null ? 0 : summary.count();
+            oldestReceivedAt = summary == null ? null : toInstant(summary.oldestReceivedAt());
+            oldestClaimedAt = summary == null ? null : toInstant(summary.oldestProcessedAt());
+        }
+    }
+
+    private static final class QueueSample {
+
+        private volatile double messages = Double.NaN;
+        private volatile double consumers = Double.NaN;
+
+        private void unknown() {
+            messages = Double.NaN;
+            consumers = Double.NaN;
+        }
+    }
+}
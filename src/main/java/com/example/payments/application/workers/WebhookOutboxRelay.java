@@ -0,0 +1,87 @@
+package com.example.payments.application.workers;
+
+import com.example.payments.adapters.messaging.WebhookEventPublisher;
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.application.services.WebhookOutboxService;
+import com.example.payments.domain.webhook.WebhookOutboxMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes webhook outbox messages to the broker. Each tick leases batches of messages, publishes them, and deletes
+ * the ones the broker confirmed. Unconfirmed messages keep their lease and are retried once it expires, so delivery
+ * is at least once; the queue consumer skips events that are already processed. Several instances can relay at the
+ * same time because leases are taken with {@code SKIP LOCKED}.
+ */
+@Component
+public class WebhookOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookOutboxRelay.class);
+
+    private final WebhookOutboxService outboxService;
+    private final WebhookEventPublisher publisher;
+    private final WebhookProperties.Outbox settings;
+    private final Counter publishedCounter;
+    private final Counter unconfirmedCounter;
+
+    public WebhookOutboxRelay(WebhookOutboxService outboxService, WebhookEventPublisher publisher,
+            WebhookProperties properties, MeterRegistry meterRegistry) {
+        this.outboxService = outboxService;
+        this.publisher = publisher;
+        this.settings = properties.getOutbox();
+        this.publishedCounter = Counter.builder("webhooks.outbox.published.count")
+                .description("Outbox messages confirmed by the broker")
+                .register(meterRegistry);
+        this.unconfirmedCounter = Counter.builder("webhooks.outbox.unconfirmed.count")
+                .description("Outbox messages the broker did not confirm; retried after their lease expires")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${webhooks.outbox.fixed-delay-millis:500}")
+    public void relay() {
+        boolean more = true;
+        while (more) {
+            try {
+                more = relayBatch();
+            } catch (RuntimeException ex) {
+                log.error("Failed to relay webhook outbox batch error={}", ex.getMessage(), ex);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Relays one batch. Returns {@code true} when the batch was full and fully confirmed, i.e. when there is
+     * probably more to relay and the broker is keeping up.
+     */
+    private boolean relayBatch() {
+        List<WebhookOutboxMessage> batch = outboxService.claimBatch(settings.getBatchSize());
+        if (batch.isEmpty()) {
+            return false;
+        }
+        Set<UUID> confirmed = publisher.publishConfirmed(
+                batch.stream().map(WebhookOutboxMessage::getWebhookEventId).distinct().toList(),
+                settings.getConfirmTimeout());
+        List<UUID> published = batch.stream()
+                .filter(message -> confirmed.contains(message.getWebhookEventId()))
+                .map(WebhookOutboxMessage::getId)
+                .toList();
+        outboxService.markPublished(published);
+        publishedCounter.increment(published.size());
+        int unconfirmed = batch.size() - published.size();
+        if (unconfirmed > 0) {
+            unconfirmedCounter.increment(unconfirmed);
+            log.warn("Broker did not confirm {} of {} webhook outbox messages; they will be retried", unconfirmed,
+                    batch.size());
+            return false;
+        }
+        return batch.size() >= settings.getBatchSize();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.payments.application.workers;
+
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.application.services.SchedulerLeaseService;
+import com.example.payments.application.services.WebhookPartitionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@code webhook_events} partitions in shape on the node holding the {@value #LEASE} lease. A partition
+ * is only dropped after its archive file has been written; one that still holds unfinished events is left attached.
+ */
+@Component
+public class WebhookPartitionMaintenance {
+
+    static final String LEASE = "webhook-partitions";
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookPartitionMaintenance.class);
+
+    private final WebhookPartitionService partitions;
+    private final SchedulerLeaseService leases;
+    private final WebhookProperties.Partitions settings;
+    private final Counter expiredCounter;
+    private final Counter archivedCounter;
+
+    public WebhookPartitionMaintenance(WebhookPartitionService partitions, SchedulerLeaseService leases,
+            WebhookProperties properties, MeterRegistry meterRegistry) {
+        this.partitions = partitions;
+        this.leases = leases;
+        this.settings = properties.getPartitions();
+        this.expiredCounter = Counter.builder("webhooks.partitions.expired.count")
+                .description("Webhook events failed for not being processed within the active window")
+                .register(meterRegistry);
+        this.archivedCounter = Counter.builder("webhooks.partitions.archived.count")
+                .description("Webhook event partitions archived and dropped")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${webhooks.partitions.cron:0 5 * * * *}")
+    public void maintain() {
+        try {
+            if (!leases.tryAcquire(LEASE, settings.getLease())) {
+                return;
+            }
+            partitions.createUpcomingPartitions();
+            int expired = partitions.failInactiveEvents();
+            if (expired > 0) {
+                expiredCounter.increment(expired);
+                log.warn("Failed {} webhook events not processed within {}", expired, settings.getActiveWindow());
+            }
+            for (LocalDate day : partitions.partitionsPastRetention()) {
+                if (partitions.hasUnfinished(day)) {
+                    log.warn("Keeping webhook partition for {}: it still has unfinished events", day);
+                    continue;
+                }
+                partitions.archive(day);
+                partitions.drop(day);
+                archivedCounter.increment();
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.error("Webhook partition maintenance failed error={}", ex.getMessage(), ex);
+        }
+    }
+}
@@ -1,45 +1,93 @@
 package com.example.payments.application.workers;
 
+import com.example.payments.application.properties.WebhookProperties;
 import com.example.payments.application.services.WebhookService;
+import com.example.payments.application.webhooks.WebhookDispatcher;
 import com.example.payments.domain.webhook.WebhookEvent;
-import java.time.Clock;
-import java.time.Duration;
-import java.time.OffsetDateTime;
-import java.util.Optional;
-import java.util.UUID;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Drains pending webhook events from the database. Each tick claims batches with
+ * {@code FOR UPDATE SKIP LOCKED}, so several nodes can poll together without picking the same event, and hands them
+ * to the {@link WebhookDispatcher} in claim order. A node never holds more than {@code maxInFlight} claimed events,
+ * which leaves the rest of the backlog to other nodes.
+ */
 @Component
 public class WebhookProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(WebhookProcessor.class);
 
     private final WebhookService webhookService;
-    private final Clock clock;
+    private final WebhookDispatcher dispatcher;
+    private final WebhookProperties.Processing settings;
+    private final Semaphore capacity;
 
-    public WebhookProcessor(WebhookService webhookService, Clock clock) {
+    public WebhookProcessor(WebhookService webhookService, WebhookDispatcher dispatcher, WebhookProperties properties,
+            MeterRegistry meterRegistry) {
         this.webhookService = webhookService;
-        this.clock = clock;
+        this.dispatcher = dispatcher;
+        this.settings = properties.getProcessing();
+        this.capacity = new Semaphore(settings.getMaxInFlight());
+        Gauge.builder("webhooks.processing.in.flight", capacity,
+                        permits -> settings.getMaxInFlight() - permits.availablePermits())
+                .description("Claimed webhook events currently being processed on this node")
+                .register(meterRegistry);
     }
 
     @Scheduled(fixedDelayString = "${webhooks.processing.fixed-delay-millis:1000}")
     public void processPending() {
-        Optional<WebhookEvent> next = webhookService.fetchNextPending();
-        if (next.isEmpty()) {
-            return;
+        while (true) {
+            int available = capacity.drainPermits();
+            if (available == 0) {
+                return;
+            }
+            int requested = Math.min(available, settings.getBatchSize());
+            List<WebhookEvent> claimed;
+            try {
+                claimed = webhookService.claimPendingBatch(requested);
+            } catch (RuntimeException ex) {
+                capacity.release(available);
+                log.error("Failed to claim pending webhook events error={}", ex.getMessage(), ex);
+                return;
+            }
+            capacity.release(available - claimed.size());
+            for (WebhookEvent event : claimed) {
+                dispatcher.dispatch(event).whenComplete((ignored, failure) -> {
+                    try {
+                        complete(event, failure);
+                    } finally {
+                        capacity.release();
+                    }
+                });
+            }
+            if (claimed.size() < requested) {
+                return;
+            }
         }
-        WebhookEvent event = next.get();
+    }
+
+    private void complete(WebhookEvent event, Throwable failure) {
         try {
-            log.info("Processing webhook event id={} type={} dedupeHash={}", event.getId(),
-                    event.getEventType(), event.getDedupeHash());
-            // TODO: dispatch to domain-specific handlers (payments, subscriptions, settlements)
-            webhookService.markCompleted(event);
-        } catch (Exception ex) {
-            log.error("Failed processing webhook event id={} error={}", event.getId(), ex.getMessage(), ex);
-            webhookService.markFailed(event, ex.getMessage());
+            if (failure == null) {
+                webhookService.markCompleted(event);
+                return;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            log.error("Failed processing webhook event id={} error={}", event.getId(), cause.getMessage(), cause);
+            webhookService.markFailed(event, cause.getMessage());
+        } catch (RuntimeException ex) {
+            // The event stays PROCESSING and is picked up again by the stale-event requeue.
+            log.error("Failed to record outcome of webhook event id={} error={}", event.getId(), ex.getMessage(),
+                    ex);
         }
     }
 }
@@ -1,40 +1,153 @@
 package com.example.payments.application.workers;
 
 import com.example.payments.application.services.WebhookService;
+import com.example.payments.application.webhooks.WebhookDispatcher;
 import com.example.payments.domain.webhook.WebhookEvent;
-import java.util.Optional;
+import com.example.payments.infra.messaging.RabbitMqConfig;
+import com.example.payments.infra.messaging.WebhookConsumerConfig;
+import com.rabbitmq.client.Channel;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Consumes webhook event ids from the queue in batches. A batch is claimed with one statement, dispatched to the
+ * handlers in delivery order, and marked completed with one statement; its deliveries are then acknowledged
+ * together. Events that fail processing, and messages that do not carry an event id, are rejected without requeue
+ * so they land on the dead-letter queue; a failed event is rejected as soon as it is marked {@code FAILED}. If the
+ * database cannot be reached, every delivery not yet rejected is returned to the queue.
+ */
 @Component
 public class WebhookQueueListener {
 
     private static final Logger log = LoggerFactory.getLogger(WebhookQueueListener.class);
 
     private final WebhookService webhookService;
+    private final WebhookDispatcher dispatcher;
 
-    public WebhookQueueListener(WebhookService webhookService) {
+    public WebhookQueueListener(WebhookService webhookService, WebhookDispatcher dispatcher) {
         this.webhookService = webhookService;
+        this.dispatcher = dispatcher;
     }
 
-    @RabbitListener(queues = "webhook.events.queue")
-    public void onMessage(String eventId) {
+    @RabbitListener(queues = RabbitMqConfig.WEBHOOK_QUEUE, containerFactory = WebhookConsumerConfig.CONTAINER_FACTORY)
+    public void onMessages(List<Message> messages, Channel channel) throws IOException {
+        Map<Long, UUID> deliveries = new LinkedHashMap<>();
+        for (Message message : messages) {
+            long deliveryTag = message.getMessageProperties().getDeliveryTag();
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                deliveries.put(deliveryTag, UUID.fromString(body.trim()));
+            } catch (IllegalArgumentException ex) {
+                log.warn("Dead-lettering webhook message without a valid event id body={}", body);
+                channel.basicNack(deliveryTag, false, false);
+            }
+        }
+        if (deliveries.isEmpty()) {
+            return;
+        }
+
+        Set<Long> deadLettered = new HashSet<>();
         try {
-            Optional<WebhookEvent> eventOpt = webhookService.getEvent(UUID.fromString(eventId));
-            if (eventOpt.isEmpty()) {
-                log.warn("Received queue message for event {} but no pending record found", eventId);
-                return;
+            List<WebhookEvent> claimed = inDeliveryOrder(
+                    webhookService.claimForProcessing(new HashSet<>(deliveries.values())), deliveries);
+            List<CompletableFuture<Void>> outcomes = new ArrayList<>(claimed.size());
+            for (WebhookEvent event : claimed) {
+                outcomes.add(dispatcher.dispatch(event));
+            }
+            List<WebhookEvent> completed = new ArrayList<>(claimed.size());
+            for (int i = 0; i < claimed.size(); i++) {
+                WebhookEvent event = claimed.get(i);
+                Throwable failure = outcomeOf(outcomes.get(i));
+                if (failure == null) {
+                    completed.add(event);
+                } else {
+                    log.error("Failed processing webhook event id={} error={}", event.getId(), failure.getMessage(),
+                            failure);
+                    webhookService.markFailed(event, failure.getMessage());
+                    // Settled now that FAILED is committed: a redelivery would find the event finished and be acked
+                    // without ever reaching the dead-letter queue.
+                    deadLetter(channel, deliveries, event.getId(), deadLettered);
+                }
+            }
+            webhookService.markCompleted(completed);
+        } catch (RuntimeException ex) {
+            log.error("Failed to process webhook batch size={}; returning it to the queue error={}",
+                    deliveries.size(), ex.getMessage(), ex);
+            long lastRequeued = lastUnsettledTag(deliveries.keySet(), deadLettered);
+            if (lastRequeued >= 0) {
+                channel.basicNack(lastRequeued, true, true);
+            }
+            return;
+        }
+
+        // Deliveries whose event was not claimed (already completed, or held by another consumer) are acknowledged
+        // along with the completed ones; there is nothing left for this consumer to do with them. Delivery tags are
+        // per channel and increase monotonically, so one multiple-ack settles the batch.
+        long lastAcked = lastUnsettledTag(deliveries.keySet(), deadLettered);
+        if (lastAcked >= 0) {
+            channel.basicAck(lastAcked, true);
+        }
+    }
+
+    private static void deadLetter(Channel channel, Map<Long, UUID> deliveries, UUID eventId, Set<Long> deadLettered)
+            throws IOException {
+        for (Map.Entry<Long, UUID> delivery : deliveries.entrySet()) {
+            if (delivery.getValue().equals(eventId) && deadLettered.add(delivery.getKey())) {
+                channel.basicNack(delivery.getKey(), false, false);
             }
+        }
+    }
 
-            WebhookEvent event = eventOpt.get();
-            webhookService.markProcessing(event);
-            // TODO: dispatch to handlers
-            webhookService.markCompleted(event);
-        } catch (Exception ex) {
-            log.error("Error handling webhook message {}", eventId, ex);
+    /**
+     * The claim returns rows in no particular order; handlers must see them in the order they were queued.
+     */
+    private static List<WebhookEvent> inDeliveryOrder(List<WebhookEvent> claimed, Map<Long, UUID> deliveries) {
+        Map<UUID, WebhookEvent> byId = new HashMap<>();
+        for (WebhookEvent event : claimed) {
+            byId.put(event.getId(), event);
         }
+        List<WebhookEvent> ordered = new ArrayList<>(claimed.size());
+        for (UUID id : deliveries.values()) {
+            WebhookEvent event = byId.remove(id);
+            if (event != null) {
+                ordered.add(event);
+            }
+        }
+        return ordered;
+    }
+
+    private static Throwable outcomeOf(CompletableFuture<Void> outcome) {
+        try {
+            outcome.join();
+            return null;
+        } catch (CompletionException ex) {
+            return ex.getCause() != null ? ex.getCause() : ex;
+        } catch (CancellationException ex) {
+            return ex;
+        }
+    }
+
+    /**
+     * The highest delivery tag not yet settled, or -1; a multiple ack or nack up to it skips the settled ones below.
+     */
+    private static long lastUnsettledTag(Set<Long> deliveryTags, Set<Long> settled) {
+        return deliveryTags.stream().filter(tag -> !settled.contains(tag)).mapToLong(Long::longValue).max()
+                .orElse(-1);
     }
 }
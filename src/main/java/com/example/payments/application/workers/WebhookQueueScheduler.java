@@ -1,37 +1,112 @@
 package com.example.payments.application.workers;
 
-import com.example.payments.adapters.messaging.WebhookEventPublisher;
-import com.example.payments.adapters.persistence.WebhookEventRepository;
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.application.services.SchedulerLeaseService;
+import com.example.payments.application.services.WebhookService;
+import com.example.payments.domain.webhook.WebhookEvent;
 import com.example.payments.domain.webhook.WebhookEvent.ProcessedStatus;
-import java.time.Clock;
-import java.time.OffsetDateTime;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Returns events whose consumer died mid-processing to the queue. Only the node holding the {@value #LEASE} lease
+ * sweeps; it walks the stale {@code PROCESSING} events in id order one page per transaction, so a large backlog is
+ * neither loaded at once nor swept twice in one run. Requeued events wait out an exponential backoff before they are
+ * published again, and events that keep getting abandoned are failed instead of requeued forever.
+ */
 @Component
 public class WebhookQueueScheduler {
 
+    static final String LEASE = "webhook-requeue";
+
     private static final Logger log = LoggerFactory.getLogger(WebhookQueueScheduler.class);
+    private static final UUID FIRST = new UUID(0, 0);
 
-    private final WebhookEventRepository repository;
-    private final WebhookEventPublisher publisher;
-    private final Clock clock;
+    private final WebhookService webhookService;
+    private final SchedulerLeaseService leases;
+    private final WebhookProperties.Requeue settings;
+    private final Counter requeuedCounter;
+    private final Counter exhaustedCounter;
 
-    public WebhookQueueScheduler(WebhookEventRepository repository, WebhookEventPublisher publisher, Clock clock) {
-        this.repository = repository;
-        this.publisher = publisher;
-        this.clock = clock;
+    public WebhookQueueScheduler(WebhookService webhookService, SchedulerLeaseService leases,
+            WebhookProperties properties, MeterRegistry meterRegistry) {
+        this.webhookService = webhookService;
+        this.leases = leases;
+        this.settings = properties.getRequeue();
+        this.requeuedCounter = Counter.builder("webhooks.requeue.count")
+                .description("Stale webhook events returned to pending")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("webhooks.requeue.exhausted.count")
+                .description("Stale webhook events failed after reaching the attempt limit")
+                .register(meterRegistry);
     }
 
-    @Scheduled(fixedDelayString = "${webhooks.queue.requeue-delay-millis:10000}")
+    @Scheduled(fixedDelayString = "${webhooks.requeue.fixed-delay-millis:10000}")
     public void requeueStaleEvents() {
-        OffsetDateTime threshold = OffsetDateTime.now(clock).minusMinutes(5);
-        repository.findByProcessedStatusAndProcessedAtBefore(ProcessedStatus.PROCESSING, threshold)
-                .forEach(event -> {
-                    log.warn("Re-queuing stale webhook event {}", event.getId());
-                    publisher.publish(event);
-                });
+        try {
+            UUID cursor = FIRST;
+            while (leases.tryAcquire(LEASE, settings.getLease())) {
+                List<WebhookEvent> page = webhookService.requeueStalePage(cursor, settings.getPageSize());
+                if (page.isEmpty()) {
+                    return;
+                }
+                record(page);
+                if (page.size() < settings.getPageSize()) {
+                    return;
+                }
+                cursor = lastId(page);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Failed to requeue stale webhook events error={}", ex.getMessage(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        try {
+            leases.release(LEASE);
+        } catch (RuntimeException ex) {
+            log.debug("Could not release webhook requeue lease error={}", ex.getMessage());
+        }
+    }
+
+    private void record(List<WebhookEvent> page) {
+        int exhausted = 0;
+        for (WebhookEvent event : page) {
+            if (event.getProcessedStatus() == ProcessedStatus.FAILED) {
+                exhausted++;
+                log.warn("Failing webhook event id={} after {} abandoned attempts", event.getId(),
+                        event.getAttempts());
+            }
+        }
+        requeuedCounter.increment(page.size() - exhausted);
+        exhaustedCounter.increment(exhausted);
+        log.info("Requeued stale webhook events requeued={} failed={}", page.size() - exhausted, exhausted);
+    }
+
+    /**
+     * The page comes back unordered. Postgres orders uuids by their unsigned bytes, which {@link UUID#compareTo}
+     * does not, so the cursor is picked with an unsigned comparison.
+     */
+    static UUID lastId(List<WebhookEvent> page) {
+        UUID last = FIRST;
+        for (WebhookEvent event : page) {
+            UUID id = event.getId();
+            int cmp = Long.compareUnsigned(id.getMostSignificantBits(), last.getMostSignificantBits());
+            if (cmp == 0) {
+                cmp = Long.compareUnsigned(id.getLeastSignificantBits(), last.getLeastSignificantBits());
+            }
+            if (cmp > 0) {
+                last = id;
+            }
+        }
+        return last;
     }
 }
@@ -1,6 +1,8 @@
 package com.example.payments.config;
 
+import com.example.payments.application.properties.PaymentProperties;
 import com.example.payments.application.properties.SubscriptionProperties;
+import com.example.payments.application.properties.WebhookProperties;
 import java.time.Clock;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -9,7 +11,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableScheduling
-@EnableConfigurationProperties(SubscriptionProperties.class)
+@EnableConfigurationProperties({SubscriptionProperties.class, PaymentProperties.class, WebhookProperties.class})
 public class SchedulerConfiguration {
 
     @Bean
@@ -0,0 +1,15 @@
+package com.example.payments.domain.billing;
+
+/**
+ * What billing one due schedule came to.
+ */
+public enum BillingOutcome {
+    /** The charge went through and the next period is scheduled. */
+    CHARGED,
+    /** A charge was declined; the retry, dunning entry or cancellation has been recorded. */
+    DECLINED,
+    /** The schedule or its subscription was no longer due by the time it was reached. */
+    SKIPPED,
+    /** Billing failed before an outcome could be recorded; nothing was committed and the next run retries it. */
+    ERRORED
+}
@@ -0,0 +1,176 @@
+package com.example.payments.domain.billing;
+
+import com.example.payments.domain.shared.AssignedIdEntity;
+import com.example.payments.domain.shared.Ids;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Progress and tallies of one pass over one shard's schedules due at {@link #getThreshold()}. The checkpoint is the
+ * {@code (scheduled_at, id)} of the last schedule whose chunk has been fully billed; a resumed run continues after it.
+ */
+@Entity
+@Table(name = "billing_runs")
+public class BillingRun extends AssignedIdEntity {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED
+    }
+
+    @Id
+    private UUID id;
+
+    @Column(name = "shard", nullable = false)
+    private int shard;
+
+    @Column(name = "threshold", nullable = false)
+    private OffsetDateTime threshold;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "checkpoint_scheduled_at")
+    private OffsetDateTime checkpointScheduledAt;
+
+    @Column(name = "checkpoint_schedule_id")
+    private UUID checkpointScheduleId;
+
+    @Column(name = "charged", nullable = false)
+    private int charged;
+
+    @Column(name = "declined", nullable = false)
+    private int declined;
+
+    @Column(name = "skipped", nullable = false)
+    private int skipped;
+
+    @Column(name = "errored", nullable = false)
+    private int errored;
+
+    @Column(name = "started_at", nullable = false)
+    private OffsetDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    @Version
+    private long version;
+
+    protected BillingRun() {
+    }
+
+    private BillingRun(UUID id, int shard, OffsetDateTime threshold, OffsetDateTime now) {
+        this.id = id;
+        this.shard = shard;
+        this.threshold = threshold;
+        this.status = Status.RUNNING;
+        this.startedAt = now;
+        this.updatedAt = now;
+    }
+
+    public static BillingRun start(int shard, OffsetDateTime threshold, OffsetDateTime now) {
+        return new BillingRun(Ids.next(), shard, threshold, now);
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public OffsetDateTime getThreshold() {
+        return threshold;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public OffsetDateTime getCheckpointScheduledAt() {
+        return checkpointScheduledAt;
+    }
+
+    public UUID getCheckpointScheduleId() {
+        return checkpointScheduleId;
+    }
+
+    public int getCharged() {
+        return charged;
+    }
+
+    public int getDeclined() {
+        return declined;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getErrored() {
+        return errored;
+    }
+
+    public int getProcessed() {
+        return charged + declined + skipped + errored;
+    }
+
+    public OffsetDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public OffsetDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public OffsetDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Time from start to finish, or to the last checkpoint while still running. Includes any time the run spent
+     * interrupted.
+     */
+    public Duration getDuration() {
+        return Duration.between(startedAt, finishedAt != null ? finishedAt : updatedAt);
+    }
+
+    /**
+     * Adds a billed chunk's outcomes and moves the checkpoint to its last schedule.
+     */
+    public void checkpoint(OffsetDateTime lastScheduledAt, UUID lastScheduleId, Map<BillingOutcome, Integer> outcomes,
+            OffsetDateTime now) {
+        if (status != Status.RUNNING) {
+            throw new IllegalStateException("Billing run " + id + " is already " + status);
+        }
+        checkpointScheduledAt = lastScheduledAt;
+        checkpointScheduleId = lastScheduleId;
+        charged += outcomes.getOrDefault(BillingOutcome.CHARGED, 0);
+        declined += outcomes.getOrDefault(BillingOutcome.DECLINED, 0);
+        skipped += outcomes.getOrDefault(BillingOutcome.SKIPPED, 0);
+        errored += outcomes.getOrDefault(BillingOutcome.ERRORED, 0);
+        updatedAt = now;
+    }
+
+    public void complete(OffsetDateTime now) {
+        status = Status.COMPLETED;
+        updatedAt = now;
+        finishedAt = now;
+    }
+}
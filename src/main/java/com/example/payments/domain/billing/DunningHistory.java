@@ -1,10 +1,10 @@
 package com.example.payments.domain.billing;
 
+import com.example.payments.domain.shared.AssignedIdEntity;
+import com.example.payments.domain.shared.Ids;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -14,10 +14,9 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "dunning_attempts")
-public class DunningHistory {
+public class DunningHistory extends AssignedIdEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -59,10 +58,11 @@ public class DunningHistory {
 
     public static DunningHistory record(Subscription subscription, OffsetDateTime scheduledAt, String status,
             String failureCode, String failureMessage, OffsetDateTime now) {
-        return new DunningHistory(UUID.randomUUID(), subscription, scheduledAt, status, failureCode, failureMessage,
+        return new DunningHistory(Ids.next(), subscription, scheduledAt, status, failureCode, failureMessage,
                 now, now);
     }
 
+    @Override
     public UUID getId() {
         return id;
     }
@@ -1,13 +1,13 @@
 package com.example.payments.domain.billing;
 
+import com.example.payments.domain.shared.AssignedIdEntity;
+import com.example.payments.domain.shared.Ids;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
@@ -22,10 +22,14 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "subscriptions")
-public class Subscription {
+public class Subscription extends AssignedIdEntity {
+
+    /**
+     * Billing shards are {@code billingBucket % shardCount}; a shard count that divides this keeps shards even.
+     */
+    public static final int BILLING_BUCKETS = 1024;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @Column(name = "customer_id", nullable = false)
@@ -78,6 +82,9 @@ public class Subscription {
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
 
+    @Column(name = "billing_bucket", nullable = false)
+    private int billingBucket;
+
     @Version
     private long version;
 
@@ -96,6 +103,7 @@ public class Subscription {
             OffsetDateTime nextBillingAt, OffsetDateTime delinquentSince, int retryCount, int maxRetryAttempts,
             OffsetDateTime createdAt, OffsetDateTime updatedAt) {
         this.id = id;
+        this.billingBucket = billingBucket(id);
         this.customerId = customerId;
         this.planCode = planCode;
         this.billingCycle = billingCycle;
@@ -126,11 +134,12 @@ public class Subscription {
         Objects.requireNonNull(clientReference, "clientReference");
         Objects.requireNonNull(firstBilling, "firstBilling");
         Objects.requireNonNull(now, "now");
-        return new Subscription(UUID.randomUUID(), customerId, planCode, cycle, intervalDays, amount,
+        return new Subscription(Ids.next(), customerId, planCode, cycle, intervalDays, amount,
                 currency, paymentMethodToken, SubscriptionStatus.ACTIVE, clientReference, trialEnd, firstBilling, null,
                 0, maxRetryAttempts, now, now);
     }
 
+    @Override
     public UUID getId() {
         return id;
     }
@@ -163,6 +172,10 @@ public class Subscription {
         return paymentMethodToken;
     }
 
+    public int getBillingBucket() {
+        return billingBucket;
+    }
+
     public SubscriptionStatus getStatus() {
         return status;
     }
@@ -326,6 +339,14 @@ public class Subscription {
         history.setSubscription(this);
     }
 
+    /**
+     * The low 10 bits of the id, which are random in both v4 and v7 UUIDs. The migration that added the column
+     * computes the same value in SQL.
+     */
+    static int billingBucket(UUID id) {
+        return (int) (id.getLeastSignificantBits() & (BILLING_BUCKETS - 1));
+    }
+
     private void touch(OffsetDateTime now) {
         updatedAt = now;
     }
@@ -1,12 +1,12 @@
 package com.example.payments.domain.billing;
 
+import com.example.payments.domain.shared.AssignedIdEntity;
+import com.example.payments.domain.shared.Ids;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -16,7 +16,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "subscription_schedules")
-public class SubscriptionSchedule {
+public class SubscriptionSchedule extends AssignedIdEntity {
 
     public enum ScheduleStatus {
         PENDING,
@@ -26,7 +26,6 @@ public class SubscriptionSchedule {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -69,10 +68,11 @@ public class SubscriptionSchedule {
 
     public static SubscriptionSchedule pending(Subscription subscription, int attemptNumber,
             OffsetDateTime scheduledAt, OffsetDateTime now) {
-        return new SubscriptionSchedule(UUID.randomUUID(), subscription, attemptNumber, ScheduleStatus.PENDING,
+        return new SubscriptionSchedule(Ids.next(), subscription, attemptNumber, ScheduleStatus.PENDING,
                 scheduledAt, null, now, now);
     }
 
+    @Override
     public UUID getId() {
         return id;
     }
@@ -1,6 +1,8 @@
 package com.example.payments.domain.payments;
 
+import com.example.payments.domain.shared.AssignedIdEntity;
 import com.example.payments.domain.shared.CorrelationId;
+import com.example.payments.domain.shared.Ids;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -22,7 +24,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "payment_orders")
-public class PaymentOrder {
+public class PaymentOrder extends AssignedIdEntity {
 
     @Id
     private UUID id;
@@ -86,10 +88,11 @@ public class PaymentOrder {
         Objects.requireNonNull(requestId, "requestId");
         Objects.requireNonNull(idempotencyKey, "idempotencyKey");
         Objects.requireNonNull(createdAt, "createdAt");
-        return new PaymentOrder(UUID.randomUUID(), customerId, money, correlationId.value(), requestId,
+        return new PaymentOrder(Ids.next(), customerId, money, correlationId.value(), requestId,
                 idempotencyKey, createdAt);
     }
 
+    @Override
     public UUID getId() {
         return id;
     }
@@ -136,14 +139,21 @@ public class PaymentOrder {
         touch();
     }
 
-    public void markAuthorized() {
+    public void markPending() {
         ensureStatus(PaymentOrderStatus.CREATED);
+        this.status = PaymentOrderStatus.PENDING;
+        touch();
+    }
+
+    public void markAuthorized() {
+        ensureStatus(PaymentOrderStatus.CREATED, PaymentOrderStatus.PENDING, PaymentOrderStatus.UNKNOWN);
         this.status = PaymentOrderStatus.AUTHORIZED;
         touch();
     }
 
     public void markCaptured() {
-        ensureStatus(PaymentOrderStatus.AUTHORIZED, PaymentOrderStatus.CREATED);
+        ensureStatus(PaymentOrderStatus.AUTHORIZED, PaymentOrderStatus.CREATED, PaymentOrderStatus.PENDING,
+                PaymentOrderStatus.UNKNOWN);
         this.status = PaymentOrderStatus.CAPTURED;
         touch();
     }
@@ -166,6 +176,12 @@ public class PaymentOrder {
         touch();
     }
 
+    public void markUnknown() {
+        ensureStatus(PaymentOrderStatus.PENDING);
+        this.status = PaymentOrderStatus.UNKNOWN;
+        touch();
+    }
+
     public void markFailed() {
         this.status = PaymentOrderStatus.FAILED;
         touch();
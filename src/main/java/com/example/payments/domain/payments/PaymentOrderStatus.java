@@ -2,10 +2,16 @@ package com.example.payments.domain.payments;
 
 public enum PaymentOrderStatus {
     CREATED,
+    PENDING,
     AUTHORIZED,
     CAPTURED,
     SETTLED,
     CANCELLED,
     REFUNDED,
-    FAILED
+    FAILED,
+    /**
+     * The gateway call's outcome could not be established; the order may or may not have been charged. Not
+     * terminal: a reconciled transaction or a later webhook moves it on.
+     */
+    UNKNOWN
 }
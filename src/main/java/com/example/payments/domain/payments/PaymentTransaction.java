@@ -1,5 +1,7 @@
 package com.example.payments.domain.payments;
 
+import com.example.payments.domain.shared.AssignedIdEntity;
+import com.example.payments.domain.shared.Ids;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -15,7 +17,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "payment_transactions")
-public class PaymentTransaction {
+public class PaymentTransaction extends AssignedIdEntity {
 
     @Id
     private UUID id;
@@ -66,10 +68,11 @@ public class PaymentTransaction {
     public static PaymentTransaction record(PaymentOrder order, PaymentTransactionType type, Money money,
             String authorizeNetTransactionId, String status, OffsetDateTime processedAt, String responseCode,
             String responseMessage) {
-        return new PaymentTransaction(UUID.randomUUID(), order, type, money, authorizeNetTransactionId,
+        return new PaymentTransaction(Ids.next(), order, type, money, authorizeNetTransactionId,
                 status, processedAt, responseCode, responseMessage);
     }
 
+    @Override
     public UUID getId() {
         return id;
     }
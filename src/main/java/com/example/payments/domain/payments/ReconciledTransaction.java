@@ -0,0 +1,15 @@
+package com.example.payments.domain.payments;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A transaction found on the gateway for an order whose call outcome was never recorded, with the order status its
+ * gateway status implies ({@link PaymentOrderStatus#AUTHORIZED}, {@link PaymentOrderStatus#CAPTURED} or
+ * {@link PaymentOrderStatus#FAILED}).
+ */
+public record ReconciledTransaction(
+        String transactionId,
+        String gatewayStatus,
+        PaymentOrderStatus orderStatus,
+        OffsetDateTime submittedAt) {
+}
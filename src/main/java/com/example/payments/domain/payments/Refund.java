@@ -1,5 +1,7 @@
 package com.example.payments.domain.payments;
 
+import com.example.payments.domain.shared.AssignedIdEntity;
+import com.example.payments.domain.shared.Ids;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -13,7 +15,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "refunds")
-public class Refund {
+public class Refund extends AssignedIdEntity {
 
     @Id
     private UUID id;
@@ -49,10 +51,11 @@ public class Refund {
 
     public static Refund record(PaymentTransaction transaction, Money money, String status,
             String authorizeNetTransactionId, OffsetDateTime processedAt) {
-        return new Refund(UUID.randomUUID(), transaction, money, status, authorizeNetTransactionId,
+        return new Refund(Ids.next(), transaction, money, status, authorizeNetTransactionId,
                 processedAt);
     }
 
+    @Override
     public UUID getId() {
         return id;
     }
@@ -1,5 +1,6 @@
 package com.example.payments.domain.settlement;
 
+import com.example.payments.domain.shared.Ids;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -55,7 +56,7 @@ public class SettlementExport {
 
     public static SettlementExport create(SettlementExportFormat format, OffsetDateTime start, OffsetDateTime end,
             String filePath) {
-        return new SettlementExport(UUID.randomUUID(), format, start, end, SettlementExportStatus.PENDING, filePath,
+        return new SettlementExport(Ids.next(), format, start, end, SettlementExportStatus.PENDING, filePath,
                 OffsetDateTime.now());
     }
 
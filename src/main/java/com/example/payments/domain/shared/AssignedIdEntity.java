@@ -0,0 +1,33 @@
+package com.example.payments.domain.shared;
+
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import java.util.UUID;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Base for entities whose UUID is assigned by the factory method rather than generated on insert.
+ *
+ * <p>Spring Data treats an entity with a non-null id as existing and merges it, which costs a select before every
+ * insert. Tracking newness explicitly lets {@code save} persist new instances straight away, so their inserts can
+ * be batched.</p>
+ */
+@MappedSuperclass
+public abstract class AssignedIdEntity implements Persistable<UUID> {
+
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -48,7 +48,7 @@ public class AuditLog {
 
     public static AuditLog record(String actor, String operation, String resourceType, UUID resourceId,
             String metadata, OffsetDateTime createdAt) {
-        return new AuditLog(UUID.randomUUID(), actor, operation, resourceType, resourceId, metadata, createdAt);
+        return new AuditLog(Ids.next(), actor, operation, resourceType, resourceId, metadata, createdAt);
     }
 
     public UUID getId() {
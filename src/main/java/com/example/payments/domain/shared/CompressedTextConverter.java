@@ -0,0 +1,134 @@
+package com.example.payments.domain.shared;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores large text columns (JSON payloads) DEFLATE-compressed in a {@code BYTEA} column.
+ *
+ * <p>Stored format, decided by the first byte:</p>
+ * <ul>
+ *     <li>{@value #DEFLATE}: the rest is raw DEFLATE of the UTF-8 text;</li>
+ *     <li>{@value #PLAIN}: the rest is the UTF-8 text;</li>
+ *     <li>anything else: the whole value is the UTF-8 text. Rows written before compression was introduced (the
+ *     migration converted them byte for byte) and values below {@link #THRESHOLD_BYTES} are stored this way.</li>
+ * </ul>
+ * <p>A value is only compressed when that makes it smaller. Each thread reuses one {@link Deflater} and one
+ * {@link Inflater}.</p>
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    /**
+     * Values shorter than this (in UTF-8 bytes) are stored as they are; below it the DEFLATE header and the CPU cost
+     * outweigh the savings on typical JSON.
+     */
+    public static final int THRESHOLD_BYTES = 512;
+
+    /**
+     * Column length for mapped attributes. Postgres {@code BYTEA} ignores it; it keeps schemas generated for other
+     * databases (H2 in tests) from defaulting to a 255-byte column.
+     */
+    public static final int MAX_COLUMN_BYTES = 16 * 1024 * 1024;
+
+    static final byte PLAIN = 0x00;
+    static final byte DEFLATE = 0x01;
+
+    private static final ThreadLocal<Codec> CODECS = ThreadLocal.withInitial(Codec::new);
+
+    @Override
+    public byte[] convertToDatabaseColumn(String attribute) {
+        return encode(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] dbData) {
+        return decode(dbData);
+    }
+
+    /**
+     * Encodes {@code text} in the stored format. Also used by native statements that bypass the converter.
+     */
+    public static byte[] encode(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= THRESHOLD_BYTES) {
+            byte[] compressed = CODECS.get().deflate(utf8);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        if (utf8.length > 0 && (utf8[0] == PLAIN || utf8[0] == DEFLATE)) {
+            byte[] marked = new byte[utf8.length + 1];
+            marked[0] = PLAIN;
+            System.arraycopy(utf8, 0, marked, 1, utf8.length);
+            return marked;
+        }
+        return utf8;
+    }
+
+    public static String decode(byte[] stored) {
+        if (stored == null) {
+            return null;
+        }
+        if (stored.length == 0) {
+            return "";
+        }
+        return switch (stored[0]) {
+            case DEFLATE -> CODECS.get().inflate(stored);
+            case PLAIN -> new String(stored, 1, stored.length - 1, StandardCharsets.UTF_8);
+            default -> new String(stored, StandardCharsets.UTF_8);
+        };
+    }
+
+    private static final class Codec {
+
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        private final Inflater inflater = new Inflater(true);
+        private byte[] buffer = new byte[8 * 1024];
+
+        /**
+         * Returns the marked, compressed value, or {@code null} when it would not be smaller than {@code utf8}.
+         */
+        private byte[] deflate(byte[] utf8) {
+            deflater.reset();
+            deflater.setInput(utf8);
+            deflater.finish();
+            if (buffer.length < utf8.length) {
+                buffer = new byte[utf8.length];
+            }
+            buffer[0] = DEFLATE;
+            int length = 1;
+            while (!deflater.finished() && length < utf8.length) {
+                length += deflater.deflate(buffer, length, utf8.length - length);
+            }
+            return deflater.finished() && length < utf8.length ? Arrays.copyOf(buffer, length) : null;
+        }
+
+        private String inflate(byte[] stored) {
+            inflater.reset();
+            inflater.setInput(stored, 1, stored.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, stored.length * 4));
+            try {
+                while (!inflater.finished()) {
+                    int read = inflater.inflate(buffer);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IllegalStateException("Truncated compressed column value");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            } catch (DataFormatException ex) {
+                throw new IllegalStateException("Corrupt compressed column value", ex);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.payments.domain.shared;
+
+import java.util.UUID;
+
+/**
+ * Source of primary keys for entities whose id is assigned by their factory method. See {@link Ids}.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    UUID nextId();
+}
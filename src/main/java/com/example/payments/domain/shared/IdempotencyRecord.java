@@ -1,6 +1,7 @@
 package com.example.payments.domain.shared;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
@@ -9,7 +10,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "idempotency_records")
-public class IdempotencyRecord {
+public class IdempotencyRecord extends AssignedIdEntity {
 
     @Id
     private UUID id;
@@ -20,7 +21,8 @@ public class IdempotencyRecord {
     @Column(name = "request_hash", nullable = false)
     private String requestHash;
 
-    @Column(name = "response_payload", nullable = false)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "response_payload", nullable = false, length = CompressedTextConverter.MAX_COLUMN_BYTES)
     private String responsePayload;
 
     @Column(name = "status_code", nullable = false)
@@ -44,10 +46,11 @@ public class IdempotencyRecord {
 
     public static IdempotencyRecord create(String idempotencyKey, String requestHash,
             String responsePayload, int statusCode, OffsetDateTime createdAt) {
-        return new IdempotencyRecord(UUID.randomUUID(), idempotencyKey, requestHash, responsePayload,
+        return new IdempotencyRecord(Ids.next(), idempotencyKey, requestHash, responsePayload,
                 statusCode, createdAt);
     }
 
+    @Override
     public UUID getId() {
         return id;
     }
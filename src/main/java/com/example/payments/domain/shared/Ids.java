@@ -0,0 +1,25 @@
+package com.example.payments.domain.shared;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Id source used by entity factory methods ({@code PaymentOrder.create}, {@code AuditLog.record}, ...). Defaults to
+ * time-ordered {@link UuidV7Generator}; {@link #use} swaps the generator, for example to get deterministic ids in
+ * tests.
+ */
+public final class Ids {
+
+    private static volatile IdGenerator generator = new UuidV7Generator();
+
+    private Ids() {
+    }
+
+    public static UUID next() {
+        return generator.nextId();
+    }
+
+    public static void use(IdGenerator idGenerator) {
+        generator = Objects.requireNonNull(idGenerator, "idGenerator");
+    }
+}
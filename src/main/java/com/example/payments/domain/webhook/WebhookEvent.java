@@ -1,12 +1,14 @@
 package com.example.payments.domain.webhook;
 
+import com.example.payments.domain.shared.AssignedIdEntity;
+import com.example.payments.domain.shared.CompressedTextConverter;
+import com.example.payments.domain.shared.Ids;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
@@ -15,7 +17,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "webhook_events")
-public class WebhookEvent {
+public class WebhookEvent extends AssignedIdEntity {
 
     public enum ProcessedStatus {
         PENDING,
@@ -25,7 +27,6 @@ public class WebhookEvent {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
     @Column(name = "event_id", nullable = false)
@@ -34,7 +35,8 @@ public class WebhookEvent {
     @Column(name = "event_type", nullable = false)
     private String eventType;
 
-    @Column(name = "payload", nullable = false)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "payload", nullable = false, length = CompressedTextConverter.MAX_COLUMN_BYTES)
     private String payload;
 
     @Column(name = "signature", nullable = false)
@@ -50,7 +52,13 @@ public class WebhookEvent {
     @Column(name = "failure_reason")
     private String failureReason;
 
-    @Column(name = "dedupe_hash", nullable = false)
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "dedupe_hash", nullable = false, length = 64)
     private String dedupeHash;
 
     @Column(name = "received_at", nullable = false)
@@ -88,10 +96,11 @@ public class WebhookEvent {
     public static WebhookEvent create(String eventId, String eventType, String payload, String signature,
             String dedupeHash, OffsetDateTime receivedAt) {
         OffsetDateTime now = OffsetDateTime.now();
-        return new WebhookEvent(UUID.randomUUID(), eventId, eventType, payload, signature, dedupeHash,
+        return new WebhookEvent(Ids.next(), eventId, eventType, payload, signature, dedupeHash,
                 receivedAt, ProcessedStatus.PENDING, null, null, now, now);
     }
 
+    @Override
     public UUID getId() {
         return id;
     }
@@ -124,6 +133,20 @@ public class WebhookEvent {
         return failureReason;
     }
 
+    /**
+     * Times the event has been returned to {@code PENDING} after its claim went stale.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Earliest time a requeued event may be claimed again; {@code null} for events that were never requeued.
+     */
+    public OffsetDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
     public String getDedupeHash() {
         return dedupeHash;
     }
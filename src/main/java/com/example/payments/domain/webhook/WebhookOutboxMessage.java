@@ -0,0 +1,78 @@
+package com.example.payments.domain.webhook;
+
+import com.example.payments.domain.shared.AssignedIdEntity;
+import com.example.payments.domain.shared.Ids;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A webhook event that still has to be published to the broker. Written in the transaction that records the event
+ * and removed once the broker has confirmed the message.
+ */
+@Entity
+@Table(name = "webhook_outbox")
+public class WebhookOutboxMessage extends AssignedIdEntity {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "webhook_event_id", nullable = false)
+    private UUID webhookEventId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private OffsetDateTime availableAt;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    protected WebhookOutboxMessage() {
+    }
+
+    private WebhookOutboxMessage(UUID id, UUID webhookEventId, int attempts, OffsetDateTime availableAt,
+            OffsetDateTime createdAt) {
+        this.id = id;
+        this.webhookEventId = webhookEventId;
+        this.attempts = attempts;
+        this.availableAt = availableAt;
+        this.createdAt = createdAt;
+    }
+
+    public static WebhookOutboxMessage forEvent(WebhookEvent event, OffsetDateTime now) {
+        return forEvent(event, now, now);
+    }
+
+    /**
+     * A message the relay must not publish before {@code availableAt}.
+     */
+    public static WebhookOutboxMessage forEvent(WebhookEvent event, OffsetDateTime availableAt, OffsetDateTime now) {
+        return new WebhookOutboxMessage(Ids.next(), event.getId(), 0, availableAt, now);
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getWebhookEventId() {
+        return webhookEventId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public OffsetDateTime getAvailableAt() {
+        return availableAt;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
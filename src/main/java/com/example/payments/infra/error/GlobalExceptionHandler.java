@@ -28,6 +28,8 @@ public class GlobalExceptionHandler {
             case "INVALID_STATE", "INVALID_AMOUNT" -> HttpStatus.CONFLICT;
             case "DUPLICATE_REQUEST" -> HttpStatus.CONFLICT;
             case "GATEWAY_DECLINED" -> HttpStatus.BAD_GATEWAY;
+            case "GATEWAY_TIMEOUT" -> HttpStatus.GATEWAY_TIMEOUT;
+            case "GATEWAY_BULKHEAD_FULL", "GATEWAY_UNAVAILABLE" -> HttpStatus.SERVICE_UNAVAILABLE;
             default -> HttpStatus.BAD_REQUEST;
         };
         return ResponseEntity.status(status).body(ErrorResponse.of(ex.getErrorCode(), ex.getMessage()));
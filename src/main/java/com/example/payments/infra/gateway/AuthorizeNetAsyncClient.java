@@ -0,0 +1,23 @@
+package com.example.payments.infra.gateway;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link AuthorizeNetClient}. Futures complete exceptionally with a
+ * {@link com.example.payments.domain.payments.PaymentException} when the call cannot be made or its outcome is
+ * unknown.
+ */
+public interface AuthorizeNetAsyncClient {
+
+    CompletableFuture<GatewayTransactionResult> authorize(Money amount, String paymentNonce, String orderId);
+
+    CompletableFuture<GatewayTransactionResult> capture(Money amount, String transactionId);
+
+    CompletableFuture<GatewayTransactionResult> purchase(Money amount, String paymentNonce, String orderId);
+
+    CompletableFuture<GatewayTransactionResult> refund(Money amount, String transactionId, String lastFour);
+
+    CompletableFuture<GatewayTransactionResult> voidTransaction(String transactionId);
+}
@@ -2,6 +2,8 @@ package com.example.payments.infra.gateway;
 
 import com.example.payments.domain.payments.GatewayTransactionResult;
 import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.ReconciledTransaction;
+import java.util.Optional;
 public interface AuthorizeNetClient {
 
     GatewayTransactionResult authorize(Money amount, String paymentNonce, String orderId);
@@ -13,4 +15,12 @@ public interface AuthorizeNetClient {
     GatewayTransactionResult refund(Money amount, String transactionId, String lastFour);
 
     GatewayTransactionResult voidTransaction(String transactionId);
+
+    /**
+     * Looks up the transaction an authorize or purchase for {@code orderId} left on the gateway. Empty when none is
+     * found or the client cannot look transactions up; that does not prove the order was never charged.
+     */
+    default Optional<ReconciledTransaction> findTransaction(String orderId) {
+        return Optional.empty();
+    }
 }
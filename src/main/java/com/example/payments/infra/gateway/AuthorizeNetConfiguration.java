@@ -1,16 +1,50 @@
 package com.example.payments.infra.gateway;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 @EnableConfigurationProperties(AuthorizeNetProperties.class)
 public class AuthorizeNetConfiguration {
 
+    /**
+     * Single JDK client so connections to Authorize.Net are pooled and kept alive across calls. Its bounded
+     * executor runs the client's own response handling only; it is not exposed as a bean so the auto-configured
+     * application task executor is unaffected.
+     */
     @Bean
-    RestTemplate authorizeNetRestTemplate() {
-        return new RestTemplate();
+    HttpClient authorizeNetHttpClient(AuthorizeNetProperties properties) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("anet-io-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getHttp().getIoThreads(), threadFactory);
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getHttp().getConnectTimeout())
+                .executor(executor)
+                .build();
+    }
+
+    @Bean
+    RestTemplate authorizeNetRestTemplate(HttpClient authorizeNetHttpClient, AuthorizeNetProperties properties) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(authorizeNetHttpClient);
+        requestFactory.setReadTimeout(properties.getHttp().getRequestTimeout());
+        return new RestTemplate(requestFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "authorize-net.async", name = "enabled", havingValue = "false",
+            matchIfMissing = true)
+    AuthorizeNetAsyncClient blockingAuthorizeNetAsyncClient(AuthorizeNetClient authorizeNetClient,
+            AuthorizeNetProperties properties) {
+        return new BlockingAuthorizeNetAsyncAdapter(authorizeNetClient, properties.getAsync().getBlockingThreads(),
+                properties.getAsync().getBlockingQueueCapacity());
     }
 }
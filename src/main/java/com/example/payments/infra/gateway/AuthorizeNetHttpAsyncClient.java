@@ -0,0 +1,155 @@
+package com.example.payments.infra.gateway;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.PaymentException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Non-blocking Authorize.Net JSON client on the shared keep-alive {@link HttpClient}.
+ *
+ * <p>Each {@link GatewayOperation} has its own bulkhead: when its in-flight cap is reached further calls fail
+ * fast with {@code GATEWAY_BULKHEAD_FULL} instead of queueing, so a slow capture path cannot starve purchases.
+ * No caller thread is held while a request is in flight.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "authorize-net.async", name = "enabled", havingValue = "true")
+public class AuthorizeNetHttpAsyncClient implements AuthorizeNetAsyncClient {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorizeNetHttpAsyncClient.class);
+
+    private final HttpClient httpClient;
+    private final AuthorizeNetJsonCodec codec;
+    private final AuthorizeNetProperties properties;
+    private final URI endpoint;
+    private final Duration requestTimeout;
+    private final Map<GatewayOperation, Semaphore> bulkheads = new EnumMap<>(GatewayOperation.class);
+    private final Map<GatewayOperation, Counter> rejections = new EnumMap<>(GatewayOperation.class);
+
+    public AuthorizeNetHttpAsyncClient(HttpClient authorizeNetHttpClient, AuthorizeNetJsonCodec codec,
+            AuthorizeNetProperties properties, MeterRegistry meterRegistry) {
+        log.info("Using non-blocking Authorize.Net HTTP client for payment gateway integration");
+        this.httpClient = authorizeNetHttpClient;
+        this.codec = codec;
+        this.properties = properties;
+        this.endpoint = URI.create(properties.getEndpoint());
+        this.requestTimeout = properties.getHttp().getRequestTimeout();
+        for (GatewayOperation operation : GatewayOperation.values()) {
+            int limit = properties.getAsync().maxConcurrentFor(operation);
+            Semaphore bulkhead = new Semaphore(limit);
+            bulkheads.put(operation, bulkhead);
+            Gauge.builder("gateway.bulkhead.in.flight", bulkhead, permits -> limit - permits.availablePermits())
+                    .description("Authorize.Net calls currently in flight")
+                    .tag("operation", operation.key())
+                    .register(meterRegistry);
+            rejections.put(operation, Counter.builder("gateway.bulkhead.rejected.count")
+                    .description("Authorize.Net calls rejected because the bulkhead was full")
+                    .tag("operation", operation.key())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> authorize(Money amount, String paymentNonce, String orderId) {
+        return send(GatewayOperation.AUTHORIZE, amount, paymentNonce, orderId, null, null);
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> capture(Money amount, String transactionId) {
+        return send(GatewayOperation.CAPTURE, amount, null, transactionId, transactionId, null);
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> purchase(Money amount, String paymentNonce, String orderId) {
+        return send(GatewayOperation.PURCHASE, amount, paymentNonce, orderId, null, null);
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> refund(Money amount, String transactionId, String lastFour) {
+        return send(GatewayOperation.REFUND, amount, null, transactionId, transactionId, lastFour);
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> voidTransaction(String transactionId) {
+        return send(GatewayOperation.VOID, Money.zero(properties.getDefaultCurrency()), null, transactionId,
+                transactionId, null);
+    }
+
+    private CompletableFuture<GatewayTransactionResult> send(GatewayOperation operation, Money amount,
+            String paymentData, String referenceId, String refTransId, String lastFour) {
+        Semaphore bulkhead = bulkheads.get(operation);
+        if (!bulkhead.tryAcquire()) {
+            rejections.get(operation).increment();
+            return CompletableFuture.failedFuture(new PaymentException("GATEWAY_BULKHEAD_FULL",
+                    "Too many concurrent Authorize.Net " + operation.key() + " calls"));
+        }
+        try {
+            String body = codec.writeRequest(operation.transactionType(), amount, paymentData, referenceId,
+                    refTransId, lastFour);
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(response -> toResult(operation, response))
+                    .exceptionally(ex -> {
+                        throw translate(operation, ex);
+                    })
+                    .whenComplete((result, ex) -> bulkhead.release());
+        } catch (RuntimeException ex) {
+            bulkhead.release();
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private GatewayTransactionResult toResult(GatewayOperation operation, HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            String body = AuthorizeNetJsonCodec.decode(response.body());
+            log.warn("Authorize.Net async {} failed with status {} and body {}", operation.key(),
+                    response.statusCode(), body);
+            return GatewayTransactionResult.failure(String.valueOf(response.statusCode()),
+                    body.isEmpty() ? "HTTP error" : body, OffsetDateTime.now());
+        }
+        try {
+            return codec.readResponse(response.body());
+        } catch (IOException ex) {
+            throw new CompletionException(new PaymentException("GATEWAY_ERROR",
+                    "Unreadable Authorize.Net response", ex));
+        }
+    }
+
+    private RuntimeException translate(GatewayOperation operation, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof PaymentException paymentException) {
+            return paymentException;
+        }
+        if (cause instanceof HttpTimeoutException) {
+            log.warn("Authorize.Net async {} timed out after {}", operation.key(), requestTimeout);
+            return new PaymentException("GATEWAY_TIMEOUT", "Authorize.Net call timed out", cause);
+        }
+        log.error("Authorize.Net async {} failed: {}", operation.key(), cause.getMessage(), cause);
+        return new PaymentException("GATEWAY_ERROR", "Authorize.Net call failed", cause);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.payments.infra.gateway;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds and reads the Authorize.Net JSON {@code createTransactionRequest} protocol shared by the blocking and
+ * non-blocking REST clients.
+ */
+@Component
+public class AuthorizeNetJsonCodec {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final AuthorizeNetProperties properties;
+
+    public AuthorizeNetJsonCodec(ObjectMapper objectMapper, AuthorizeNetProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    public String writeRequest(String type, Money amount, String paymentData, String referenceId, String refTransId,
+            String lastFour) {
+        Map<String, Object> payload = buildPayload(type, amount, paymentData, referenceId, refTransId, lastFour);
+        try {
+            return objectMapper.writeValueAsString(Map.of("createTransactionRequest", payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize Authorize.Net request", e);
+        }
+    }
+
+    /**
+     * Parses a raw response body. Authorize.Net prefixes JSON responses with a UTF-8 byte order mark, which is
+     * skipped before parsing.
+     */
+    public GatewayTransactionResult readResponse(byte[] body) throws IOException {
+        if (body == null || body.length == 0) {
+            return readResponse((Map<String, Object>) null);
+        }
+        int offset = hasByteOrderMark(body) ? 3 : 0;
+        Map<String, Object> parsed = objectMapper.readValue(body, offset, body.length - offset, MAP_TYPE);
+        return readResponse(parsed);
+    }
+
+    @SuppressWarnings("unchecked")
+    public GatewayTransactionResult readResponse(Map<String, Object> body) {
+        if (body == null) {
+            return GatewayTransactionResult.failure("EMPTY_RESPONSE", "Authorize.Net returned empty body",
+                    OffsetDateTime.now());
+        }
+
+        Map<String, Object> response = (Map<String, Object>) body.get("createTransactionResponse");
+        if (response == null) {
+            response = body;
+        }
+
+        Map<String, Object> messages = (Map<String, Object>) response.get("messages");
+        String resultCode = messages != null ? (String) messages.get("resultCode") : null;
+
+        Map<String, Object> transactionResponse = (Map<String, Object>) response.get("transactionResponse");
+        String transId = transactionResponse != null ? (String) transactionResponse.get("transId") : null;
+        String responseCode = transactionResponse != null ? String.valueOf(transactionResponse.get("responseCode")) :
+                (messages != null ? collectFirstMessageCode(messages) : "0");
+        String responseMessage = transactionResponse != null && transactionResponse.get("messages") instanceof Iterable<?> iterable
+                ? iterable.iterator().hasNext() ? String.valueOf(((Map<?, ?>) iterable.iterator().next()).get("description")) : null
+                : collectFirstMessageText(messages);
+
+        if ("Ok".equalsIgnoreCase(resultCode) && transId != null) {
+            return GatewayTransactionResult.success(transId, responseCode, responseMessage, OffsetDateTime.now());
+        }
+
+        if (transactionResponse != null && transactionResponse.get("errors") instanceof Iterable<?> errors) {
+            var iterator = errors.iterator();
+            if (iterator.hasNext()) {
+                Map<?, ?> err = (Map<?, ?>) iterator.next();
+                responseCode = String.valueOf(err.get("errorCode"));
+                responseMessage = String.valueOf(err.get("errorText"));
+            }
+        }
+
+        if (responseMessage == null) {
+            responseMessage = "Authorize.Net REST call failed";
+        }
+
+        return GatewayTransactionResult.failure(responseCode, responseMessage, OffsetDateTime.now());
+    }
+
+    private String collectFirstMessageCode(Map<String, Object> messages) {
+        Object messageObj = messages.get("message");
+        if (messageObj instanceof Iterable<?> iterable && iterable.iterator().hasNext()) {
+            return String.valueOf(((Map<?, ?>) iterable.iterator().next()).get("code"));
+        }
+        return "0";
+    }
+
+    private String collectFirstMessageText(Map<String, Object> messages) {
+        if (messages == null) {
+            return null;
+        }
+        Object messageObj = messages.get("message");
+        if (messageObj instanceof Iterable<?> iterable && iterable.iterator().hasNext()) {
+            return String.valueOf(((Map<?, ?>) iterable.iterator().next()).get("text"));
+        }
+        return null;
+    }
+
+    private Map<String, Object> buildPayload(String type, Money amount, String paymentData, String referenceId,
+            String refTransId, String lastFour) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        Map<String, Object> merchantAuth = new LinkedHashMap<>();
+        merchantAuth.put("name", properties.getApiLoginId());
+        merchantAuth.put("transactionKey", properties.getTransactionKey());
+        request.put("merchantAuthentication", merchantAuth);
+        String sanitisedRefId = AuthorizeNetReferenceIdSanitizer.resolve(referenceId);
+        request.put("refId", sanitisedRefId);
+
+        Map<String, Object> transactionRequest = new LinkedHashMap<>();
+        transactionRequest.put("transactionType", type);
+        transactionRequest.put("amount", new BigDecimal(amount.amount().toString()));
+
+        if (paymentData != null || lastFour != null) {
+            transactionRequest.put("payment", buildPayment(type, paymentData, lastFour));
+        }
+
+        if (refTransId != null) {
+            transactionRequest.put("refTransId", refTransId);
+        }
+
+        // The invoice number is what reconciliation and webhooks match the order on; the schema wants it after
+        // refTransId.
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("invoiceNumber", sanitisedRefId);
+        order.put("description", "Payment order " + sanitisedRefId);
+        transactionRequest.put("order", order);
+
+        request.put("transactionRequest", transactionRequest);
+        return request;
+    }
+
+    private Map<String, Object> buildPayment(String type, String paymentData, String lastFour) {
+        if (lastFour != null) {
+            Map<String, Object> creditCard = new LinkedHashMap<>();
+            creditCard.put("cardNumber", lastFour);
+            creditCard.put("expirationDate", "XXXX");
+            Map<String, Object> payment = new LinkedHashMap<>();
+            payment.put("creditCard", creditCard);
+            return payment;
+        }
+
+        if (paymentData != null && paymentData.startsWith("card|")) {
+            String[] parts = paymentData.split("\\|");
+            String number = parts.length > 1 ? parts[1] : "";
+            String expiry = parts.length > 2 ? parts[2].replaceAll("[^0-9]", "") : "";
+            String cvv = parts.length > 3 ? parts[3] : null;
+
+            Map<String, Object> creditCard = new LinkedHashMap<>();
+            creditCard.put("cardNumber", number);
+            creditCard.put("expirationDate", normaliseExpiry(expiry));
+            if (cvv != null) {
+                creditCard.put("cardCode", cvv);
+            }
+            Map<String, Object> payment = new LinkedHashMap<>();
+            payment.put("creditCard", creditCard);
+            return payment;
+        }
+
+        if (paymentData != null) {
+            Map<String, Object> opaqueData = new LinkedHashMap<>();
+            opaqueData.put("dataDescriptor", properties.getAcceptPaymentDescriptor());
+            opaqueData.put("dataValue", paymentData);
+            Map<String, Object> payment = new LinkedHashMap<>();
+            payment.put("opaqueData", opaqueData);
+            return payment;
+        }
+
+        throw new IllegalArgumentException("Payment data required for transaction type " + type);
+    }
+
+    private String normaliseExpiry(String raw) {
+        String digits = raw.replaceAll("[^0-9]", "");
+        if (digits.length() == 4) {
+            return digits.substring(0, 2) + digits.substring(2);
+        }
+        if (digits.length() == 6) {
+            return digits.substring(4) + digits.substring(2, 4);
+        }
+        if (digits.length() == 2) {
+            return digits + "00";
+        }
+        return "2030";
+    }
+
+    private static boolean hasByteOrderMark(byte[] body) {
+        return body.length >= 3 && (body[0] & 0xFF) == 0xEF && (body[1] & 0xFF) == 0xBB && (body[2] & 0xFF) == 0xBF;
+    }
+
+    static String decode(byte[] body) {
+        return body == null ? "" : new String(body, StandardCharsets.UTF_8);
+    }
+}
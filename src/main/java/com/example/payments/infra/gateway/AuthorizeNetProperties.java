@@ -1,6 +1,9 @@
 package com.example.payments.infra.gateway;
 
 import jakarta.validation.constraints.NotBlank;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
@@ -23,6 +26,10 @@ public class AuthorizeNetProperties {
     private String acceptPaymentDescriptor = "COMMON.ACCEPT.INAPP.PAYMENT";
     private String defaultCurrency = "USD";
 
+    private final Http http = new Http();
+    private final Async async = new Async();
+    private final Protection protection = new Protection();
+
     public String getApiLoginId() {
         return apiLoginId;
     }
@@ -70,4 +77,236 @@ public class AuthorizeNetProperties {
     public void setDefaultCurrency(String defaultCurrency) {
         this.defaultCurrency = defaultCurrency;
     }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Protection getProtection() {
+        return protection;
+    }
+
+    /**
+     * Shared keep-alive HTTP client used by the REST and non-blocking clients.
+     */
+    public static class Http {
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration requestTimeout = Duration.ofSeconds(10);
+        private int ioThreads = 16;
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getRequestTimeout() {
+            return requestTimeout;
+        }
+
+        public void setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+    }
+
+    /**
+     * Non-blocking client settings. {@code maxConcurrent} caps in-flight calls per operation key
+     * ({@code purchase}, {@code authorize}, {@code capture}, {@code refund}, {@code void}). When disabled, blocking
+     * calls run on {@code blockingThreads} threads with up to {@code blockingQueueCapacity} calls waiting.
+     */
+    public static class Async {
+
+        private boolean enabled = false;
+        private int defaultMaxConcurrent = 64;
+        private Map<String, Integer> maxConcurrent = new HashMap<>();
+        private int blockingThreads = 32;
+        private int blockingQueueCapacity = 256;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getDefaultMaxConcurrent() {
+            return defaultMaxConcurrent;
+        }
+
+        public void setDefaultMaxConcurrent(int defaultMaxConcurrent) {
+            this.defaultMaxConcurrent = defaultMaxConcurrent;
+        }
+
+        public Map<String, Integer> getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(Map<String, Integer> maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getBlockingThreads() {
+            return blockingThreads;
+        }
+
+        public void setBlockingThreads(int blockingThreads) {
+            this.blockingThreads = blockingThreads;
+        }
+
+        public int getBlockingQueueCapacity() {
+            return blockingQueueCapacity;
+        }
+
+        public void setBlockingQueueCapacity(int blockingQueueCapacity) {
+            this.blockingQueueCapacity = blockingQueueCapacity;
+        }
+
+        public int maxConcurrentFor(GatewayOperation operation) {
+            return maxConcurrent.getOrDefault(operation.key(), defaultMaxConcurrent);
+        }
+    }
+
+    /**
+     * Adaptive concurrency limit shared by all gateway calls plus one circuit breaker per operation.
+     */
+    public static class Protection {
+
+        private boolean enabled = true;
+        private final Limiter limiter = new Limiter();
+        private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Limiter getLimiter() {
+            return limiter;
+        }
+
+        public CircuitBreaker getCircuitBreaker() {
+            return circuitBreaker;
+        }
+    }
+
+    /**
+     * AIMD limit: grows by one per window of calls faster than {@code latencyThreshold}, shrinks by
+     * {@code backoffRatio} on a slow call or gateway fault.
+     */
+    public static class Limiter {
+
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+        private double backoffRatio = 0.9;
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+
+    public static class CircuitBreaker {
+
+        private int failureRateThreshold = 50;
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+    }
 }
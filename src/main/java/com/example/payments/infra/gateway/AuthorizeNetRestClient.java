@@ -2,10 +2,7 @@ package com.example.payments.infra.gateway;
 
 import com.example.payments.domain.payments.GatewayTransactionResult;
 import com.example.payments.domain.payments.Money;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -25,9 +22,13 @@ import org.springframework.web.client.RestTemplate;
  * REST-based Authorize.Net client. Keeps the legacy SDK client available but
  * switches the default integration to plain JSON calls so we can debug
  * sandbox behaviour more easily.
+ *
+ * <p>It cannot look transactions up ({@link #findTransaction} stays empty), so stale pending orders
+ * reconciled under this client move to {@code UNKNOWN}; resolving them from the gateway needs the SDK
+ * client.</p>
  */
 @Component
-@Profile("rest-test")
+@Profile({ "rest-test", "simulator" })
 //@Primary
 //@Profile("!test")
 public class AuthorizeNetRestClient implements AuthorizeNetClient {
@@ -35,14 +36,14 @@ public class AuthorizeNetRestClient implements AuthorizeNetClient {
     private static final Logger log = LoggerFactory.getLogger(AuthorizeNetRestClient.class);
 
     private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final AuthorizeNetJsonCodec codec;
     private final AuthorizeNetProperties properties;
 
-    public AuthorizeNetRestClient(RestTemplate restTemplate, ObjectMapper objectMapper,
+    public AuthorizeNetRestClient(RestTemplate restTemplate, AuthorizeNetJsonCodec codec,
             AuthorizeNetProperties properties) {
         log.info("Using Authorize.Net REST client for payment gateway integration");
         this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
+        this.codec = codec;
         this.properties = properties;
     }
 
@@ -75,8 +76,7 @@ public class AuthorizeNetRestClient implements AuthorizeNetClient {
     private GatewayTransactionResult sendTransaction(String type, Money amount, String paymentData, String referenceId,
             String refTransId, String lastFour) {
         try {
-            Map<String, Object> payload = buildPayload(type, amount, paymentData, referenceId, refTransId, lastFour);
-            String body = objectMapper.writeValueAsString(Map.of("createTransactionRequest", payload));
+            String body = codec.writeRequest(type, amount, paymentData, referenceId, refTransId, lastFour);
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
@@ -85,7 +85,7 @@ public class AuthorizeNetRestClient implements AuthorizeNetClient {
             ResponseEntity<Map> response = restTemplate.exchange(properties.getEndpoint(), HttpMethod.POST, entity,
                     Map.class);
 
-            return mapResponse(type, response.getBody());
+            return codec.readResponse(response.getBody());
         } catch (HttpStatusCodeException ex) {
             log.warn("Authorize.Net REST {} failed with status {} and body {}", type, ex.getRawStatusCode(),
                     ex.getResponseBodyAsString());
@@ -96,141 +96,4 @@ public class AuthorizeNetRestClient implements AuthorizeNetClient {
             return GatewayTransactionResult.failure("REST_ERROR", ex.getMessage(), OffsetDateTime.now());
         }
     }
-
-    @SuppressWarnings("unchecked")
-    private GatewayTransactionResult mapResponse(String type, Map<String, Object> body) {
-        if (body == null) {
-            return GatewayTransactionResult.failure("EMPTY_RESPONSE", "Authorize.Net returned empty body",
-                    OffsetDateTime.now());
-        }
-
-        Map<String, Object> response = (Map<String, Object>) body.get("createTransactionResponse");
-        if (response == null) {
-            response = body;
-        }
-
-        Map<String, Object> messages = (Map<String, Object>) response.get("messages");
-        String resultCode = messages != null ? (String) messages.get("resultCode") : null;
-
-        Map<String, Object> transactionResponse = (Map<String, Object>) response.get("transactionResponse");
-        String transId = transactionResponse != null ? (String) transactionResponse.get("transId") : null;
-        String responseCode = transactionResponse != null ? String.valueOf(transactionResponse.get("responseCode")) :
-                (messages != null ? collectFirstMessageCode(messages) : "0");
-        String responseMessage = transactionResponse != null && transactionResponse.get("messages") instanceof Iterable<?> iterable
-                ? iterable.iterator().hasNext() ? String.valueOf(((Map<?, ?>) iterable.iterator().next()).get("description")) : null
-                : collectFirstMessageText(messages);
-
-        if ("Ok".equalsIgnoreCase(resultCode) && transId != null) {
-            return GatewayTransactionResult.success(transId, responseCode, responseMessage, OffsetDateTime.now());
-        }
-
-        if (transactionResponse != null && transactionResponse.get("errors") instanceof Iterable<?> errors) {
-            var iterator = errors.iterator();
-            if (iterator.hasNext()) {
-                Map<?, ?> err = (Map<?, ?>) iterator.next();
-                responseCode = String.valueOf(err.get("errorCode"));
-                responseMessage = String.valueOf(err.get("errorText"));
-            }
-        }
-
-        if (responseMessage == null) {
-            responseMessage = "Authorize.Net REST call failed";
-        }
-
-        return GatewayTransactionResult.failure(responseCode, responseMessage, OffsetDateTime.now());
-    }
-
-    private String collectFirstMessageCode(Map<String, Object> messages) {
-        Object messageObj = messages.get("message");
-        if (messageObj instanceof Iterable<?> iterable && iterable.iterator().hasNext()) {
-            return String.valueOf(((Map<?, ?>) iterable.iterator().next()).get("code"));
-        }
-        return "0";
-    }
-
-    private String collectFirstMessageText(Map<String, Object> messages) {
-        Object messageObj = messages.get("message");
-        if (messageObj instanceof Iterable<?> iterable && iterable.iterator().hasNext()) {
-            return String.valueOf(((Map<?, ?>) iterable.iterator().next()).get("text"));
-        }
-        return null;
-    }
-
-    private Map<String, Object> buildPayload(String type, Money amount, String paymentData, String referenceId,
-            String refTransId, String lastFour) {
-        Map<String, Object> request = new LinkedHashMap<>();
-        Map<String, Object> merchantAuth = new LinkedHashMap<>();
-        merchantAuth.put("name", properties.getApiLoginId());
-        merchantAuth.put("transactionKey", properties.getTransactionKey());
-        request.put("merchantAuthentication", merchantAuth);
-        request.put("refId", AuthorizeNetReferenceIdSanitizer.resolve(referenceId));
-
-        Map<String, Object> transactionRequest = new LinkedHashMap<>();
-        transactionRequest.put("transactionType", type);
-        transactionRequest.put("amount", new BigDecimal(amount.amount().toString()));
-
-        if (paymentData != null || lastFour != null) {
-            transactionRequest.put("payment", buildPayment(type, paymentData, lastFour));
-        }
-
-        if (refTransId != null) {
-            transactionRequest.put("refTransId", refTransId);
-        }
-
-        request.put("transactionRequest", transactionRequest);
-        return request;
-    }
-
-    private Map<String, Object> buildPayment(String type, String paymentData, String lastFour) {
-        if (lastFour != null) {
-            Map<String, Object> creditCard = new LinkedHashMap<>();
-            creditCard.put("cardNumber", lastFour);
-            creditCard.put("expirationDate", "XXXX");
-            Map<String, Object> payment = new LinkedHashMap<>();
-            payment.put("creditCard", creditCard);
-            return payment;
-        }
-
-        if (paymentData != null && paymentData.startsWith("card|")) {
-            String[] parts = paymentData.split("\\|");
-            String number = parts.length > 1 ? parts[1] : "";
-            String expiry = parts.length > 2 ? parts[2].replaceAll("[^0-9]", "") : "";
-            String cvv = parts.length > 3 ? parts[3] : null;
-
-            Map<String, Object> creditCard = new LinkedHashMap<>();
-            creditCard.put("cardNumber", number);
-            creditCard.put("expirationDate", normaliseExpiry(expiry));
-            if (cvv != null) {
-                creditCard.put("cardCode", cvv);
-            }
-            Map<String, Object> payment = new LinkedHashMap<>();
-            payment.put("creditCard", creditCard);
-            return payment;
-        }
-
-        if (paymentData != null) {
-            Map<String, Object> opaqueData = new LinkedHashMap<>();
-            opaqueData.put("dataDescriptor", properties.getAcceptPaymentDescriptor());
-            opaqueData.put("dataValue", paymentData);
-            Map<String, Object> payment = new LinkedHashMap<>();
-            payment.put("opaqueData", opaqueData);
-            return payment;
-        }
-
-        throw new IllegalArgumentException("Payment data required for transaction type " + type);
-    }
-
-    private String normaliseExpiry(String raw) {
-        String digits = raw.replaceAll("[^0-9]", "");
-        if (digits.length() == 4) {
-            return digits.substring(0, 2) + digits.substring(2);
-        }
-        if (digits.length() == 6) {
-            return digits.substring(4) + digits.substring(2, 4);
-        }
-        if (digits.length() == 2) {
-            return digits + "00";
-        }
-        return "2030";
-    }
 }
@@ -1,16 +1,20 @@
 package com.example.payments.infra.gateway;
 
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Optional;
 import net.authorize.Environment;
 import net.authorize.api.contract.v1.CreateTransactionRequest;
 import net.authorize.api.contract.v1.CreateTransactionResponse;
+import net.authorize.api.contract.v1.TransactionSummaryType;
 import net.authorize.api.contract.v1.TransactionTypeEnum;
-import net.authorize.api.controller.CreateTransactionController;
-import net.authorize.api.controller.base.ApiOperationBase;
 import com.example.payments.domain.payments.GatewayTransactionResult;
 import com.example.payments.domain.payments.Money;
 import com.example.payments.domain.payments.PaymentException;
+import com.example.payments.domain.payments.ReconciledTransaction;
 import com.example.payments.infra.gateway.sdk.AuthorizeNetEnvironmentResolver;
 import com.example.payments.infra.gateway.sdk.AuthorizeNetMapper;
+import com.example.payments.infra.gateway.sdk.AuthorizeNetSdkTransport;
 import io.micrometer.observation.Observation;
 import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
@@ -19,26 +23,40 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+/**
+ * Authorize.Net client built on the SDK request/response types. Environment, endpoint and JAXB contexts are
+ * resolved once per instance through {@link AuthorizeNetSdkTransport}; the SDK's static
+ * {@code ApiOperationBase} configuration is never touched, so concurrent calls do not race and separate
+ * instances can serve different merchant accounts.
+ */
 @Component
 //@Profile("sdk")
 @Primary
-@Profile("!test")
+@Profile("!test & !simulator")
 public class AuthorizeNetSdkClient implements AuthorizeNetClient {
 
     private static final Logger log = LoggerFactory.getLogger(AuthorizeNetSdkClient.class);
 
+    private static final int LOOKUP_PAGE_SIZE = 1000;
+    private static final int LOOKUP_MAX_PAGES = 10;
+
     private final AuthorizeNetProperties properties;
     private final ObservationRegistry observationRegistry;
     private final AuthorizeNetMapper mapper;
-    private final AuthorizeNetEnvironmentResolver environmentResolver;
+    private final AuthorizeNetSdkTransport transport;
 
     public AuthorizeNetSdkClient(AuthorizeNetProperties properties, ObservationRegistry observationRegistry,
-            AuthorizeNetMapper mapper, AuthorizeNetEnvironmentResolver environmentResolver) {
+            AuthorizeNetMapper mapper, AuthorizeNetEnvironmentResolver environmentResolver,
+            HttpClient authorizeNetHttpClient) {
         log.info("Using Authorize.Net SDK client for payment gateway integration");
         this.properties = properties;
         this.observationRegistry = observationRegistry;
         this.mapper = mapper;
-        this.environmentResolver = environmentResolver;
+        Environment environment = environmentResolver.resolve(properties);
+        this.transport = new AuthorizeNetSdkTransport(authorizeNetHttpClient,
+                AuthorizeNetSdkTransport.resolveEndpoint(environment, properties.getEndpoint()),
+                properties.getHttp().getRequestTimeout());
+        log.info("Authorize.Net SDK client bound to {} ({})", environment, transport.getEndpoint());
     }
 
     @Override
@@ -67,6 +85,33 @@ public class AuthorizeNetSdkClient implements AuthorizeNetClient {
                 transactionId);
     }
 
+    /**
+     * Searches the unsettled transactions, newest first, for the invoice number {@link AuthorizeNetMapper} sets from
+     * the order reference. Transactions settled since the call are no longer listed.
+     */
+    @Override
+    public Optional<ReconciledTransaction> findTransaction(String orderId) {
+        String invoiceNumber = AuthorizeNetReferenceIdSanitizer.resolve(orderId);
+        try {
+            for (int page = 1; page <= LOOKUP_MAX_PAGES; page++) {
+                List<TransactionSummaryType> transactions = mapper.toTransactions(
+                        transport.execute(mapper.buildUnsettledListRequest(properties, page, LOOKUP_PAGE_SIZE)));
+                Optional<ReconciledTransaction> found = mapper.findByInvoiceNumber(transactions, invoiceNumber);
+                if (found.isPresent() || transactions.size() < LOOKUP_PAGE_SIZE) {
+                    return found;
+                }
+            }
+            return Optional.empty();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("GATEWAY_ERROR", "Authorize.Net lookup interrupted", ex);
+        } catch (PaymentException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new PaymentException("GATEWAY_ERROR", "Authorize.Net transaction lookup failed", ex);
+        }
+    }
+
     private GatewayTransactionResult execute(TransactionTypeEnum type, Money amount, String paymentData, String referenceId,
             String refTransId) {
         return Observation.createNotStarted("authorize.net.call", observationRegistry)
@@ -79,16 +124,11 @@ public class AuthorizeNetSdkClient implements AuthorizeNetClient {
         try {
             CreateTransactionRequest request = mapper.buildTransactionRequest(properties, type, amount, paymentData,
                     referenceId, refTransId);
-
-            Environment environment = environmentResolver.resolve(properties);
-            ApiOperationBase.setEnvironment(environment);
-            ApiOperationBase.setMerchantAuthentication(mapper.buildMerchantAuthentication(properties));
-
-            CreateTransactionController controller = new CreateTransactionController(request);
-            controller.execute();
-
-            CreateTransactionResponse response = controller.getApiResponse();
+            CreateTransactionResponse response = transport.execute(request);
             return mapper.toGatewayResult(type, request, response);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("GATEWAY_ERROR", "Authorize.Net call interrupted", ex);
         } catch (Exception ex) {
             log.error("Authorize.Net SDK call failed type={} reference={}", type, referenceId, ex);
             throw new PaymentException("GATEWAY_ERROR", "Authorize.Net call failed", ex);
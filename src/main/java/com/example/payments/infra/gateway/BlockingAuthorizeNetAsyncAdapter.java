@@ -0,0 +1,88 @@
+package com.example.payments.infra.gateway;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.PaymentException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Exposes a blocking {@link AuthorizeNetClient} (SDK, REST or mock) through {@link AuthorizeNetAsyncClient} by
+ * running calls on a bounded pool of its own. Used when the non-blocking HTTP client is disabled so request threads
+ * are still released while the gateway call is in flight.
+ *
+ * <p>The pool must not be the {@code HttpClient}'s executor: the blocking clients wait inside
+ * {@code HttpClient.send}, whose response is completed by tasks on that executor, so borrowing it deadlocks once
+ * every thread is waiting. When all threads are busy and the queue is full, calls fail fast with
+ * {@code GATEWAY_BULKHEAD_FULL}.</p>
+ */
+public class BlockingAuthorizeNetAsyncAdapter implements AuthorizeNetAsyncClient, AutoCloseable {
+
+    private final AuthorizeNetClient delegate;
+    private final ExecutorService executor;
+
+    public BlockingAuthorizeNetAsyncAdapter(AuthorizeNetClient delegate, int threads, int queueCapacity) {
+        this(delegate, newExecutor(threads, queueCapacity));
+    }
+
+    BlockingAuthorizeNetAsyncAdapter(AuthorizeNetClient delegate, ExecutorService executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> authorize(Money amount, String paymentNonce, String orderId) {
+        return submit(() -> delegate.authorize(amount, paymentNonce, orderId));
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> capture(Money amount, String transactionId) {
+        return submit(() -> delegate.capture(amount, transactionId));
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> purchase(Money amount, String paymentNonce, String orderId) {
+        return submit(() -> delegate.purchase(amount, paymentNonce, orderId));
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> refund(Money amount, String transactionId, String lastFour) {
+        return submit(() -> delegate.refund(amount, transactionId, lastFour));
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> voidTransaction(String transactionId) {
+        return submit(() -> delegate.voidTransaction(transactionId));
+    }
+
+    /**
+     * Stops taking calls; calls already running finish on their own.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private CompletableFuture<GatewayTransactionResult> submit(Supplier<GatewayTransactionResult> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(new PaymentException("GATEWAY_BULKHEAD_FULL",
+                    "Too many queued Authorize.Net calls"));
+        }
+    }
+
+    private static ExecutorService newExecutor(int threads, int queueCapacity) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("anet-call-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
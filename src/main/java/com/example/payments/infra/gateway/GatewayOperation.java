@@ -0,0 +1,39 @@
+package com.example.payments.infra.gateway;
+
+/**
+ * Gateway operations exposed by {@link AuthorizeNetClient}, mapped to their Authorize.Net
+ * {@code transactionType} values.
+ */
+public enum GatewayOperation {
+    AUTHORIZE("authOnlyTransaction"),
+    CAPTURE("priorAuthCaptureTransaction"),
+    PURCHASE("authCaptureTransaction"),
+    REFUND("refundTransaction"),
+    VOID("voidTransaction");
+
+    private final String transactionType;
+
+    GatewayOperation(String transactionType) {
+        this.transactionType = transactionType;
+    }
+
+    public String transactionType() {
+        return transactionType;
+    }
+
+    /**
+     * Lower-case key used for configuration maps and metric tags.
+     */
+    public String key() {
+        return name().toLowerCase();
+    }
+
+    public static GatewayOperation fromTransactionType(String transactionType) {
+        for (GatewayOperation operation : values()) {
+            if (operation.transactionType.equals(transactionType)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type " + transactionType);
+    }
+}
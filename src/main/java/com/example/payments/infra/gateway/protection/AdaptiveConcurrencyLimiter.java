@@ -0,0 +1,82 @@
+package com.example.payments.infra.gateway.protection;
+
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit driven by measured gateway latency. Calls faster than the latency threshold grow the
+ * limit by roughly one per window of {@code limit} calls; a slow call or a gateway fault cuts it by the backoff
+ * ratio. The limit only grows while at least half of it is in use, so an idle period does not inflate it.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimiter(AuthorizeNetProperties.Limiter settings) {
+        this.minLimit = settings.getMinLimit();
+        this.maxLimit = settings.getMaxLimit();
+        this.latencyThresholdNanos = settings.getLatencyThreshold().toNanos();
+        this.backoffRatio = settings.getBackoffRatio();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, settings.getInitialLimit()));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The gateway answered; {@code rttNanos} is the measured round trip.
+     */
+    public void onSuccess(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        if (rttNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (inFlightAtCompletion * 2 >= getLimit()) {
+            increase();
+        }
+    }
+
+    /**
+     * The call timed out or failed in a way that points at gateway saturation.
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        decrease();
+    }
+
+    /**
+     * The permit was not used for a gateway round trip (e.g. the circuit breaker rejected the call).
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+    }
+
+    private synchronized void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+}
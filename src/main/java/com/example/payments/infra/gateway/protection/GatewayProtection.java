@@ -0,0 +1,152 @@
+package com.example.payments.infra.gateway.protection;
+
+import com.example.payments.domain.payments.PaymentException;
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import com.example.payments.infra.gateway.GatewayOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The adaptive concurrency limit and per-{@link GatewayOperation} circuit breakers of one Authorize.Net client,
+ * shared by its blocking and non-blocking decorators. A call holds its limiter permit until its outcome is known,
+ * which for a non-blocking call is when its future completes.
+ */
+class GatewayProtection {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayProtection.class);
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<GatewayOperation, GatewayCircuitBreaker> breakers = new EnumMap<>(GatewayOperation.class);
+    private final Map<GatewayOperation, Counter> limitRejections = new EnumMap<>(GatewayOperation.class);
+    private final Map<GatewayOperation, Counter> circuitRejections = new EnumMap<>(GatewayOperation.class);
+
+    GatewayProtection(AuthorizeNetProperties.Protection settings, MeterRegistry meterRegistry, String clientName,
+            Clock clock) {
+        this.limiter = new AdaptiveConcurrencyLimiter(settings.getLimiter());
+        Gauge.builder("gateway.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for Authorize.Net calls")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        Gauge.builder("gateway.limiter.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Authorize.Net calls holding a limiter permit")
+                .tag("client", clientName)
+                .register(meterRegistry);
+        for (GatewayOperation operation : GatewayOperation.values()) {
+            GatewayCircuitBreaker breaker = new GatewayCircuitBreaker(settings.getCircuitBreaker(), clock);
+            breakers.put(operation, breaker);
+            Gauge.builder("gateway.circuit.state", breaker, b -> b.getState().gaugeValue())
+                    .description("Circuit state per operation: 0 closed, 1 half-open, 2 open")
+                    .tag("client", clientName)
+                    .tag("operation", operation.key())
+                    .register(meterRegistry);
+            limitRejections.put(operation, rejectionCounter(meterRegistry, clientName, operation, "limit"));
+            circuitRejections.put(operation, rejectionCounter(meterRegistry, clientName, operation, "circuit_open"));
+        }
+    }
+
+    AdaptiveConcurrencyLimiter limiter() {
+        return limiter;
+    }
+
+    GatewayCircuitBreaker breaker(GatewayOperation operation) {
+        return breakers.get(operation);
+    }
+
+    <T> T call(GatewayOperation operation, Supplier<T> call) {
+        GatewayCircuitBreaker breaker = admit(operation);
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            onOutcome(operation, breaker, start, null);
+            return result;
+        } catch (RuntimeException ex) {
+            onOutcome(operation, breaker, start, ex);
+            throw ex;
+        }
+    }
+
+    <T> CompletableFuture<T> callAsync(GatewayOperation operation, Supplier<CompletableFuture<T>> call) {
+        GatewayCircuitBreaker breaker;
+        try {
+            breaker = admit(operation);
+        } catch (PaymentException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException ex) {
+            future = CompletableFuture.failedFuture(ex);
+        }
+        return future.whenComplete((result, failure) -> onOutcome(operation, breaker, start,
+                failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure));
+    }
+
+    private GatewayCircuitBreaker admit(GatewayOperation operation) {
+        if (!limiter.tryAcquire()) {
+            limitRejections.get(operation).increment();
+            throw new PaymentException(ProtectedAuthorizeNetClient.UNAVAILABLE, "Authorize.Net concurrency limit of "
+                    + limiter.getLimit() + " reached");
+        }
+        GatewayCircuitBreaker breaker = breakers.get(operation);
+        if (!breaker.tryAcquire()) {
+            limiter.onIgnored();
+            circuitRejections.get(operation).increment();
+            throw new PaymentException(ProtectedAuthorizeNetClient.UNAVAILABLE, "Authorize.Net " + operation.key()
+                    + " circuit is open");
+        }
+        return breaker;
+    }
+
+    private void onOutcome(GatewayOperation operation, GatewayCircuitBreaker breaker, long start, Throwable failure) {
+        if (failure == null || !isGatewayFault(failure)) {
+            limiter.onSuccess(System.nanoTime() - start);
+            breaker.onSuccess();
+            return;
+        }
+        limiter.onDropped();
+        breaker.onFailure();
+        if (breaker.getState() == GatewayCircuitBreaker.State.OPEN) {
+            log.warn("Authorize.Net {} circuit open after failure: {}", operation.key(), failure.getMessage());
+        }
+    }
+
+    /**
+     * Declines surface as {@code GATEWAY_DECLINED}, possibly wrapped by the SDK client's {@code GATEWAY_ERROR};
+     * anything else coded {@code GATEWAY_ERROR}/{@code GATEWAY_TIMEOUT}, or not a {@link PaymentException} at all,
+     * is treated as a gateway fault.
+     */
+    static boolean isGatewayFault(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PaymentException paymentException
+                    && "GATEWAY_DECLINED".equals(paymentException.getErrorCode())) {
+                return false;
+            }
+        }
+        if (failure instanceof PaymentException paymentException) {
+            String code = paymentException.getErrorCode();
+            return "GATEWAY_ERROR".equals(code) || "GATEWAY_TIMEOUT".equals(code);
+        }
+        return true;
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String clientName,
+            GatewayOperation operation, String reason) {
+        return Counter.builder("gateway.protection.rejected.count")
+                .description("Authorize.Net calls failed fast by the gateway protection layer")
+                .tag("client", clientName)
+                .tag("operation", operation.key())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
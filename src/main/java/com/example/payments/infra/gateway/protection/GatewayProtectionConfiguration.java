@@ -0,0 +1,46 @@
+package com.example.payments.infra.gateway.protection;
+
+import com.example.payments.infra.gateway.AuthorizeNetAsyncClient;
+import com.example.payments.infra.gateway.AuthorizeNetClient;
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import com.example.payments.infra.gateway.BlockingAuthorizeNetAsyncAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wraps every {@link AuthorizeNetClient} bean (SDK, REST or mock, whichever the profile selects) in a
+ * {@link ProtectedAuthorizeNetClient}, and the non-blocking HTTP {@link AuthorizeNetAsyncClient} in a
+ * {@link ProtectedAuthorizeNetAsyncClient}, so callers keep injecting the plain interfaces. The
+ * {@link BlockingAuthorizeNetAsyncAdapter} is left alone: it calls the already protected blocking client.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "authorize-net.protection", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class GatewayProtectionConfiguration {
+
+    @Bean
+    static BeanPostProcessor authorizeNetClientProtection(ObjectProvider<AuthorizeNetProperties> properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AuthorizeNetClient client && !(bean instanceof ProtectedAuthorizeNetClient)) {
+                    return new ProtectedAuthorizeNetClient(client, properties.getObject().getProtection(),
+                            meterRegistry.getObject(), beanName, Clock.systemUTC());
+                }
+                if (bean instanceof AuthorizeNetAsyncClient client
+                        && !(bean instanceof ProtectedAuthorizeNetAsyncClient)
+                        && !(bean instanceof BlockingAuthorizeNetAsyncAdapter)) {
+                    return new ProtectedAuthorizeNetAsyncClient(client, properties.getObject().getProtection(),
+                            meterRegistry.getObject(), beanName, Clock.systemUTC());
+                }
+                return bean;
+            }
+        };
+    }
+}
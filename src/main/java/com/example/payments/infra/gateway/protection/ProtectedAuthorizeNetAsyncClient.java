@@ -0,0 +1,62 @@
+package com.example.payments.infra.gateway.protection;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.infra.gateway.AuthorizeNetAsyncClient;
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import com.example.payments.infra.gateway.GatewayOperation;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link ProtectedAuthorizeNetClient}. Rejected calls return an already failed future;
+ * admitted calls keep their limiter permit until the future completes, and their outcome is recorded on the
+ * circuit breaker then.
+ */
+public class ProtectedAuthorizeNetAsyncClient implements AuthorizeNetAsyncClient {
+
+    private final AuthorizeNetAsyncClient delegate;
+    private final GatewayProtection protection;
+
+    public ProtectedAuthorizeNetAsyncClient(AuthorizeNetAsyncClient delegate,
+            AuthorizeNetProperties.Protection settings, MeterRegistry meterRegistry, String clientName, Clock clock) {
+        this.delegate = delegate;
+        this.protection = new GatewayProtection(settings, meterRegistry, clientName, clock);
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> authorize(Money amount, String paymentNonce, String orderId) {
+        return protection.callAsync(GatewayOperation.AUTHORIZE,
+                () -> delegate.authorize(amount, paymentNonce, orderId));
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> capture(Money amount, String transactionId) {
+        return protection.callAsync(GatewayOperation.CAPTURE, () -> delegate.capture(amount, transactionId));
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> purchase(Money amount, String paymentNonce, String orderId) {
+        return protection.callAsync(GatewayOperation.PURCHASE,
+                () -> delegate.purchase(amount, paymentNonce, orderId));
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> refund(Money amount, String transactionId, String lastFour) {
+        return protection.callAsync(GatewayOperation.REFUND, () -> delegate.refund(amount, transactionId, lastFour));
+    }
+
+    @Override
+    public CompletableFuture<GatewayTransactionResult> voidTransaction(String transactionId) {
+        return protection.callAsync(GatewayOperation.VOID, () -> delegate.voidTransaction(transactionId));
+    }
+
+    AdaptiveConcurrencyLimiter limiter() {
+        return protection.limiter();
+    }
+
+    GatewayCircuitBreaker breaker(GatewayOperation operation) {
+        return protection.breaker(operation);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.payments.infra.gateway.protection;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.ReconciledTransaction;
+import com.example.payments.infra.gateway.AuthorizeNetClient;
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import com.example.payments.infra.gateway.GatewayOperation;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.util.Optional;
+
+/**
+ * Decorates an {@link AuthorizeNetClient} with an adaptive concurrency limit and a circuit breaker per
+ * {@link GatewayOperation}. Calls over the limit or against an open circuit fail immediately with
+ * {@code GATEWAY_UNAVAILABLE} instead of tying up the caller's thread on a struggling gateway.
+ *
+ * <p>Declines and client-side validation errors are gateway answers, not faults, and do not trip the breaker.</p>
+ */
+public class ProtectedAuthorizeNetClient implements AuthorizeNetClient {
+
+    public static final String UNAVAILABLE = "GATEWAY_UNAVAILABLE";
+
+    private final AuthorizeNetClient delegate;
+    private final GatewayProtection protection;
+
+    public ProtectedAuthorizeNetClient(AuthorizeNetClient delegate, AuthorizeNetProperties.Protection settings,
+            MeterRegistry meterRegistry, String clientName, Clock clock) {
+        this.delegate = delegate;
+        this.protection = new GatewayProtection(settings, meterRegistry, clientName, clock);
+    }
+
+    @Override
+    public GatewayTransactionResult authorize(Money amount, String paymentNonce, String orderId) {
+        return protection.call(GatewayOperation.AUTHORIZE, () -> delegate.authorize(amount, paymentNonce, orderId));
+    }
+
+    @Override
+    public GatewayTransactionResult capture(Money amount, String transactionId) {
+        return protection.call(GatewayOperation.CAPTURE, () -> delegate.capture(amount, transactionId));
+    }
+
+    @Override
+    public GatewayTransactionResult purchase(Money amount, String paymentNonce, String orderId) {
+        return protection.call(GatewayOperation.PURCHASE, () -> delegate.purchase(amount, paymentNonce, orderId));
+    }
+
+    @Override
+    public GatewayTransactionResult refund(Money amount, String transactionId, String lastFour) {
+        return protection.call(GatewayOperation.REFUND, () -> delegate.refund(amount, transactionId, lastFour));
+    }
+
+    @Override
+    public GatewayTransactionResult voidTransaction(String transactionId) {
+        return protection.call(GatewayOperation.VOID, () -> delegate.voidTransaction(transactionId));
+    }
+
+    /**
+     * Passes straight through: lookups are rare recovery calls and say nothing about the payment operations' health.
+     */
+    @Override
+    public Optional<ReconciledTransaction> findTransaction(String orderId) {
+        return delegate.findTransaction(orderId);
+    }
+
+    AdaptiveConcurrencyLimiter limiter() {
+        return protection.limiter();
+    }
+
+    GatewayCircuitBreaker breaker(GatewayOperation operation) {
+        return protection.breaker(operation);
+    }
+}
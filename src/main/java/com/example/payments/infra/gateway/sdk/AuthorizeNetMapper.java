@@ -3,25 +3,49 @@ package com.example.payments.infra.gateway.sdk;
 import net.authorize.api.contract.v1.CreateTransactionRequest;
 import net.authorize.api.contract.v1.CreateTransactionResponse;
 import net.authorize.api.contract.v1.CreditCardType;
+import net.authorize.api.contract.v1.GetUnsettledTransactionListRequest;
+import net.authorize.api.contract.v1.GetUnsettledTransactionListResponse;
 import net.authorize.api.contract.v1.MessageTypeEnum;
 import net.authorize.api.contract.v1.MerchantAuthenticationType;
 import net.authorize.api.contract.v1.OpaqueDataType;
 import net.authorize.api.contract.v1.OrderType;
+import net.authorize.api.contract.v1.Paging;
 import net.authorize.api.contract.v1.PaymentType;
+import net.authorize.api.contract.v1.TransactionListOrderFieldEnum;
+import net.authorize.api.contract.v1.TransactionListSorting;
 import net.authorize.api.contract.v1.TransactionRequestType;
+import net.authorize.api.contract.v1.TransactionSummaryType;
 import net.authorize.api.contract.v1.TransactionTypeEnum;
 import com.example.payments.domain.payments.GatewayTransactionResult;
 import com.example.payments.domain.payments.Money;
 import com.example.payments.domain.payments.PaymentException;
+import com.example.payments.domain.payments.PaymentOrderStatus;
+import com.example.payments.domain.payments.ReconciledTransaction;
 import com.example.payments.infra.gateway.AuthorizeNetProperties;
 import com.example.payments.infra.gateway.AuthorizeNetReferenceIdSanitizer;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AuthorizeNetMapper {
 
+    /**
+     * Order status implied by an unsettled transaction's status. Statuses still under review, or whose money
+     * movement is unclear, are left out.
+     */
+    private static final Map<String, PaymentOrderStatus> RECONCILED_STATUSES = Map.of(
+            "authorizedPendingCapture", PaymentOrderStatus.AUTHORIZED,
+            "capturedPendingSettlement", PaymentOrderStatus.CAPTURED,
+            "settledSuccessfully", PaymentOrderStatus.CAPTURED,
+            "declined", PaymentOrderStatus.FAILED,
+            "expired", PaymentOrderStatus.FAILED,
+            "failedReview", PaymentOrderStatus.FAILED,
+            "generalError", PaymentOrderStatus.FAILED,
+            "voided", PaymentOrderStatus.FAILED);
+
     public CreateTransactionRequest buildTransactionRequest(AuthorizeNetProperties properties, TransactionTypeEnum type,
             Money amount, String paymentData, String referenceId, String refTransId) {
         CreateTransactionRequest request = new CreateTransactionRequest();
@@ -148,6 +172,56 @@ public class AuthorizeNetMapper {
         return responseMessage;
     }
 
+    /**
+     * Requests one page (1-based) of unsettled transactions, newest first.
+     */
+    public GetUnsettledTransactionListRequest buildUnsettledListRequest(AuthorizeNetProperties properties, int page,
+            int pageSize) {
+        GetUnsettledTransactionListRequest request = new GetUnsettledTransactionListRequest();
+        request.setMerchantAuthentication(buildMerchantAuthentication(properties));
+        TransactionListSorting sorting = new TransactionListSorting();
+        sorting.setOrderBy(TransactionListOrderFieldEnum.SUBMIT_TIME_UTC);
+        sorting.setOrderDescending(true);
+        request.setSorting(sorting);
+        Paging paging = new Paging();
+        paging.setLimit(pageSize);
+        paging.setOffset(page);
+        request.setPaging(paging);
+        return request;
+    }
+
+    public List<TransactionSummaryType> toTransactions(GetUnsettledTransactionListResponse response) {
+        if (response == null) {
+            throw new PaymentException("GATEWAY_ERROR", "Empty response from Authorize.Net");
+        }
+        if (response.getMessages() != null && response.getMessages().getResultCode() == MessageTypeEnum.ERROR) {
+            throw new PaymentException("GATEWAY_ERROR", "Authorize.Net transaction list request failed");
+        }
+        return response.getTransactions() == null ? List.of() : response.getTransactions().getTransaction();
+    }
+
+    /**
+     * Picks the transaction carrying {@code invoiceNumber}, preferring an approved one should a decline share it.
+     */
+    public Optional<ReconciledTransaction> findByInvoiceNumber(List<TransactionSummaryType> transactions,
+            String invoiceNumber) {
+        ReconciledTransaction found = null;
+        for (TransactionSummaryType summary : transactions) {
+            PaymentOrderStatus status = RECONCILED_STATUSES.get(summary.getTransactionStatus());
+            if (!invoiceNumber.equals(summary.getInvoiceNumber()) || status == null) {
+                continue;
+            }
+            if (found == null || found.orderStatus() == PaymentOrderStatus.FAILED) {
+                OffsetDateTime submittedAt = summary.getSubmitTimeUTC() != null
+                        ? summary.getSubmitTimeUTC().toGregorianCalendar().toZonedDateTime().toOffsetDateTime()
+                        : OffsetDateTime.now();
+                found = new ReconciledTransaction(summary.getTransId(), summary.getTransactionStatus(), status,
+                        submittedAt);
+            }
+        }
+        return Optional.ofNullable(found);
+    }
+
     public MerchantAuthenticationType buildMerchantAuthentication(AuthorizeNetProperties properties) {
         MerchantAuthenticationType authentication = new MerchantAuthenticationType();
         authentication.setName(properties.getApiLoginId());
@@ -0,0 +1,105 @@
+package com.example.payments.infra.gateway.sdk;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.transform.stream.StreamSource;
+import net.authorize.Environment;
+import net.authorize.api.contract.v1.CreateTransactionRequest;
+import net.authorize.api.contract.v1.CreateTransactionResponse;
+import net.authorize.api.contract.v1.GetUnsettledTransactionListRequest;
+import net.authorize.api.contract.v1.GetUnsettledTransactionListResponse;
+
+/**
+ * Posts SDK {@code createTransactionRequest} (and {@code getUnsettledTransactionListRequest}) documents to Authorize.Net without going through
+ * {@code ApiOperationBase}, whose environment and merchant credentials are JVM-wide statics.
+ *
+ * <p>The endpoint and JAXB context are resolved once per instance, so concurrent calls share no mutable state and
+ * two instances can target different merchant accounts or environments. Marshallers are created per call because
+ * they are not thread-safe; the context itself is.</p>
+ */
+public class AuthorizeNetSdkTransport {
+
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final Duration requestTimeout;
+    private final JAXBContext requestContext;
+    private final JAXBContext responseContext;
+
+    public AuthorizeNetSdkTransport(HttpClient httpClient, URI endpoint, Duration requestTimeout) {
+        this.httpClient = httpClient;
+        this.endpoint = endpoint;
+        this.requestTimeout = requestTimeout;
+        try {
+            this.requestContext = JAXBContext.newInstance(CreateTransactionRequest.class,
+                    GetUnsettledTransactionListRequest.class);
+            this.responseContext = JAXBContext.newInstance(CreateTransactionResponse.class,
+                    GetUnsettledTransactionListResponse.class);
+        } catch (JAXBException ex) {
+            throw new IllegalStateException("Unable to initialise Authorize.Net JAXB contexts", ex);
+        }
+    }
+
+    /**
+     * Resolves the XML API endpoint for the environment; custom environments use the configured URL as-is.
+     */
+    public static URI resolveEndpoint(Environment environment, String configuredEndpoint) {
+        if (environment == Environment.CUSTOM || environment.getXmlBaseUrl() == null) {
+            return URI.create(configuredEndpoint);
+        }
+        return URI.create(environment.getXmlBaseUrl() + "/xml/v1/request.api");
+    }
+
+    public URI getEndpoint() {
+        return endpoint;
+    }
+
+    public CreateTransactionResponse execute(CreateTransactionRequest request)
+            throws IOException, InterruptedException, JAXBException {
+        return unmarshal(post(marshal(request)));
+    }
+
+    public GetUnsettledTransactionListResponse execute(GetUnsettledTransactionListRequest request)
+            throws IOException, InterruptedException, JAXBException {
+        return unmarshal(post(marshal(request)), GetUnsettledTransactionListResponse.class);
+    }
+
+    private byte[] post(byte[] body) throws IOException, InterruptedException {
+        HttpRequest httpRequest = HttpRequest.newBuilder(endpoint)
+                .timeout(requestTimeout)
+                .header("Content-Type", "text/xml; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Authorize.Net returned HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    byte[] marshal(Object request) throws JAXBException {
+        Marshaller marshaller = requestContext.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        marshaller.marshal(request, out);
+        return out.toByteArray();
+    }
+
+    CreateTransactionResponse unmarshal(byte[] body) throws JAXBException {
+        return unmarshal(body, CreateTransactionResponse.class);
+    }
+
+    <T> T unmarshal(byte[] body, Class<T> type) throws JAXBException {
+        return responseContext.createUnmarshaller()
+                .unmarshal(new StreamSource(new ByteArrayInputStream(body)), type)
+                .getValue();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.payments.infra.gateway.simulator;
+
+import com.example.payments.infra.gateway.GatewayOperation;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * In-process stand-in for the Authorize.Net JSON API ({@code createTransactionRequest}) bound to the loopback
+ * interface, for capacity tests without sandbox or network access.
+ *
+ * <p>Each request draws an outcome from the profile of its transaction type: timeout (the connection is held for
+ * {@code timeoutDelay} and then dropped), HTTP 500 error, decline (response code 2) or approval. Latency is
+ * applied on a scheduler rather than by sleeping, so slow profiles do not exhaust the worker threads.</p>
+ */
+public class AuthorizeNetSimulator {
+
+    public static final String REQUEST_PATH = "/xml/v1/request.api";
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorizeNetSimulator.class);
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+    /** z-score of the 99th percentile of the standard normal distribution. */
+    private static final double Z_99 = 2.3263;
+    private static final byte[] UTF8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+
+    private final SimulatorProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong transactionIds = new AtomicLong(60_000_000_000L);
+    private HttpServer server;
+    private ExecutorService workers;
+    private ScheduledExecutorService responder;
+
+    public AuthorizeNetSimulator(SimulatorProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        workers = Executors.newFixedThreadPool(properties.getWorkerThreads(), daemonThreads("anet-sim-"));
+        responder = Executors.newScheduledThreadPool(2, daemonThreads("anet-sim-delay-"));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), properties.getPort()),
+                1024);
+        server.createContext(REQUEST_PATH, this::handle);
+        server.setExecutor(workers);
+        server.start();
+        log.info("Authorize.Net simulator listening on {}", endpoint());
+    }
+
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        responder.shutdownNow();
+        workers.shutdownNow();
+        server = null;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String endpoint() {
+        return "http://localhost:" + getPort() + REQUEST_PATH;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Map<String, Object> request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = objectMapper.readValue(body, MAP_TYPE);
+        } catch (IOException ex) {
+            respond(exchange, 400, errorBody(null, "E00003", "Unreadable request"));
+            return;
+        }
+        Map<String, Object> create = child(request, "createTransactionRequest");
+        Map<String, Object> transaction = child(create, "transactionRequest");
+        Object refId = create.get("refId");
+        GatewayOperation operation;
+        try {
+            operation = GatewayOperation.fromTransactionType(String.valueOf(transaction.get("transactionType")));
+        } catch (IllegalArgumentException ex) {
+            respond(exchange, 200, errorBody(refId, "E00003", "Invalid transaction type"));
+            return;
+        }
+
+        SimulatorProperties.Profile profile = properties.profileFor(operation);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        if (roll < profile.getTimeoutRate()) {
+            responder.schedule(exchange::close, properties.getTimeoutDelay().toMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+        roll -= profile.getTimeoutRate();
+        byte[] payload;
+        int status = 200;
+        if (roll < profile.getErrorRate()) {
+            status = 500;
+            payload = errorBody(refId, "E00001", "An error occurred during processing. Please try again.");
+        } else if (roll - profile.getErrorRate() < profile.getDeclineRate()) {
+            payload = declineBody(refId);
+        } else {
+            payload = approvedBody(refId, operation);
+        }
+        int responseStatus = status;
+        responder.schedule(() -> respond(exchange, responseStatus, payload), sampleLatencyMillis(profile, random),
+                TimeUnit.MILLISECONDS);
+    }
+
+    static long sampleLatencyMillis(SimulatorProperties.Profile profile, ThreadLocalRandom random) {
+        double p50 = Math.max(1, profile.getP50().toMillis());
+        double p99 = Math.max(p50, profile.getP99().toMillis());
+        double sigma = Math.log(p99 / p50) / Z_99;
+        return Math.round(Math.exp(Math.log(p50) + sigma * random.nextGaussian()));
+    }
+
+    private byte[] approvedBody(Object refId, GatewayOperation operation) {
+        Map<String, Object> transactionResponse = new LinkedHashMap<>();
+        transactionResponse.put("responseCode", "1");
+        if (operation == GatewayOperation.AUTHORIZE || operation == GatewayOperation.PURCHASE) {
+            transactionResponse.put("authCode", "SIM001");
+        }
+        transactionResponse.put("transId", String.valueOf(transactionIds.incrementAndGet()));
+        transactionResponse.put("messages", List.of(Map.of("code", "1",
+                "description", "This transaction has been approved.")));
+        return body(refId, "Ok", "I00001", "Successful.", transactionResponse);
+    }
+
+    private byte[] declineBody(Object refId) {
+        Map<String, Object> transactionResponse = new LinkedHashMap<>();
+        transactionResponse.put("responseCode", "2");
+        transactionResponse.put("transId", String.valueOf(transactionIds.incrementAndGet()));
+        transactionResponse.put("errors", List.of(Map.of("errorCode", "2",
+                "errorText", "This transaction has been declined.")));
+        return body(refId, "Error", "E00027", "The transaction was unsuccessful.", transactionResponse);
+    }
+
+    private byte[] errorBody(Object refId, String code, String text) {
+        return body(refId, "Error", code, text, null);
+    }
+
+    private byte[] body(Object refId, String resultCode, String code, String text,
+            Map<String, Object> transactionResponse) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (transactionResponse != null) {
+            response.put("transactionResponse", transactionResponse);
+        }
+        if (refId != null) {
+            response.put("refId", refId);
+        }
+        response.put("messages", Map.of("resultCode", resultCode, "message", List.of(Map.of("code", code,
+                "text", text))));
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            // Authorize.Net prefixes JSON responses with a byte order mark; clients must cope with it.
+            byte[] withBom = new byte[UTF8_BOM.length + json.length];
+            System.arraycopy(UTF8_BOM, 0, withBom, 0, UTF8_BOM.length);
+            System.arraycopy(json, 0, withBom, UTF8_BOM.length, json.length);
+            return withBom;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to serialize simulator response", ex);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] payload) {
+        try (exchange; OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, payload.length);
+            out.write(payload);
+        } catch (IOException ex) {
+            log.debug("Simulator client went away before the response was written: {}", ex.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> child(Map<String, Object> parent, String key) {
+        Object value = parent == null ? null : parent.get(key);
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * Runs the simulator on its own: {@code java ... AuthorizeNetSimulator [port]}. Uses the default profile.
+     */
+    public static void main(String[] args) throws Exception {
+        SimulatorProperties properties = new SimulatorProperties();
+        if (args.length > 0) {
+            properties.setPort(Integer.parseInt(args[0]));
+        }
+        AuthorizeNetSimulator simulator = new AuthorizeNetSimulator(properties, new ObjectMapper());
+        simulator.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(simulator::stop));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.payments.infra.gateway.simulator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Starts the local Authorize.Net simulator under the {@code simulator} profile. The profile also switches the
+ * gateway to the JSON REST client and points {@code authorize-net.endpoint} at the simulator
+ * (see {@code application-simulator.yml}).
+ */
+@Configuration
+@Profile("simulator")
+@EnableConfigurationProperties(SimulatorProperties.class)
+public class AuthorizeNetSimulatorConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    AuthorizeNetSimulator authorizeNetSimulator(SimulatorProperties properties, ObjectMapper objectMapper) {
+        return new AuthorizeNetSimulator(properties, objectMapper);
+    }
+}
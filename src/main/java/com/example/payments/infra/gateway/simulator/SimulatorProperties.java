@@ -0,0 +1,118 @@
+package com.example.payments.infra.gateway.simulator;
+
+import com.example.payments.infra.gateway.GatewayOperation;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the local Authorize.Net simulator. {@code profiles} overrides {@code defaults} per operation key
+ * ({@code purchase}, {@code authorize}, {@code capture}, {@code refund}, {@code void}).
+ */
+@ConfigurationProperties(prefix = "authorize-net.simulator")
+public class SimulatorProperties {
+
+    private int port = 18089;
+    private int workerThreads = 32;
+    private Duration timeoutDelay = Duration.ofSeconds(60);
+    private Profile defaults = new Profile();
+    private Map<String, Profile> profiles = new HashMap<>();
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public Duration getTimeoutDelay() {
+        return timeoutDelay;
+    }
+
+    public void setTimeoutDelay(Duration timeoutDelay) {
+        this.timeoutDelay = timeoutDelay;
+    }
+
+    public Profile getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Profile defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Profile> getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(Map<String, Profile> profiles) {
+        this.profiles = profiles;
+    }
+
+    public Profile profileFor(GatewayOperation operation) {
+        return profiles.getOrDefault(operation.key(), defaults);
+    }
+
+    /**
+     * Latency is drawn from a log-normal distribution fitted to {@code p50} and {@code p99}. Rates are fractions
+     * in {@code [0, 1]}; whatever is left after timeouts, errors and declines is approved.
+     */
+    public static class Profile {
+
+        private Duration p50 = Duration.ofMillis(150);
+        private Duration p99 = Duration.ofMillis(800);
+        private double errorRate = 0.0;
+        private double declineRate = 0.0;
+        private double timeoutRate = 0.0;
+
+        public Duration getP50() {
+            return p50;
+        }
+
+        public void setP50(Duration p50) {
+            this.p50 = p50;
+        }
+
+        public Duration getP99() {
+            return p99;
+        }
+
+        public void setP99(Duration p99) {
+            this.p99 = p99;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        public double getDeclineRate() {
+            return declineRate;
+        }
+
+        public void setDeclineRate(double declineRate) {
+            this.declineRate = declineRate;
+        }
+
+        public double getTimeoutRate() {
+            return timeoutRate;
+        }
+
+        public void setTimeoutRate(double timeoutRate) {
+            this.timeoutRate = timeoutRate;
+        }
+    }
+}
@@ -51,6 +51,9 @@ public class RabbitMqConfig {
         CachingConnectionFactory factory = new CachingConnectionFactory(host, port);
         factory.setUsername(username);
         factory.setPassword(password);
+        // The outbox relay only deletes a message once the broker has confirmed it and routed it to a queue.
+        factory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        factory.setPublisherReturns(true);
         return factory;
     }
 
@@ -59,6 +62,7 @@ public class RabbitMqConfig {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setExchange(WEBHOOK_EXCHANGE);
         template.setRoutingKey(ROUTING_KEY);
+        template.setMandatory(true);
         return template;
     }
 }
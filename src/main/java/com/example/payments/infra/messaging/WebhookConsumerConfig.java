@@ -0,0 +1,42 @@
+package com.example.payments.infra.messaging;
+
+import com.example.payments.application.properties.WebhookProperties;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Listener container for the webhook queue. Kept apart from {@link RabbitMqConfig} so the factory also exists when
+ * the broker topology is not declared (e.g. under the {@code test} profile), where Boot's
+ * {@code spring.rabbitmq.listener.simple.*} settings still decide whether it starts.
+ *
+ * <p>Deliveries are acknowledged manually by the listener, in batches. Rejected deliveries are never requeued by the
+ * container, so they go to the queue's dead-letter exchange.</p>
+ */
+@Configuration
+public class WebhookConsumerConfig {
+
+    public static final String CONTAINER_FACTORY = "webhookListenerContainerFactory";
+
+    @Bean(name = CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory webhookListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            WebhookProperties properties) {
+        WebhookProperties.Consumer consumer = properties.getConsumer();
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setConcurrentConsumers(consumer.getConcurrency());
+        factory.setMaxConcurrentConsumers(Math.max(consumer.getConcurrency(), consumer.getMaxConcurrency()));
+        factory.setPrefetchCount(Math.max(consumer.getPrefetch(), consumer.getBatchSize()));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(consumer.getBatchSize());
+        factory.setReceiveTimeout(consumer.getReceiveTimeout().toMillis());
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+}
@@ -1,27 +0,0 @@
-package com.example.payments.infra.web;
-
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import org.springframework.core.Ordered;
-import org.springframework.core.annotation.Order;
-import org.springframework.stereotype.Component;
-import org.springframework.web.filter.OncePerRequestFilter;
-
-@Component
-@Order(Ordered.HIGHEST_PRECEDENCE + 10)
-public class CachedBodyFilter extends OncePerRequestFilter {
-
-    @Override
-    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
-            throws ServletException, IOException {
-        if (request instanceof CachedBodyHttpServletRequest) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-        CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request);
-        filterChain.doFilter(cachedRequest, response);
-    }
-}
@@ -9,20 +9,19 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.util.Optional;
 import org.springframework.util.StreamUtils;
 
+/**
+ * Buffers the request body once so it can be read several times, e.g. by the idempotency filter and then by the
+ * message converters.
+ */
 public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
 
-    public static final String ATTRIBUTE_CACHED_BODY = CachedBodyHttpServletRequest.class.getName() + ".RAW_BODY";
-
     private final byte[] cachedBody;
 
     public CachedBodyHttpServletRequest(HttpServletRequest request) throws IOException {
         super(request);
         this.cachedBody = StreamUtils.copyToByteArray(request.getInputStream());
-        String charset = request.getCharacterEncoding() != null ? request.getCharacterEncoding() : StandardCharsets.UTF_8.name();
-        super.setAttribute(ATTRIBUTE_CACHED_BODY, new String(this.cachedBody, charset));
     }
 
     @Override
@@ -34,6 +33,11 @@ public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
                 return byteArrayInputStream.read();
             }
 
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                return byteArrayInputStream.read(buffer, offset, length);
+            }
+
             @Override
             public boolean isFinished() {
                 return byteArrayInputStream.available() == 0;
@@ -55,12 +59,4 @@ public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
     public BufferedReader getReader() {
         return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
     }
-
-    public static Optional<String> extractBody(HttpServletRequest request) {
-        Object attr = request.getAttribute(ATTRIBUTE_CACHED_BODY);
-        if (attr instanceof String body) {
-            return Optional.of(body);
-        }
-        return Optional.empty();
-    }
 }
@@ -0,0 +1,44 @@
+package com.example.payments.infra.web.idempotency;
+
+import com.example.payments.application.properties.PaymentProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import java.time.Clock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Registers {@link IdempotencyFilter} for the payment and subscription APIs, after Spring Security so the caller
+ * is known when the key is scoped.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "payments.idempotency", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+public class IdempotencyConfiguration {
+
+    @Bean
+    IdempotentResponseCache idempotentResponseCache(PaymentProperties properties,
+            ObjectProvider<StringRedisTemplate> redisTemplate, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        return new IdempotentResponseCache(properties.getIdempotency(), redisTemplate.getIfAvailable(), objectMapper,
+                meterRegistry, Clock.systemUTC());
+    }
+
+    @Bean
+    FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotentResponseCache cache,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(cache, objectMapper, Clock.systemUTC()));
+        registration.addUrlPatterns("/api/v1/payments/*", "/api/v1/subscriptions", "/api/v1/subscriptions/*");
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        registration.setAsyncSupported(true);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 10);
+        return registration;
+    }
+}
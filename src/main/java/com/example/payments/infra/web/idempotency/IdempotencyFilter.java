@@ -0,0 +1,254 @@
+package com.example.payments.infra.web.idempotency;
+
+import com.example.payments.infra.error.ErrorResponse;
+import com.example.payments.infra.web.CachedBodyHttpServletRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Makes mutating payment and subscription calls idempotent at the HTTP layer.
+ *
+ * <p>The key is the {@code Idempotency-Key} header, or the {@code idempotencyKey} field of a JSON body, scoped to
+ * the caller, method and path. A completed 2xx response is stored and replayed byte-for-byte to later duplicates
+ * (marked with {@code Idempotent-Replayed: true}). A duplicate that arrives while the original is still running
+ * waits for it instead of executing again. Reusing a key with a different body is rejected with 422. Requests
+ * without a key pass through untouched.</p>
+ *
+ * <p>Asynchronous handlers (payments returning {@code CompletableFuture}) are finished on the async dispatch,
+ * following the same pattern as {@code ShallowEtagHeaderFilter}.</p>
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String CLAIM_ATTRIBUTE = IdempotencyFilter.class.getName() + ".CLAIM";
+    private static final String FINGERPRINT_ATTRIBUTE = IdempotencyFilter.class.getName() + ".FINGERPRINT";
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final IdempotentResponseCache cache;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public IdempotencyFilter(IdempotentResponseCache cache, ObjectMapper objectMapper, Clock clock) {
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !MUTATING_METHODS.contains(request.getMethod());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            continueAsync(request, response, filterChain);
+            return;
+        }
+
+        if (WebUtils.getNativeRequest(request, CachedBodyHttpServletRequest.class) == null) {
+            request = new CachedBodyHttpServletRequest(request);
+        }
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String idempotencyKey = resolveKey(request, body);
+        if (idempotencyKey == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String fingerprint = sha256(body);
+        String cacheKey = sha256((principal() + '\n' + request.getMethod() + '\n' + request.getRequestURI() + '\n'
+                + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Optional<StoredResponse> stored = cache.find(cacheKey);
+            if (stored.isPresent()) {
+                replay(stored.get(), fingerprint, response);
+                return;
+            }
+            IdempotentResponseCache.Claim claim = cache.claim(cacheKey);
+            if (claim.owner()) {
+                execute(request, response, filterChain, claim, fingerprint);
+                return;
+            }
+            Optional<StoredResponse> awaited = await(claim);
+            if (awaited.isPresent()) {
+                replay(awaited.get(), fingerprint, response);
+                return;
+            }
+            // The original failed without a storable response; try to become the owner ourselves.
+        }
+        writeError(response, HttpStatus.CONFLICT, "IDEMPOTENCY_IN_PROGRESS",
+                "A request with this idempotency key is still being processed");
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+            IdempotentResponseCache.Claim claim, String fingerprint) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        request.setAttribute(CLAIM_ATTRIBUTE, claim);
+        request.setAttribute(FINGERPRINT_ATTRIBUTE, fingerprint);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } catch (ServletException | IOException | RuntimeException ex) {
+            cache.complete(claim, null);
+            throw ex;
+        }
+        if (!request.isAsyncStarted()) {
+            finish(request, wrapper);
+            return;
+        }
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                // Timeouts and errors end the exchange without reaching finish(); release the key for retries.
+                if (request.getAttribute(CLAIM_ATTRIBUTE) != null) {
+                    request.removeAttribute(CLAIM_ATTRIBUTE);
+                    cache.complete(claim, null);
+                }
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    private void continueAsync(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        IdempotentResponseCache.Claim claim = (IdempotentResponseCache.Claim) request.getAttribute(CLAIM_ATTRIBUTE);
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response,
+                ContentCachingResponseWrapper.class);
+        if (claim == null || wrapper == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } catch (ServletException | IOException | RuntimeException ex) {
+            cache.complete(claim, null);
+            throw ex;
+        }
+        if (!request.isAsyncStarted()) {
+            finish(request, wrapper);
+        }
+    }
+
+    private void finish(HttpServletRequest request, ContentCachingResponseWrapper wrapper) throws IOException {
+        IdempotentResponseCache.Claim claim = (IdempotentResponseCache.Claim) request.getAttribute(CLAIM_ATTRIBUTE);
+        request.removeAttribute(CLAIM_ATTRIBUTE);
+        int status = wrapper.getStatus();
+        StoredResponse stored = status >= 200 && status < 300
+                ? new StoredResponse(status, wrapper.getContentType(), wrapper.getContentAsByteArray(),
+                        (String) request.getAttribute(FINGERPRINT_ATTRIBUTE), clock.instant())
+                : null;
+        cache.complete(claim, stored);
+        wrapper.copyBodyToResponse();
+    }
+
+    private Optional<StoredResponse> await(IdempotentResponseCache.Claim claim) throws ServletException {
+        try {
+            if (claim.remote()) {
+                return cache.awaitRemote(claim.key());
+            }
+            return Optional.ofNullable(claim.future().get(cache.inFlightWait().toMillis(), TimeUnit.MILLISECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for the original request", ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private void replay(StoredResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+        if (stored.fingerprint() != null && !stored.fingerprint().equals(fingerprint)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "IDEMPOTENCY_KEY_REUSED",
+                    "Idempotency key was already used with a different request body");
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String code, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.of(code, message));
+    }
+
+    private String resolveKey(HttpServletRequest request, byte[] body) {
+        String header = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (header != null && !header.isBlank()) {
+            return header.trim();
+        }
+        if (body.length == 0 || request.getContentType() == null
+                || !request.getContentType().contains(MediaType.APPLICATION_JSON_VALUE)) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(body).get("idempotencyKey");
+            return node != null && node.isTextual() && !node.asText().isBlank() ? node.asText() : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    private static String sha256(byte[] input) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(input));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
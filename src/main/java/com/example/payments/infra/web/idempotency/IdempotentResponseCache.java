@@ -0,0 +1,227 @@
+package com.example.payments.infra.web.idempotency;
+
+import com.example.payments.application.properties.PaymentProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Two-tier store of replayable responses plus the in-flight lock for each idempotency key.
+ *
+ * <p>The first tier is a bounded access-ordered LRU, so duplicate storms on one node are answered from memory.
+ * The second tier is Redis (optional): it shares responses and holds a {@code SET NX} lock so a duplicate routed
+ * to another node waits for the original instead of executing it again. Redis errors degrade to local-only
+ * behaviour rather than failing the request.</p>
+ */
+public class IdempotentResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentResponseCache.class);
+    private static final long REMOTE_POLL_MILLIS = 50;
+
+    private final PaymentProperties.Idempotency settings;
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, StoredResponse> local;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    public IdempotentResponseCache(PaymentProperties.Idempotency settings, StringRedisTemplate redis,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry, Clock clock) {
+        this.settings = settings;
+        this.redis = settings.isRedisEnabled() ? redis : null;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        int maxEntries = settings.getLocalMaxEntries();
+        this.local = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.localHits = lookupCounter(meterRegistry, "local");
+        this.redisHits = lookupCounter(meterRegistry, "redis");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        Gauge.builder("idempotency.local.size", local, Map::size)
+                .description("Responses held in the in-process idempotency LRU")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.in.flight", inFlight, Map::size)
+                .description("Idempotency keys currently being executed on this node")
+                .register(meterRegistry);
+    }
+
+    public Optional<StoredResponse> find(String key) {
+        StoredResponse cached = local.get(key);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                localHits.increment();
+                return Optional.of(cached);
+            }
+            local.remove(key);
+        }
+        Optional<StoredResponse> remote = readRemote(key);
+        if (remote.isPresent()) {
+            local.put(key, remote.get());
+            redisHits.increment();
+            return remote;
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Claims the key for execution. Exactly one caller per key across the cluster becomes the owner; everyone else
+     * gets a claim to wait on.
+     */
+    public Claim claim(String key) {
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return new Claim(key, existing, false, false);
+        }
+        if (!lockRemote(key)) {
+            inFlight.remove(key, mine);
+            mine.complete(null);
+            return new Claim(key, null, false, true);
+        }
+        return new Claim(key, mine, true, false);
+    }
+
+    /**
+     * Publishes the owner's outcome. A {@code null} response (server error or exception) is not stored, and
+     * waiters retry on their own.
+     */
+    public void complete(Claim claim, StoredResponse response) {
+        if (response != null) {
+            local.put(claim.key(), response);
+            writeRemote(claim.key(), response);
+        }
+        unlockRemote(claim.key());
+        inFlight.remove(claim.key(), claim.future());
+        claim.future().complete(response);
+    }
+
+    /**
+     * Waits for a response that another node is producing, polling Redis until {@code inFlightWait} elapses.
+     */
+    public Optional<StoredResponse> awaitRemote(String key) throws InterruptedException {
+        long deadline = System.nanoTime() + settings.getInFlightWait().toNanos();
+        while (System.nanoTime() < deadline) {
+            Optional<StoredResponse> response = readRemote(key);
+            if (response.isPresent()) {
+                local.put(key, response.get());
+                return response;
+            }
+            if (!isRemotelyLocked(key)) {
+                return Optional.empty();
+            }
+            Thread.sleep(REMOTE_POLL_MILLIS);
+        }
+        return Optional.empty();
+    }
+
+    public Duration inFlightWait() {
+        return settings.getInFlightWait();
+    }
+
+    private boolean isExpired(StoredResponse response) {
+        return response.storedAt().plus(settings.getTtl()).isBefore(clock.instant());
+    }
+
+    private Optional<StoredResponse> readRemote(String key) {
+        if (redis == null) {
+            return Optional.empty();
+        }
+        try {
+            String json = redis.opsForValue().get(responseKey(key));
+            return json == null ? Optional.empty() : Optional.of(objectMapper.readValue(json, StoredResponse.class));
+        } catch (Exception ex) {
+            log.warn("Idempotency lookup in Redis failed, continuing with local tier only: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeRemote(String key, StoredResponse response) {
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.opsForValue().set(responseKey(key), objectMapper.writeValueAsString(response), settings.getTtl());
+        } catch (Exception ex) {
+            log.warn("Unable to store idempotent response in Redis: {}", ex.getMessage());
+        }
+    }
+
+    private boolean lockRemote(String key) {
+        if (redis == null) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(lockKey(key), nodeId,
+                    settings.getInFlightWait().multipliedBy(2)));
+        } catch (Exception ex) {
+            log.warn("Unable to take idempotency lock in Redis, relying on local lock: {}", ex.getMessage());
+            return true;
+        }
+    }
+
+    private boolean isRemotelyLocked(String key) {
+        try {
+            return Boolean.TRUE.equals(redis.hasKey(lockKey(key)));
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    private void unlockRemote(String key) {
+        if (redis == null) {
+            return;
+        }
+        try {
+            if (nodeId.equals(redis.opsForValue().get(lockKey(key)))) {
+                redis.delete(lockKey(key));
+            }
+        } catch (Exception ex) {
+            log.warn("Unable to release idempotency lock in Redis (expires on its own): {}", ex.getMessage());
+        }
+    }
+
+    private String responseKey(String key) {
+        return settings.getRedisKeyPrefix() + "response:" + key;
+    }
+
+    private String lockKey(String key) {
+        return settings.getRedisKeyPrefix() + "lock:" + key;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("idempotency.lookup.count")
+                .description("Idempotency lookups by the tier that answered them")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Result of {@link #claim}: the owner executes the request; a local waiter waits on {@code future}; a remote
+     * waiter polls Redis through {@link #awaitRemote}.
+     */
+    public record Claim(String key, CompletableFuture<StoredResponse> future, boolean owner, boolean remote) {
+    }
+}
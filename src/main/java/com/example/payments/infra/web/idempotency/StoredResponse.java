@@ -0,0 +1,10 @@
+package com.example.payments.infra.web.idempotency;
+
+import java.time.Instant;
+
+/**
+ * A completed response kept for replay. {@code fingerprint} is the SHA-256 of the original request body so a key
+ * reused with a different payload can be rejected instead of replayed.
+ */
+public record StoredResponse(int status, String contentType, byte[] body, String fingerprint, Instant storedAt) {
+}
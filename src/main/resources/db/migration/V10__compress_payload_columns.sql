@@ -0,0 +1,6 @@
+-- Payload columns become BYTEA so CompressedTextConverter can store large JSON bodies DEFLATE-compressed behind a
+-- one-byte format marker. Existing values are converted byte for byte; text that does not start with a marker byte
+-- is read back as plain UTF-8, so old rows need no rewrite beyond the type change.
+ALTER TABLE webhook_events ALTER COLUMN payload TYPE BYTEA USING convert_to(payload, 'UTF8');
+
+ALTER TABLE idempotency_records ALTER COLUMN response_payload TYPE BYTEA USING convert_to(response_payload, 'UTF8');
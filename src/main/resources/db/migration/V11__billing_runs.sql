@@ -0,0 +1,19 @@
+-- One row per billing run. A run walks the subscriptions due at its threshold in id order, one short transaction per
+-- subscription, and advances checkpoint_subscription_id after every chunk; a run left RUNNING by a stopped node is
+-- resumed from its checkpoint instead of starting over.
+CREATE TABLE billing_runs (
+    id UUID PRIMARY KEY,
+    threshold TIMESTAMPTZ NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    checkpoint_subscription_id UUID,
+    charged INT NOT NULL DEFAULT 0,
+    declined INT NOT NULL DEFAULT 0,
+    skipped INT NOT NULL DEFAULT 0,
+    errored INT NOT NULL DEFAULT 0,
+    started_at TIMESTAMPTZ NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    finished_at TIMESTAMPTZ,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_billing_runs_running ON billing_runs (started_at) WHERE status = 'RUNNING';
@@ -0,0 +1,10 @@
+-- Billing runs are driven by one ordered scan over the pending schedules due at the run's threshold. The index
+-- serves both the filter and the (scheduled_at, id) order, so the scan needs no sort and can be resumed by keyset.
+CREATE INDEX IF NOT EXISTS idx_subscription_schedules_status_scheduled_at
+    ON subscription_schedules (status, scheduled_at, id);
+DROP INDEX IF EXISTS idx_subscription_schedules_status;
+
+-- The run checkpoint becomes the position in that scan.
+ALTER TABLE billing_runs DROP COLUMN checkpoint_subscription_id;
+ALTER TABLE billing_runs ADD COLUMN checkpoint_scheduled_at TIMESTAMPTZ;
+ALTER TABLE billing_runs ADD COLUMN checkpoint_schedule_id UUID;
@@ -0,0 +1,9 @@
+-- Billing work is split into shards by subscription id. billing_bucket holds the low 10 bits of the id (random in
+-- both v4 and v7 UUIDs); a subscription belongs to shard billing_bucket % shard_count.
+ALTER TABLE subscriptions ADD COLUMN billing_bucket INT NOT NULL DEFAULT 0;
+UPDATE subscriptions SET billing_bucket = ('x' || right(id::text, 3))::bit(12)::int & 1023;
+
+-- Each shard keeps its own run and checkpoint. Runs started before sharding resume as shard 0.
+ALTER TABLE billing_runs ADD COLUMN shard INT NOT NULL DEFAULT 0;
+DROP INDEX IF EXISTS idx_billing_runs_running;
+CREATE INDEX IF NOT EXISTS idx_billing_runs_running ON billing_runs (shard, started_at) WHERE status = 'RUNNING';
@@ -0,0 +1,2 @@
+-- Supports the requestId pre-filter warm-up, which pages through recent orders by (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_payment_orders_created_at_id ON payment_orders (created_at, id);
@@ -0,0 +1,2 @@
+-- Supports the recovery sweeper lookup of orders left PENDING by a staged payment command
+CREATE INDEX IF NOT EXISTS idx_payment_orders_status_updated_at ON payment_orders (status, updated_at);
@@ -0,0 +1,11 @@
+-- Webhook events waiting to be published to the broker. Rows are written in the same transaction as the event and
+-- deleted once the broker confirms the message; available_at doubles as the relay's claim lease.
+CREATE TABLE webhook_outbox (
+    id UUID PRIMARY KEY,
+    webhook_event_id UUID NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    available_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_webhook_outbox_available_at ON webhook_outbox (available_at, created_at);
@@ -0,0 +1,8 @@
+-- dedupe_hash now holds the hex SHA-256 of the canonical payload instead of Base64 of the whole payload, which
+-- overflowed the column for payloads over 96 bytes. Existing rows get the digest of their stored payload text.
+UPDATE webhook_events SET dedupe_hash = encode(sha256(convert_to(payload, 'UTF8')), 'hex');
+
+ALTER TABLE webhook_events ALTER COLUMN dedupe_hash TYPE VARCHAR(64);
+
+-- Together with the event_id constraint this lets a single INSERT ... ON CONFLICT DO NOTHING reject redeliveries.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_webhook_events_dedupe_hash ON webhook_events (dedupe_hash);
@@ -0,0 +1,2 @@
+-- Supports the webhook handlers' lookup of a transaction by its Authorize.Net transaction id
+CREATE INDEX IF NOT EXISTS idx_payment_transactions_authorize_net_id ON payment_transactions (authorize_net_transaction_id);
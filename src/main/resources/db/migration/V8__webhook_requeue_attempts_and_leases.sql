@@ -0,0 +1,15 @@
+-- Stale PROCESSING events are returned to PENDING with a growing delay and failed after too many attempts.
+ALTER TABLE webhook_events ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE webhook_events ADD COLUMN next_attempt_at TIMESTAMPTZ;
+
+-- The requeue sweeper walks in-flight events in id order; only a small fraction of the table is ever PROCESSING.
+CREATE INDEX IF NOT EXISTS idx_webhook_events_processing_id ON webhook_events (id)
+    WHERE processed_status = 'PROCESSING';
+
+-- Named leases for jobs that must run on one node at a time. A lease is held until expires_at and renewed by its
+-- owner; once it expires any node may take it over.
+CREATE TABLE scheduler_leases (
+    name VARCHAR(64) PRIMARY KEY,
+    owner VARCHAR(128) NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
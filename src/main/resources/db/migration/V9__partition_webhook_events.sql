@@ -0,0 +1,92 @@
+-- webhook_events becomes range-partitioned by received_at, one partition per UTC day. Queries that bound
+-- received_at only touch the partitions in range, and old days can be archived and detached as a unit.
+--
+-- A unique constraint on a partitioned table must include the partition key, so event_id and dedupe_hash can no
+-- longer be unique on webhook_events itself. Their uniqueness moves to webhook_event_keys, a narrow unpartitioned
+-- table that the insert-on-conflict writes first.
+
+ALTER TABLE webhook_events RENAME TO webhook_events_legacy;
+ALTER TABLE webhook_events_legacy RENAME CONSTRAINT webhook_events_pkey TO webhook_events_legacy_pkey;
+DROP INDEX IF EXISTS webhook_events_status_idx;
+DROP INDEX IF EXISTS idx_webhook_events_processing_id;
+DROP INDEX IF EXISTS ux_webhook_events_dedupe_hash;
+DROP TRIGGER IF EXISTS webhook_events_updated_at_trg ON webhook_events_legacy;
+
+CREATE TABLE webhook_events (
+    id UUID NOT NULL,
+    event_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(128) NOT NULL,
+    payload TEXT NOT NULL,
+    signature VARCHAR(512) NOT NULL,
+    received_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    processed_status VARCHAR(32) NOT NULL DEFAULT 'PENDING',
+    processed_at TIMESTAMPTZ,
+    failure_reason TEXT,
+    dedupe_hash VARCHAR(64) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, received_at)
+) PARTITION BY RANGE (received_at);
+
+-- Catches rows outside every daily partition, e.g. if maintenance falls behind. Expected to stay empty.
+CREATE TABLE webhook_events_default PARTITION OF webhook_events DEFAULT;
+
+CREATE INDEX IF NOT EXISTS webhook_events_status_idx ON webhook_events (processed_status, received_at);
+CREATE INDEX IF NOT EXISTS idx_webhook_events_processing_id ON webhook_events (id)
+    WHERE processed_status = 'PROCESSING';
+
+CREATE TRIGGER webhook_events_updated_at_trg
+    BEFORE UPDATE ON webhook_events
+    FOR EACH ROW
+    EXECUTE FUNCTION set_webhook_events_updated_at();
+
+CREATE TABLE webhook_event_keys (
+    event_id VARCHAR(255) PRIMARY KEY,
+    dedupe_hash VARCHAR(64) NOT NULL,
+    webhook_event_id UUID NOT NULL,
+    received_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_webhook_event_keys_dedupe_hash ON webhook_event_keys (dedupe_hash);
+CREATE INDEX IF NOT EXISTS idx_webhook_event_keys_received_at ON webhook_event_keys (received_at);
+
+-- Creates the partition for one UTC day if it does not exist yet and returns its name. Also called by the
+-- partition maintenance job.
+CREATE FUNCTION create_webhook_events_partition(day DATE) RETURNS TEXT AS $$
+DECLARE
+    partition_name TEXT := 'webhook_events_p' || to_char(day, 'YYYYMMDD');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF webhook_events FOR VALUES FROM (%L) TO (%L)',
+        partition_name, day::timestamp AT TIME ZONE 'UTC', (day + 1)::timestamp AT TIME ZONE 'UTC');
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    first_day DATE;
+    day DATE;
+BEGIN
+    SELECT COALESCE(MIN((received_at AT TIME ZONE 'UTC')::date), (NOW() AT TIME ZONE 'UTC')::date)
+    INTO first_day FROM webhook_events_legacy;
+    day := first_day;
+    WHILE day <= (NOW() AT TIME ZONE 'UTC')::date + 7 LOOP
+        PERFORM create_webhook_events_partition(day);
+        day := day + 1;
+    END LOOP;
+END;
+$$;
+
+INSERT INTO webhook_events (id, event_id, event_type, payload, signature, received_at, processed_status,
+    processed_at, failure_reason, dedupe_hash, attempts, next_attempt_at, created_at, updated_at, version)
+SELECT id, event_id, event_type, payload, signature, received_at, processed_status, processed_at, failure_reason,
+    dedupe_hash, attempts, next_attempt_at, created_at, updated_at, version
+FROM webhook_events_legacy;
+
+INSERT INTO webhook_event_keys (event_id, dedupe_hash, webhook_event_id, received_at)
+SELECT event_id, dedupe_hash, id, received_at FROM webhook_events_legacy;
+
+DROP TABLE webhook_events_legacy;
@@ -11,10 +11,13 @@ import com.example.payments.domain.webhook.WebhookEvent;
 import com.example.payments.infra.gateway.AuthorizeNetProperties;
 import com.example.payments.test.support.SignatureHelper;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.Map;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalMatchers;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -26,6 +29,7 @@ import org.springframework.context.annotation.Import;
 
 @WebMvcTest(controllers = AuthorizeNetWebhookController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import(WebhookSignatureVerifier.class)
 class AuthorizeNetWebhookControllerTest {
 
     @Autowired
@@ -58,22 +62,47 @@ class AuthorizeNetWebhookControllerTest {
         String body = objectMapper.writeValueAsString(request);
         String signature = "sha512=" + SignatureHelper.hmacSha512Hex(SIGNATURE_KEY, body);
 
-        Mockito.when(webhookService.recordEvent(Mockito.eq("evt-1"), Mockito.eq("PAYMENT_AUTHORIZED"), Mockito.anyString(), Mockito.eq(signature)))
-                .thenReturn(WebhookEvent.create("evt-1", "PAYMENT_AUTHORIZED", body, signature, "hash",
-                        OffsetDateTime.now()));
+        Mockito.when(webhookService.recordEvent(Mockito.eq("evt-1"), Mockito.eq("PAYMENT_AUTHORIZED"), Mockito.any(byte[].class), Mockito.eq(signature)))
+                .thenReturn(Optional.of(WebhookEvent.create("evt-1", "PAYMENT_AUTHORIZED", body, signature, "hash",
+                        OffsetDateTime.now())));
         Mockito.clearInvocations(webhookService);
 
         mockMvc.perform(post("/api/v1/webhooks/authorize-net")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(body)
-                .with(httpRequest -> {
-                    httpRequest.setAttribute(com.example.payments.infra.web.CachedBodyHttpServletRequest.ATTRIBUTE_CACHED_BODY, body);
-                    return httpRequest;
-                })
                 .header("X-ANET-Signature", signature))
                 .andExpect(status().isAccepted());
 
-        verify(webhookService).recordEvent(Mockito.eq("evt-1"), Mockito.eq("PAYMENT_AUTHORIZED"), Mockito.anyString(), Mockito.eq(signature));
+        verify(webhookService).recordEvent(Mockito.eq("evt-1"), Mockito.eq("PAYMENT_AUTHORIZED"), Mockito.any(byte[].class), Mockito.eq(signature));
+    }
+
+    @Test
+    void receiveWebhook_shouldVerifyAndStoreRawBodyVerbatim() throws Exception {
+        String body = "{ \"eventId\" : \"evt-4\",  \"eventType\": \"PAYMENT_AUTHORIZED\" }";
+        String signature = "sha512=" + SignatureHelper.hmacSha512Hex(SIGNATURE_KEY, body).toUpperCase();
+
+        mockMvc.perform(post("/api/v1/webhooks/authorize-net")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)
+                .header("X-ANET-Signature", signature))
+                .andExpect(status().isAccepted());
+
+        verify(webhookService).recordEvent(Mockito.eq("evt-4"), Mockito.eq("PAYMENT_AUTHORIZED"),
+                AdditionalMatchers.aryEq(body.getBytes(StandardCharsets.UTF_8)), Mockito.eq(signature));
+    }
+
+    @Test
+    void receiveWebhook_shouldRejectSignedPayloadWithoutEventId() throws Exception {
+        String body = "{\"eventType\":\"PAYMENT_AUTHORIZED\"}";
+        String signature = "sha512=" + SignatureHelper.hmacSha512Hex(SIGNATURE_KEY, body);
+
+        mockMvc.perform(post("/api/v1/webhooks/authorize-net")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)
+                .header("X-ANET-Signature", signature))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(webhookService);
     }
 
     @Test
@@ -107,10 +136,6 @@ class AuthorizeNetWebhookControllerTest {
         mockMvc.perform(post("/api/v1/webhooks/authorize-net")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(body)
-                .with(httpRequest -> {
-                    httpRequest.setAttribute(com.example.payments.infra.web.CachedBodyHttpServletRequest.ATTRIBUTE_CACHED_BODY, body);
-                    return httpRequest;
-                })
                 .header("X-ANET-Signature", "sha512=deadbeef"))
                 .andExpect(status().isBadRequest());
 
@@ -0,0 +1,60 @@
+package com.example.payments.adapters.api.webhooks;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import com.example.payments.test.support.SignatureHelper;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WebhookSignatureVerifierTest {
+
+    private static final String SIGNATURE_KEY = "00112233445566778899AABBCCDDEEFF";
+    private static final String BODY = "{\"eventId\":\"evt-1\",\"eventType\":\"PAYMENT_SETTLED\"}";
+
+    private WebhookSignatureVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        AuthorizeNetProperties properties = new AuthorizeNetProperties();
+        properties.setWebhookSignatureKey(SIGNATURE_KEY);
+        verifier = new WebhookSignatureVerifier(properties);
+    }
+
+    @Test
+    void verify_shouldAcceptMatchingSignatureRepeatedly() {
+        String signature = "sha512=" + SignatureHelper.hmacSha512Hex(SIGNATURE_KEY, BODY);
+
+        assertThatCode(() -> {
+            verifier.verify(signature, bytes(BODY));
+            verifier.verify(signature, bytes(BODY));
+        }).doesNotThrowAnyException();
+    }
+
+    @Test
+    void verify_shouldRejectTamperedBody() {
+        String signature = "sha512=" + SignatureHelper.hmacSha512Hex(SIGNATURE_KEY, BODY);
+
+        assertThatThrownBy(() -> verifier.verify(signature, bytes(BODY + " ")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid webhook signature");
+    }
+
+    @Test
+    void verify_shouldRejectMalformedHeaders() {
+        assertThatThrownBy(() -> verifier.verify(null, bytes(BODY)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> verifier.verify("sha256=abcd", bytes(BODY)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> verifier.verify("sha512=not-hex", bytes(BODY)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> verifier.verify("sha512=deadbeef", bytes(BODY)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
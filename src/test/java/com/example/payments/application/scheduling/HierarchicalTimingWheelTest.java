@@ -0,0 +1,77 @@
+package com.example.payments.application.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, START);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void advance_shouldFireItemsOnlyOnceTheirDeadlineHasPassed() {
+        wheel.add(START + 250, "a");
+
+        wheel.advance(START + 249, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(START + 300, fired::add);
+        assertThat(fired).containsExactly("a");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_shouldCascadeFarDeadlinesDownTheLevels() {
+        wheel.add(START + 60_000, "far");
+        wheel.add(START + 5_000, "middle");
+        wheel.add(START + 150, "near");
+
+        wheel.advance(START + 4_999, fired::add);
+        assertThat(fired).containsExactly("near");
+
+        wheel.advance(START + 59_999, fired::add);
+        assertThat(fired).containsExactly("near", "middle");
+
+        wheel.advance(START + 60_100, fired::add);
+        assertThat(fired).containsExactly("near", "middle", "far");
+    }
+
+    @Test
+    void advance_shouldFireOverdueItemsImmediately() {
+        wheel.advance(START + 1_000, fired::add);
+        wheel.add(START, "late");
+
+        wheel.advance(START + 1_000, fired::add);
+
+        assertThat(fired).containsExactly("late");
+    }
+
+    @Test
+    void advance_shouldKeepDeadlineOrderAcrossBuckets() {
+        for (int i = 9; i >= 0; i--) {
+            wheel.add(START + i * 700L, "item-" + i);
+        }
+
+        wheel.advance(START + 10_000, fired::add);
+
+        assertThat(fired).containsExactly("item-0", "item-1", "item-2", "item-3", "item-4", "item-5", "item-6",
+                "item-7", "item-8", "item-9");
+    }
+
+    @Test
+    void clear_shouldDropEverything() {
+        wheel.add(START + 150, "near");
+        wheel.add(START + 60_000, "far");
+
+        wheel.clear();
+        wheel.advance(START + 100_000, fired::add);
+
+        assertThat(fired).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.payments.application.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.adapters.persistence.DueScheduleRepository;
+import com.example.payments.adapters.persistence.DueScheduleRepository.DueSchedule;
+import com.example.payments.application.properties.SubscriptionProperties;
+import com.example.payments.application.services.BillingRateShaper;
+import com.example.payments.application.services.BillingShardCoordinator;
+import com.example.payments.application.services.SubscriptionService;
+import com.example.payments.testsupport.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class NearTermBillingSchedulerTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2026, 10, 18, 12, 0, 0, 0, ZoneOffset.UTC);
+    private static final SortedSet<Integer> SHARDS = new TreeSet<>(List.of(1, 2));
+
+    @Mock
+    private SubscriptionService subscriptionService;
+    @Mock
+    private DueScheduleRepository dueScheduleRepository;
+    @Mock
+    private BillingShardCoordinator coordinator;
+    @Mock
+    private BillingRateShaper rateShaper;
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private NearTermBillingScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW.toInstant());
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new NearTermBillingScheduler(subscriptionService, dueScheduleRepository, coordinator,
+                rateShaper, new SubscriptionProperties(), clock, meterRegistry, Executors.newSingleThreadExecutor());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void tick_shouldBillLoadedSchedulesOnceDue() {
+        DueSchedule schedule = due(NOW.plusSeconds(30));
+        doReturn(SHARDS).when(coordinator).heldShards();
+        doReturn(List.of(schedule)).when(dueScheduleRepository)
+                .findUpcoming(SHARDS, 16, NOW, null, NOW.plusMinutes(10), 50_000);
+        doReturn(true).when(rateShaper).acquire();
+        scheduler.refill();
+
+        clock.advance(Duration.ofSeconds(10));
+        scheduler.tick();
+        assertThat(scheduler.size()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(21));
+        scheduler.tick();
+
+        assertThat(scheduler.size()).isZero();
+        verify(subscriptionService, timeout(1_000)).billSchedule(schedule.scheduleId(), NOW.plusSeconds(31));
+    }
+
+    @Test
+    void refill_shouldOnlyLoadTheSliceBeyondThePreviousHorizon() {
+        doReturn(SHARDS).when(coordinator).heldShards();
+        doReturn(List.of()).when(dueScheduleRepository).findUpcoming(any(), anyInt(), any(), any(), any(), anyInt());
+        scheduler.refill();
+
+        clock.advance(Duration.ofSeconds(30));
+        scheduler.refill();
+
+        verify(dueScheduleRepository).findUpcoming(eq(SHARDS), eq(16), eq(NOW.plusMinutes(10)), isNull(),
+                eq(NOW.plusSeconds(630)), anyInt());
+    }
+
+    @Test
+    void refill_shouldKeepThePreviousHorizonWhenTheSliceCannotBeRead() {
+        doReturn(SHARDS).when(coordinator).heldShards();
+        doReturn(List.of()).doThrow(new DataAccessResourceFailureException("database down")).doReturn(List.of())
+                .when(dueScheduleRepository).findUpcoming(any(), anyInt(), any(), any(), any(), anyInt());
+        scheduler.refill();
+        clock.advance(Duration.ofSeconds(30));
+        scheduler.refill();
+
+        scheduler.onScheduled(new BillingScheduledEvent(UUID.randomUUID(), UUID.randomUUID(),
+                NOW.plusSeconds(615), 17));
+        clock.advance(Duration.ofSeconds(30));
+        scheduler.refill();
+
+        assertThat(scheduler.size()).isZero();
+        verify(dueScheduleRepository).findUpcoming(eq(SHARDS), eq(16), eq(NOW.plusMinutes(10)), isNull(),
+                eq(NOW.plusSeconds(660)), anyInt());
+    }
+
+    @Test
+    void refill_shouldReloadTheWindowWhenShardsChange() {
+        DueSchedule schedule = due(NOW.plusSeconds(30));
+        doReturn(SHARDS).when(coordinator).heldShards();
+        doReturn(List.of(schedule)).when(dueScheduleRepository)
+                .findUpcoming(any(), anyInt(), any(), any(), any(), anyInt());
+        scheduler.refill();
+
+        SortedSet<Integer> fewer = new TreeSet<>(List.of(2));
+        doReturn(fewer).when(coordinator).heldShards();
+        doReturn(List.of()).when(dueScheduleRepository).findUpcoming(eq(fewer), anyInt(), any(), any(), any(),
+                anyInt());
+        clock.advance(Duration.ofSeconds(5));
+        scheduler.refill();
+
+        assertThat(scheduler.size()).isZero();
+        verify(dueScheduleRepository).findUpcoming(eq(fewer), eq(16), eq(NOW.plusSeconds(5)), isNull(), any(),
+                anyInt());
+    }
+
+    @Test
+    void onScheduled_shouldAddCommittedSchedulesOfHeldShardsWithinTheHorizon() {
+        doReturn(SHARDS).when(coordinator).heldShards();
+        doReturn(List.of()).when(dueScheduleRepository).findUpcoming(any(), anyInt(), any(), any(), any(), anyInt());
+        doReturn(true).when(rateShaper).acquire();
+        scheduler.refill();
+        UUID held = UUID.randomUUID();
+
+        scheduler.onScheduled(new BillingScheduledEvent(held, UUID.randomUUID(), NOW, 17));
+        scheduler.onScheduled(new BillingScheduledEvent(UUID.randomUUID(), UUID.randomUUID(), NOW, 19));
+        scheduler.onScheduled(new BillingScheduledEvent(UUID.randomUUID(), UUID.randomUUID(), NOW.plusDays(1), 17));
+        clock.advance(Duration.ofSeconds(1));
+        scheduler.tick();
+
+        verify(subscriptionService, timeout(1_000)).billSchedule(held, NOW.plusSeconds(1));
+        assertThat(scheduler.size()).isZero();
+    }
+
+    @Test
+    void tick_shouldLeaveSchedulesPendingWhenNoChargeSlotIsFree() {
+        DueSchedule schedule = due(NOW.plusSeconds(1));
+        doReturn(SHARDS).when(coordinator).heldShards();
+        doReturn(List.of(schedule)).when(dueScheduleRepository)
+                .findUpcoming(any(), anyInt(), any(), any(), any(), anyInt());
+        doReturn(false).when(rateShaper).acquire();
+        scheduler.refill();
+
+        clock.advance(Duration.ofSeconds(2));
+        scheduler.tick();
+
+        verify(rateShaper, timeout(1_000)).acquire();
+        verify(subscriptionService, never()).billSchedule(any(), any());
+    }
+
+    private static DueSchedule due(OffsetDateTime scheduledAt) {
+        return new DueSchedule(UUID.randomUUID(), UUID.randomUUID(), scheduledAt);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.payments.application.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.adapters.persistence.AuditLogBatchWriter;
+import com.example.payments.application.properties.PaymentProperties;
+import com.example.payments.domain.shared.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+@ExtendWith(MockitoExtension.class)
+class AuditStagingBufferTest {
+
+    @Mock
+    private AuditLogBatchWriter writer;
+
+    @Captor
+    private ArgumentCaptor<List<AuditLog>> batchCaptor;
+
+    private PaymentProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PaymentProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void stagedEntries_shouldBeWrittenAsOneBatchBeforeCommit() {
+        AuditStagingBuffer buffer = newBuffer();
+        beginTransaction();
+
+        buffer.stage(entry());
+        buffer.stage(entry());
+        buffer.stage(entry());
+        verify(writer, never()).insertAll(anyList());
+        assertThat(meterRegistry.get("audit.staging.depth").gauge().value()).isEqualTo(3.0);
+
+        commit();
+
+        verify(writer).insertAll(batchCaptor.capture());
+        assertThat(batchCaptor.getValue()).hasSize(3);
+        assertThat(buffer.stagedCount()).isZero();
+        assertThat(meterRegistry.get("audit.flush.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rollback_shouldDiscardStagedEntries() {
+        AuditStagingBuffer buffer = newBuffer();
+        beginTransaction();
+        buffer.stage(entry());
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(writer, never()).insertAll(anyList());
+        assertThat(buffer.stagedCount()).isZero();
+    }
+
+    @Test
+    void fullBatch_shouldFlushBeforeCommit() {
+        properties.getAudit().setBatchSize(2);
+        AuditStagingBuffer buffer = newBuffer();
+        beginTransaction();
+
+        buffer.stage(entry());
+        buffer.stage(entry());
+        buffer.stage(entry());
+        commit();
+
+        verify(writer, times(2)).insertAll(batchCaptor.capture());
+        assertThat(batchCaptor.getAllValues()).extracting(List::size).containsExactly(2, 1);
+    }
+
+    @Test
+    void stagingLimit_shouldForceEarlyFlush() {
+        properties.getAudit().setMaxStaged(1);
+        AuditStagingBuffer buffer = newBuffer();
+        beginTransaction();
+
+        buffer.stage(entry());
+        buffer.stage(entry());
+        commit();
+
+        verify(writer).insertAll(anyList());
+        assertThat(meterRegistry.get("audit.backpressure.count").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void withoutTransaction_shouldWriteImmediately() {
+        AuditStagingBuffer buffer = newBuffer();
+
+        buffer.stage(entry());
+
+        verify(writer).insertAll(batchCaptor.capture());
+        assertThat(batchCaptor.getValue()).hasSize(1);
+    }
+
+    private AuditStagingBuffer newBuffer() {
+        return new AuditStagingBuffer(writer, properties, meterRegistry);
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private static AuditLog entry() {
+        return AuditLog.record("system", "PURCHASE", "payment_order", UUID.randomUUID(), "{}",
+                OffsetDateTime.now());
+    }
+}
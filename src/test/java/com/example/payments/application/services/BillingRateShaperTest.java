@@ -0,0 +1,90 @@
+package com.example.payments.application.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.doReturn;
+
+import com.example.payments.application.properties.SubscriptionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BillingRateShaperTest {
+
+    @Mock
+    private BillingShardCoordinator coordinator;
+
+    private SubscriptionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private long nanos;
+    private BillingRateShaper shaper;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SubscriptionProperties();
+        properties.getShaping().setDefaultRate(200);
+        properties.getShaping().setBurst(2);
+        properties.getShaping().setMaxWait(Duration.ofMillis(12));
+        meterRegistry = new SimpleMeterRegistry();
+        nanos = TimeUnit.SECONDS.toNanos(100);
+        shaper = new BillingRateShaper(properties, coordinator, meterRegistry, () -> nanos);
+    }
+
+    @Test
+    void acquire_shouldPaceChargesBeyondTheBurstAndRefuseThoseTooFarOut() {
+        doReturn(16).when(coordinator).heldShardCount();
+
+        assertThat(shaper.acquire()).isTrue();
+        assertThat(shaper.acquire()).isTrue();
+        assertThat(shaper.acquire()).isTrue();
+        assertThat(shaper.acquire()).isTrue();
+        assertThat(shaper.acquire()).isFalse();
+
+        assertThat(counter("subscriptions.billing.shaper.throttled.count")).isEqualTo(2);
+        assertThat(counter("subscriptions.billing.shaper.rejected.count")).isEqualTo(1);
+        assertThat(meterRegistry.get("subscriptions.billing.shaper.backlog").timeGauge().value(TimeUnit.MILLISECONDS))
+                .isCloseTo(10, within(0.01));
+    }
+
+    @Test
+    void acquire_shouldRefillOverTime() {
+        doReturn(16).when(coordinator).heldShardCount();
+        shaper.acquire();
+        shaper.acquire();
+
+        nanos += TimeUnit.MILLISECONDS.toNanos(10);
+
+        assertThat(shaper.acquire()).isTrue();
+        assertThat(shaper.acquire()).isTrue();
+        assertThat(counter("subscriptions.billing.shaper.throttled.count")).isZero();
+    }
+
+    @Test
+    void nodeRate_shouldFollowTheShareOfHeldShards() {
+        properties.getShaping().getRates().put("authorize-net", 80d);
+        doReturn(4).when(coordinator).heldShardCount();
+
+        assertThat(shaper.nodeRate("authorize-net")).isEqualTo(20);
+        assertThat(shaper.nodeRate("other")).isEqualTo(50);
+    }
+
+    @Test
+    void acquire_shouldNotPaceWhenDisabled() {
+        properties.getShaping().setEnabled(false);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(shaper.acquire()).isTrue();
+        }
+        assertThat(meterRegistry.find("subscriptions.billing.shaper.rate").gauge()).isNull();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).tag("account", "authorize-net").counter().count();
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.payments.application.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.adapters.persistence.BillingRunRepository;
+import com.example.payments.adapters.persistence.DueScheduleRepository;
+import com.example.payments.adapters.persistence.DueScheduleRepository.DueSchedule;
+import com.example.payments.application.properties.SubscriptionProperties;
+import com.example.payments.domain.billing.BillingOutcome;
+import com.example.payments.domain.billing.BillingRun;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class BillingRunServiceTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2026, 10, 18, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private BillingRunRepository runRepository;
+    @Mock
+    private DueScheduleRepository dueScheduleRepository;
+    @Mock
+    private SubscriptionService subscriptionService;
+    @Mock
+    private BillingRateShaper rateShaper;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BillingRunService billingRunService;
+
+    @BeforeEach
+    void setUp() {
+        SubscriptionProperties properties = new SubscriptionProperties();
+        properties.getBilling().setChunkSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        billingRunService = new BillingRunService(runRepository, dueScheduleRepository, subscriptionService,
+                rateShaper, properties, Clock.fixed(NOW.toInstant(), ZoneOffset.UTC), transactionManager,
+                meterRegistry);
+        doAnswer(invocation -> invocation.getArgument(0)).when(runRepository).save(any());
+        doReturn(true).when(rateShaper).acquire();
+    }
+
+    @Test
+    void run_shouldReadEachChunkFromTheCheckpointOfTheLast() {
+        DueSchedule first = due(NOW.minusHours(3));
+        DueSchedule second = due(NOW.minusHours(2));
+        DueSchedule third = due(NOW.minusHours(1));
+        doReturn(Optional.empty()).when(runRepository)
+                .findFirstByShardAndStatusOrderByStartedAtAsc(0, BillingRun.Status.RUNNING);
+        chunks(List.of(first, second), List.of(third));
+        doReturn(BillingOutcome.CHARGED).when(subscriptionService).billSchedule(first.scheduleId(), NOW);
+        doReturn(BillingOutcome.DECLINED).when(subscriptionService).billSchedule(second.scheduleId(), NOW);
+        doThrow(new IllegalStateException("connection reset")).when(subscriptionService)
+                .billSchedule(third.scheduleId(), NOW);
+
+        BillingRun run = billingRunService.run(0, NOW, () -> true);
+
+        assertThat(run.getStatus()).isEqualTo(BillingRun.Status.COMPLETED);
+        assertThat(run.getCheckpointScheduleId()).isEqualTo(third.scheduleId());
+        assertThat(run.getCheckpointScheduledAt()).isEqualTo(third.scheduledAt());
+        assertThat(run.getCharged()).isEqualTo(1);
+        assertThat(run.getDeclined()).isEqualTo(1);
+        assertThat(run.getErrored()).isEqualTo(1);
+        assertThat(run.getFinishedAt()).isEqualTo(NOW);
+        verify(dueScheduleRepository).findDue(eq(0), eq(16), eq(NOW), isNull(), isNull(), eq(2));
+        verify(dueScheduleRepository).findDue(0, 16, NOW, second.scheduledAt(), second.scheduleId(), 2);
+        assertThat(meterRegistry.get("subscriptions.billing.outcome.count").tag("outcome", "ERRORED").counter()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get("subscriptions.billing.run.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void run_shouldResumeAnUnfinishedRunFromItsCheckpoint() {
+        OffsetDateTime originalThreshold = NOW.minusMinutes(30);
+        DueSchedule checkpoint = due(NOW.minusHours(2));
+        DueSchedule next = due(NOW.minusHours(1));
+        BillingRun unfinished = BillingRun.start(0, originalThreshold, originalThreshold);
+        unfinished.checkpoint(checkpoint.scheduledAt(), checkpoint.scheduleId(), Map.of(BillingOutcome.CHARGED, 5),
+                originalThreshold.plusMinutes(1));
+        doReturn(Optional.of(unfinished)).when(runRepository)
+                .findFirstByShardAndStatusOrderByStartedAtAsc(0, BillingRun.Status.RUNNING);
+        chunks(List.of(next));
+        doReturn(BillingOutcome.CHARGED).when(subscriptionService).billSchedule(next.scheduleId(), originalThreshold);
+
+        BillingRun run = billingRunService.run(0, NOW, () -> true);
+
+        assertThat(run.getId()).isEqualTo(unfinished.getId());
+        assertThat(run.getCharged()).isEqualTo(6);
+        assertThat(run.getStatus()).isEqualTo(BillingRun.Status.COMPLETED);
+        verify(dueScheduleRepository).findDue(0, 16, originalThreshold, checkpoint.scheduledAt(),
+                checkpoint.scheduleId(), 2);
+    }
+
+    @Test
+    void run_shouldStopAtTheCheckpointWhenToldTo() {
+        DueSchedule first = due(NOW.minusHours(3));
+        DueSchedule second = due(NOW.minusHours(2));
+        doReturn(Optional.empty()).when(runRepository)
+                .findFirstByShardAndStatusOrderByStartedAtAsc(0, BillingRun.Status.RUNNING);
+        chunks(List.of(first, second));
+        doReturn(BillingOutcome.SKIPPED).when(subscriptionService).billSchedule(any(), any());
+        boolean[] leaseHeld = {true, false};
+        int[] checks = {0};
+
+        BillingRun run = billingRunService.run(0, NOW, () -> leaseHeld[checks[0]++]);
+
+        assertThat(run.getStatus()).isEqualTo(BillingRun.Status.RUNNING);
+        assertThat(run.getCheckpointScheduleId()).isEqualTo(second.scheduleId());
+        assertThat(run.getSkipped()).isEqualTo(2);
+        assertThat(meterRegistry.get("subscriptions.billing.run.duration").timer().count()).isZero();
+    }
+
+    @Test
+    void run_shouldPauseWhenNoChargeSlotIsFree() {
+        DueSchedule first = due(NOW.minusHours(2));
+        DueSchedule second = due(NOW.minusHours(1));
+        doReturn(Optional.empty()).when(runRepository)
+                .findFirstByShardAndStatusOrderByStartedAtAsc(0, BillingRun.Status.RUNNING);
+        chunks(List.of(first, second));
+        doReturn(true, false).when(rateShaper).acquire();
+        doReturn(BillingOutcome.CHARGED).when(subscriptionService).billSchedule(first.scheduleId(), NOW);
+
+        BillingRun run = billingRunService.run(0, NOW, () -> true);
+
+        assertThat(run.getStatus()).isEqualTo(BillingRun.Status.RUNNING);
+        assertThat(run.getCheckpointScheduleId()).isEqualTo(first.scheduleId());
+        assertThat(run.getCharged()).isEqualTo(1);
+        verify(subscriptionService, never()).billSchedule(eq(second.scheduleId()), any());
+    }
+
+    @Test
+    void run_shouldWaitForChargeSlotsOnlyOnceTheChunkIsRead() {
+        DueSchedule first = due(NOW.minusHours(1));
+        doReturn(Optional.empty()).when(runRepository)
+                .findFirstByShardAndStatusOrderByStartedAtAsc(0, BillingRun.Status.RUNNING);
+        chunks(List.of(first));
+        doReturn(BillingOutcome.CHARGED).when(subscriptionService).billSchedule(first.scheduleId(), NOW);
+
+        billingRunService.run(0, NOW, () -> true);
+
+        InOrder order = inOrder(dueScheduleRepository, rateShaper, subscriptionService);
+        order.verify(dueScheduleRepository).findDue(anyInt(), anyInt(), any(), any(), any(), anyInt());
+        order.verify(rateShaper).acquire();
+        order.verify(subscriptionService).billSchedule(first.scheduleId(), NOW);
+    }
+
+    @SafeVarargs
+    private void chunks(List<DueSchedule> first, List<DueSchedule>... rest) {
+        doReturn(first, (Object[]) rest).when(dueScheduleRepository)
+                .findDue(anyInt(), anyInt(), any(), any(), any(), anyInt());
+    }
+
+    private static DueSchedule due(OffsetDateTime scheduledAt) {
+        return new DueSchedule(UUID.randomUUID(), UUID.randomUUID(), scheduledAt);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.payments.application.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.application.properties.SubscriptionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BillingShardCoordinatorTest {
+
+    @Mock
+    private SchedulerLeaseService leases;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BillingShardCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        SubscriptionProperties properties = new SubscriptionProperties();
+        properties.getBilling().setShards(4);
+        meterRegistry = new SimpleMeterRegistry();
+        coordinator = new BillingShardCoordinator(leases, properties, meterRegistry);
+    }
+
+    @Test
+    void heartbeat_shouldClaimAFairShareOfShards() {
+        doReturn(true).when(leases).tryAcquire(anyString(), any());
+        doReturn(2).when(leases).countLive(BillingShardCoordinator.NODE_LEASE_PREFIX);
+
+        coordinator.heartbeat(Set.of());
+
+        assertThat(coordinator.heldShards()).hasSize(2);
+        verify(leases).tryAcquire(startsWith(BillingShardCoordinator.NODE_LEASE_PREFIX), any());
+        assertThat(meterRegistry.get("subscriptions.billing.shards.held").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void heartbeat_shouldGiveUpSurplusShardsThatAreNotBeingBilled() {
+        doReturn(true).when(leases).tryAcquire(anyString(), any());
+        doReturn(1).when(leases).countLive(BillingShardCoordinator.NODE_LEASE_PREFIX);
+        coordinator.heartbeat(Set.of());
+        assertThat(coordinator.heldShards()).containsExactly(0, 1, 2, 3);
+
+        doReturn(4).when(leases).countLive(BillingShardCoordinator.NODE_LEASE_PREFIX);
+        coordinator.heartbeat(Set.of(3));
+
+        assertThat(coordinator.heldShards()).containsExactly(3);
+        verify(leases).release(BillingShardCoordinator.shardLease(0));
+        verify(leases, never()).release(BillingShardCoordinator.shardLease(3));
+    }
+
+    @Test
+    void heartbeat_shouldDropShardsWhoseLeaseWasLost() {
+        doReturn(true).when(leases).tryAcquire(anyString(), any());
+        doReturn(1).when(leases).countLive(BillingShardCoordinator.NODE_LEASE_PREFIX);
+        coordinator.heartbeat(Set.of());
+
+        doReturn(false).when(leases).tryAcquire(eq(BillingShardCoordinator.shardLease(2)), any());
+        coordinator.heartbeat(Set.of());
+
+        assertThat(coordinator.heldShards()).containsExactly(0, 1, 3);
+    }
+
+    @Test
+    void renew_shouldRefuseShardsThatAreNotHeld() {
+        assertThat(coordinator.renew(1)).isFalse();
+
+        verify(leases, never()).tryAcquire(anyString(), any());
+    }
+
+    @Test
+    void releaseAll_shouldReleaseShardAndMembershipLeases() {
+        doReturn(true).when(leases).tryAcquire(anyString(), any());
+        doReturn(4).when(leases).countLive(BillingShardCoordinator.NODE_LEASE_PREFIX);
+        coordinator.heartbeat(Set.of());
+        int shard = coordinator.heldShards().first();
+
+        coordinator.releaseAll();
+
+        assertThat(coordinator.heldShards()).isEmpty();
+        verify(leases).release(BillingShardCoordinator.shardLease(shard));
+        verify(leases).release(startsWith(BillingShardCoordinator.NODE_LEASE_PREFIX));
+    }
+}
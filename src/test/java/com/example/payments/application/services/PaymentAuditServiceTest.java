@@ -4,7 +4,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 
-import com.example.payments.adapters.persistence.AuditLogRepository;
 import com.example.payments.domain.payments.Money;
 import com.example.payments.domain.payments.PaymentOrder;
 import com.example.payments.domain.payments.PaymentTransaction;
@@ -27,7 +26,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class PaymentAuditServiceTest {
 
     @Mock
-    private AuditLogRepository auditLogRepository;
+    private AuditStagingBuffer auditStagingBuffer;
 
     private ObjectMapper objectMapper;
 
@@ -43,7 +42,7 @@ class PaymentAuditServiceTest {
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        paymentAuditService = new PaymentAuditService(auditLogRepository, objectMapper);
+        paymentAuditService = new PaymentAuditService(auditStagingBuffer, objectMapper);
         order = PaymentOrder.create(UUID.randomUUID(), new Money(new BigDecimal("100.00"), "USD"),
                 CorrelationId.newId(), "req123", "idem-key", OffsetDateTime.now());
         transaction = PaymentTransaction.record(order, PaymentTransactionType.PURCHASE,
@@ -52,10 +51,10 @@ class PaymentAuditServiceTest {
     }
 
     @Test
-    void recordPurchase_shouldPersistAuditLog() {
+    void recordPurchase_shouldStageAuditLog() {
         paymentAuditService.recordPurchase(order, transaction);
 
-        verify(auditLogRepository).save(auditLogCaptor.capture());
+        verify(auditStagingBuffer).stage(auditLogCaptor.capture());
         assertThat(auditLogCaptor.getValue().getOperation()).isEqualTo("PURCHASE");
         assertThat(auditLogCaptor.getValue().getMetadata()).contains("orderId").doesNotContain("ipAddress");
     }
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -11,31 +12,37 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import com.example.payments.adapters.persistence.PaymentOrderRepository;
 import com.example.payments.adapters.persistence.PaymentTransactionRepository;
 import com.example.payments.adapters.persistence.RefundRepository;
+import com.example.payments.application.properties.PaymentProperties;
 import com.example.payments.domain.payments.GatewayTransactionResult;
 import com.example.payments.domain.payments.Money;
 import com.example.payments.domain.payments.PaymentException;
 import com.example.payments.domain.payments.PaymentOrder;
+import com.example.payments.domain.payments.PaymentOrderStatus;
 import com.example.payments.domain.payments.PaymentTransaction;
 import com.example.payments.domain.payments.PaymentTransactionType;
+import com.example.payments.domain.payments.ReconciledTransaction;
 import com.example.payments.domain.payments.Refund;
 import com.example.payments.domain.shared.CorrelationId;
 import com.example.payments.domain.shared.IdempotencyKey;
+import com.example.payments.infra.gateway.AuthorizeNetAsyncClient;
 import com.example.payments.infra.gateway.AuthorizeNetClient;
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
-import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micrometer.observation.ObservationRegistry;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 class PaymentCommandServiceTest {
@@ -49,7 +56,11 @@ class PaymentCommandServiceTest {
     @Mock
     private AuthorizeNetClient authorizeNetClient;
     @Mock
+    private AuthorizeNetAsyncClient authorizeNetAsyncClient;
+    @Mock
     private PaymentAuditService paymentAuditService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     private PaymentCommandService paymentCommandService;
 
@@ -68,8 +79,13 @@ class PaymentCommandServiceTest {
         idempotencyKey = new IdempotencyKey("key-12345678");
         correlationId = CorrelationId.newId();
         SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PaymentProperties properties = new PaymentProperties();
+        // Never warmed up, so every duplicate check still goes through the repository stubs.
+        RequestIdPreFilter requestIdPreFilter = new RequestIdPreFilter(paymentOrderRepository, properties,
+                meterRegistry, Clock.systemUTC());
         paymentCommandService = new PaymentCommandService(paymentOrderRepository, paymentTransactionRepository,
-                refundRepository, authorizeNetClient, paymentAuditService, meterRegistry, ObservationRegistry.create());
+                refundRepository, authorizeNetClient, authorizeNetAsyncClient, paymentAuditService,
+                requestIdPreFilter, properties, transactionManager, meterRegistry, ObservationRegistry.create());
     }
 
     @Test
@@ -100,6 +116,84 @@ class PaymentCommandServiceTest {
         verify(paymentOrderRepository, times(2)).save(order);
     }
 
+    @Test
+    void purchase_shouldFailPendingOrderWhenGatewayDeclines() {
+        doThrow(new PaymentException("GATEWAY_DECLINED", "This transaction has been declined"))
+                .when(authorizeNetClient).purchase(any(), any(), any());
+        doReturn(Optional.empty()).when(paymentOrderRepository).findByRequestId(any());
+        ArgumentCaptor<PaymentOrder> orderCaptor = ArgumentCaptor.forClass(PaymentOrder.class);
+
+        assertThatThrownBy(() -> paymentCommandService.purchase(customerId, money, "nonce", idempotencyKey,
+                correlationId, "req123")).isInstanceOf(PaymentException.class);
+
+        verify(paymentOrderRepository, times(2)).save(orderCaptor.capture());
+        assertThat(orderCaptor.getValue().getStatus()).isEqualTo(PaymentOrderStatus.FAILED);
+        verifyNoMoreInteractions(paymentTransactionRepository, paymentAuditService);
+    }
+
+    @Test
+    void purchase_shouldLeaveOrderPendingWhenGatewayCallBreaksOff() {
+        doThrow(new PaymentException("GATEWAY_ERROR", "Authorize.Net call failed"))
+                .when(authorizeNetClient).purchase(any(), any(), any());
+        doReturn(Optional.empty()).when(paymentOrderRepository).findByRequestId(any());
+        ArgumentCaptor<PaymentOrder> orderCaptor = ArgumentCaptor.forClass(PaymentOrder.class);
+
+        assertThatThrownBy(() -> paymentCommandService.purchase(customerId, money, "nonce", idempotencyKey,
+                correlationId, "req123")).isInstanceOf(PaymentException.class);
+
+        verify(paymentOrderRepository).save(orderCaptor.capture());
+        assertThat(orderCaptor.getValue().getStatus()).isEqualTo(PaymentOrderStatus.PENDING);
+        verifyNoMoreInteractions(paymentTransactionRepository, paymentAuditService);
+    }
+
+    @Test
+    void purchaseAsync_shouldLeaveOrderPendingWhenGatewayTimesOut() {
+        doReturn(CompletableFuture.failedFuture(
+                new PaymentException("GATEWAY_TIMEOUT", "Authorize.Net call timed out")))
+                .when(authorizeNetAsyncClient).purchase(any(), any(), any());
+        doReturn(Optional.empty()).when(paymentOrderRepository).findByRequestId(any());
+        ArgumentCaptor<PaymentOrder> orderCaptor = ArgumentCaptor.forClass(PaymentOrder.class);
+
+        assertThatThrownBy(() -> paymentCommandService.purchaseAsync(customerId, money, "nonce", idempotencyKey,
+                correlationId, "req123").join()).hasCauseInstanceOf(PaymentException.class);
+
+        verify(paymentOrderRepository).save(orderCaptor.capture());
+        assertThat(orderCaptor.getValue().getStatus()).isEqualTo(PaymentOrderStatus.PENDING);
+        verifyNoMoreInteractions(paymentTransactionRepository, paymentAuditService);
+    }
+
+    @Test
+    void purchaseAsync_shouldCaptureOrderWhenGatewayCompletes() {
+        doReturn(CompletableFuture.completedFuture(
+                GatewayTransactionResult.success("tx123", "1", "Approved", OffsetDateTime.now())))
+                .when(authorizeNetAsyncClient).purchase(any(), any(), any());
+        doReturn(Optional.empty()).when(paymentOrderRepository).findByRequestId(any());
+
+        PaymentOrder order = paymentCommandService.purchaseAsync(customerId, money, "nonce", idempotencyKey,
+                correlationId, "req123").join();
+
+        assertThat(order.getStatus()).isEqualTo(PaymentOrderStatus.CAPTURED);
+        verify(paymentTransactionRepository).save(transactionCaptor.capture());
+        assertThat(transactionCaptor.getValue().getType()).isEqualTo(PaymentTransactionType.PURCHASE);
+        verifyNoMoreInteractions(authorizeNetClient);
+    }
+
+    @Test
+    void purchaseAsync_shouldFailPendingOrderWhenBulkheadRejects() {
+        doReturn(CompletableFuture.failedFuture(new PaymentException("GATEWAY_BULKHEAD_FULL", "Too many calls")))
+                .when(authorizeNetAsyncClient).purchase(any(), any(), any());
+        doReturn(Optional.empty()).when(paymentOrderRepository).findByRequestId(any());
+        ArgumentCaptor<PaymentOrder> orderCaptor = ArgumentCaptor.forClass(PaymentOrder.class);
+
+        CompletableFuture<PaymentOrder> future = paymentCommandService.purchaseAsync(customerId, money, "nonce",
+                idempotencyKey, correlationId, "req123");
+
+        assertThat(future).isCompletedExceptionally();
+        verify(paymentOrderRepository, times(2)).save(orderCaptor.capture());
+        assertThat(orderCaptor.getValue().getStatus()).isEqualTo(PaymentOrderStatus.FAILED);
+        verifyNoMoreInteractions(paymentTransactionRepository, paymentAuditService);
+    }
+
     @Test
     void capture_shouldThrowWhenOrderMissing() {
         doReturn(Optional.empty()).when(paymentOrderRepository).findById(any());
@@ -128,4 +222,43 @@ class PaymentCommandServiceTest {
         assertThat(refund.getStatus()).isEqualTo("REFUNDED");
         verify(refundRepository).save(refund);
     }
+
+    @Test
+    void reconcilePendingOrder_shouldCompleteOrderFromGatewayTransaction() {
+        PaymentOrder order = stalePendingOrder();
+        doReturn(Optional.of(new ReconciledTransaction("tx123", "capturedPendingSettlement",
+                PaymentOrderStatus.CAPTURED, OffsetDateTime.now()))).when(authorizeNetClient)
+                .findTransaction(order.getId().toString());
+
+        boolean resolved = paymentCommandService.reconcilePendingOrder(order.getId(),
+                OffsetDateTime.now().plusMinutes(1));
+
+        assertThat(resolved).isTrue();
+        assertThat(order.getStatus()).isEqualTo(PaymentOrderStatus.CAPTURED);
+        verify(paymentTransactionRepository).save(transactionCaptor.capture());
+        assertThat(transactionCaptor.getValue().getAuthorizeNetTransactionId()).isEqualTo("tx123");
+    }
+
+    @Test
+    void reconcilePendingOrder_shouldLeaveOrderUnknownWhenGatewayCannotTell() {
+        PaymentOrder order = stalePendingOrder();
+        doThrow(new PaymentException("GATEWAY_ERROR", "Authorize.Net transaction lookup failed"))
+                .when(authorizeNetClient).findTransaction(order.getId().toString());
+
+        boolean resolved = paymentCommandService.reconcilePendingOrder(order.getId(),
+                OffsetDateTime.now().plusMinutes(1));
+
+        assertThat(resolved).isTrue();
+        assertThat(order.getStatus()).isEqualTo(PaymentOrderStatus.UNKNOWN);
+        verify(paymentAuditService).recordPendingExpired(order, "GATEWAY_OUTCOME_UNKNOWN");
+        verifyNoMoreInteractions(paymentTransactionRepository);
+    }
+
+    private PaymentOrder stalePendingOrder() {
+        PaymentOrder order = PaymentOrder.create(customerId, money, correlationId, "req123",
+                idempotencyKey.value(), OffsetDateTime.now());
+        order.markPending();
+        doReturn(Optional.of(order)).when(paymentOrderRepository).findById(order.getId());
+        return order;
+    }
 }
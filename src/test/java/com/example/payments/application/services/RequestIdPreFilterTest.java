@@ -0,0 +1,157 @@
+package com.example.payments.application.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.adapters.persistence.PaymentOrderRepository;
+import com.example.payments.adapters.persistence.PaymentOrderRepository.RequestIdKey;
+import com.example.payments.application.properties.PaymentProperties;
+import com.example.payments.testsupport.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class RequestIdPreFilterTest {
+
+    @Mock
+    private PaymentOrderRepository paymentOrderRepository;
+
+    private PaymentProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PaymentProperties();
+        properties.getRequestIdFilter().setExpectedInsertionsPerWindow(1_000);
+        properties.getRequestIdFilter().setWindow(Duration.ofHours(1));
+        properties.getRequestIdFilter().setGenerations(2);
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void beforeWarmUp_shouldNeverReportDefinitelyNew() {
+        RequestIdPreFilter filter = newFilter();
+
+        assertThat(filter.isDefinitelyNew("req-1")).isFalse();
+    }
+
+    @Test
+    void afterWarmUp_shouldReportLoadedAndAddedIdsAsMaybePresent() {
+        doReturn(List.of(key("req-old"))).when(paymentOrderRepository).findRequestIdsCreatedAfter(any(), any(), any());
+        RequestIdPreFilter filter = newFilter();
+        filter.warmUp();
+        filter.add("req-new");
+
+        assertThat(filter.isDefinitelyNew("req-old")).isFalse();
+        assertThat(filter.isDefinitelyNew("req-new")).isFalse();
+        assertThat(filter.isDefinitelyNew("req-unseen")).isTrue();
+        assertThat(meterRegistry.get("payments.request_id.filter.check.count").tag("result", "definitely_new")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void idsShouldExpireOnceEveryGenerationHasRotated() {
+        doReturn(List.of()).when(paymentOrderRepository).findRequestIdsCreatedAfter(any(), any(), any());
+        RequestIdPreFilter filter = newFilter();
+        filter.warmUp();
+        filter.add("req-1");
+
+        clock.advance(Duration.ofMinutes(61));
+        assertThat(filter.isDefinitelyNew("req-1")).isFalse();
+
+        clock.advance(Duration.ofMinutes(61));
+        assertThat(filter.isDefinitelyNew("req-1")).isTrue();
+    }
+
+    @Test
+    void falsePositiveRate_shouldStayNearConfiguredTarget() {
+        doReturn(List.of()).when(paymentOrderRepository).findRequestIdsCreatedAfter(any(), any(), any());
+        properties.getRequestIdFilter().setGenerations(1);
+        RequestIdPreFilter filter = newFilter();
+        filter.warmUp();
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("req-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (!filter.isDefinitelyNew("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void failedWarmUp_shouldKeepChecksOnTheDatabase() {
+        doThrow(new DataAccessResourceFailureException("down")).when(paymentOrderRepository)
+                .findRequestIdsCreatedAfter(any(), any(), any());
+        RequestIdPreFilter filter = newFilter();
+
+        filter.warmUp();
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.isDefinitelyNew("req-1")).isFalse();
+    }
+
+    @Test
+    void warmUp_shouldReadEachPageFromTheLastRowOfThePrevious() {
+        List<RequestIdKey> fullPage = IntStream.range(0, 5_000).mapToObj(i -> key("req-" + i)).toList();
+        RequestIdKey last = fullPage.get(fullPage.size() - 1);
+        doReturn(fullPage).when(paymentOrderRepository).findRequestIdsCreatedAfter(any(), any(), any());
+        doReturn(List.of(key("req-last"))).when(paymentOrderRepository)
+                .findRequestIdsCreatedAfter(eq(last.getCreatedAt()), eq(last.getId()), any());
+        RequestIdPreFilter filter = newFilter();
+
+        filter.warmUp();
+
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.isDefinitelyNew("req-last")).isFalse();
+        verify(paymentOrderRepository, times(2)).findRequestIdsCreatedAfter(any(), any(), any());
+    }
+
+    private RequestIdKey key(String requestId) {
+        OffsetDateTime createdAt = clock.instant().atOffset(ZoneOffset.UTC);
+        UUID id = UUID.randomUUID();
+        return new RequestIdKey() {
+            @Override
+            public String getRequestId() {
+                return requestId;
+            }
+
+            @Override
+            public OffsetDateTime getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public UUID getId() {
+                return id;
+            }
+        };
+    }
+
+    private RequestIdPreFilter newFilter() {
+        return new RequestIdPreFilter(paymentOrderRepository, properties, meterRegistry, clock);
+    }
+}
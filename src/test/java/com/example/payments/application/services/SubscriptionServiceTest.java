@@ -6,6 +6,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -13,6 +14,8 @@ import com.example.payments.adapters.persistence.DunningHistoryRepository;
 import com.example.payments.adapters.persistence.SubscriptionRepository;
 import com.example.payments.adapters.persistence.SubscriptionScheduleRepository;
 import com.example.payments.application.properties.SubscriptionProperties;
+import com.example.payments.application.scheduling.BillingScheduledEvent;
+import com.example.payments.domain.billing.BillingOutcome;
 import com.example.payments.domain.billing.Subscription;
 import com.example.payments.domain.billing.SubscriptionBillingCycle;
 import com.example.payments.domain.billing.SubscriptionException;
@@ -38,6 +41,7 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class SubscriptionServiceTest {
@@ -52,6 +56,8 @@ class SubscriptionServiceTest {
     private AuthorizeNetClient authorizeNetClient;
     @Mock
     private IdempotencyService idempotencyService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     private Clock clock;
 
@@ -70,7 +76,8 @@ class SubscriptionServiceTest {
         clock = Clock.fixed(now.toInstant(), ZoneOffset.UTC);
         properties = new SubscriptionProperties();
         subscriptionService = new SubscriptionService(subscriptionRepository, subscriptionScheduleRepository,
-                dunningHistoryRepository, authorizeNetClient, clock, idempotencyService, properties, new SimpleMeterRegistry());
+                dunningHistoryRepository, authorizeNetClient, clock, idempotencyService, properties,
+                new SimpleMeterRegistry(), eventPublisher);
         customerId = UUID.randomUUID();
     }
 
@@ -88,6 +95,11 @@ class SubscriptionServiceTest {
 
         assertThat(result.getPlanCode()).isEqualTo("plan-basic");
         verify(subscriptionScheduleRepository).save(any(SubscriptionSchedule.class));
+        ArgumentCaptor<BillingScheduledEvent> event = ArgumentCaptor.forClass(BillingScheduledEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().subscriptionId()).isEqualTo(result.getId());
+        assertThat(event.getValue().scheduledAt()).isEqualTo(now.plusDays(1));
+        assertThat(event.getValue().billingBucket()).isEqualTo(result.getBillingBucket());
     }
 
     @Test
@@ -110,7 +122,6 @@ class SubscriptionServiceTest {
                 SubscriptionBillingCycle.MONTHLY, null, new BigDecimal("99.99"), "USD", "token", "client-1", null,
                 now.plusDays(1), 4, now);
         doReturn(Optional.of(existing)).when(subscriptionRepository).findById(existing.getId());
-        doReturn(existing).when(subscriptionRepository).save(any(Subscription.class));
 
         var updated = subscriptionService.updateSubscription(existing.getId(), Optional.of("plan-pro"),
                 Optional.of(new BigDecimal("129.99")), Optional.of("EUR"), Optional.of("token-2"), Optional.of(6),
@@ -122,24 +133,58 @@ class SubscriptionServiceTest {
     }
 
     @Test
-    void processDueSubscriptions_shouldScheduleRetriesOnFailure() {
+    void billSchedule_shouldScheduleRetriesOnFailure() {
         Subscription subscription = Subscription.create(customerId, "plan-basic",
                 SubscriptionBillingCycle.MONTHLY, null, new BigDecimal("99.99"), "USD", "token", "client-1", null,
-                now.plusDays(1), 4, now);
+                now.minusMinutes(1), 4, now);
         SubscriptionSchedule schedule = SubscriptionSchedule.pending(subscription, 0, now.minusMinutes(1), now);
 
-        doReturn(List.of(subscription)).when(subscriptionRepository)
-                .findByStatusInAndNextBillingAtLessThanEqual(any(), any());
-        doReturn(List.of(schedule)).when(subscriptionScheduleRepository).findBySubscriptionIdAndStatus(any(), any());
-        doReturn(subscription).when(subscriptionRepository).save(any());
+        doReturn(Optional.of(schedule)).when(subscriptionScheduleRepository).findWithSubscriptionById(schedule.getId());
         doReturn(schedule).when(subscriptionScheduleRepository).save(any());
         doThrow(new RuntimeException("Declined")).when(authorizeNetClient).purchase(any(), any(), any());
 
-        subscriptionService.processDueSubscriptions(now);
+        BillingOutcome outcome = subscriptionService.billSchedule(schedule.getId(), now);
 
-        verify(subscriptionRepository, atLeastOnce()).save(any());
+        // The subscription and schedule are managed; only the new retry schedule needs an explicit save.
+        assertThat(outcome).isEqualTo(BillingOutcome.DECLINED);
+        verify(subscriptionRepository, never()).save(any());
         verify(subscriptionScheduleRepository, atLeastOnce()).save(any());
         assertThat(subscription.getRetryCount()).isEqualTo(1);
         assertThat(schedule.getStatus()).isEqualTo(SubscriptionSchedule.ScheduleStatus.FAILED);
+        // Retries are spread over the four hours after the nominal day.
+        assertThat(subscription.getNextBillingAt()).isAfterOrEqualTo(now.plusDays(1))
+                .isBefore(now.plusDays(1).plusHours(4));
+    }
+
+    @Test
+    void billSchedule_shouldChargeAndScheduleTheNextPeriod() {
+        Subscription subscription = Subscription.create(customerId, "plan-basic",
+                SubscriptionBillingCycle.MONTHLY, null, new BigDecimal("99.99"), "USD", "token", "client-1", null,
+                now.minusMinutes(1), 4, now);
+        SubscriptionSchedule schedule = SubscriptionSchedule.pending(subscription, 0, now.minusMinutes(1), now);
+        doReturn(Optional.of(schedule)).when(subscriptionScheduleRepository).findWithSubscriptionById(schedule.getId());
+        ArgumentCaptor<SubscriptionSchedule> next = ArgumentCaptor.forClass(SubscriptionSchedule.class);
+
+        BillingOutcome outcome = subscriptionService.billSchedule(schedule.getId(), now);
+
+        assertThat(outcome).isEqualTo(BillingOutcome.CHARGED);
+        assertThat(schedule.getStatus()).isEqualTo(SubscriptionSchedule.ScheduleStatus.SUCCESS);
+        verify(subscriptionScheduleRepository).save(next.capture());
+        assertThat(next.getValue().getAttemptNumber()).isEqualTo(1);
+        assertThat(next.getValue().getScheduledAt()).isEqualTo(now.minusMinutes(1).plusMonths(1));
+    }
+
+    @Test
+    void billSchedule_shouldSkipSubscriptionsNoLongerDue() {
+        Subscription subscription = Subscription.create(customerId, "plan-basic",
+                SubscriptionBillingCycle.MONTHLY, null, new BigDecimal("99.99"), "USD", "token", "client-1", null,
+                now.plusDays(1), 4, now);
+        SubscriptionSchedule schedule = SubscriptionSchedule.pending(subscription, 0, now.minusMinutes(1), now);
+        doReturn(Optional.of(schedule)).when(subscriptionScheduleRepository).findWithSubscriptionById(schedule.getId());
+
+        BillingOutcome outcome = subscriptionService.billSchedule(schedule.getId(), now);
+
+        assertThat(outcome).isEqualTo(BillingOutcome.SKIPPED);
+        verify(authorizeNetClient, never()).purchase(any(), any(), any());
     }
 }
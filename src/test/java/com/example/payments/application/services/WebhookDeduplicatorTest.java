@@ -0,0 +1,84 @@
+package com.example.payments.application.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.testsupport.MutableClock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WebhookDeduplicatorTest {
+
+    private WebhookProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WebhookProperties();
+        properties.getDedupe().setRecentWindow(Duration.ofMinutes(10));
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void digest_shouldIgnoreKeyOrderAndWhitespace() {
+        WebhookDeduplicator deduplicator = newDeduplicator();
+
+        String compact = deduplicator.digest(bytes("{\"eventId\":\"evt-1\",\"payload\":{\"a\":1,\"b\":[1,2]}}"));
+        String reordered = deduplicator.digest(
+                bytes("{ \"payload\": { \"b\": [1, 2], \"a\": 1 },\n \"eventId\": \"evt-1\" }"));
+
+        assertThat(compact).isEqualTo(reordered).hasSize(64).matches("[0-9a-f]{64}");
+    }
+
+    @Test
+    void digest_shouldDistinguishDifferentContentAndHashNonJsonAsIs() {
+        WebhookDeduplicator deduplicator = newDeduplicator();
+
+        assertThat(deduplicator.digest(bytes("{\"eventId\":\"evt-1\"}")))
+                .isNotEqualTo(deduplicator.digest(bytes("{\"eventId\":\"evt-2\"}")));
+        assertThat(deduplicator.digest(bytes("not json {"))).hasSize(64)
+                .isEqualTo(deduplicator.digest(bytes("not json {")));
+    }
+
+    @Test
+    void recentCache_shouldForgetDigestsAfterTwoWindows() {
+        WebhookDeduplicator deduplicator = newDeduplicator();
+        deduplicator.remember("digest-1");
+
+        assertThat(deduplicator.seenRecently("digest-1")).isTrue();
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(deduplicator.seenRecently("digest-1")).isTrue();
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(deduplicator.seenRecently("digest-1")).isFalse();
+        assertThat(meterRegistry.get("webhooks.dedupe.cache.hit.count").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void recentCache_shouldStayBoundedByRotatingFullGenerations() {
+        properties.getDedupe().setMaxRecentEntries(2);
+        WebhookDeduplicator deduplicator = newDeduplicator();
+
+        for (int i = 0; i < 10; i++) {
+            deduplicator.remember("digest-" + i);
+        }
+
+        assertThat(deduplicator.cachedCount()).isLessThanOrEqualTo(4);
+        assertThat(deduplicator.seenRecently("digest-9")).isTrue();
+        assertThat(deduplicator.seenRecently("digest-0")).isFalse();
+    }
+
+    private WebhookDeduplicator newDeduplicator() {
+        return new WebhookDeduplicator(new ObjectMapper(), properties, meterRegistry, clock);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.payments.application.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.adapters.persistence.WebhookEventPartitionRepository;
+import com.example.payments.application.properties.WebhookProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookPartitionServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    @Mock
+    private WebhookEventPartitionRepository repository;
+
+    @TempDir
+    private Path archiveDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private WebhookProperties properties;
+    private WebhookPartitionService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WebhookProperties();
+        properties.getPartitions().setPremakeDays(2);
+        properties.getPartitions().setRetention(Duration.ofDays(30));
+        properties.getPartitions().setActiveWindow(Duration.ofDays(7));
+        properties.getPartitions().setArchiveDirectory(archiveDirectory.toString());
+        service = new WebhookPartitionService(repository, objectMapper, properties,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void createUpcomingPartitions_shouldCoverTodayThroughPremakeDays() {
+        service.createUpcomingPartitions();
+
+        verify(repository).create(LocalDate.of(2026, 10, 18));
+        verify(repository).create(LocalDate.of(2026, 10, 19));
+        verify(repository).create(LocalDate.of(2026, 10, 20));
+    }
+
+    @Test
+    void failInactiveEvents_shouldFailEventsReceivedBeforeTheActiveWindow() {
+        OffsetDateTime now = NOW.atOffset(ZoneOffset.UTC);
+        doReturn(3).when(repository).failUnfinishedReceivedBefore(eq(now.minusDays(7)), any(), eq(now));
+
+        assertThat(service.failInactiveEvents()).isEqualTo(3);
+    }
+
+    @Test
+    void partitionsPastRetention_shouldOnlyReturnDaysThatEndedBeforeTheCutoff() {
+        doReturn(List.of(LocalDate.of(2026, 9, 17), LocalDate.of(2026, 9, 18), LocalDate.of(2026, 10, 18)))
+                .when(repository).attachedDays();
+
+        assertThat(service.partitionsPastRetention()).containsExactly(LocalDate.of(2026, 9, 17));
+    }
+
+    @Test
+    void archive_shouldWriteOneJsonLinePerRowToACompressedFile() throws Exception {
+        LocalDate day = LocalDate.of(2026, 9, 1);
+        doAnswer(invocation -> {
+            Consumer<Map<String, Object>> sink = invocation.getArgument(2);
+            sink.accept(Map.of("event_id", "evt-1", "received_at", Instant.parse("2026-09-01T10:00:00Z")));
+            sink.accept(Map.of("event_id", "evt-2", "received_at", Instant.parse("2026-09-01T11:00:00Z")));
+            return null;
+        }).when(repository).forEachRow(eq(day), anyInt(), any());
+
+        Path archive = service.archive(day);
+
+        assertThat(archive).isEqualTo(archiveDirectory.resolve("webhook_events_p20260901.jsonl.gz"));
+        assertThat(archiveDirectory.resolve("webhook_events_p20260901.jsonl.gz.part")).doesNotExist();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8))) {
+            List<JsonNode> rows = reader.lines().map(this::readTree).toList();
+            assertThat(rows).extracting(row -> row.get("event_id").asText()).containsExactly("evt-1", "evt-2");
+        }
+    }
+
+    @Test
+    void archive_shouldLeaveNoFileWhenTheExportFails() {
+        LocalDate day = LocalDate.of(2026, 9, 1);
+        doAnswer(invocation -> {
+            Consumer<Map<String, Object>> sink = invocation.getArgument(2);
+            sink.accept(Map.of("event_id", "evt-1"));
+            throw new IllegalStateException("connection lost");
+        }).when(repository).forEachRow(eq(day), anyInt(), any());
+
+        assertThatThrownBy(() -> service.archive(day)).hasMessage("connection lost");
+        assertThat(archiveDirectory).isEmptyDirectory();
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.payments.application.webhooks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.adapters.persistence.PaymentOrderRepository;
+import com.example.payments.adapters.persistence.PaymentTransactionRepository;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.PaymentOrder;
+import com.example.payments.domain.payments.PaymentOrderStatus;
+import com.example.payments.domain.payments.PaymentTransaction;
+import com.example.payments.domain.payments.PaymentTransactionType;
+import com.example.payments.domain.shared.CorrelationId;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentWebhookHandlerTest {
+
+    @Mock
+    private PaymentTransactionRepository transactionRepository;
+    @Mock
+    private PaymentOrderRepository orderRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PaymentWebhookHandler handler;
+    private PaymentOrder order;
+
+    @BeforeEach
+    void setUp() {
+        handler = new PaymentWebhookHandler(new PaymentOrderTransitions(transactionRepository, orderRepository));
+        order = PaymentOrder.create(UUID.randomUUID(), new Money(new BigDecimal("100.00"), "USD"),
+                CorrelationId.newId(), "req123", "idem-key", OffsetDateTime.now());
+    }
+
+    @Test
+    void supports_shouldMatchPaymentEventFamilyOnly() {
+        assertThat(handler.supports("net.authorize.payment.capture.created")).isTrue();
+        assertThat(handler.supports("net.authorize.customer.subscription.suspended")).isFalse();
+        assertThat(handler.supports(null)).isFalse();
+    }
+
+    @Test
+    void handle_shouldMoveOrderToReportedStatus() {
+        order.markAuthorized();
+        givenTransaction("tx123");
+
+        handler.handle(notification("net.authorize.payment.capture.created", "tx123"));
+
+        assertThat(order.getStatus()).isEqualTo(PaymentOrderStatus.CAPTURED);
+    }
+
+    @Test
+    void handle_shouldIgnoreTransitionsTheOrderHasAlreadyPassed() {
+        order.markCaptured();
+        order.markRefunded();
+        givenTransaction("tx123");
+
+        handler.handle(notification("net.authorize.payment.authorization.created", "tx123"));
+
+        assertThat(order.getStatus()).isEqualTo(PaymentOrderStatus.REFUNDED);
+    }
+
+    @Test
+    void handle_shouldSkipEventsForUnknownTransactions() {
+        doReturn(Optional.empty()).when(transactionRepository)
+                .findFirstByAuthorizeNetTransactionIdOrderByProcessedAtDesc("tx404");
+
+        handler.handle(notification("net.authorize.payment.void.created", "tx404"));
+
+        assertThat(order.getStatus()).isEqualTo(PaymentOrderStatus.CREATED);
+    }
+
+    @Test
+    void handle_shouldResolveUnknownOrderByInvoiceNumber() {
+        order.markPending();
+        order.markUnknown();
+        doReturn(Optional.empty()).when(transactionRepository)
+                .findFirstByAuthorizeNetTransactionIdOrderByProcessedAtDesc("tx123");
+        doReturn(List.of(order)).when(orderRepository)
+                .findByStatusAndIdBetween(eq(PaymentOrderStatus.UNKNOWN), any(), any());
+        String invoiceNumber = order.getId().toString().replace("-", "").substring(0, 20);
+
+        handler.handle(new WebhookNotification(UUID.randomUUID(), "evt-1", "net.authorize.payment.authcapture.created",
+                objectMapper.createObjectNode().put("id", "tx123").put("invoiceNumber", invoiceNumber)));
+
+        assertThat(order.getStatus()).isEqualTo(PaymentOrderStatus.CAPTURED);
+        verify(transactionRepository).save(any(PaymentTransaction.class));
+    }
+
+    @Test
+    void handle_shouldNotLookUpOrderForInformationalEvents() {
+        handler.handle(notification("net.authorize.payment.fraud.held", "tx123"));
+
+        verify(transactionRepository, never()).findFirstByAuthorizeNetTransactionIdOrderByProcessedAtDesc(anyString());
+    }
+
+    private void givenTransaction(String gatewayTransactionId) {
+        PaymentTransaction transaction = PaymentTransaction.record(order, PaymentTransactionType.AUTHORIZATION,
+                new Money(new BigDecimal("100.00"), "USD"), gatewayTransactionId, "APPROVED", OffsetDateTime.now(),
+                "1", "Approved");
+        doReturn(Optional.of(transaction)).when(transactionRepository)
+                .findFirstByAuthorizeNetTransactionIdOrderByProcessedAtDesc(gatewayTransactionId);
+    }
+
+    private WebhookNotification notification(String eventType, String transactionId) {
+        return new WebhookNotification(UUID.randomUUID(), "evt-1", eventType,
+                objectMapper.createObjectNode().put("id", transactionId));
+    }
+}
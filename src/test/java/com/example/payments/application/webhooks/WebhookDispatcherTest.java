@@ -0,0 +1,134 @@
+package com.example.payments.application.webhooks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.payments.domain.webhook.WebhookEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WebhookDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private RecordingHandler handler;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        handler = new RecordingHandler();
+        ExecutorService[] stripes = {Executors.newSingleThreadExecutor(), Executors.newSingleThreadExecutor()};
+        dispatcher = new WebhookDispatcher(List.of(handler), objectMapper, stripes, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_shouldApplyEventsForOneEntityInDispatchOrder() {
+        handler.blockUntilReleased();
+        List<CompletableFuture<Void>> outcomes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            outcomes.add(dispatcher.dispatch(event("evt-" + i, "test.updated", "tx-1")));
+        }
+        assertThat(meterRegistry.get("webhooks.handler.backlog").tag("handler", "test").gauge().value())
+                .isGreaterThan(0.0);
+
+        handler.release();
+        CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(handler.applied).extracting(WebhookNotification::eventId)
+                .containsExactlyElementsOf(IntStream.range(0, 20).mapToObj(i -> "evt-" + i).toList());
+        assertThat(meterRegistry.get("webhooks.handler.latency").tag("handler", "test").timer().count())
+                .isEqualTo(20);
+    }
+
+    @Test
+    void dispatch_shouldCompleteUnsupportedEventsWithoutHandling() {
+        dispatcher.dispatch(event("evt-1", "other.created", "tx-1")).join();
+
+        assertThat(handler.applied).isEmpty();
+        assertThat(meterRegistry.get("webhooks.dispatch.unhandled.count").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void dispatch_shouldFailFutureWhenHandlerThrows() {
+        CompletableFuture<Void> outcome = dispatcher.dispatch(event("evt-1", "test.failed", "tx-1"));
+
+        assertThatThrownBy(outcome::join)
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("handler rejected evt-1");
+        assertThat(meterRegistry.get("webhooks.handler.failure.count").tag("handler", "test").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void dispatch_shouldFailFutureForUnreadablePayload() {
+        WebhookEvent event = WebhookEvent.create("evt-1", "test.updated", "not json", "sig", "hash",
+                OffsetDateTime.now());
+
+        assertThatThrownBy(() -> dispatcher.dispatch(event).join())
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(handler.applied).isEmpty();
+    }
+
+    private static WebhookEvent event(String eventId, String eventType, String entityId) {
+        String payload = "{\"notificationId\":\"" + eventId + "\",\"eventType\":\"" + eventType
+                + "\",\"payload\":{\"id\":\"" + entityId + "\"}}";
+        return WebhookEvent.create(eventId, eventType, payload, "sig", "hash-" + eventId, OffsetDateTime.now());
+    }
+
+    private static final class RecordingHandler implements WebhookHandler {
+
+        private final List<WebhookNotification> applied = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        void blockUntilReleased() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        @Override
+        public String name() {
+            return "test";
+        }
+
+        @Override
+        public boolean supports(String eventType) {
+            return eventType.startsWith("test.");
+        }
+
+        @Override
+        public void handle(WebhookNotification notification) {
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (notification.eventType().equals("test.failed")) {
+                throw new IllegalStateException("handler rejected " + notification.eventId());
+            }
+            applied.add(notification);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.payments.application.workers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.example.payments.adapters.persistence.WebhookBacklogRepository;
+import com.example.payments.adapters.persistence.WebhookBacklogRepository.OutboxSummary;
+import com.example.payments.adapters.persistence.WebhookBacklogRepository.StatusSummary;
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.infra.messaging.RabbitMqConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.ConnectException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.ObjectProvider;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookBacklogMonitorTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+    private static final OffsetDateTime NOW_UTC = NOW.atOffset(ZoneOffset.UTC);
+
+    @Mock
+    private WebhookBacklogRepository repository;
+
+    @Mock
+    private ObjectProvider<AmqpAdmin> amqpAdminProvider;
+
+    @Mock
+    private AmqpAdmin amqpAdmin;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WebhookBacklogMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new WebhookBacklogMonitor(repository, amqpAdminProvider, new WebhookProperties(), meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void sample_shouldPublishCountsAndAgesPerStatus() {
+        doReturn(List.of(
+                new StatusSummary("PENDING", 12, NOW_UTC.minusSeconds(90), null),
+                new StatusSummary("PROCESSING", 3, NOW_UTC.minusMinutes(10), NOW_UTC.minusSeconds(40)),
+                new StatusSummary("COMPLETED", 500, NOW_UTC.minusDays(6), NOW_UTC.minusDays(6))))
+                .when(repository).summarizeByStatus(NOW_UTC.minusDays(7));
+        doReturn(new OutboxSummary(4, NOW_UTC.minusSeconds(5))).when(repository).summarizeOutbox();
+
+        monitor.sample();
+
+        assertThat(events("PENDING")).isEqualTo(12);
+        assertThat(events("PROCESSING")).isEqualTo(3);
+        assertThat(events("COMPLETED")).isEqualTo(500);
+        assertThat(events("FAILED")).isZero();
+        assertThat(meterRegistry.get("webhooks.backlog.pending.age").timeGauge().value(TimeUnit.SECONDS))
+                .isEqualTo(90);
+        assertThat(meterRegistry.get("webhooks.backlog.processing.age").timeGauge().value(TimeUnit.SECONDS))
+                .isEqualTo(40);
+        assertThat(meterRegistry.get("webhooks.backlog.outbox.depth").gauge().value()).isEqualTo(4);
+        assertThat(meterRegistry.get("webhooks.backlog.outbox.age").timeGauge().value(TimeUnit.SECONDS))
+                .isEqualTo(5);
+    }
+
+    @Test
+    void sample_shouldResetStatusesThatDisappeared() {
+        doReturn(List.of(new StatusSummary("PENDING", 12, NOW_UTC.minusSeconds(90), null)))
+                .doReturn(List.of())
+                .when(repository).summarizeByStatus(any());
+        doReturn(new OutboxSummary(0, null)).when(repository).summarizeOutbox();
+
+        monitor.sample();
+        monitor.sample();
+
+        assertThat(events("PENDING")).isZero();
+        assertThat(meterRegistry.get("webhooks.backlog.pending.age").timeGauge().value(TimeUnit.SECONDS)).isZero();
+    }
+
+    @Test
+    void sample_shouldKeepPreviousCountsWhenTheDatabaseFails() {
+        doReturn(List.of(new StatusSummary("PENDING", 12, NOW_UTC.minusSeconds(90), null)))
+                .when(repository).summarizeByStatus(any());
+        doReturn(new OutboxSummary(0, null)).when(repository).summarizeOutbox();
+        monitor.sample();
+        doThrow(new IllegalStateException("connection refused")).when(repository).summarizeByStatus(any());
+
+        monitor.sample();
+
+        assertThat(events("PENDING")).isEqualTo(12);
+        assertThat(meterRegistry.get("webhooks.backlog.sample.failure.count").tag("source", "database")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sample_shouldPublishQueueDepths() {
+        doReturn(List.of()).when(repository).summarizeByStatus(any());
+        doReturn(new OutboxSummary(0, null)).when(repository).summarizeOutbox();
+        doReturn(amqpAdmin).when(amqpAdminProvider).getIfAvailable();
+        doReturn(new QueueInformation(RabbitMqConfig.WEBHOOK_QUEUE, 250, 8))
+                .when(amqpAdmin).getQueueInfo(RabbitMqConfig.WEBHOOK_QUEUE);
+        doReturn(new QueueInformation(RabbitMqConfig.WEBHOOK_DLQ, 7, 0))
+                .when(amqpAdmin).getQueueInfo(RabbitMqConfig.WEBHOOK_DLQ);
+
+        monitor.sample();
+
+        assertThat(queueDepth(RabbitMqConfig.WEBHOOK_QUEUE)).isEqualTo(250);
+        assertThat(queueDepth(RabbitMqConfig.WEBHOOK_DLQ)).isEqualTo(7);
+        assertThat(meterRegistry.get("webhooks.backlog.queue.consumers").tag("queue", RabbitMqConfig.WEBHOOK_QUEUE)
+                .gauge().value()).isEqualTo(8);
+    }
+
+    @Test
+    void sample_shouldReportUnknownQueueDepthWhenTheBrokerFails() {
+        doReturn(List.of()).when(repository).summarizeByStatus(any());
+        doReturn(new OutboxSummary(0, null)).when(repository).summarizeOutbox();
+        doReturn(amqpAdmin).when(amqpAdminProvider).getIfAvailable();
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(amqpAdmin).getQueueInfo(any());
+
+        monitor.sample();
+
+        assertThat(queueDepth(RabbitMqConfig.WEBHOOK_QUEUE)).isNaN();
+        assertThat(queueDepth(RabbitMqConfig.WEBHOOK_DLQ)).isNaN();
+        assertThat(meterRegistry.get("webhooks.backlog.sample.failure.count").tag("source", "broker")
+                .counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void scrape_shouldNotTouchTheDatabase() {
+        meterRegistry.getMeters().forEach(meter -> meter.measure().forEach(measurement -> measurement.getValue()));
+
+        verifyNoInteractions(repository, amqpAdminProvider);
+    }
+
+    private double events(String status) {
+        return meterRegistry.get("webhooks.backlog.events").tag("status", status).gauge().value();
+    }
+
+    private double queueDepth(String queue) {
+        return meterRegistry.get("webhooks.backlog.queue.depth").tag("queue", queue).gauge().value();
+    }
+}
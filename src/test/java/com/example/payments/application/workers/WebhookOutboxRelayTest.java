@@ -0,0 +1,98 @@
+package com.example.payments.application.workers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.adapters.messaging.WebhookEventPublisher;
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.application.services.WebhookOutboxService;
+import com.example.payments.domain.webhook.WebhookEvent;
+import com.example.payments.domain.webhook.WebhookOutboxMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.ConnectException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookOutboxRelayTest {
+
+    @Mock
+    private WebhookOutboxService outboxService;
+
+    @Mock
+    private WebhookEventPublisher publisher;
+
+    private WebhookProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private WebhookOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WebhookProperties();
+        properties.getOutbox().setBatchSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new WebhookOutboxRelay(outboxService, publisher, properties, meterRegistry);
+    }
+
+    @Test
+    void relay_shouldDeleteConfirmedMessagesAndDrainFullBatches() {
+        WebhookOutboxMessage first = message("evt-1");
+        WebhookOutboxMessage second = message("evt-2");
+        WebhookOutboxMessage third = message("evt-3");
+        doReturn(List.of(first, second), List.of(third)).when(outboxService).claimBatch(2);
+        doReturn(Set.of(first.getWebhookEventId(), second.getWebhookEventId()),
+                Set.of(third.getWebhookEventId())).when(publisher).publishConfirmed(anyCollection(), any());
+
+        relay.relay();
+
+        verify(outboxService).markPublished(List.of(first.getId(), second.getId()));
+        verify(outboxService).markPublished(List.of(third.getId()));
+        verify(outboxService, times(2)).claimBatch(2);
+        assertThat(meterRegistry.get("webhooks.outbox.published.count").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void relay_shouldKeepUnconfirmedMessagesAndStop() {
+        WebhookOutboxMessage first = message("evt-1");
+        WebhookOutboxMessage second = message("evt-2");
+        doReturn(List.of(first, second)).when(outboxService).claimBatch(2);
+        doReturn(Set.of(first.getWebhookEventId())).when(publisher).publishConfirmed(anyCollection(), any());
+
+        relay.relay();
+
+        verify(outboxService).markPublished(List.of(first.getId()));
+        verify(outboxService, times(1)).claimBatch(anyInt());
+        assertThat(meterRegistry.get("webhooks.outbox.unconfirmed.count").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void relay_shouldLeaveBatchLeasedWhenBrokerIsUnavailable() {
+        doReturn(List.of(message("evt-1"))).when(outboxService).claimBatch(2);
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .when(publisher).publishConfirmed(anyCollection(), any());
+
+        relay.relay();
+
+        verify(outboxService, never()).markPublished(anyCollection());
+    }
+
+    private static WebhookOutboxMessage message(String eventId) {
+        WebhookEvent event = WebhookEvent.create(eventId, "PAYMENT_SETTLED", "{}", "sig", "hash",
+                OffsetDateTime.now());
+        return WebhookOutboxMessage.forEvent(event, OffsetDateTime.now());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.payments.application.workers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.application.services.SchedulerLeaseService;
+import com.example.payments.application.services.WebhookPartitionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookPartitionMaintenanceTest {
+
+    private static final LocalDate OLD_DAY = LocalDate.of(2026, 9, 1);
+
+    @Mock
+    private WebhookPartitionService partitions;
+
+    @Mock
+    private SchedulerLeaseService leases;
+
+    private WebhookPartitionMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        maintenance = new WebhookPartitionMaintenance(partitions, leases, new WebhookProperties(),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void maintain_shouldDoNothingWithoutTheLease() {
+        doReturn(false).when(leases).tryAcquire(any(), any());
+
+        maintenance.maintain();
+
+        verifyNoInteractions(partitions);
+    }
+
+    @Test
+    void maintain_shouldArchiveBeforeDropping() throws IOException {
+        doReturn(true).when(leases).tryAcquire(any(), any());
+        doReturn(List.of(OLD_DAY)).when(partitions).partitionsPastRetention();
+
+        maintenance.maintain();
+
+        InOrder order = inOrder(partitions);
+        order.verify(partitions).createUpcomingPartitions();
+        order.verify(partitions).failInactiveEvents();
+        order.verify(partitions).archive(OLD_DAY);
+        order.verify(partitions).drop(OLD_DAY);
+    }
+
+    @Test
+    void maintain_shouldKeepPartitionWhenArchiveFails() throws IOException {
+        doReturn(true).when(leases).tryAcquire(any(), any());
+        doReturn(List.of(OLD_DAY)).when(partitions).partitionsPastRetention();
+        doThrow(new IOException("disk full")).when(partitions).archive(OLD_DAY);
+
+        maintenance.maintain();
+
+        verify(partitions, never()).drop(any());
+    }
+
+    @Test
+    void maintain_shouldKeepPartitionsWithUnfinishedEvents() throws IOException {
+        doReturn(true).when(leases).tryAcquire(any(), any());
+        doReturn(List.of(OLD_DAY)).when(partitions).partitionsPastRetention();
+        doReturn(true).when(partitions).hasUnfinished(OLD_DAY);
+
+        maintenance.maintain();
+
+        verify(partitions, never()).archive(any());
+        verify(partitions, never()).drop(any());
+    }
+}
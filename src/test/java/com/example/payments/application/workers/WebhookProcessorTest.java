@@ -0,0 +1,131 @@
+package com.example.payments.application.workers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.application.services.WebhookService;
+import com.example.payments.application.webhooks.WebhookDispatcher;
+import com.example.payments.domain.webhook.WebhookEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookProcessorTest {
+
+    @Mock
+    private WebhookService webhookService;
+
+    @Mock
+    private WebhookDispatcher dispatcher;
+
+    private WebhookProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WebhookProperties();
+        properties.getProcessing().setMaxInFlight(4);
+        properties.getProcessing().setBatchSize(10);
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().doReturn(CompletableFuture.completedFuture(null)).when(dispatcher).dispatch(any());
+    }
+
+    @Test
+    void processPending_shouldClaimNoMoreThanCapacityAndDispatchInClaimOrder() {
+        List<WebhookEvent> batch = events(2);
+        doReturn(batch).when(webhookService).claimPendingBatch(4);
+
+        newProcessor().processPending();
+
+        verify(webhookService).claimPendingBatch(4);
+        InOrder order = inOrder(dispatcher);
+        order.verify(dispatcher).dispatch(batch.get(0));
+        order.verify(dispatcher).dispatch(batch.get(1));
+        batch.forEach(event -> verify(webhookService).markCompleted(event));
+    }
+
+    @Test
+    void processPending_shouldKeepClaimingWhileBatchesComeBackFull() {
+        doReturn(events(4), events(4), List.of()).when(webhookService).claimPendingBatch(4);
+
+        newProcessor().processPending();
+
+        verify(webhookService, times(3)).claimPendingBatch(4);
+        verify(webhookService, times(8)).markCompleted(any());
+    }
+
+    @Test
+    void failingHandler_shouldMarkEventFailedWithoutStoppingTheBatch() {
+        List<WebhookEvent> batch = events(2);
+        doReturn(batch).when(webhookService).claimPendingBatch(4);
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("boom"))).when(dispatcher)
+                .dispatch(batch.get(0));
+
+        newProcessor().processPending();
+
+        verify(webhookService).markFailed(batch.get(0), "boom");
+        verify(webhookService).markCompleted(batch.get(1));
+    }
+
+    @Test
+    void unfinishedEvents_shouldHoldCapacityUntilTheirHandlersComplete() {
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        doReturn(pending).when(dispatcher).dispatch(any());
+        doReturn(events(4)).when(webhookService).claimPendingBatch(4);
+        WebhookProcessor processor = newProcessor();
+
+        processor.processPending();
+        processor.processPending();
+
+        verify(webhookService, times(1)).claimPendingBatch(anyInt());
+        assertThat(meterRegistry.get("webhooks.processing.in.flight").gauge().value()).isEqualTo(4.0);
+
+        pending.complete(null);
+
+        assertThat(meterRegistry.get("webhooks.processing.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void claimFailure_shouldReturnCapacity() {
+        doThrow(new IllegalStateException("db down")).doReturn(List.of()).when(webhookService)
+                .claimPendingBatch(anyInt());
+        WebhookProcessor processor = newProcessor();
+
+        processor.processPending();
+        processor.processPending();
+
+        verify(webhookService, times(2)).claimPendingBatch(4);
+        verify(webhookService, never()).markCompleted(any());
+    }
+
+    private WebhookProcessor newProcessor() {
+        return new WebhookProcessor(webhookService, dispatcher, properties, meterRegistry);
+    }
+
+    private static List<WebhookEvent> events(int count) {
+        List<WebhookEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(WebhookEvent.create("evt-" + i, "PAYMENT_SETTLED", "{}", "sig", "hash",
+                    OffsetDateTime.now()));
+        }
+        return events;
+    }
+}
@@ -1,46 +1,145 @@
 package com.example.payments.application.workers;
 
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import com.example.payments.application.services.WebhookService;
+import com.example.payments.application.webhooks.WebhookDispatcher;
 import com.example.payments.domain.webhook.WebhookEvent;
+import com.rabbitmq.client.Channel;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 
 class WebhookQueueListenerTest {
 
     @Mock
     private WebhookService webhookService;
 
+    @Mock
+    private WebhookDispatcher dispatcher;
+
+    @Mock
+    private Channel channel;
+
     private WebhookQueueListener listener;
 
-    private WebhookEvent event;
+    private WebhookEvent first;
+    private WebhookEvent second;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        listener = new WebhookQueueListener(webhookService);
-        event = WebhookEvent.create("evt", "PAYMENT_SETTLED", "{}", "sig", "hash", OffsetDateTime.now());
+        listener = new WebhookQueueListener(webhookService, dispatcher);
+        doReturn(CompletableFuture.completedFuture(null)).when(dispatcher).dispatch(any());
+        first = WebhookEvent.create("evt-1", "PAYMENT_SETTLED", "{}", "sig", "hash-1", OffsetDateTime.now());
+        second = WebhookEvent.create("evt-2", "PAYMENT_SETTLED", "{}", "sig", "hash-2", OffsetDateTime.now());
+    }
+
+    @Test
+    void onMessages_shouldCompleteBatchAndAckOnce() throws Exception {
+        doReturn(List.of(first, second)).when(webhookService)
+                .claimForProcessing(Set.of(first.getId(), second.getId()));
+
+        listener.onMessages(List.of(message(1, first.getId().toString()), message(2, second.getId().toString())),
+                channel);
+
+        verify(webhookService).markCompleted(List.of(first, second));
+        verify(channel).basicAck(2, true);
+        verify(channel, never()).basicNack(anyLong(), eq(false), eq(false));
+    }
+
+    @Test
+    void onMessages_shouldDeadLetterEventsWhoseHandlerFails() throws Exception {
+        doReturn(List.of(second, first)).when(webhookService)
+                .claimForProcessing(Set.of(first.getId(), second.getId()));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("handler down"))).when(dispatcher)
+                .dispatch(first);
+
+        listener.onMessages(List.of(message(1, first.getId().toString()), message(2, second.getId().toString())),
+                channel);
+
+        InOrder dispatchOrder = inOrder(dispatcher);
+        dispatchOrder.verify(dispatcher).dispatch(first);
+        dispatchOrder.verify(dispatcher).dispatch(second);
+        verify(webhookService).markFailed(first, "handler down");
+        verify(webhookService).markCompleted(List.of(second));
+        verify(channel).basicNack(1, false, false);
+        verify(channel).basicAck(2, true);
     }
 
     @Test
-    void onMessage_shouldProcessEvent() {
-        UUID id = event.getId();
-        doReturn(Optional.of(event)).when(webhookService).getEvent(id);
-        doNothing().when(webhookService).markProcessing(event);
-        doNothing().when(webhookService).markCompleted(event);
+    void onMessages_shouldDeadLetterMalformedMessages() throws Exception {
+        doReturn(List.of(first)).when(webhookService).claimForProcessing(Set.of(first.getId()));
 
-        listener.onMessage(id.toString());
+        listener.onMessages(List.of(message(1, "not-a-uuid"), message(2, first.getId().toString())), channel);
+
+        verify(channel).basicNack(1, false, false);
+        verify(channel).basicAck(2, true);
+    }
+
+    @Test
+    void onMessages_shouldAckDeliveriesForEventsAlreadyHandled() throws Exception {
+        doReturn(List.of()).when(webhookService).claimForProcessing(Set.of(first.getId()));
+
+        listener.onMessages(List.of(message(7, first.getId().toString())), channel);
+
+        verify(webhookService).markCompleted(List.of());
+        verify(channel).basicAck(7, true);
+    }
+
+    @Test
+    void onMessages_shouldRequeueBatchWhenDatabaseFails() throws Exception {
+        doThrow(new IllegalStateException("db down")).when(webhookService).claimForProcessing(anyCollection());
+
+        listener.onMessages(List.of(message(3, first.getId().toString()), message(4, second.getId().toString())),
+                channel);
+
+        verify(channel).basicNack(4, true, true);
+        verify(channel, never()).basicAck(anyLong(), eq(true));
+    }
+
+    @Test
+    void onMessages_shouldDeadLetterFailedEventsBeforeRequeueingTheRest() throws Exception {
+        WebhookEvent third = WebhookEvent.create("evt-3", "PAYMENT_SETTLED", "{}", "sig", "hash-3",
+                OffsetDateTime.now());
+        doReturn(List.of(first, second, third)).when(webhookService)
+                .claimForProcessing(Set.of(first.getId(), second.getId(), third.getId()));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("handler down"))).when(dispatcher)
+                .dispatch(third);
+        doThrow(new IllegalStateException("db down")).when(webhookService).markCompleted(anyList());
+
+        listener.onMessages(List.of(message(1, first.getId().toString()), message(2, second.getId().toString()),
+                message(3, third.getId().toString())), channel);
+
+        InOrder settlement = inOrder(webhookService, channel);
+        settlement.verify(webhookService).markFailed(third, "handler down");
+        settlement.verify(channel).basicNack(3, false, false);
+        settlement.verify(webhookService).markCompleted(List.of(first, second));
+        settlement.verify(channel).basicNack(2, true, true);
+        verify(channel, never()).basicAck(anyLong(), eq(true));
+    }
 
-        verify(webhookService).markProcessing(event);
-        verify(webhookService).markCompleted(event);
+    private static Message message(long deliveryTag, String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
     }
 }
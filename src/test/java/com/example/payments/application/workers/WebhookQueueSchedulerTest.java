@@ -1,57 +1,127 @@
 package com.example.payments.application.workers;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
-import com.example.payments.adapters.messaging.WebhookEventPublisher;
-import com.example.payments.adapters.persistence.WebhookEventRepository;
+import com.example.payments.application.properties.WebhookProperties;
+import com.example.payments.application.services.SchedulerLeaseService;
+import com.example.payments.application.services.WebhookService;
 import com.example.payments.domain.webhook.WebhookEvent;
-import com.example.payments.domain.webhook.WebhookEvent.ProcessedStatus;
-import java.time.Clock;
-import java.time.Instant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.List;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.test.util.ReflectionTestUtils;
 
 class WebhookQueueSchedulerTest {
 
-    @Mock
-    private WebhookEventRepository repository;
+    private static final UUID FIRST = new UUID(0, 0);
 
     @Mock
-    private WebhookEventPublisher publisher;
+    private WebhookService webhookService;
 
-    private Clock clock;
+    @Mock
+    private SchedulerLeaseService leases;
 
+    private WebhookProperties properties;
+    private SimpleMeterRegistry meterRegistry;
     private WebhookQueueScheduler scheduler;
 
-    private WebhookEvent staleEvent;
-
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        clock = Clock.fixed(Instant.parse("2025-09-29T15:00:00Z"), ZoneOffset.UTC);
-        scheduler = new WebhookQueueScheduler(repository, publisher, clock);
-        staleEvent = WebhookEvent.create("evt", "PAYMENT_SETTLED", "{}", "sig", "hash",
-                OffsetDateTime.now(clock).minusMinutes(10));
-        staleEvent.markProcessing();
+        properties = new WebhookProperties();
+        properties.getRequeue().setPageSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new WebhookQueueScheduler(webhookService, leases, properties, meterRegistry);
+        doReturn(true).when(leases).tryAcquire(WebhookQueueScheduler.LEASE, properties.getRequeue().getLease());
+    }
+
+    @Test
+    void requeueStaleEvents_shouldDoNothingWithoutTheLease() {
+        doReturn(false).when(leases).tryAcquire(any(), any());
+
+        scheduler.requeueStaleEvents();
+
+        verify(webhookService, never()).requeueStalePage(any(), anyInt());
     }
 
     @Test
-    void requeueStaleEvents_shouldPublish() {
-        OffsetDateTime threshold = OffsetDateTime.now(clock).minusMinutes(5);
-        ReflectionTestUtils.setField(staleEvent, "processedAt", OffsetDateTime.now(clock).minusMinutes(6));
-        doReturn(List.of(staleEvent)).when(repository)
-                .findByProcessedStatusAndProcessedAtBefore(ProcessedStatus.PROCESSING, threshold);
+    void requeueStaleEvents_shouldPageFromTheLastIdUntilAShortPage() {
+        WebhookEvent first = event(new UUID(1, 0));
+        WebhookEvent second = event(new UUID(2, 0));
+        WebhookEvent third = event(new UUID(3, 0));
+        doReturn(List.of(second, first)).when(webhookService).requeueStalePage(FIRST, 2);
+        doReturn(List.of(third)).when(webhookService).requeueStalePage(second.getId(), 2);
 
         scheduler.requeueStaleEvents();
 
-        verify(publisher).publish(staleEvent);
+        InOrder order = inOrder(leases, webhookService);
+        order.verify(leases).tryAcquire(eq(WebhookQueueScheduler.LEASE), any());
+        order.verify(webhookService).requeueStalePage(FIRST, 2);
+        order.verify(leases).tryAcquire(eq(WebhookQueueScheduler.LEASE), any());
+        order.verify(webhookService).requeueStalePage(second.getId(), 2);
+        order.verifyNoMoreInteractions();
+        assertThat(meterRegistry.get("webhooks.requeue.count").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void requeueStaleEvents_shouldStopPagingWhenTheLeaseIsLost() {
+        doReturn(true, false).when(leases).tryAcquire(any(), any());
+        doReturn(List.of(event(new UUID(1, 0)), event(new UUID(2, 0)))).when(webhookService)
+                .requeueStalePage(FIRST, 2);
+
+        scheduler.requeueStaleEvents();
+
+        verify(webhookService).requeueStalePage(any(), anyInt());
+    }
+
+    @Test
+    void requeueStaleEvents_shouldCountEventsFailedAtTheAttemptLimit() {
+        WebhookEvent exhausted = event(new UUID(1, 0));
+        exhausted.markFailed("Abandoned by its consumer 5 times");
+        doReturn(List.of(exhausted, event(new UUID(2, 0))), List.of()).when(webhookService)
+                .requeueStalePage(any(), eq(2));
+
+        scheduler.requeueStaleEvents();
+
+        assertThat(meterRegistry.get("webhooks.requeue.count").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("webhooks.requeue.exhausted.count").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void requeueStaleEvents_shouldSwallowDatabaseFailures() {
+        doThrow(new IllegalStateException("db down")).when(webhookService).requeueStalePage(any(), anyInt());
+
+        scheduler.requeueStaleEvents();
+
+        verify(webhookService).requeueStalePage(FIRST, 2);
+    }
+
+    @Test
+    void lastId_shouldCompareUuidsAsUnsignedBytes() {
+        UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+        assertThat(WebhookQueueScheduler.lastId(List.of(event(high), event(low)))).isEqualTo(high);
+    }
+
+    private static WebhookEvent event(UUID id) {
+        WebhookEvent event = WebhookEvent.create("evt-" + id, "PAYMENT_SETTLED", "{}", "sig", "hash-" + id,
+                OffsetDateTime.now());
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
     }
 }
@@ -0,0 +1,116 @@
+package com.example.payments.domain.shared;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reports stored size and encode/decode cost of {@link CompressedTextConverter} for payloads shaped like the ones
+ * the service stores: Authorize.Net webhook notifications and idempotent API responses. Run with
+ * {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class CompressedTextConverterBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CompressedTextConverterBenchmarkTest.class);
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void storedSizeAndCpuCost() {
+        Map<String, String> payloads = new LinkedHashMap<>();
+        payloads.put("payment response", paymentResponse());
+        payloads.put("authcapture webhook", paymentWebhook());
+        payloads.put("fraud webhook", fraudWebhook());
+        payloads.put("subscription webhook", subscriptionWebhook());
+        payloads.put("settlement batch webhook", settlementWebhook(25));
+
+        for (Map.Entry<String, String> entry : payloads.entrySet()) {
+            String payload = entry.getValue();
+            int raw = payload.getBytes(StandardCharsets.UTF_8).length;
+            byte[] stored = CompressedTextConverter.encode(payload);
+            assertThat(CompressedTextConverter.decode(stored)).isEqualTo(payload);
+
+            for (int i = 0; i < WARMUP; i++) {
+                CompressedTextConverter.decode(CompressedTextConverter.encode(payload));
+            }
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += CompressedTextConverter.encode(payload).length;
+            }
+            double encodeNanos = (System.nanoTime() - start) / (double) ITERATIONS;
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += CompressedTextConverter.decode(stored).length();
+            }
+            double decodeNanos = (System.nanoTime() - start) / (double) ITERATIONS;
+
+            log.info("{}: raw {} B, stored {} B, saved {}%, encode {} ns, decode {} ns ({})", entry.getKey(), raw,
+                    stored.length, String.format("%.1f", 100.0 * (raw - stored.length) / raw), Math.round(encodeNanos),
+                    Math.round(decodeNanos), sink % 10);
+            assertThat(stored.length).isLessThanOrEqualTo(raw + 1);
+        }
+    }
+
+    private static String paymentResponse() {
+        return "{\"orderId\":\"0192a4f1-7c3e-7b21-9d8e-3f4a5b6c7d8e\",\"customerId\":\"0192a4f1-7c3e-7b21-9d8e-"
+                + "1a2b3c4d5e6f\",\"amount\":125.00,\"currency\":\"USD\",\"status\":\"CAPTURED\",\"correlationId\":"
+                + "\"c8f2a1d4-5b6e-4f7a-8c9d-0e1f2a3b4c5d\"}";
+    }
+
+    private static String paymentWebhook() {
+        return "{\"notificationId\":\"d0e8e7fe-c3e7-4add-a480-27bc5ce28a1b\",\"eventType\":"
+                + "\"net.authorize.payment.authcapture.created\",\"eventDate\":\"2026-10-18T16:29:37.7785212Z\","
+                + "\"webhookId\":\"0b90b5ac-7ac8-4d41-9b32-2a7d5d5e8b7e\",\"payload\":{\"responseCode\":1,"
+                + "\"authCode\":\"LZ6I19\",\"avsResponse\":\"Y\",\"authAmount\":125.00,\"merchantReferenceId\":"
+                + "\"ref-0192a4f17c3e\",\"invoiceNumber\":\"INV-000123\",\"entityName\":\"transaction\",\"id\":"
+                + "\"60123456789\"}}";
+    }
+
+    private static String fraudWebhook() {
+        return "{\"notificationId\":\"5c3f7e1b-0b4d-4f3f-9a5e-1f2e3d4c5b6a\",\"eventType\":"
+                + "\"net.authorize.payment.fraud.held\",\"eventDate\":\"2026-10-18T16:31:02.1234567Z\","
+                + "\"webhookId\":\"0b90b5ac-7ac8-4d41-9b32-2a7d5d5e8b7e\",\"payload\":{\"responseCode\":4,"
+                + "\"authCode\":\"X4F2P1\",\"avsResponse\":\"Y\",\"authAmount\":980.50,\"fraudList\":["
+                + "{\"fraudFilter\":\"AmountFilter\",\"fraudAction\":\"authAndHold\"},"
+                + "{\"fraudFilter\":\"HourlyVelocityFilter\",\"fraudAction\":\"authAndHold\"},"
+                + "{\"fraudFilter\":\"ShippingBillingMismatchFilter\",\"fraudAction\":\"report\"}],"
+                + "\"merchantReferenceId\":\"ref-0192a4f17c41\",\"invoiceNumber\":\"INV-000124\","
+                + "\"entityName\":\"transaction\",\"id\":\"60123456790\"}}";
+    }
+
+    private static String subscriptionWebhook() {
+        return "{\"notificationId\":\"7a1b2c3d-4e5f-4a6b-8c7d-9e0f1a2b3c4d\",\"eventType\":"
+                + "\"net.authorize.customer.subscription.suspended\",\"eventDate\":\"2026-10-18T03:00:12.5Z\","
+                + "\"webhookId\":\"0b90b5ac-7ac8-4d41-9b32-2a7d5d5e8b7e\",\"payload\":{\"name\":\"Pro plan monthly\","
+                + "\"amount\":49.00,\"status\":\"suspended\",\"profile\":{\"customerProfileId\":1929820,"
+                + "\"customerPaymentProfileId\":1841987,\"customerShippingAddressId\":1900371},"
+                + "\"entityName\":\"subscription\",\"id\":\"5023411\"}}";
+    }
+
+    private static String settlementWebhook(int transactions) {
+        StringBuilder json = new StringBuilder("{\"notificationId\":\"9f8e7d6c-5b4a-4c3d-8e2f-1a0b9c8d7e6f\","
+                + "\"eventType\":\"net.authorize.settlement.batch.settled\",\"eventDate\":\"2026-10-18T02:15:00Z\","
+                + "\"webhookId\":\"0b90b5ac-7ac8-4d41-9b32-2a7d5d5e8b7e\",\"payload\":{\"batchId\":\"10834591\","
+                + "\"settlementState\":\"settledSuccessfully\",\"transactions\":[");
+        for (int i = 0; i < transactions; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"transId\":\"601234").append(56000 + i * 37).append("\",\"submitTimeUTC\":")
+                    .append("\"2026-10-17T").append(10 + i % 12).append(":").append(10 + i % 50)
+                    .append(":05Z\",\"transactionStatus\":\"settledSuccessfully\",\"invoiceNumber\":\"INV-")
+                    .append(100000 + i).append("\",\"accountType\":\"Visa\",\"settleAmount\":")
+                    .append(19 + i % 80).append(".99}");
+        }
+        return json.append("],\"entityName\":\"batch\",\"id\":\"10834591\"}}").toString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.payments.domain.shared;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class CompressedTextConverterTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void smallValues_shouldBeStoredAsPlainUtf8() {
+        String json = "{\"orderId\":\"42\",\"status\":\"CAPTURED\"}";
+
+        byte[] stored = converter.convertToDatabaseColumn(json);
+
+        assertThat(stored).isEqualTo(json.getBytes(StandardCharsets.UTF_8));
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(json);
+    }
+
+    @Test
+    void largeValues_shouldBeCompressedBehindTheMarker() {
+        String json = "{\"items\":[" + "{\"sku\":\"ABC-123\",\"quantity\":1,\"price\":\"9.99\"},".repeat(40) + "{}]}";
+
+        byte[] stored = converter.convertToDatabaseColumn(json);
+
+        assertThat(stored[0]).isEqualTo(CompressedTextConverter.DEFLATE);
+        assertThat(stored.length).isLessThan(json.length() / 4);
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(json);
+    }
+
+    @Test
+    void valuesStartingWithAMarkerByte_shouldRoundTrip() {
+        String text = "\u0001not compressed";
+
+        byte[] stored = converter.convertToDatabaseColumn(text);
+
+        assertThat(stored[0]).isEqualTo(CompressedTextConverter.PLAIN);
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(text);
+    }
+
+    @Test
+    void rowsWrittenBeforeCompression_shouldReadBackUnchanged() {
+        String legacy = "{\"notificationId\":\"n-1\",\"payload\":{\"id\":\"60123\"}}".repeat(30);
+
+        assertThat(converter.convertToEntityAttribute(legacy.getBytes(StandardCharsets.UTF_8))).isEqualTo(legacy);
+    }
+
+    @Test
+    void truncatedCompressedValue_shouldFailLoudly() {
+        byte[] stored = converter.convertToDatabaseColumn("{\"a\":\"" + "x".repeat(4096) + "\"}");
+
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(Arrays.copyOf(stored, stored.length / 2)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void nullAndEmpty_shouldPassThrough() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(""))).isEmpty();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.payments.domain.shared;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void nextId_shouldCarryVersionVariantAndTimestamp() {
+        Instant now = Instant.parse("2025-03-01T12:00:00.123456789Z");
+        UuidV7Generator generator = new UuidV7Generator(Clock.fixed(now, ZoneOffset.UTC));
+
+        UUID id = generator.nextId();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(UuidV7Generator.timestampMillis(id)).isEqualTo(now.toEpochMilli());
+    }
+
+    @Test
+    void idsFromLaterInstants_shouldSortAfterEarlierOnes() {
+        Instant start = Instant.parse("2025-03-01T12:00:00Z");
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            // 250ns steps exercise the sub-millisecond bits as well as millisecond rollover.
+            ids.add(new UuidV7Generator(Clock.fixed(start.plusNanos(i * 250L), ZoneOffset.UTC)).nextId());
+        }
+
+        List<String> asText = ids.stream().map(UUID::toString).toList();
+        assertThat(asText).isSorted();
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+    }
+
+    @Test
+    void ids_shouldUseConfiguredGenerator() {
+        UUID fixed = UUID.fromString("00000000-0000-7000-8000-000000000001");
+        try {
+            Ids.use(() -> fixed);
+            assertThat(Ids.next()).isEqualTo(fixed);
+        } finally {
+            Ids.use(new UuidV7Generator());
+        }
+    }
+}
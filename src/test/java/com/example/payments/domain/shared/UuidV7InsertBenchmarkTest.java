@@ -0,0 +1,86 @@
+package com.example.payments.domain.shared;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Inserts the same number of rows keyed by random v4 and by {@link UuidV7Generator} ids into two otherwise identical
+ * Postgres tables and reports throughput and primary-key index size. Needs a scratch database: run with
+ * {@code -Dbenchmarks=true} and {@code BENCHMARK_POSTGRES_URL} (plus {@code BENCHMARK_POSTGRES_USER} /
+ * {@code BENCHMARK_POSTGRES_PASSWORD}) set.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_POSTGRES_URL", matches = ".+")
+class UuidV7InsertBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(UuidV7InsertBenchmarkTest.class);
+
+    private static final int ROWS = 500_000;
+    private static final int BATCH = 1_000;
+
+    @Test
+    void insertThroughputAndIndexSize() throws Exception {
+        UuidV7Generator v7 = new UuidV7Generator();
+        try (Connection connection = DriverManager.getConnection(System.getenv("BENCHMARK_POSTGRES_URL"),
+                System.getenv("BENCHMARK_POSTGRES_USER"), System.getenv("BENCHMARK_POSTGRES_PASSWORD"))) {
+            connection.setAutoCommit(false);
+            Result random = run(connection, "uuid_bench_v4", UUID::randomUUID);
+            Result ordered = run(connection, "uuid_bench_v7", v7::nextId);
+
+            log.info("UUID keys, {} rows: v4 {} rows/s, index {} kB | v7 {} rows/s, index {} kB", ROWS,
+                    Math.round(random.rowsPerSecond()), random.indexBytes() / 1024,
+                    Math.round(ordered.rowsPerSecond()), ordered.indexBytes() / 1024);
+            assertThat(ordered.indexBytes()).isLessThanOrEqualTo(random.indexBytes());
+        }
+    }
+
+    private static Result run(Connection connection, String table, Supplier<UUID> ids) throws Exception {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            ddl.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, payload VARCHAR(64) NOT NULL)");
+        }
+        connection.commit();
+
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, payload) VALUES (?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setObject(1, ids.get());
+                insert.setString(2, "payload-" + i);
+                insert.addBatch();
+                if (i % BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long indexBytes;
+        try (Statement query = connection.createStatement();
+                ResultSet rs = query.executeQuery("SELECT pg_relation_size('" + table + "_pkey')")) {
+            rs.next();
+            indexBytes = rs.getLong(1);
+        }
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE " + table);
+        }
+        connection.commit();
+        return new Result(ROWS / seconds, indexBytes);
+    }
+
+    private record Result(double rowsPerSecond, long indexBytes) {
+    }
+}
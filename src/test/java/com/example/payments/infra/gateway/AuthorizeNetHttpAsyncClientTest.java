@@ -0,0 +1,97 @@
+package com.example.payments.infra.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.PaymentException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AuthorizeNetHttpAsyncClientTest {
+
+    private static final String APPROVED = """
+            {"transactionResponse":{"responseCode":"1","transId":"60123","messages":[{"code":"1","description":"This transaction has been approved."}]},
+             "messages":{"resultCode":"Ok","message":[{"code":"I00001","text":"Successful."}]}}
+            """;
+
+    private MockWebServer server;
+    private AuthorizeNetProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private final Money money = new Money(new BigDecimal("25.00"), "USD");
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        properties = new AuthorizeNetProperties();
+        properties.setApiLoginId("login");
+        properties.setTransactionKey("key");
+        properties.setEndpoint(server.url("/xml/v1/request.api").toString());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void purchase_shouldParseApprovedResponse() {
+        server.enqueue(new MockResponse().setBody("\uFEFF" + APPROVED));
+
+        GatewayTransactionResult result = newClient().purchase(money, "nonce", "order-1").join();
+
+        assertThat(result.success()).isTrue();
+        assertThat(result.transactionId()).isEqualTo("60123");
+    }
+
+    @Test
+    void purchase_shouldSendTheOrderReferenceAsInvoiceNumber() throws Exception {
+        server.enqueue(new MockResponse().setBody(APPROVED));
+        String orderId = "0192a4f1-7c3e-7b21-9d8e-3f4a5b6c7d8e";
+
+        newClient().purchase(money, "nonce", orderId).join();
+
+        JsonNode request = new ObjectMapper().readTree(server.takeRequest().getBody().readUtf8())
+                .path("createTransactionRequest");
+        String reference = AuthorizeNetReferenceIdSanitizer.resolve(orderId);
+        assertThat(request.path("refId").asText()).isEqualTo(reference);
+        assertThat(request.path("transactionRequest").path("order").path("invoiceNumber").asText())
+                .isEqualTo(reference);
+    }
+
+    @Test
+    void purchase_shouldRejectWhenBulkheadIsFull() {
+        properties.getAsync().getMaxConcurrent().put("purchase", 1);
+        server.enqueue(new MockResponse().setBody(APPROVED).setBodyDelay(500, TimeUnit.MILLISECONDS));
+        AuthorizeNetHttpAsyncClient client = newClient();
+
+        CompletableFuture<GatewayTransactionResult> first = client.purchase(money, "nonce", "order-1");
+        CompletableFuture<GatewayTransactionResult> second = client.purchase(money, "nonce", "order-2");
+
+        assertThat(second).isCompletedExceptionally();
+        assertThat(second.handle((result, ex) -> ex instanceof CompletionException ? ex.getCause() : ex).join())
+                .isInstanceOfSatisfying(PaymentException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo("GATEWAY_BULKHEAD_FULL"));
+        assertThat(first.join().success()).isTrue();
+        assertThat(meterRegistry.get("gateway.bulkhead.rejected.count").tag("operation", "purchase").counter()
+                .count()).isEqualTo(1.0);
+    }
+
+    private AuthorizeNetHttpAsyncClient newClient() {
+        return new AuthorizeNetHttpAsyncClient(HttpClient.newHttpClient(),
+                new AuthorizeNetJsonCodec(new ObjectMapper(), properties), properties, meterRegistry);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.payments.infra.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.infra.gateway.sdk.AuthorizeNetEnvironmentResolver;
+import com.example.payments.infra.gateway.sdk.AuthorizeNetMapper;
+import io.micrometer.observation.ObservationRegistry;
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AuthorizeNetSdkClientTest {
+
+    private static final String APPROVED = """
+            <?xml version="1.0" encoding="utf-8"?>
+            <createTransactionResponse xmlns="AnetApi/xml/v1/schema/AnetApiSchema.xsd">
+              <messages><resultCode>Ok</resultCode><message><code>I00001</code><text>Successful.</text></message></messages>
+              <transactionResponse><responseCode>1</responseCode><transId>60123</transId>
+                <messages><message><code>1</code><description>This transaction has been approved.</description></message></messages>
+              </transactionResponse>
+            </createTransactionResponse>
+            """;
+
+    private MockWebServer server;
+    private HttpClient httpClient;
+    private final Money money = new Money(new BigDecimal("10.00"), "USD");
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void purchase_shouldPostXmlAndMapResponse() throws Exception {
+        server.enqueue(new MockResponse().setBody(APPROVED));
+
+        GatewayTransactionResult result = newClient("login-a").purchase(money, "nonce", "order-1");
+
+        assertThat(result.success()).isTrue();
+        assertThat(result.transactionId()).isEqualTo("60123");
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getBody().readUtf8()).contains("<name>login-a</name>", "<dataValue>nonce</dataValue>");
+    }
+
+    @Test
+    void concurrentClients_shouldKeepTheirOwnMerchantCredentials() throws Exception {
+        int callsPerClient = 20;
+        for (int i = 0; i < callsPerClient * 2; i++) {
+            server.enqueue(new MockResponse().setBody(APPROVED));
+        }
+        AuthorizeNetSdkClient merchantA = newClient("login-a");
+        AuthorizeNetSdkClient merchantB = newClient("login-b");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<GatewayTransactionResult>> calls = new ArrayList<>();
+            for (int i = 0; i < callsPerClient; i++) {
+                String orderId = "order-" + i;
+                calls.add(CompletableFuture.supplyAsync(() -> merchantA.purchase(money, "nonce-a", orderId), executor));
+                calls.add(CompletableFuture.supplyAsync(() -> merchantB.purchase(money, "nonce-b", orderId), executor));
+            }
+            calls.forEach(call -> assertThat(call.join().success()).isTrue());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < callsPerClient * 2; i++) {
+            String body = server.takeRequest(1, TimeUnit.SECONDS).getBody().readUtf8();
+            boolean fromA = body.contains("<name>login-a</name>");
+            assertThat(body).contains(fromA ? "<dataValue>nonce-a</dataValue>" : "<dataValue>nonce-b</dataValue>");
+            assertThat(fromA || body.contains("<name>login-b</name>")).isTrue();
+        }
+    }
+
+    private AuthorizeNetSdkClient newClient(String loginId) {
+        AuthorizeNetProperties properties = new AuthorizeNetProperties();
+        properties.setApiLoginId(loginId);
+        properties.setTransactionKey("key-" + loginId);
+        properties.setEndpoint(server.url("/xml/v1/request.api").toString());
+        return new AuthorizeNetSdkClient(properties, ObservationRegistry.create(), new AuthorizeNetMapper(),
+                new AuthorizeNetEnvironmentResolver(), httpClient);
+    }
+}
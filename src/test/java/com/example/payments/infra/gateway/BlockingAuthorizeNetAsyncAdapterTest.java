@@ -0,0 +1,52 @@
+package com.example.payments.infra.gateway;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.PaymentException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BlockingAuthorizeNetAsyncAdapterTest {
+
+    private final Money money = new Money(new BigDecimal("25.00"), "USD");
+    private final AuthorizeNetClient delegate = mock(AuthorizeNetClient.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final BlockingAuthorizeNetAsyncAdapter adapter = new BlockingAuthorizeNetAsyncAdapter(delegate, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        adapter.close();
+    }
+
+    @Test
+    void purchase_shouldFailFastOnceThreadsAndQueueAreFull() {
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return GatewayTransactionResult.success("60123", "1", "Approved", OffsetDateTime.now());
+        }).when(delegate).purchase(any(), any(), any());
+
+        CompletableFuture<GatewayTransactionResult> running = adapter.purchase(money, "nonce", "order-1");
+        CompletableFuture<GatewayTransactionResult> queued = adapter.purchase(money, "nonce", "order-2");
+        CompletableFuture<GatewayTransactionResult> rejected = adapter.purchase(money, "nonce", "order-3");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(rejected.handle((result, ex) -> ex instanceof CompletionException ? ex.getCause() : ex).join())
+                .isInstanceOfSatisfying(PaymentException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo("GATEWAY_BULKHEAD_FULL"));
+        release.countDown();
+        assertThat(running.join().success()).isTrue();
+        assertThat(queued.join().success()).isTrue();
+    }
+}
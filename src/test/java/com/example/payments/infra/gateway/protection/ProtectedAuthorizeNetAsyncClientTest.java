@@ -0,0 +1,78 @@
+package com.example.payments.infra.gateway.protection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.PaymentException;
+import com.example.payments.infra.gateway.AuthorizeNetAsyncClient;
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import com.example.payments.infra.gateway.GatewayOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ProtectedAuthorizeNetAsyncClientTest {
+
+    @Mock
+    private AuthorizeNetAsyncClient delegate;
+
+    private AuthorizeNetProperties.Protection settings;
+    private final Money money = new Money(new BigDecimal("10.00"), "USD");
+
+    @BeforeEach
+    void setUp() {
+        settings = new AuthorizeNetProperties().getProtection();
+        settings.getCircuitBreaker().setMinimumCalls(2);
+        settings.getCircuitBreaker().setSlidingWindowSize(2);
+    }
+
+    @Test
+    void purchase_shouldHoldLimiterPermitUntilTheFutureCompletes() {
+        ProtectedAuthorizeNetAsyncClient client = newClient();
+        CompletableFuture<GatewayTransactionResult> pending = new CompletableFuture<>();
+        doReturn(pending).when(delegate).purchase(any(), any(), any());
+
+        CompletableFuture<GatewayTransactionResult> future = client.purchase(money, "nonce", "order");
+
+        assertThat(client.limiter().getInFlight()).isEqualTo(1);
+        pending.complete(GatewayTransactionResult.success("tx1", "1", "Approved", OffsetDateTime.now()));
+        assertThat(future.join().success()).isTrue();
+        assertThat(client.limiter().getInFlight()).isZero();
+    }
+
+    @Test
+    void capture_shouldOpenCircuitOnFailedFuturesAndThenFailFast() {
+        ProtectedAuthorizeNetAsyncClient client = newClient();
+        doReturn(CompletableFuture.failedFuture(new PaymentException("GATEWAY_TIMEOUT", "timed out")))
+                .when(delegate).capture(any(), any());
+
+        client.capture(money, "tx1");
+        client.capture(money, "tx1");
+        CompletableFuture<GatewayTransactionResult> rejected = client.capture(money, "tx1");
+
+        assertThat(client.breaker(GatewayOperation.CAPTURE).getState()).isEqualTo(GatewayCircuitBreaker.State.OPEN);
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(PaymentException.class)
+                .hasMessageContaining("circuit is open");
+        verify(delegate, times(2)).capture(any(), any());
+        assertThat(client.limiter().getInFlight()).isZero();
+    }
+
+    private ProtectedAuthorizeNetAsyncClient newClient() {
+        return new ProtectedAuthorizeNetAsyncClient(delegate, settings, new SimpleMeterRegistry(),
+                "authorizeNetHttpAsyncClient", Clock.systemUTC());
+    }
+}
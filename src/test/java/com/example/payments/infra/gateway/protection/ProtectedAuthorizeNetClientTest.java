@@ -0,0 +1,115 @@
+package com.example.payments.infra.gateway.protection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.PaymentException;
+import com.example.payments.infra.gateway.AuthorizeNetClient;
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import com.example.payments.infra.gateway.GatewayOperation;
+import com.example.payments.testsupport.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ProtectedAuthorizeNetClientTest {
+
+    @Mock
+    private AuthorizeNetClient delegate;
+
+    private AuthorizeNetProperties.Protection settings;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private final Money money = new Money(new BigDecimal("10.00"), "USD");
+
+    @BeforeEach
+    void setUp() {
+        settings = new AuthorizeNetProperties().getProtection();
+        settings.getCircuitBreaker().setMinimumCalls(4);
+        settings.getCircuitBreaker().setSlidingWindowSize(4);
+        settings.getCircuitBreaker().setHalfOpenCalls(1);
+        settings.getCircuitBreaker().setOpenDuration(Duration.ofSeconds(30));
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void purchase_shouldOpenCircuitAfterGatewayFaultsAndRecoverAfterOpenDuration() {
+        ProtectedAuthorizeNetClient client = newClient();
+        doThrow(new PaymentException("GATEWAY_ERROR", "Authorize.Net call failed"))
+                .when(delegate).purchase(any(), any(), any());
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.purchase(money, "nonce", "order")).isInstanceOf(PaymentException.class);
+        }
+
+        assertThatThrownBy(() -> client.purchase(money, "nonce", "order"))
+                .isInstanceOfSatisfying(PaymentException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(ProtectedAuthorizeNetClient.UNAVAILABLE));
+        verify(delegate, times(4)).purchase(any(), any(), any());
+        assertThat(meterRegistry.get("gateway.circuit.state").tag("operation", "purchase").gauge().value())
+                .isEqualTo(2.0);
+        assertThat(client.breaker(GatewayOperation.AUTHORIZE).getState())
+                .isEqualTo(GatewayCircuitBreaker.State.CLOSED);
+
+        clock.advance(Duration.ofSeconds(31));
+        doReturn(GatewayTransactionResult.success("tx1", "1", "Approved", OffsetDateTime.now()))
+                .when(delegate).purchase(any(), any(), any());
+
+        assertThat(client.purchase(money, "nonce", "order").success()).isTrue();
+        assertThat(client.breaker(GatewayOperation.PURCHASE).getState()).isEqualTo(GatewayCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void purchase_shouldNotTripCircuitOnDeclines() {
+        ProtectedAuthorizeNetClient client = newClient();
+        doThrow(new PaymentException("GATEWAY_ERROR", "Authorize.Net call failed",
+                new PaymentException("GATEWAY_DECLINED", "2:Declined")))
+                .when(delegate).purchase(any(), any(), any());
+
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> client.purchase(money, "nonce", "order"))
+                    .isInstanceOfSatisfying(PaymentException.class,
+                            ex -> assertThat(ex.getErrorCode()).isEqualTo("GATEWAY_ERROR"));
+        }
+
+        assertThat(client.breaker(GatewayOperation.PURCHASE).getState()).isEqualTo(GatewayCircuitBreaker.State.CLOSED);
+        verify(delegate, times(6)).purchase(any(), any(), any());
+    }
+
+    @Test
+    void limiter_shouldRejectOverLimitAndBackOffOnSlowCalls() {
+        settings.getLimiter().setInitialLimit(2);
+        settings.getLimiter().setMinLimit(1);
+        settings.getLimiter().setLatencyThreshold(Duration.ofMillis(100));
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(settings.getLimiter());
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.onSuccess(Duration.ofMillis(500).toNanos());
+        limiter.onSuccess(Duration.ofMillis(500).toNanos());
+
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    private ProtectedAuthorizeNetClient newClient() {
+        return new ProtectedAuthorizeNetClient(delegate, settings, meterRegistry, "authorizeNetSdkClient", clock);
+    }
+}
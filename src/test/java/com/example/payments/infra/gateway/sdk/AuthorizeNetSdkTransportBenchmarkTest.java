@@ -0,0 +1,87 @@
+package com.example.payments.infra.gateway.sdk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.payments.domain.payments.Money;
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import javax.xml.bind.JAXBContext;
+import net.authorize.Environment;
+import net.authorize.api.contract.v1.CreateTransactionRequest;
+import net.authorize.api.contract.v1.TransactionTypeEnum;
+import net.authorize.api.controller.base.ApiOperationBase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the per-call setup cost of the legacy SDK path (static {@code ApiOperationBase} configuration plus a
+ * fresh JAXB context, as the SDK's {@code XmlUtility} does for every call) with {@link AuthorizeNetSdkTransport},
+ * which reuses its contexts. Network time is excluded. Run with {@code -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class AuthorizeNetSdkTransportBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorizeNetSdkTransportBenchmarkTest.class);
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 2_000;
+
+    private final AuthorizeNetMapper mapper = new AuthorizeNetMapper();
+    private final AuthorizeNetProperties properties = properties();
+    private final Money money = new Money(new BigDecimal("10.00"), "USD");
+
+    @Test
+    void perCallSetupCost() throws Exception {
+        AuthorizeNetSdkTransport transport = new AuthorizeNetSdkTransport(HttpClient.newHttpClient(),
+                URI.create(properties.getEndpoint()), Duration.ofSeconds(5));
+
+        measure(WARMUP, this::legacySetup);
+        measure(WARMUP, () -> transport.marshal(request()));
+        double legacyMicros = measure(ITERATIONS, this::legacySetup);
+        double reusedMicros = measure(ITERATIONS, () -> transport.marshal(request()));
+
+        log.info("Authorize.Net per-call setup: legacy={}us reused={}us ({}x)", String.format("%.1f", legacyMicros),
+                String.format("%.1f", reusedMicros), String.format("%.1f", legacyMicros / reusedMicros));
+        assertThat(reusedMicros).isLessThan(legacyMicros);
+    }
+
+    private void legacySetup() throws Exception {
+        CreateTransactionRequest request = request();
+        ApiOperationBase.setEnvironment(Environment.SANDBOX);
+        ApiOperationBase.setMerchantAuthentication(mapper.buildMerchantAuthentication(properties));
+        JAXBContext context = JAXBContext.newInstance(CreateTransactionRequest.class);
+        context.createMarshaller().marshal(request, new ByteArrayOutputStream(1024));
+    }
+
+    private CreateTransactionRequest request() {
+        return mapper.buildTransactionRequest(properties, TransactionTypeEnum.AUTH_CAPTURE_TRANSACTION, money,
+                "nonce", "order-1", null);
+    }
+
+    private static double measure(int iterations, Step step) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            step.run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / iterations;
+    }
+
+    private static AuthorizeNetProperties properties() {
+        AuthorizeNetProperties properties = new AuthorizeNetProperties();
+        properties.setApiLoginId("login");
+        properties.setTransactionKey("key");
+        properties.setEndpoint("https://apitest.authorize.net/xml/v1/request.api");
+        return properties;
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.payments.infra.gateway.simulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.infra.gateway.AuthorizeNetJsonCodec;
+import com.example.payments.infra.gateway.AuthorizeNetProperties;
+import com.example.payments.infra.gateway.AuthorizeNetRestClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+class AuthorizeNetSimulatorTest {
+
+    private SimulatorProperties simulatorProperties;
+    private AuthorizeNetSimulator simulator;
+    private final Money money = new Money(new BigDecimal("42.00"), "USD");
+
+    @BeforeEach
+    void setUp() {
+        simulatorProperties = new SimulatorProperties();
+        simulatorProperties.setPort(0);
+        simulatorProperties.getDefaults().setP50(Duration.ofMillis(5));
+        simulatorProperties.getDefaults().setP99(Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (simulator != null) {
+            simulator.stop();
+        }
+    }
+
+    @Test
+    void approvesByDefaultAndAppliesPerTypeProfiles() throws Exception {
+        SimulatorProperties.Profile declines = new SimulatorProperties.Profile();
+        declines.setDeclineRate(1.0);
+        declines.setP50(Duration.ofMillis(5));
+        declines.setP99(Duration.ofMillis(5));
+        simulatorProperties.getProfiles().put("purchase", declines);
+        SimulatorProperties.Profile errors = new SimulatorProperties.Profile();
+        errors.setErrorRate(1.0);
+        simulatorProperties.getProfiles().put("refund", errors);
+        AuthorizeNetRestClient client = startAndConnect();
+
+        GatewayTransactionResult authorized = client.authorize(money, "nonce", "order-1");
+        GatewayTransactionResult declined = client.purchase(money, "nonce", "order-2");
+        GatewayTransactionResult failed = client.refund(money, authorized.transactionId(), "1111");
+
+        assertThat(authorized.success()).isTrue();
+        assertThat(authorized.transactionId()).isNotBlank();
+        assertThat(declined.success()).isFalse();
+        assertThat(declined.responseCode()).isEqualTo("2");
+        assertThat(failed.success()).isFalse();
+        assertThat(failed.responseCode()).isEqualTo("500");
+    }
+
+    @Test
+    void delaysResponsesAccordingToLatencyProfile() throws Exception {
+        simulatorProperties.getDefaults().setP50(Duration.ofMillis(200));
+        simulatorProperties.getDefaults().setP99(Duration.ofMillis(200));
+        AuthorizeNetRestClient client = startAndConnect();
+
+        long start = System.nanoTime();
+        client.capture(money, "60000000001");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(180));
+    }
+
+    private AuthorizeNetRestClient startAndConnect() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        simulator = new AuthorizeNetSimulator(simulatorProperties, objectMapper);
+        simulator.start();
+        AuthorizeNetProperties properties = new AuthorizeNetProperties();
+        properties.setApiLoginId("login");
+        properties.setTransactionKey("key");
+        properties.setEndpoint(simulator.endpoint());
+        return new AuthorizeNetRestClient(new RestTemplate(), new AuthorizeNetJsonCodec(objectMapper, properties),
+                properties);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.payments.infra.web.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.payments.application.properties.PaymentProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"customerId\":\"c-1\",\"amount\":10.00,\"idempotencyKey\":\"key-12345678\"}";
+
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        PaymentProperties.Idempotency settings = new PaymentProperties().getIdempotency();
+        settings.setRedisEnabled(false);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        meterRegistry = new SimpleMeterRegistry();
+        IdempotentResponseCache cache = new IdempotentResponseCache(settings, null, objectMapper, meterRegistry,
+                Clock.systemUTC());
+        filter = new IdempotencyFilter(cache, objectMapper, Clock.systemUTC());
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void duplicateRequest_shouldReplayStoredResponseWithoutExecuting() throws Exception {
+        MockHttpServletResponse first = perform(BODY, created());
+        MockHttpServletResponse second = perform(BODY, created());
+
+        assertThat(executions).hasValue(1);
+        assertThat(second.getStatus()).isEqualTo(201);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(meterRegistry.get("idempotency.lookup.count").tag("tier", "local").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void reusedKeyWithDifferentBody_shouldBeRejected() throws Exception {
+        perform(BODY, created());
+
+        MockHttpServletResponse response = perform(BODY.replace("10.00", "99.00"), created());
+
+        assertThat(executions).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(response.getContentAsString()).contains("IDEMPOTENCY_KEY_REUSED");
+    }
+
+    @Test
+    void serverError_shouldNotBeStored() throws Exception {
+        perform(BODY, (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(500);
+        });
+
+        MockHttpServletResponse retry = perform(BODY, created());
+
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void concurrentDuplicate_shouldWaitForOriginalAndReplayIt() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            created().doFilter(request, response);
+        };
+
+        CompletableFuture<MockHttpServletResponse> original = CompletableFuture.supplyAsync(() -> performUnchecked(
+                slowChain));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> performUnchecked(
+                created()));
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(original.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(replayed.getStatus()).isEqualTo(201);
+        assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(executions).hasValue(1);
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            int execution = executions.incrementAndGet();
+            var httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(201);
+            httpResponse.setContentType("application/json");
+            httpResponse.getOutputStream().write(("{\"execution\":" + execution + "}")
+                    .getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse perform(String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/payments/purchase");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletResponse performUnchecked(FilterChain chain) {
+        try {
+            return perform(BODY, chain);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.payments.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+import com.example.payments.adapters.persistence.AuditLogBatchWriter;
+import com.example.payments.application.properties.PaymentProperties;
+import com.example.payments.application.services.AuditStagingBuffer;
+import com.example.payments.application.services.PaymentAuditService;
+import com.example.payments.application.services.PaymentCommandService;
+import com.example.payments.application.services.RequestIdPreFilter;
+import com.example.payments.domain.payments.GatewayTransactionResult;
+import com.example.payments.domain.payments.Money;
+import com.example.payments.domain.payments.PaymentOrder;
+import com.example.payments.domain.payments.PaymentOrderStatus;
+import com.example.payments.domain.shared.CorrelationId;
+import com.example.payments.domain.shared.IdempotencyKey;
+import com.example.payments.infra.gateway.AuthorizeNetAsyncClient;
+import com.example.payments.infra.gateway.AuthorizeNetClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Guards the SQL statements a staged purchase sends to the database: new rows are inserted without the select a
+ * merge puts in front of them, and the total stays within a budget.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ PaymentCommandService.class, PaymentAuditService.class, AuditStagingBuffer.class,
+        AuditLogBatchWriter.class, RequestIdPreFilter.class, PaymentWriteStatementCountTest.Config.class })
+class PaymentWriteStatementCountTest {
+
+    /**
+     * Duplicate lookup and order insert; then the order merge, transaction insert, order update and audit batch.
+     * One statement of headroom for the merge fetching the transaction collection separately.
+     */
+    private static final int MAX_STATEMENTS_PER_PURCHASE = 7;
+
+    /**
+     * A select of a single row by primary key from a table the purchase only inserts into; this is what a merge of a
+     * new entity issues before its insert.
+     */
+    private static final Pattern MERGE_SELECT = Pattern.compile(
+            "select .* from (payment_transactions|audit_logs) \\w+ where \\w+\\.id\\s*=\\s*\\?",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    @Autowired
+    private PaymentCommandService paymentCommandService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private AuthorizeNetClient authorizeNetClient;
+
+    @MockBean
+    private AuthorizeNetAsyncClient authorizeNetAsyncClient;
+
+    @Test
+    void stagedPurchase_shouldStayWithinStatementBudget() {
+        doReturn(GatewayTransactionResult.success("tx-1", "1", "Approved", OffsetDateTime.now()))
+                .when(authorizeNetClient).purchase(any(), any(), any());
+
+        statementCounter.reset();
+        PaymentOrder order = paymentCommandService.purchase(UUID.randomUUID(),
+                new Money(new BigDecimal("25.00"), "USD"), "nonce", new IdempotencyKey("statement-count-1"),
+                CorrelationId.newId(), "statement-count-request-1");
+        List<String> statements = statementCounter.statements();
+
+        assertThat(order.getStatus()).isEqualTo(PaymentOrderStatus.CAPTURED);
+        assertThat(statements).noneMatch(sql -> MERGE_SELECT.matcher(sql).find());
+        assertThat(statements).hasSizeLessThanOrEqualTo(MAX_STATEMENTS_PER_PURCHASE);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from audit_logs where resource_id = ?",
+                Integer.class, order.getId())).isEqualTo(1);
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(PaymentProperties.class)
+    static class Config {
+
+        @Bean
+        static StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor(StatementCounter statementCounter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? statementCounter.wrap(dataSource) : bean;
+                }
+            };
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObservationRegistry observationRegistry() {
+            return ObservationRegistry.create();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        Clock clock() {
+            return Clock.systemUTC();
+        }
+    }
+
+    /**
+     * Records every statement prepared on connections handed out by the wrapped data source, whether by Hibernate
+     * or by {@link JdbcTemplate}.
+     */
+    static final class StatementCounter {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        void reset() {
+            statements.clear();
+        }
+
+        List<String> statements() {
+            return List.copyOf(statements);
+        }
+
+        DataSource wrap(DataSource target) {
+            return new DelegatingDataSource(target) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return counting(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return counting(super.getConnection(username, password));
+                }
+            };
+        }
+
+        private Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("prepare")) {
+                            statements.add(String.valueOf(args[0]));
+                        } else if (name.equals("createStatement")) {
+                            statements.add("<statement>");
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    });
+        }
+    }
+}